@@ -0,0 +1,497 @@
+package com.example.payment.client;
+
+import com.example.payment.dto.BulkCreateRequest;
+import com.example.payment.dto.BulkCreateResult;
+import com.example.payment.dto.PaymentLookupRequest;
+import com.example.payment.dto.PaymentLookupResult;
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.dto.PaymentResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking Java client for the payment API.
+ *
+ * <p>Calls go through one {@link HttpClient}, which keeps connections open
+ * between calls and uses HTTP/2 when the server offers it. Every call
+ * returns at once with a future that completes with the response, or
+ * exceptionally with a {@link PaymentClientException} when the API rejects
+ * the call, or with a {@link java.util.concurrent.TimeoutException} when its
+ * deadline passes. The deadline covers the whole call, retries included.
+ *
+ * <p>Concurrent creates are sent together through the bulk create endpoint,
+ * and concurrent gets through the lookup endpoint: the first call opens a
+ * batch that is sent after {@code batchWindow} or once it holds
+ * {@code maxBatchSize} calls. Each call still gets its own result or error.
+ *
+ * <p>Reads are retried on connection errors and on 429, 502, 503 and 504
+ * responses, with jittered exponential backoff. Creates, refunds and
+ * cancels are retried only when the connection could not be opened, since
+ * otherwise the server may already have applied them. A create whose
+ * deadline passes may therefore still have been stored.
+ *
+ * <p>The client sends back the latest write time the API returned, so its
+ * reads see its own writes whichever instance serves them.
+ */
+public final class PaymentClient implements AutoCloseable {
+
+    private static final String PAYMENTS_PATH = "/api/v1/payments";
+    private static final String LAST_WRITE_HEADER = "X-Last-Write";
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(429, 502, 503, 504);
+    private static final TypeReference<List<PaymentLookupResult>> LOOKUP_RESULTS = new TypeReference<>() { };
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Duration defaultTimeout;
+    private final int maxRetries;
+    private final long retryBackoffNanos;
+    private final ScheduledExecutorService scheduler;
+    private final RequestBatcher<PaymentRequest, BulkCreateResult.Outcome> creates;
+    private final RequestBatcher<Long, PaymentLookupResult> idLookups;
+    private final RequestBatcher<String, PaymentLookupResult> transactionIdLookups;
+    private final AtomicLong lastWrite = new AtomicLong();
+    private volatile boolean closed;
+
+    private PaymentClient(Builder builder) {
+        String base = builder.baseUri.toString();
+        this.baseUrl = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        this.defaultTimeout = builder.timeout;
+        this.maxRetries = builder.maxRetries;
+        this.retryBackoffNanos = builder.retryBackoff.toNanos();
+        this.objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        HttpClient.Builder http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(builder.connectTimeout);
+        if (builder.executor != null) {
+            http.executor(builder.executor);
+        }
+        this.httpClient = http.build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-client-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long windowNanos = builder.batchWindow.toNanos();
+        this.creates = new RequestBatcher<>(Math.min(builder.maxBatchSize, 1000), windowNanos, scheduler,
+                this::sendCreates);
+        this.idLookups = new RequestBatcher<>(builder.maxBatchSize, windowNanos, scheduler,
+                (ids, deadline) -> sendLookup(new PaymentLookupRequest(ids, null), deadline));
+        this.transactionIdLookups = new RequestBatcher<>(builder.maxBatchSize, windowNanos, scheduler,
+                (transactionIds, deadline) -> sendLookup(new PaymentLookupRequest(null, transactionIds), deadline));
+    }
+
+    /**
+     * Start building a client for the API at the given base URI, e.g. {@code http://localhost:8080}.
+     */
+    public static Builder builder(URI baseUri) {
+        return new Builder(baseUri);
+    }
+
+    /**
+     * Create a payment, with the default timeout.
+     */
+    public CompletableFuture<PaymentResponse> createPayment(PaymentRequest request) {
+        return createPayment(request, defaultTimeout);
+    }
+
+    /**
+     * Create a payment.
+     *
+     * @param request payment details
+     * @param timeout deadline for the whole call
+     * @return the created payment
+     */
+    public CompletableFuture<PaymentResponse> createPayment(PaymentRequest request, Duration timeout) {
+        Objects.requireNonNull(request, "request");
+        return batched(creates, request, timeout, outcome -> {
+            if (outcome.getResult() != BulkCreateResult.Result.CREATED) {
+                throw new PaymentClientException(outcome.getResult() == BulkCreateResult.Result.INVALID ? 400 : 500,
+                        outcome.getMessage());
+            }
+            return outcome.getPayment();
+        });
+    }
+
+    /**
+     * Get a payment by ID, with the default timeout.
+     */
+    public CompletableFuture<PaymentResponse> getPayment(long id) {
+        return getPayment(id, defaultTimeout);
+    }
+
+    /**
+     * Get a payment by ID.
+     *
+     * @param id payment ID
+     * @param timeout deadline for the whole call
+     * @return the payment; fails with status 404 if there is none
+     */
+    public CompletableFuture<PaymentResponse> getPayment(long id, Duration timeout) {
+        return batched(idLookups, id, timeout, result -> found(result, "Payment not found with ID: " + id));
+    }
+
+    /**
+     * Get a payment by transaction ID, with the default timeout.
+     */
+    public CompletableFuture<PaymentResponse> getPaymentByTransactionId(String transactionId) {
+        return getPaymentByTransactionId(transactionId, defaultTimeout);
+    }
+
+    /**
+     * Get a payment by transaction ID.
+     *
+     * @param transactionId transaction ID
+     * @param timeout deadline for the whole call
+     * @return the payment; fails with status 404 if there is none
+     */
+    public CompletableFuture<PaymentResponse> getPaymentByTransactionId(String transactionId, Duration timeout) {
+        Objects.requireNonNull(transactionId, "transactionId");
+        return batched(transactionIdLookups, transactionId, timeout,
+                result -> found(result, "Payment not found with transactionId: " + transactionId));
+    }
+
+    /**
+     * Process a pending payment through the acquirer, with the default timeout.
+     */
+    public CompletableFuture<PaymentResponse> processPayment(long id) {
+        return processPayment(id, defaultTimeout);
+    }
+
+    /**
+     * Process a pending payment through the acquirer.
+     *
+     * @param id payment ID
+     * @param timeout deadline for the whole call
+     * @return the payment after processing
+     */
+    public CompletableFuture<PaymentResponse> processPayment(long id, Duration timeout) {
+        return action(id, "process", timeout);
+    }
+
+    /**
+     * Refund a completed payment, with the default timeout.
+     */
+    public CompletableFuture<PaymentResponse> refundPayment(long id) {
+        return refundPayment(id, defaultTimeout);
+    }
+
+    /**
+     * Refund a completed payment.
+     *
+     * @param id payment ID
+     * @param timeout deadline for the whole call
+     * @return the refunded payment
+     */
+    public CompletableFuture<PaymentResponse> refundPayment(long id, Duration timeout) {
+        return action(id, "refund", timeout);
+    }
+
+    /**
+     * Cancel a payment, with the default timeout.
+     */
+    public CompletableFuture<PaymentResponse> cancelPayment(long id) {
+        return cancelPayment(id, defaultTimeout);
+    }
+
+    /**
+     * Cancel a payment that is not yet completed.
+     *
+     * @param id payment ID
+     * @param timeout deadline for the whole call
+     * @return the cancelled payment
+     */
+    public CompletableFuture<PaymentResponse> cancelPayment(long id, Duration timeout) {
+        return action(id, "cancel", timeout);
+    }
+
+    /**
+     * Send the batches still open and stop accepting calls. Calls already sent
+     * complete as usual.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        creates.flush();
+        idLookups.flush();
+        transactionIdLookups.flush();
+        scheduler.shutdown();
+    }
+
+    private <K, V> CompletableFuture<PaymentResponse> batched(RequestBatcher<K, V> batcher, K item, Duration timeout,
+                                                             Function<V, PaymentResponse> result) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Payment client is closed"));
+        }
+        return batcher.submit(item, deadline(timeout)).thenApply(result)
+                .orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private CompletableFuture<PaymentResponse> action(long id, String action, Duration timeout) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Payment client is closed"));
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(PAYMENTS_PATH + "/" + id + "/" + action))
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.noBody());
+        return send(request, false, deadline(timeout), 0)
+                .thenApply(response -> decode(response, PaymentResponse.class))
+                .orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private CompletableFuture<List<BulkCreateResult.Outcome>> sendCreates(List<PaymentRequest> requests,
+                                                                          long deadline) {
+        return send(post(PAYMENTS_PATH + "/bulk/create", new BulkCreateRequest(requests)), false, deadline, 0)
+                .thenApply(response -> decode(response, BulkCreateResult.class).getOutcomes());
+    }
+
+    private CompletableFuture<List<PaymentLookupResult>> sendLookup(PaymentLookupRequest request, long deadline) {
+        // A lookup only reads, so it is as safe to retry as a GET
+        return send(post(PAYMENTS_PATH + "/lookup", request), true, deadline, 0)
+                .thenApply(response -> decode(response, LOOKUP_RESULTS));
+    }
+
+    private HttpRequest.Builder post(String path, Object body) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json));
+    }
+
+    /**
+     * Send a request, retrying while the deadline allows it and the failure is safe to retry.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest.Builder request, boolean idempotent,
+                                                         long deadline, int attempt) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return CompletableFuture.failedFuture(new HttpTimeoutException("Deadline exceeded"));
+        }
+        long written = lastWrite.get();
+        if (written != 0) {
+            request.setHeader(LAST_WRITE_HEADER, Long.toString(written));
+        }
+        HttpRequest httpRequest = request.timeout(Duration.ofNanos(remaining)).build();
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    if (response != null) {
+                        rememberWrite(response);
+                    }
+                    Throwable error = failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause() : failure;
+                    boolean retryable = error != null
+                            ? retryable(error, idempotent)
+                            : idempotent && RETRYABLE_STATUSES.contains(response.statusCode());
+                    long delay = backoff(attempt);
+                    if (!retryable || attempt >= maxRetries || System.nanoTime() + delay - deadline >= 0) {
+                        return error != null
+                                ? CompletableFuture.<HttpResponse<byte[]>>failedFuture(error)
+                                : CompletableFuture.completedFuture(response);
+                    }
+                    return later(delay, () -> send(request, idempotent, deadline, attempt + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private void rememberWrite(HttpResponse<?> response) {
+        response.headers().firstValue(LAST_WRITE_HEADER).ifPresent(token -> {
+            try {
+                lastWrite.accumulateAndGet(Long.parseLong(token), Math::max);
+            } catch (NumberFormatException ignored) {
+                // Not a token this client understands
+            }
+        });
+    }
+
+    private static boolean retryable(Throwable error, boolean idempotent) {
+        if (error instanceof ConnectException || error instanceof HttpConnectTimeoutException) {
+            // The request never reached the server
+            return true;
+        }
+        return idempotent && error instanceof IOException && !(error instanceof HttpTimeoutException);
+    }
+
+    /**
+     * Full-jitter exponential backoff: a random delay up to base * 2^attempt.
+     */
+    private long backoff(int attempt) {
+        long ceiling = retryBackoffNanos << Math.min(attempt, 16);
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling) : 0;
+    }
+
+    private <T> CompletableFuture<T> later(long delayNanos, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        scheduler.schedule(() -> call.get().whenComplete((value, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        }), delayNanos, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private <T> T decode(HttpResponse<byte[]> response, Class<T> type) {
+        checkStatus(response);
+        try {
+            return objectMapper.readValue(response.body(), type);
+        } catch (IOException ex) {
+            throw new PaymentClientException("Unreadable response from " + response.uri(), ex);
+        }
+    }
+
+    private <T> T decode(HttpResponse<byte[]> response, TypeReference<T> type) {
+        checkStatus(response);
+        try {
+            return objectMapper.readValue(response.body(), type);
+        } catch (IOException ex) {
+            throw new PaymentClientException("Unreadable response from " + response.uri(), ex);
+        }
+    }
+
+    private void checkStatus(HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            return;
+        }
+        String message = null;
+        try {
+            JsonNode error = objectMapper.readTree(response.body());
+            message = error != null ? error.path("message").asText(null) : null;
+        } catch (IOException ex) {
+            // Not an API error body; fall back to the status line
+        }
+        throw new PaymentClientException(status, message != null ? message : "HTTP " + status);
+    }
+
+    private static PaymentResponse found(PaymentLookupResult result, String notFound) {
+        if (!result.isFound()) {
+            throw new PaymentClientException(404, notFound);
+        }
+        return result.getPayment();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static long deadline(Duration timeout) {
+        return System.nanoTime() + timeout.toNanos();
+    }
+
+    /**
+     * Builder for {@link PaymentClient}.
+     */
+    public static final class Builder {
+
+        private final URI baseUri;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration timeout = Duration.ofSeconds(10);
+        private int maxRetries = 2;
+        private Duration retryBackoff = Duration.ofMillis(50);
+        private Duration batchWindow = Duration.ofMillis(1);
+        private int maxBatchSize = 100;
+        private Executor executor;
+
+        private Builder(URI baseUri) {
+            this.baseUri = Objects.requireNonNull(baseUri, "baseUri");
+        }
+
+        /**
+         * Longest wait for a new connection (default 2 seconds).
+         */
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Deadline of calls made without one (default 10 seconds).
+         */
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Most retries of a failed call that is safe to retry (default 2).
+         */
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = Math.max(0, maxRetries);
+            return this;
+        }
+
+        /**
+         * Base of the exponential backoff between retries (default 50 milliseconds).
+         */
+        public Builder retryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+            return this;
+        }
+
+        /**
+         * How long the first call of a batch waits for others to join it (default 1 millisecond).
+         */
+        public Builder batchWindow(Duration batchWindow) {
+            this.batchWindow = batchWindow;
+            return this;
+        }
+
+        /**
+         * Most calls sent in one batch (default 100; creates are capped at 1000).
+         */
+        public Builder maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = Math.max(1, maxBatchSize);
+            return this;
+        }
+
+        /**
+         * Executor for the HTTP client's work and for completing futures (default: the HTTP client's own).
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public PaymentClient build() {
+            return new PaymentClient(this);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.payment.client;
+
+/**
+ * Thrown when the payment API rejects a call or cannot be reached.
+ */
+public class PaymentClientException extends RuntimeException {
+
+    private final int statusCode;
+
+    public PaymentClientException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public PaymentClientException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = 0;
+    }
+
+    /**
+     * HTTP status of the rejection, or 0 if no response was received.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
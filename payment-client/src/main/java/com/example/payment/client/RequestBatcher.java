@@ -0,0 +1,142 @@
+package com.example.payment.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent single-item calls into batch calls.
+ *
+ * <p>The first item submitted opens a batch. The batch is sent once it holds
+ * {@code maxBatchSize} items or {@code window} after it opened, whichever
+ * comes first, with the latest deadline of its items; each item still times
+ * out on its own deadline. The batch call returns one result per item, in
+ * order, and a failed batch call fails every item in it.
+ */
+final class RequestBatcher<K, V> {
+
+    /**
+     * Sends one batch of items and returns their results in item order.
+     */
+    interface BatchCall<K, V> {
+
+        CompletableFuture<List<V>> send(List<K> items, long deadlineNanos);
+    }
+
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final ScheduledExecutorService scheduler;
+    private final BatchCall<K, V> batchCall;
+    private final Object lock = new Object();
+    private List<Pending<K, V>> open;
+
+    RequestBatcher(int maxBatchSize, long windowNanos, ScheduledExecutorService scheduler, BatchCall<K, V> batchCall) {
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = windowNanos;
+        this.scheduler = scheduler;
+        this.batchCall = batchCall;
+    }
+
+    /**
+     * Add an item to the open batch.
+     *
+     * @param item item to send
+     * @param deadlineNanos {@link System#nanoTime()} by which the caller needs the result
+     * @return the item's result
+     */
+    CompletableFuture<V> submit(K item, long deadlineNanos) {
+        Pending<K, V> pending = new Pending<>(item, deadlineNanos);
+        List<Pending<K, V>> full = null;
+        synchronized (lock) {
+            if (open == null) {
+                List<Pending<K, V>> batch = new ArrayList<>(Math.min(maxBatchSize, 64));
+                scheduler.schedule(() -> flush(batch), windowNanos, TimeUnit.NANOSECONDS);
+                open = batch;
+            }
+            open.add(pending);
+            if (open.size() >= maxBatchSize) {
+                full = open;
+                open = null;
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return pending.result;
+    }
+
+    /**
+     * Send the open batch now, if there is one.
+     */
+    void flush() {
+        List<Pending<K, V>> batch;
+        synchronized (lock) {
+            batch = open;
+            open = null;
+        }
+        if (batch != null) {
+            send(batch);
+        }
+    }
+
+    private void flush(List<Pending<K, V>> batch) {
+        synchronized (lock) {
+            if (open != batch) {
+                // Already sent because it filled up, or by an explicit flush
+                return;
+            }
+            open = null;
+        }
+        send(batch);
+    }
+
+    private void send(List<Pending<K, V>> batch) {
+        List<K> items = new ArrayList<>(batch.size());
+        long deadlineNanos = batch.get(0).deadlineNanos;
+        for (Pending<K, V> pending : batch) {
+            items.add(pending.item);
+            if (pending.deadlineNanos - deadlineNanos > 0) {
+                deadlineNanos = pending.deadlineNanos;
+            }
+        }
+        CompletableFuture<List<V>> call;
+        try {
+            call = batchCall.send(items, deadlineNanos);
+        } catch (RuntimeException ex) {
+            call = CompletableFuture.failedFuture(ex);
+        }
+        call.whenComplete((results, failure) -> {
+            Throwable error = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            for (int i = 0; i < batch.size(); i++) {
+                CompletableFuture<V> result = batch.get(i).result;
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else if (results.size() != batch.size()) {
+                    result.completeExceptionally(new PaymentClientException(
+                            "Expected " + batch.size() + " results, got " + results.size(), null));
+                } else {
+                    result.complete(results.get(i));
+                }
+            }
+        });
+    }
+
+    /**
+     * An item waiting in a batch and the caller waiting for its result.
+     */
+    private static final class Pending<K, V> {
+
+        private final K item;
+        private final long deadlineNanos;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        Pending(K item, long deadlineNanos) {
+            this.item = item;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.payment.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for creating several payments with one request. Each
+ * payment is validated on its own, so one invalid entry does not reject the rest.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCreateRequest {
+
+    @NotEmpty(message = "At least one payment is required")
+    @Size(max = 1000, message = "At most 1000 payments per request")
+    private List<PaymentRequest> payments;
+}
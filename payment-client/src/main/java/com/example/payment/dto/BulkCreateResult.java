@@ -0,0 +1,45 @@
+package com.example.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the result of a bulk create, with one outcome per
+ * requested payment in request order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCreateResult {
+
+    private int requested;
+    private int created;
+    private int failed;
+    private List<Outcome> outcomes;
+
+    /**
+     * Result for a single requested payment.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Outcome {
+
+        private int index;
+        private Result result;
+        private PaymentResponse payment;
+        private String message;
+    }
+
+    /**
+     * Per-payment result.
+     */
+    public enum Result {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+}
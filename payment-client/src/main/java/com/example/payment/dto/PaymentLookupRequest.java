@@ -0,0 +1,29 @@
+package com.example.payment.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for a multi-get of payments by IDs and/or transaction IDs.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentLookupRequest {
+
+    @Size(max = 10000, message = "At most 10000 payment IDs per request")
+    private List<Long> ids;
+
+    @Size(max = 10000, message = "At most 10000 transaction IDs per request")
+    private List<String> transactionIds;
+
+    @AssertTrue(message = "At least one of ids or transactionIds is required")
+    private boolean isSelectionValid() {
+        return (ids != null && !ids.isEmpty()) || (transactionIds != null && !transactionIds.isEmpty());
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for one entry of a multi-get: the requested key and the payment, if found.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentLookupResult {
+
+    private Long id;
+    private String transactionId;
+    private boolean found;
+    private PaymentResponse payment;
+}
@@ -0,0 +1,29 @@
+package com.example.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for payment responses.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentResponse {
+
+    private Long id;
+    private String transactionId;
+    private String merchantId;
+    private BigDecimal amount;
+    private String currency;
+    private String paymentMethod;
+    private String customerEmail;
+    private PaymentStatus status;
+    private String description;
+    private LocalDateTime createdAt;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.example.payment.dto;
+
+/**
+ * Payment status as it appears on the wire, one constant per status of the
+ * service's payment entity.
+ */
+public enum PaymentStatus {
+    PENDING,
+    PROCESSING,
+    COMPLETED,
+    FAILED,
+    REFUNDED,
+    CANCELLED
+}
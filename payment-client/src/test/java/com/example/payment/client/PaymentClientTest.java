@@ -0,0 +1,185 @@
+package com.example.payment.client;
+
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.dto.PaymentResponse;
+import com.example.payment.dto.PaymentStatus;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for PaymentClient against a stub HTTP server.
+ */
+class PaymentClientTest {
+
+    private HttpServer server;
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicInteger creates = new AtomicInteger();
+    private final ConcurrentLinkedQueue<String> lookupBodies = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> lookupLastWrites = new ConcurrentLinkedQueue<>();
+    private volatile int failuresBeforeSuccess;
+    private volatile long delayMillis;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/v1/payments/lookup", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            lookupBodies.add(body);
+            lookupLastWrites.add(String.valueOf(exchange.getRequestHeaders().getFirst("X-Last-Write")));
+            if (lookups.incrementAndGet() <= failuresBeforeSuccess) {
+                respond(exchange, 503, "{\"status\":503,\"message\":\"Service overloaded\"}");
+                return;
+            }
+            sleep(delayMillis);
+            // One result per requested ID; IDs above 100 do not exist
+            String ids = body.replaceAll(".*\"ids\":\\[([^\\]]*)\\].*", "$1");
+            List<String> results = new ArrayList<>();
+            for (String id : ids.split(",")) {
+                results.add(Long.parseLong(id) > 100
+                        ? "{\"id\":" + id + ",\"found\":false}"
+                        : "{\"id\":" + id + ",\"found\":true,\"payment\":{\"id\":" + id
+                        + ",\"status\":\"PENDING\",\"createdAt\":\"2024-03-15T10:15:30\"}}");
+            }
+            respond(exchange, 200, "[" + String.join(",", results) + "]");
+        });
+        server.createContext("/api/v1/payments/bulk/create", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            creates.incrementAndGet();
+            exchange.getResponseHeaders().add("X-Last-Write", "1700000000000");
+            respond(exchange, 503, "{\"status\":503,\"message\":\"Service overloaded\"}");
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testGetPayment_ConcurrentGetsShareOneLookup() {
+        try (PaymentClient client = client(Duration.ofMillis(50))) {
+            List<CompletableFuture<PaymentResponse>> results = new ArrayList<>();
+            for (long id = 1; id <= 10; id++) {
+                results.add(client.getPayment(id));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                PaymentResponse payment = results.get(i).join();
+                assertEquals(i + 1, payment.getId());
+                assertEquals(PaymentStatus.PENDING, payment.getStatus());
+            }
+        }
+        assertEquals(1, lookups.get());
+        assertTrue(lookupBodies.peek().contains("\"ids\":[1,2,3,4,5,6,7,8,9,10]"));
+    }
+
+    @Test
+    void testGetPayment_MissingPaymentFailsOnlyItsOwnCall() {
+        try (PaymentClient client = client(Duration.ofMillis(50))) {
+            CompletableFuture<PaymentResponse> found = client.getPayment(7);
+            CompletableFuture<PaymentResponse> missing = client.getPayment(700);
+
+            assertEquals(7, found.join().getId());
+            CompletionException ex = assertThrows(CompletionException.class, missing::join);
+            PaymentClientException cause = (PaymentClientException) ex.getCause();
+            assertEquals(404, cause.getStatusCode());
+            assertEquals("Payment not found with ID: 700", cause.getMessage());
+        }
+    }
+
+    @Test
+    void testGetPayment_RetriesUnavailableServer() {
+        failuresBeforeSuccess = 2;
+        try (PaymentClient client = client(Duration.ZERO)) {
+            assertEquals(5, client.getPayment(5).join().getId());
+        }
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    void testCreatePayment_IsNotRetriedOnceSent() {
+        try (PaymentClient client = client(Duration.ZERO)) {
+            CompletableFuture<PaymentResponse> result = client.createPayment(new PaymentRequest("MERCHANT_A",
+                    null, "USD", "CARD", "customer@example.com", null));
+
+            CompletionException ex = assertThrows(CompletionException.class, result::join);
+            assertEquals(503, ((PaymentClientException) ex.getCause()).getStatusCode());
+            assertEquals("Service overloaded", ex.getCause().getMessage());
+        }
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    void testGetPayment_SendsBackLastWriteTime() {
+        try (PaymentClient client = client(Duration.ZERO)) {
+            client.getPayment(5).join();
+            client.createPayment(new PaymentRequest("MERCHANT_A", null, "USD", "CARD", "customer@example.com", null))
+                    .exceptionally(ex -> null)
+                    .join();
+            client.getPayment(5).join();
+        }
+        assertEquals(List.of("null", "1700000000000"), new ArrayList<>(lookupLastWrites));
+    }
+
+    @Test
+    void testGetPayment_FailsWhenDeadlinePasses() {
+        delayMillis = 2000;
+        try (PaymentClient client = client(Duration.ZERO)) {
+            long start = System.nanoTime();
+            CompletableFuture<PaymentResponse> result = client.getPayment(5, Duration.ofMillis(200));
+
+            CompletionException ex = assertThrows(CompletionException.class, result::join);
+            assertTrue(ex.getCause() instanceof TimeoutException
+                    || ex.getCause() instanceof HttpTimeoutException, ex.getCause().toString());
+            assertTrue(System.nanoTime() - start < Duration.ofMillis(1500).toNanos());
+        }
+    }
+
+    private PaymentClient client(Duration batchWindow) {
+        return PaymentClient.builder(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                .batchWindow(batchWindow)
+                .retryBackoff(Duration.ofMillis(5))
+                .build();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.payment.acquirer;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Integration with one external acquirer. Implementations are Spring beans;
+ * a payment method may be served by several of them, and the gateway routes
+ * each call by their recent latency and error rate.
+ *
+ * <p>{@link #authorize} must not block the caller: it starts the call and
+ * returns a future that completes with the acquirer's answer, or
+ * exceptionally with an {@link AcquirerException}. When hedging is enabled
+ * for a method, the same request may be sent twice to the same acquirer, so
+ * the acquirer must deduplicate on {@link AcquirerRequest#getTransactionId()}.
+ * The gateway sends a payment to another acquirer only after an
+ * {@link AcquirerNotSentException}, so a client must use it only when it
+ * knows the request did not leave, and a plain {@link AcquirerException}
+ * whenever the acquirer may have seen it. A call still running at the
+ * deadline is not cancelled, as its answer still settles the payment, so
+ * every future must complete eventually, under the client's own timeout.
+ */
+public interface AcquirerClient {
+
+    /**
+     * Name used in metrics and circuit breaker state.
+     */
+    String getName();
+
+    /**
+     * Payment methods this acquirer processes.
+     */
+    Set<String> getPaymentMethods();
+
+    /**
+     * Start an authorization.
+     *
+     * @param request payment to authorize
+     * @return the acquirer's answer
+     */
+    CompletableFuture<AcquirerResponse> authorize(AcquirerRequest request);
+}
@@ -0,0 +1,18 @@
+package com.example.payment.acquirer;
+
+/**
+ * Exception completing an authorization when the acquirer failed to answer
+ * it, as opposed to declining it. Counts against the acquirer's circuit breaker.
+ */
+public class AcquirerException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AcquirerException(String message) {
+        super(message);
+    }
+
+    public AcquirerException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,645 @@
+package com.example.payment.acquirer;
+
+import com.example.payment.config.AcquirerProperties;
+import com.example.payment.exception.AcquirerTimeoutException;
+import com.example.payment.exception.AcquirerUnavailableException;
+import com.example.payment.exception.PaymentException;
+import com.example.payment.health.QueueDepthSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends authorizations to the acquirers for each payment method.
+ *
+ * <p>A call is admitted before the payment is marked PROCESSING, so a payment
+ * that cannot be sent stays PENDING: admission fails fast with 503 when the
+ * method's bulkhead (a fixed number of concurrent calls) is full or the
+ * circuit breakers of all its acquirers are open. An admitted call runs
+ * against a deadline; when it passes, the result fails with a timeout,
+ * which also counts against the breaker and frees the bulkhead slot. The
+ * attempts are not cancelled, as the acquirer may still approve: the
+ * timeout carries a future for their late answer instead. For
+ * methods with a hedge delay, a second attempt is sent if the first has not
+ * answered by then, provided the bulkhead and breaker allow it, and the
+ * first answer wins. Results are completed on a small completion pool so
+ * follow-up work such as the database update never runs on an acquirer's
+ * I/O threads.
+ *
+ * <p>When several acquirers serve a method, each attempt goes to the one
+ * with the lowest score: its decayed mean latency, inflated by its decayed
+ * error rate and multiplied by its calls in flight plus one, so a fast
+ * acquirer is preferred until it is busier than its lead is worth. A small
+ * share of calls goes to a random other acquirer instead to keep their
+ * stats current, and an acquirer without stats yet is tried first. A
+ * hedge goes to the same acquirer as the first attempt, which deduplicates
+ * the two on the transaction ID. An attempt that failed with an
+ * {@link AcquirerNotSentException} is retried on an acquirer not tried yet
+ * while the deadline allows, up to {@code maxAttempts} attempts in all; any
+ * other error may come after the acquirer approved, so it is never sent
+ * elsewhere, as that could authorize the payment twice.
+ */
+@Component
+@Slf4j
+public class AcquirerGateway implements QueueDepthSource {
+
+    private final AcquirerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Route> routes = new HashMap<>();
+    private final ScheduledExecutorService timer;
+    private final ThreadPoolExecutor completions;
+
+    /**
+     * @throws IllegalStateException if no acquirer is configured, so a
+     *         deployment without one fails at startup rather than on every payment
+     */
+    public AcquirerGateway(List<AcquirerClient> clients, AcquirerProperties properties, MeterRegistry meterRegistry) {
+        if (clients.isEmpty()) {
+            throw new IllegalStateException("No AcquirerClient bean is configured; register an acquirer "
+                    + "integration, or set payment.acquirer.simulator.enabled=true outside production");
+        }
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        AcquirerProperties.CircuitBreaker breakerSettings = properties.getCircuitBreaker();
+        for (AcquirerClient client : clients) {
+            CircuitBreaker breaker = new CircuitBreaker(client.getName(), breakerSettings.getWindowSize(),
+                    breakerSettings.getMinimumCalls(), breakerSettings.getFailureRateThreshold(),
+                    breakerSettings.getOpenDuration().toNanos(), TimeUnit.NANOSECONDS,
+                    breakerSettings.getHalfOpenCalls());
+            Gauge.builder("payment.acquirer.circuit.state", breaker, b -> b.getState().ordinal())
+                    .description("Acquirer circuit breaker state: 0 closed, 1 half-open, 2 open")
+                    .tag("acquirer", client.getName())
+                    .register(meterRegistry);
+            for (String method : client.getPaymentMethods()) {
+                routes.computeIfAbsent(method, m -> new Route(m, new Semaphore(
+                                properties.getBulkhead().getOrDefault(m, properties.getDefaultBulkhead())),
+                                properties.getHedgeDelay().get(m)))
+                        .add(client, breaker);
+            }
+        }
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "acquirer-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threads = new AtomicInteger();
+        this.completions = new ThreadPoolExecutor(properties.getCompletionThreads(),
+                properties.getCompletionThreads(), 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "acquirer-completion-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Reserve a call for a payment method.
+     *
+     * @param paymentMethod payment method of the payment to send
+     * @return admission to {@link Admission#send send} the call with, or {@link Admission#cancel cancel} it
+     * @throws PaymentException if no acquirer serves the method
+     * @throws AcquirerUnavailableException if the bulkhead is full or every breaker is open
+     */
+    public Admission admit(String paymentMethod) {
+        Route route = routes.get(paymentMethod);
+        if (route == null) {
+            throw new PaymentException("No acquirer for payment method " + paymentMethod);
+        }
+        if (!route.bulkhead.tryAcquire()) {
+            route.rejected("bulkhead_full").increment();
+            throw new AcquirerUnavailableException(paymentMethod + " bulkhead full");
+        }
+        Candidate candidate = route.choose(List.of(), true);
+        if (candidate == null) {
+            route.bulkhead.release();
+            route.rejected("circuit_open").increment();
+            throw new AcquirerUnavailableException(paymentMethod + " circuit open");
+        }
+        return new Admission(route, candidate);
+    }
+
+    @Override
+    public Map<String, Integer> queueDepths() {
+        return Map.of("acquirerCompletion", completions.getQueue().size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        completions.shutdownNow();
+    }
+
+    /**
+     * A reserved call: one bulkhead permit and the breaker permission of the chosen acquirer.
+     */
+    public final class Admission {
+
+        private final Route route;
+        private final Candidate candidate;
+        private boolean used;
+
+        private Admission(Route route, Candidate candidate) {
+            this.route = route;
+            this.candidate = candidate;
+        }
+
+        /**
+         * Send the authorization.
+         *
+         * @param request payment to authorize; its deadline should match {@link #getDeadline()}
+         * @return future completed on the completion pool with the answer, or exceptionally with an
+         *         {@link AcquirerException} or {@link AcquirerTimeoutException}
+         */
+        public CompletableFuture<AcquirerResponse> send(AcquirerRequest request) {
+            use();
+            Exchange exchange = new Exchange(route, request);
+            exchange.start(candidate);
+            return exchange.result;
+        }
+
+        /**
+         * Give the reservation back without sending.
+         */
+        public void cancel() {
+            use();
+            route.bulkhead.release();
+            candidate.breaker.onIgnored();
+        }
+
+        public Duration getDeadline() {
+            return properties.getDeadline();
+        }
+
+        private void use() {
+            if (used) {
+                throw new IllegalStateException("Admission already used");
+            }
+            used = true;
+        }
+    }
+
+    /**
+     * One payment's authorization: the first attempt, hedges and failovers, and the deadline.
+     */
+    private final class Exchange {
+
+        private final Route route;
+        private final AcquirerRequest request;
+        private final CompletableFuture<AcquirerResponse> result = new CompletableFuture<>();
+        private final CompletableFuture<AcquirerResponse> lateAnswer = new CompletableFuture<>();
+        private final long started = System.nanoTime();
+
+        // Guarded by this
+        private final List<Attempt> attempts = new ArrayList<>(2);
+        private int inFlight;
+        private boolean done;
+        private boolean maybeSent;
+        private int abandoned;
+        private ScheduledFuture<?> deadlineTask;
+        private ScheduledFuture<?> hedgeTask;
+
+        Exchange(Route route, AcquirerRequest request) {
+            this.route = route;
+            this.request = request;
+        }
+
+        void start(Candidate candidate) {
+            Attempt first = new Attempt(candidate);
+            synchronized (this) {
+                deadlineTask = timer.schedule(this::onDeadline, properties.getDeadline().toNanos(),
+                        TimeUnit.NANOSECONDS);
+                if (route.hedgeDelay != null) {
+                    hedgeTask = timer.schedule(this::onHedgeDelay, route.hedgeDelay.toNanos(), TimeUnit.NANOSECONDS);
+                }
+                attempts.add(first);
+                inFlight++;
+            }
+            launch(first);
+        }
+
+        /**
+         * Call the acquirer for a registered attempt holding a bulkhead permit and breaker permission.
+         */
+        private void launch(Attempt attempt) {
+            attempt.candidate.inFlight.incrementAndGet();
+            attempt.started = System.nanoTime();
+            CompletableFuture<AcquirerResponse> call;
+            try {
+                call = attempt.candidate.client.authorize(request);
+            } catch (RuntimeException ex) {
+                call = CompletableFuture.failedFuture(ex);
+            }
+            attempt.call = call;
+            if (attempt.cancelled) {
+                call.cancel(true);
+            }
+            call.whenComplete((response, error) -> onAttemptDone(attempt, response, error));
+        }
+
+        private void onAttemptDone(Attempt attempt, AcquirerResponse response, Throwable error) {
+            if (!attempt.settle()) {
+                // Abandoned at the deadline, which already counted it as a timeout
+                onLateAnswer(response, error);
+                return;
+            }
+            Candidate candidate = attempt.candidate;
+            long now = System.nanoTime();
+            route.bulkhead.release();
+            candidate.inFlight.decrementAndGet();
+            if (attempt.cancelled) {
+                candidate.breaker.onIgnored();
+                return;
+            }
+            if (error != null) {
+                candidate.breaker.onFailure();
+                candidate.stats.recordError(now);
+            } else {
+                candidate.breaker.onSuccess();
+                candidate.stats.recordSuccess(now - attempt.started, now);
+            }
+            List<Attempt> losers;
+            boolean failover;
+            synchronized (this) {
+                inFlight--;
+                if (error != null && !(unwrap(error) instanceof AcquirerNotSentException)) {
+                    maybeSent = true;
+                }
+                failover = !maybeSent;
+                if (done || (error != null && inFlight > 0)) {
+                    return;
+                }
+                if (error == null) {
+                    done = true;
+                    cancelTimers();
+                    losers = new ArrayList<>(attempts);
+                    losers.remove(attempt);
+                } else {
+                    losers = null;
+                }
+            }
+            if (losers != null) {
+                losers.forEach(Attempt::cancel);
+                finish(candidate, response.isApproved() ? "approved" : "declined", response, null);
+                return;
+            }
+            if (failover && tryFailover()) {
+                return;
+            }
+            synchronized (this) {
+                if (done || inFlight > 0) {
+                    return;
+                }
+                done = true;
+                cancelTimers();
+            }
+            finish(candidate, "error", null, unwrap(error));
+        }
+
+        /**
+         * Send a second attempt to the acquirer of the first, if its breaker lets it through.
+         */
+        private void onHedgeDelay() {
+            Candidate candidate;
+            synchronized (this) {
+                if (done || attempts.size() >= properties.getRouting().getMaxAttempts()) {
+                    return;
+                }
+                candidate = attempts.get(0).candidate;
+            }
+            if (!route.bulkhead.tryAcquire()) {
+                return;
+            }
+            if (!candidate.breaker.tryAcquire()) {
+                route.bulkhead.release();
+                return;
+            }
+            sendAttempt(candidate, "hedge");
+        }
+
+        /**
+         * Send the payment to an acquirer not tried yet, after every attempt so far failed before it was sent.
+         *
+         * @return whether an attempt was sent
+         */
+        private boolean tryFailover() {
+            List<Candidate> tried;
+            synchronized (this) {
+                if (done || attempts.size() >= properties.getRouting().getMaxAttempts()) {
+                    return false;
+                }
+                tried = new ArrayList<>(attempts.size());
+                for (Attempt attempt : attempts) {
+                    tried.add(attempt.candidate);
+                }
+            }
+            if (!route.bulkhead.tryAcquire()) {
+                return false;
+            }
+            Candidate candidate = route.choose(tried, false);
+            if (candidate == null) {
+                route.bulkhead.release();
+                return false;
+            }
+            return sendAttempt(candidate, "failover");
+        }
+
+        /**
+         * Register and launch an attempt holding a bulkhead permit and the candidate's breaker permission.
+         *
+         * @param reason tag for the routing counter
+         * @return whether the attempt was sent; if not, the permits are given back
+         */
+        private boolean sendAttempt(Candidate candidate, String reason) {
+            Attempt attempt = new Attempt(candidate);
+            boolean registered;
+            synchronized (this) {
+                registered = !done && attempts.size() < properties.getRouting().getMaxAttempts();
+                if (registered) {
+                    attempts.add(attempt);
+                    inFlight++;
+                }
+            }
+            if (!registered) {
+                route.bulkhead.release();
+                candidate.breaker.onIgnored();
+                return false;
+            }
+            route.routed(candidate, reason).increment();
+            launch(attempt);
+            return true;
+        }
+
+        private void onDeadline() {
+            List<Attempt> pending;
+            boolean noneLeft;
+            boolean sent;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                if (hedgeTask != null) {
+                    hedgeTask.cancel(false);
+                }
+                pending = new ArrayList<>(attempts);
+                // Settled under the lock so a late answer cannot be counted before its attempt is
+                for (Attempt attempt : pending) {
+                    if (attempt.settle()) {
+                        long now = System.nanoTime();
+                        route.bulkhead.release();
+                        attempt.candidate.inFlight.decrementAndGet();
+                        attempt.candidate.breaker.onFailure();
+                        attempt.candidate.stats.recordTimeout(now - attempt.started, now);
+                        abandoned++;
+                    }
+                }
+                noneLeft = abandoned == 0;
+                sent = maybeSent;
+            }
+            if (noneLeft) {
+                lateAnswer.completeExceptionally(sent
+                        ? new AcquirerException("No attempt in flight at the deadline")
+                        : new AcquirerNotSentException("No attempt sent before the deadline"));
+            }
+            finish(pending.get(0).candidate, "timeout", null,
+                    new AcquirerTimeoutException(request.getPaymentId(), lateAnswer));
+        }
+
+        /**
+         * Answer of an attempt abandoned at the deadline. The first approval or
+         * decline settles the late answer; an error settles it only once no
+         * abandoned attempt is left that could still answer.
+         */
+        private void onLateAnswer(AcquirerResponse response, Throwable error) {
+            boolean last;
+            synchronized (this) {
+                last = --abandoned == 0;
+            }
+            if (error == null) {
+                completions.execute(() -> lateAnswer.complete(response));
+            } else if (last) {
+                completions.execute(() -> lateAnswer.completeExceptionally(unwrap(error)));
+            }
+        }
+
+        // Guarded by this
+        private void cancelTimers() {
+            deadlineTask.cancel(false);
+            if (hedgeTask != null) {
+                hedgeTask.cancel(false);
+            }
+        }
+
+        private void finish(Candidate candidate, String outcome, AcquirerResponse response, Throwable error) {
+            route.latency(candidate, outcome).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            completions.execute(() -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(response);
+                }
+            });
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof AcquirerException ? cause
+                : new AcquirerException("Acquirer call failed: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * One call to an acquirer. Cancellation may come before the call has
+     * been started, in which case {@link Exchange#launch} cancels it at once.
+     * The permits an attempt holds are given back once, either when it
+     * answers or when the deadline abandons it.
+     */
+    private static final class Attempt {
+
+        private final Candidate candidate;
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private volatile long started;
+        private volatile CompletableFuture<AcquirerResponse> call;
+        private volatile boolean cancelled;
+
+        Attempt(Candidate candidate) {
+            this.candidate = candidate;
+        }
+
+        /**
+         * @return whether this call settled the attempt, so it should give its permits back
+         */
+        boolean settle() {
+            return settled.compareAndSet(false, true);
+        }
+
+        void cancel() {
+            cancelled = true;
+            CompletableFuture<AcquirerResponse> started = call;
+            if (started != null) {
+                started.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * An acquirer serving one payment method, with its stats for that method.
+     */
+    private final class Candidate {
+
+        private final AcquirerClient client;
+        private final CircuitBreaker breaker;
+        private final LatencyStats stats;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        Candidate(String method, AcquirerClient client, CircuitBreaker breaker) {
+            this.client = client;
+            this.breaker = breaker;
+            this.stats = new LatencyStats(properties.getRouting().getHalfLife());
+            Gauge.builder("payment.acquirer.route.latency", stats, s -> s.getLatencyNanos() / 1_000_000)
+                    .description("Decayed mean acquirer latency in milliseconds, as used for routing")
+                    .tag("acquirer", client.getName())
+                    .tag("method", method)
+                    .register(meterRegistry);
+            Gauge.builder("payment.acquirer.route.error.rate", stats, LatencyStats::getErrorRate)
+                    .description("Decayed share of acquirer calls that failed or timed out")
+                    .tag("acquirer", client.getName())
+                    .tag("method", method)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Routing score, lower is better. An acquirer never tried scores 0;
+         * one that has only failed scores worst.
+         */
+        double score() {
+            double latency = stats.getLatencyNanos();
+            double errorRate = stats.getErrorRate();
+            if (latency == 0) {
+                return errorRate > 0 ? Double.MAX_VALUE : 0;
+            }
+            double penalty = 1 + properties.getRouting().getErrorPenalty() * errorRate;
+            return latency * penalty * (inFlight.get() + 1);
+        }
+    }
+
+    private record Ranked(Candidate candidate, double score) {
+    }
+
+    /**
+     * The acquirers, bulkhead and hedge delay of one payment method.
+     */
+    private final class Route {
+
+        private final String method;
+        private final List<Candidate> candidates = new ArrayList<>(1);
+        private final Semaphore bulkhead;
+        private final Duration hedgeDelay;
+        private final Counter hedges;
+
+        Route(String method, Semaphore bulkhead, Duration hedgeDelay) {
+            this.method = method;
+            this.bulkhead = bulkhead;
+            this.hedgeDelay = hedgeDelay;
+            this.hedges = Counter.builder("payment.acquirer.hedges")
+                    .description("Hedged second attempts sent")
+                    .tag("method", method)
+                    .register(meterRegistry);
+            Gauge.builder("payment.acquirer.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                    .description("Free bulkhead slots per payment method")
+                    .tag("method", method)
+                    .register(meterRegistry);
+        }
+
+        void add(AcquirerClient client, CircuitBreaker breaker) {
+            candidates.add(new Candidate(method, client, breaker));
+        }
+
+        /**
+         * Pick an acquirer and take its breaker permission.
+         *
+         * @param exclude acquirers not to pick
+         * @param explore whether this call may go to a random acquirer instead of the best scored
+         * @return the acquirer, or null if none is left whose breaker lets the call through
+         */
+        Candidate choose(List<Candidate> exclude, boolean explore) {
+            List<Ranked> ranked = new ArrayList<>(candidates.size());
+            for (Candidate candidate : candidates) {
+                if (!exclude.contains(candidate)) {
+                    ranked.add(new Ranked(candidate, candidate.score()));
+                }
+            }
+            ranked.sort(Comparator.comparingDouble(Ranked::score));
+            String reason = "best";
+            if (explore && ranked.size() > 1
+                    && ThreadLocalRandom.current().nextDouble() < properties.getRouting().getExplorationRate()) {
+                Collections.swap(ranked, 0, 1 + ThreadLocalRandom.current().nextInt(ranked.size() - 1));
+                reason = "explore";
+            }
+            for (Ranked entry : ranked) {
+                if (entry.candidate.breaker.tryAcquire()) {
+                    if (explore) {
+                        routed(entry.candidate, entry == ranked.get(0) ? reason : "best").increment();
+                    }
+                    return entry.candidate;
+                }
+            }
+            return null;
+        }
+
+        Counter routed(Candidate candidate, String reason) {
+            if ("hedge".equals(reason)) {
+                hedges.increment();
+            }
+            return Counter.builder("payment.acquirer.routed")
+                    .description("Attempts sent per acquirer and why it was picked")
+                    .tag("acquirer", candidate.client.getName())
+                    .tag("method", method)
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+        }
+
+        Counter rejected(String reason) {
+            return Counter.builder("payment.acquirer.rejected")
+                    .description("Calls not sent because the acquirer was unavailable")
+                    .tag("method", method)
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+        }
+
+        Timer latency(Candidate candidate, String outcome) {
+            return Timer.builder("payment.acquirer.latency")
+                    .description("Authorization latency by outcome, including hedged attempts")
+                    .tag("acquirer", candidate.client.getName())
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
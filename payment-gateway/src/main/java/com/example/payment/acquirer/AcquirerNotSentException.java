@@ -0,0 +1,20 @@
+package com.example.payment.acquirer;
+
+/**
+ * Exception completing an authorization that never reached the acquirer,
+ * such as a refused connection or a limit in the client itself. Unlike any
+ * other {@link AcquirerException}, the acquirer cannot have approved it, so
+ * the gateway may send the payment to another acquirer.
+ */
+public class AcquirerNotSentException extends AcquirerException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AcquirerNotSentException(String message) {
+        super(message);
+    }
+
+    public AcquirerNotSentException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.payment.acquirer;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Authorization request sent to an acquirer.
+ */
+@Value
+public class AcquirerRequest {
+
+    Long paymentId;
+
+    /**
+     * Idempotency key; hedged attempts of one payment share it.
+     */
+    String transactionId;
+
+    String merchantId;
+    BigDecimal amount;
+    String currency;
+    String paymentMethod;
+
+    /**
+     * Time after which the answer is no longer used, for the client's own timeouts.
+     */
+    Instant deadline;
+}
@@ -0,0 +1,30 @@
+package com.example.payment.acquirer;
+
+import lombok.Value;
+
+/**
+ * An acquirer's answer to an authorization.
+ */
+@Value
+public class AcquirerResponse {
+
+    boolean approved;
+
+    /**
+     * Acquirer's reference for the authorization.
+     */
+    String reference;
+
+    /**
+     * Why the payment was declined; null when approved.
+     */
+    String declineReason;
+
+    public static AcquirerResponse approved(String reference) {
+        return new AcquirerResponse(true, reference, null);
+    }
+
+    public static AcquirerResponse declined(String reference, String reason) {
+        return new AcquirerResponse(false, reference, reason);
+    }
+}
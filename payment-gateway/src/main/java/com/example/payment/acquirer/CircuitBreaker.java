@@ -0,0 +1,145 @@
+package com.example.payment.acquirer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count-based circuit breaker for one acquirer.
+ *
+ * <p>While CLOSED, the outcomes of the last {@code windowSize} calls are kept
+ * in a ring; once at least {@code minimumCalls} are recorded and the share of
+ * failures reaches the threshold, the breaker OPENs and every call fails fast
+ * for {@code openDuration}. It then goes HALF_OPEN and lets
+ * {@code halfOpenCalls} trial calls through: if all succeed it closes with
+ * an empty window, and any failure opens it again.
+ */
+public final class CircuitBreaker {
+
+    /**
+     * Breaker state; the ordinal is exported as a gauge.
+     */
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final String name;
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openUntil;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openDuration, TimeUnit unit, int halfOpenCalls) {
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = unit.toNanos(openDuration);
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * Ask to make a call.
+     *
+     * @return true if the call may go ahead; it must then be reported with
+     *         {@link #onSuccess}, {@link #onFailure} or {@link #onIgnored}
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openUntil < 0) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    /**
+     * Report a call the acquirer answered.
+     */
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded >= halfOpenCalls) {
+                state = State.CLOSED;
+                recorded = 0;
+                next = 0;
+                failures = 0;
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * Report a call that failed or timed out.
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * Report a call that was abandoned without an outcome, such as the losing hedged attempt.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && trialsStarted > trialsSucceeded) {
+            trialsStarted--;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openUntil >= 0) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = System.nanoTime() + openNanos;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.payment.acquirer;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Exponentially decayed latency and error rate of one acquirer for one payment method.
+ *
+ * <p>A sample is blended in with weight {@code 1 - exp(-dt / tau)}, where
+ * {@code dt} is the time since the previous sample and {@code tau} follows
+ * from the half-life, so the averages cover the last few half-lives of
+ * traffic whether calls arrive ten or ten thousand times a second. The
+ * first sample is taken as is. Updates are lock-free: the averages live in
+ * an immutable snapshot that is replaced by compare-and-set, so completion
+ * threads never wait on each other to record.
+ */
+final class LatencyStats {
+
+    private final double tauNanos;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    LatencyStats(Duration halfLife) {
+        this.tauNanos = halfLife.toNanos() / Math.log(2);
+    }
+
+    /**
+     * Record an answered call.
+     */
+    void recordSuccess(long latencyNanos, long now) {
+        record(latencyNanos, 0, now);
+    }
+
+    /**
+     * Record a call that failed; its latency says nothing about the acquirer's speed.
+     */
+    void recordError(long now) {
+        record(-1, 1, now);
+    }
+
+    /**
+     * Record a call that ran past the deadline; the time it ran is a lower bound on its latency.
+     */
+    void recordTimeout(long elapsedNanos, long now) {
+        record(elapsedNanos, 1, now);
+    }
+
+    /**
+     * Decayed mean latency in nanoseconds, or 0 before the first answer.
+     */
+    double getLatencyNanos() {
+        return snapshot.get().latencyNanos;
+    }
+
+    /**
+     * Decayed share of calls that failed or timed out.
+     */
+    double getErrorRate() {
+        return snapshot.get().errorRate;
+    }
+
+    private void record(long latencyNanos, double error, long now) {
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = snapshot.get();
+            next = current.with(latencyNanos, error, now, tauNanos);
+        } while (!snapshot.compareAndSet(current, next));
+    }
+
+    private record Snapshot(double latencyNanos, double errorRate, long lastNanos, boolean measured,
+                            boolean hasLatency) {
+
+        static final Snapshot EMPTY = new Snapshot(0, 0, 0, false, false);
+
+        Snapshot with(long latency, double error, long now, double tau) {
+            if (!measured) {
+                return new Snapshot(Math.max(latency, 0), error, now, true, latency >= 0);
+            }
+            // A racing thread may have recorded a later sample already; this one then counts for nothing
+            double weight = now > lastNanos ? 1 - Math.exp(-(now - lastNanos) / tau) : 0;
+            double newLatency = latency < 0 ? latencyNanos
+                    : hasLatency ? latencyNanos + weight * (latency - latencyNanos) : latency;
+            return new Snapshot(newLatency, errorRate + weight * (error - errorRate), Math.max(now, lastNanos),
+                    true, hasLatency || latency >= 0);
+        }
+    }
+}
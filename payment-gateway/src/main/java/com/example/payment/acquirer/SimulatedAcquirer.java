@@ -0,0 +1,94 @@
+package com.example.payment.acquirer;
+
+import com.example.payment.config.AcquirerProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stand-in acquirer for local runs and tests.
+ *
+ * <p>Each payment method answers after a log-normal delay fitted to the
+ * configured median and 99th percentile, so the tail is long like a real
+ * acquirer's. A share of calls fails with an {@link AcquirerException} and a
+ * share of the rest is declined. Answers are scheduled rather than slept on,
+ * so thousands of calls in flight cost no threads. Registered only when
+ * {@code payment.acquirer.simulator.enabled} is set, as in the local profile.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.acquirer.simulator", name = "enabled", havingValue = "true")
+public class SimulatedAcquirer implements AcquirerClient {
+
+    private static final double Z_99 = 2.3263;
+
+    private final String name;
+    private final Map<String, AcquirerProperties.Behaviour> behaviours;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicInteger references = new AtomicInteger();
+
+    @Autowired
+    public SimulatedAcquirer(AcquirerProperties properties) {
+        this("simulator", properties.getSimulator().getMethods());
+    }
+
+    public SimulatedAcquirer(String name, Map<String, AcquirerProperties.Behaviour> behaviours) {
+        this.name = name;
+        this.behaviours = behaviours;
+        AtomicInteger threads = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Set<String> getPaymentMethods() {
+        return behaviours.keySet();
+    }
+
+    @Override
+    public CompletableFuture<AcquirerResponse> authorize(AcquirerRequest request) {
+        AcquirerProperties.Behaviour behaviour = behaviours.get(request.getPaymentMethod());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long median = behaviour.getMedianLatency().toNanos();
+        double sigma = Math.log((double) behaviour.getP99Latency().toNanos() / median) / Z_99;
+        long delay = (long) (median * Math.exp(sigma * random.nextGaussian()));
+        double roll = random.nextDouble();
+        String reference = name.toUpperCase() + "-" + references.incrementAndGet();
+
+        CompletableFuture<AcquirerResponse> answer = new CompletableFuture<>();
+        ScheduledFuture<?> task = scheduler.schedule(() -> {
+            if (roll < behaviour.getFailureRate()) {
+                answer.completeExceptionally(new AcquirerException(name + " returned an error"));
+            } else if (roll < behaviour.getFailureRate() + behaviour.getDeclineRate()) {
+                answer.complete(AcquirerResponse.declined(reference, "Declined by issuer"));
+            } else {
+                answer.complete(AcquirerResponse.approved(reference));
+            }
+        }, delay, TimeUnit.NANOSECONDS);
+        answer.whenComplete((response, error) -> task.cancel(false));
+        return answer;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,436 @@
+package com.example.payment.archive;
+
+import com.example.payment.model.Payment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Immutable, compressed, column-oriented file holding archived payments.
+ *
+ * <p>Layout: an uncompressed header with the row count and the zone map
+ * (min/max of id, createdAt, merchantId and transactionId), followed by a
+ * deflate-compressed body with one column after another. Low-cardinality
+ * string columns are dictionary encoded; ids are delta encoded.
+ */
+public final class ArchiveSegment {
+
+    private static final int MAGIC = 0x50534547;
+    private static final short VERSION = 1;
+    private static final Payment.PaymentStatus[] STATUSES = Payment.PaymentStatus.values();
+
+    private final Path path;
+    private final int rowCount;
+    private final long minId;
+    private final long maxId;
+    private final LocalDateTime minCreatedAt;
+    private final LocalDateTime maxCreatedAt;
+    private final String minMerchantId;
+    private final String maxMerchantId;
+    private final String minTransactionId;
+    private final String maxTransactionId;
+
+    private ArchiveSegment(Path path, DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an archive segment: " + path);
+        }
+        short version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported segment version " + version + ": " + path);
+        }
+        this.path = path;
+        this.rowCount = in.readInt();
+        this.minId = in.readLong();
+        this.maxId = in.readLong();
+        this.minCreatedAt = fromEpochMillis(in.readLong());
+        this.maxCreatedAt = fromEpochMillis(in.readLong());
+        this.minMerchantId = in.readUTF();
+        this.maxMerchantId = in.readUTF();
+        this.minTransactionId = in.readUTF();
+        this.maxTransactionId = in.readUTF();
+    }
+
+    /**
+     * Write payments, sorted by id, into a new segment file.
+     *
+     * @param path target file
+     * @param payments payments ordered by ascending id
+     * @return the written segment
+     * @throws IOException if the file cannot be written
+     */
+    public static ArchiveSegment write(Path path, List<Payment> payments) throws IOException {
+        if (payments.isEmpty()) {
+            throw new IllegalArgumentException("Segment must contain at least one payment");
+        }
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(path))) {
+            DataOutputStream header = new DataOutputStream(file);
+            writeHeader(header, payments);
+            header.flush();
+
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                DataOutputStream body = new DataOutputStream(
+                        new BufferedOutputStream(new DeflaterOutputStream(file, deflater), 64 * 1024));
+                writeBody(body, payments);
+                body.flush();
+                body.close();
+            } finally {
+                deflater.end();
+            }
+        }
+        return open(path);
+    }
+
+    /**
+     * Open a segment, reading only its header.
+     *
+     * @param path segment file
+     * @return segment with its zone map
+     * @throws IOException if the file cannot be read
+     */
+    public static ArchiveSegment open(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 512))) {
+            return new ArchiveSegment(path, in);
+        }
+    }
+
+    /**
+     * Decompress and decode all columns of this segment.
+     *
+     * @return decoded columns
+     * @throws IOException if the file cannot be read
+     */
+    public Columns load() throws IOException {
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path))) {
+            new ArchiveSegment(path, new DataInputStream(file));
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(new InflaterInputStream(file), 64 * 1024));
+            return readBody(in, rowCount);
+        }
+    }
+
+    /**
+     * Whether rows in this segment may have been created in the given range.
+     */
+    public boolean mayContainCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return (from == null || !maxCreatedAt.isBefore(from)) && (to == null || minCreatedAt.isBefore(to));
+    }
+
+    /**
+     * Whether rows in this segment may belong to the given merchant.
+     */
+    public boolean mayContainMerchant(String merchantId) {
+        return merchantId == null
+                || (minMerchantId.compareTo(merchantId) <= 0 && maxMerchantId.compareTo(merchantId) >= 0);
+    }
+
+    /**
+     * Whether the given transaction ID may be stored in this segment.
+     */
+    public boolean mayContainTransaction(String transactionId) {
+        return minTransactionId.compareTo(transactionId) <= 0 && maxTransactionId.compareTo(transactionId) >= 0;
+    }
+
+    /**
+     * Whether rows in this segment may hold any of the given transaction IDs.
+     */
+    public boolean mayContainAnyTransaction(NavigableSet<String> transactionIds) {
+        String first = transactionIds.ceiling(minTransactionId);
+        return first != null && maxTransactionId.compareTo(first) >= 0;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getMinId() {
+        return minId;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public LocalDateTime getMinCreatedAt() {
+        return minCreatedAt;
+    }
+
+    public LocalDateTime getMaxCreatedAt() {
+        return maxCreatedAt;
+    }
+
+    public String getMinMerchantId() {
+        return minMerchantId;
+    }
+
+    public String getMaxMerchantId() {
+        return maxMerchantId;
+    }
+
+    private static void writeHeader(DataOutputStream out, List<Payment> payments) throws IOException {
+        long minCreated = Long.MAX_VALUE;
+        long maxCreated = Long.MIN_VALUE;
+        String minMerchant = null;
+        String maxMerchant = null;
+        String minTxn = null;
+        String maxTxn = null;
+        for (Payment payment : payments) {
+            long created = toEpochMillis(payment.getCreatedAt());
+            minCreated = Math.min(minCreated, created);
+            maxCreated = Math.max(maxCreated, created);
+            String merchant = payment.getMerchantId();
+            minMerchant = minMerchant == null || merchant.compareTo(minMerchant) < 0 ? merchant : minMerchant;
+            maxMerchant = maxMerchant == null || merchant.compareTo(maxMerchant) > 0 ? merchant : maxMerchant;
+            String txn = nullToEmpty(payment.getTransactionId());
+            minTxn = minTxn == null || txn.compareTo(minTxn) < 0 ? txn : minTxn;
+            maxTxn = maxTxn == null || txn.compareTo(maxTxn) > 0 ? txn : maxTxn;
+        }
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(payments.size());
+        out.writeLong(payments.get(0).getId());
+        out.writeLong(payments.get(payments.size() - 1).getId());
+        out.writeLong(minCreated);
+        out.writeLong(maxCreated);
+        out.writeUTF(minMerchant);
+        out.writeUTF(maxMerchant);
+        out.writeUTF(minTxn);
+        out.writeUTF(maxTxn);
+    }
+
+    private static void writeBody(DataOutputStream out, List<Payment> payments) throws IOException {
+        long previousId = 0;
+        for (Payment payment : payments) {
+            writeVarLong(out, payment.getId() - previousId);
+            previousId = payment.getId();
+        }
+        for (Payment payment : payments) {
+            out.writeLong(toEpochMillis(payment.getCreatedAt()));
+        }
+        for (Payment payment : payments) {
+            out.writeLong(toEpochMillis(payment.getUpdatedAt()));
+        }
+        for (Payment payment : payments) {
+            out.writeLong(payment.getAmount().movePointRight(2).longValueExact());
+        }
+        for (Payment payment : payments) {
+            out.writeByte(payment.getStatus().ordinal());
+        }
+        writeDictionaryColumn(out, payments, Payment::getMerchantId);
+        writeDictionaryColumn(out, payments, Payment::getCurrency);
+        writeDictionaryColumn(out, payments, Payment::getPaymentMethod);
+        for (Payment payment : payments) {
+            out.writeUTF(nullToEmpty(payment.getTransactionId()));
+        }
+        for (Payment payment : payments) {
+            out.writeUTF(nullToEmpty(payment.getCustomerEmail()));
+        }
+        for (Payment payment : payments) {
+            String description = payment.getDescription();
+            out.writeBoolean(description != null);
+            if (description != null) {
+                out.writeUTF(description);
+            }
+        }
+    }
+
+    private static Columns readBody(DataInputStream in, int rows) throws IOException {
+        Columns columns = new Columns(rows);
+        long id = 0;
+        for (int i = 0; i < rows; i++) {
+            id += readVarLong(in);
+            columns.ids[i] = id;
+        }
+        for (int i = 0; i < rows; i++) {
+            columns.createdAt[i] = in.readLong();
+        }
+        for (int i = 0; i < rows; i++) {
+            columns.updatedAt[i] = in.readLong();
+        }
+        for (int i = 0; i < rows; i++) {
+            columns.amountCents[i] = in.readLong();
+        }
+        for (int i = 0; i < rows; i++) {
+            columns.statuses[i] = in.readByte();
+        }
+        columns.merchantDictionary = readDictionaryColumn(in, columns.merchantCodes);
+        columns.currencyDictionary = readDictionaryColumn(in, columns.currencyCodes);
+        columns.methodDictionary = readDictionaryColumn(in, columns.methodCodes);
+        for (int i = 0; i < rows; i++) {
+            columns.transactionIds[i] = in.readUTF();
+        }
+        for (int i = 0; i < rows; i++) {
+            columns.customerEmails[i] = in.readUTF();
+        }
+        for (int i = 0; i < rows; i++) {
+            columns.descriptions[i] = in.readBoolean() ? in.readUTF() : null;
+        }
+        return columns;
+    }
+
+    private static void writeDictionaryColumn(DataOutputStream out, List<Payment> payments,
+                                              Function<Payment, String> getter)
+            throws IOException {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        int[] values = new int[payments.size()];
+        for (int i = 0; i < values.length; i++) {
+            String value = nullToEmpty(getter.apply(payments.get(i)));
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                codes.put(value, code);
+                dictionary.add(value);
+            }
+            values[i] = code;
+        }
+        writeVarLong(out, dictionary.size());
+        for (String value : dictionary) {
+            out.writeUTF(value);
+        }
+        for (int value : values) {
+            writeVarLong(out, value);
+        }
+    }
+
+    private static String[] readDictionaryColumn(DataInputStream in, int[] codes) throws IOException {
+        String[] dictionary = new String[(int) readVarLong(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = in.readUTF();
+        }
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (int) readVarLong(in);
+        }
+        return dictionary;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    static long toEpochMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime fromEpochMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Decoded column arrays of one segment.
+     */
+    public static final class Columns {
+
+        final long[] ids;
+        final long[] createdAt;
+        final long[] updatedAt;
+        final long[] amountCents;
+        final byte[] statuses;
+        final int[] merchantCodes;
+        final int[] currencyCodes;
+        final int[] methodCodes;
+        final String[] transactionIds;
+        final String[] customerEmails;
+        final String[] descriptions;
+        String[] merchantDictionary;
+        String[] currencyDictionary;
+        String[] methodDictionary;
+
+        Columns(int rows) {
+            ids = new long[rows];
+            createdAt = new long[rows];
+            updatedAt = new long[rows];
+            amountCents = new long[rows];
+            statuses = new byte[rows];
+            merchantCodes = new int[rows];
+            currencyCodes = new int[rows];
+            methodCodes = new int[rows];
+            transactionIds = new String[rows];
+            customerEmails = new String[rows];
+            descriptions = new String[rows];
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        /**
+         * Dictionary code of a merchant in this segment, or -1 if absent.
+         */
+        int merchantCode(String merchantId) {
+            for (int i = 0; i < merchantDictionary.length; i++) {
+                if (merchantDictionary[i].equals(merchantId)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        Payment.PaymentStatus status(int row) {
+            return STATUSES[statuses[row]];
+        }
+
+        /**
+         * Materialize one row as a detached Payment.
+         */
+        public Payment toPayment(int row) {
+            Payment payment = new Payment();
+            payment.setId(ids[row]);
+            payment.setTransactionId(transactionIds[row].isEmpty() ? null : transactionIds[row]);
+            payment.setMerchantId(merchantDictionary[merchantCodes[row]]);
+            payment.setAmount(BigDecimal.valueOf(amountCents[row], 2));
+            payment.setCurrency(currencyDictionary[currencyCodes[row]]);
+            payment.setPaymentMethod(methodDictionary[methodCodes[row]]);
+            payment.setCustomerEmail(customerEmails[row]);
+            payment.setStatus(status(row));
+            payment.setDescription(descriptions[row]);
+            payment.setCreatedAt(fromEpochMillis(createdAt[row]));
+            payment.setUpdatedAt(fromEpochMillis(updatedAt[row]));
+            return payment;
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package com.example.payment.archive;
+
+import com.example.payment.config.ArchiveProperties;
+import com.example.payment.dto.ArchiveScanResult;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.JobLockRepository;
+import com.example.payment.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Moves old terminal payments out of the hot table into immutable segment
+ * files and answers lookups and aggregate scans over them.
+ *
+ * <p>A batch is written to a {@code .seg.tmp} file, its rows are deleted in
+ * the same transaction, and the file is renamed to {@code .seg} after commit.
+ * Leftover temp files are resolved on the next run: promoted if their rows
+ * are gone from the table, discarded otherwise.
+ *
+ * <p>Every instance schedules the job, but a run first takes the
+ * {@code payment-archive} lease in {@code job_locks}, so one instance archives
+ * at a time and recovery never touches another run's temp files. The segment
+ * directory has to be shared by all instances: each one lists it every
+ * {@code catalog-refresh-interval} to pick up segments the others wrote.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentArchiveService {
+
+    private static final List<Payment.PaymentStatus> TERMINAL_STATUSES = List.of(
+            Payment.PaymentStatus.COMPLETED,
+            Payment.PaymentStatus.REFUNDED,
+            Payment.PaymentStatus.CANCELLED);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String PENDING_SUFFIX = ".seg.tmp";
+
+    static final String LOCK_NAME = "payment-archive";
+
+    private final PaymentRepository paymentRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ArchiveProperties properties;
+    private final JobLockRepository jobLockRepository;
+
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    private final Object catalogLock = new Object();
+    private final Set<Path> cataloged = ConcurrentHashMap.newKeySet();
+    private volatile List<ArchiveSegment> catalog;
+    private volatile long catalogListedAt;
+
+    /**
+     * Scheduled archival run; no-op unless archival is enabled. Runs on every
+     * instance, and the archive lock lets one of them do the work.
+     */
+    @Scheduled(cron = "${payment.archive.cron:0 30 2 * * *}")
+    public void scheduledArchive() {
+        if (properties.isEnabled()) {
+            archive();
+        }
+    }
+
+    /**
+     * Archive eligible payments in batches, unless another instance holds the
+     * archive lock.
+     *
+     * @return number of segments written and payments archived, and whether the run was skipped
+     */
+    public synchronized Map<String, Object> archive() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        if (!holdLock(transaction)) {
+            log.info("Skipping archival, another instance holds the archive lock");
+            return Map.of("segmentsWritten", 0, "paymentsArchived", 0L, "skipped", true);
+        }
+        try {
+            return archiveLocked(transaction);
+        } finally {
+            transaction.executeWithoutResult(status ->
+                    jobLockRepository.release(LOCK_NAME, owner, LocalDateTime.now()));
+        }
+    }
+
+    private Map<String, Object> archiveLocked(TransactionTemplate transaction) {
+        Path directory = directory();
+        try {
+            Files.createDirectories(directory);
+            recoverPendingSegments(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+        int segmentsWritten = 0;
+        long paymentsArchived = 0;
+        for (Payment.PaymentStatus terminal : TERMINAL_STATUSES) {
+            while (segmentsWritten < properties.getMaxBatchesPerRun()) {
+                Path pending = transaction.execute(status -> archiveBatch(directory, terminal, cutoff));
+                if (pending == null) {
+                    break;
+                }
+                ArchiveSegment segment = promote(pending);
+                segmentsWritten++;
+                paymentsArchived += segment.getRowCount();
+                if (!holdLock(transaction)) {
+                    log.warn("Lost the archive lock, stopping after {} segments", segmentsWritten);
+                    return Map.of("segmentsWritten", segmentsWritten, "paymentsArchived", paymentsArchived,
+                            "skipped", false);
+                }
+            }
+        }
+        log.info("Archived {} payments into {} segments", paymentsArchived, segmentsWritten);
+        return Map.of("segmentsWritten", segmentsWritten, "paymentsArchived", paymentsArchived, "skipped", false);
+    }
+
+    /**
+     * Find an archived payment by transaction ID.
+     *
+     * @param transactionId transaction ID
+     * @return Optional containing the archived payment if found
+     */
+    public Optional<Payment> findByTransactionId(String transactionId) {
+        for (ArchiveSegment segment : segments()) {
+            if (!segment.mayContainTransaction(transactionId)) {
+                continue;
+            }
+            ArchiveSegment.Columns columns = load(segment);
+            for (int row = 0; row < columns.size(); row++) {
+                if (transactionId.equals(columns.transactionIds[row])) {
+                    return Optional.of(columns.toPayment(row));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Find archived payments by transaction ID. Each segment whose range
+     * holds any of the IDs is loaded once for all of them, and the search
+     * stops once every ID is found.
+     *
+     * @param transactionIds transaction IDs
+     * @return archived payments found, in no particular order
+     */
+    public List<Payment> findByTransactionIds(Collection<String> transactionIds) {
+        NavigableSet<String> missing = new TreeSet<>(transactionIds);
+        List<Payment> found = new ArrayList<>();
+        for (ArchiveSegment segment : segments()) {
+            if (missing.isEmpty()) {
+                break;
+            }
+            if (!segment.mayContainAnyTransaction(missing)) {
+                continue;
+            }
+            ArchiveSegment.Columns columns = load(segment);
+            for (int row = 0; row < columns.size(); row++) {
+                if (missing.remove(columns.transactionIds[row])) {
+                    found.add(columns.toPayment(row));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Aggregate archived payments matching the filter, scanning segments in parallel.
+     *
+     * @param merchantId optional merchant filter
+     * @param status optional status filter
+     * @param from optional inclusive lower bound on createdAt
+     * @param to optional exclusive upper bound on createdAt
+     * @return aggregates over matching rows
+     */
+    public ArchiveScanResult scan(String merchantId, Payment.PaymentStatus status,
+                                  LocalDateTime from, LocalDateTime to) {
+        List<ArchiveSegment> all = segments();
+        List<ArchiveSegment> candidates = all.stream()
+                .filter(segment -> segment.mayContainMerchant(merchantId))
+                .filter(segment -> segment.mayContainCreatedBetween(from, to))
+                .collect(Collectors.toList());
+        long fromMillis = from == null ? Long.MIN_VALUE : ArchiveSegment.toEpochMillis(from);
+        long toMillis = to == null ? Long.MAX_VALUE : ArchiveSegment.toEpochMillis(to);
+
+        ScanAccumulator total = candidates.parallelStream()
+                .map(segment -> scanSegment(segment, merchantId, status, fromMillis, toMillis))
+                .reduce(new ScanAccumulator(), ScanAccumulator::merge);
+
+        Map<Payment.PaymentStatus, Long> countByStatus = new EnumMap<>(Payment.PaymentStatus.class);
+        Payment.PaymentStatus[] statuses = Payment.PaymentStatus.values();
+        for (int i = 0; i < statuses.length; i++) {
+            if (total.countByStatus[i] > 0) {
+                countByStatus.put(statuses[i], total.countByStatus[i]);
+            }
+        }
+        Map<String, BigDecimal> amountByCurrency = new HashMap<>();
+        total.centsByCurrency.forEach((currency, cents) ->
+                amountByCurrency.put(currency, BigDecimal.valueOf(cents, 2)));
+        return new ArchiveScanResult(all.size(), candidates.size(), total.rowsScanned, total.rowsMatched,
+                countByStatus, amountByCurrency);
+    }
+
+    private Path archiveBatch(Path directory, Payment.PaymentStatus status, LocalDateTime cutoff) {
+        // Pick candidates from the index unlocked, then lock them; a locking read
+        // cannot stop early on H2 and would scan every archivable row
+        List<Long> ids = paymentRepository.findArchivableIds(status, cutoff,
+                PageRequest.of(0, properties.getBatchSize()));
+        if (ids.isEmpty()) {
+            return null;
+        }
+        List<Payment> batch = paymentRepository.findArchivable(ids, status, cutoff);
+        if (batch.isEmpty()) {
+            return null;
+        }
+        Path pending = directory.resolve(segmentName(batch) + PENDING_SUFFIX);
+        try {
+            ArchiveSegment.write(pending, batch);
+            paymentRepository.deleteAllByIdInBatch(batch.stream().map(Payment::getId).collect(Collectors.toList()));
+            return pending;
+        } catch (IOException | RuntimeException ex) {
+            deleteQuietly(pending);
+            if (ex instanceof IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+            throw (RuntimeException) ex;
+        }
+    }
+
+    /**
+     * Take or renew the archive lease. The lease row is created on first use
+     * where the schema did not come from the migrations.
+     */
+    private boolean holdLock(TransactionTemplate transaction) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(properties.getLockLease());
+        Integer claimed = transaction.execute(status -> jobLockRepository.claim(LOCK_NAME, owner, now, until));
+        if (claimed != null && claimed > 0) {
+            return true;
+        }
+        if (jobLockRepository.existsById(LOCK_NAME)) {
+            return false;
+        }
+        try {
+            transaction.executeWithoutResult(status -> jobLockRepository.insert(LOCK_NAME, owner, until));
+            return true;
+        } catch (DataIntegrityViolationException ex) {
+            return false;
+        }
+    }
+
+    private ArchiveSegment promote(Path pending) {
+        String name = pending.getFileName().toString();
+        Path target = pending.resolveSibling(name.substring(0, name.length() - ".tmp".length()));
+        List<ArchiveSegment> segments = segments();
+        try {
+            Files.move(pending, target, StandardCopyOption.ATOMIC_MOVE);
+            ArchiveSegment segment = ArchiveSegment.open(target);
+            if (cataloged.add(target)) {
+                segments.add(segment);
+            }
+            return segment;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void recoverPendingSegments(Path directory) throws IOException {
+        List<Path> pending;
+        try (Stream<Path> files = Files.list(directory)) {
+            pending = files.filter(path -> path.toString().endsWith(PENDING_SUFFIX)).collect(Collectors.toList());
+        }
+        for (Path path : pending) {
+            ArchiveSegment.Columns columns = ArchiveSegment.open(path).load();
+            List<Long> ids = new ArrayList<>(columns.size());
+            for (long id : columns.ids) {
+                ids.add(id);
+            }
+            if (paymentRepository.countByIdIn(ids) == 0) {
+                log.info("Promoting archive segment left over from an interrupted run: {}", path);
+                promote(path);
+            } else {
+                log.info("Discarding archive segment of a rolled back batch: {}", path);
+                Files.delete(path);
+            }
+        }
+    }
+
+    private ScanAccumulator scanSegment(ArchiveSegment segment, String merchantId,
+                                        Payment.PaymentStatus status, long fromMillis, long toMillis) {
+        ArchiveSegment.Columns columns = load(segment);
+        ScanAccumulator accumulator = new ScanAccumulator();
+        accumulator.rowsScanned = columns.size();
+        int merchantCode = merchantId == null ? -1 : columns.merchantCode(merchantId);
+        if (merchantId != null && merchantCode < 0) {
+            return accumulator;
+        }
+        int statusOrdinal = status == null ? -1 : status.ordinal();
+        long[] centsByCurrencyCode = new long[columns.currencyDictionary.length];
+        for (int row = 0; row < columns.size(); row++) {
+            if ((merchantCode >= 0 && columns.merchantCodes[row] != merchantCode)
+                    || (statusOrdinal >= 0 && columns.statuses[row] != statusOrdinal)
+                    || columns.createdAt[row] < fromMillis
+                    || columns.createdAt[row] >= toMillis) {
+                continue;
+            }
+            accumulator.rowsMatched++;
+            accumulator.countByStatus[columns.statuses[row]]++;
+            centsByCurrencyCode[columns.currencyCodes[row]] += columns.amountCents[row];
+        }
+        for (int code = 0; code < centsByCurrencyCode.length; code++) {
+            if (centsByCurrencyCode[code] != 0) {
+                accumulator.centsByCurrency.merge(columns.currencyDictionary[code], centsByCurrencyCode[code],
+                        Long::sum);
+            }
+        }
+        return accumulator;
+    }
+
+    /**
+     * Known segments, adding those that appeared in the directory since it was
+     * last listed, including ones other instances wrote.
+     */
+    private List<ArchiveSegment> segments() {
+        List<ArchiveSegment> loaded = catalog;
+        if (loaded != null && catalogIsFresh()) {
+            return loaded;
+        }
+        synchronized (catalogLock) {
+            loaded = catalog;
+            if (loaded == null) {
+                loaded = new CopyOnWriteArrayList<>();
+            } else if (catalogIsFresh()) {
+                return loaded;
+            }
+            addNewSegments(loaded, directory());
+            catalogListedAt = System.nanoTime();
+            catalog = loaded;
+        }
+        return loaded;
+    }
+
+    private boolean catalogIsFresh() {
+        return System.nanoTime() - catalogListedAt < properties.getCatalogRefreshInterval().toNanos();
+    }
+
+    private void addNewSegments(List<ArchiveSegment> segments, Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(p -> p.toString().endsWith(SEGMENT_SUFFIX)).sorted()
+                    .collect(Collectors.toList())) {
+                if (!cataloged.contains(path)) {
+                    ArchiveSegment segment = ArchiveSegment.open(path);
+                    if (cataloged.add(path)) {
+                        segments.add(segment);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static ArchiveSegment.Columns load(ArchiveSegment segment) {
+        try {
+            return segment.load();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Path directory() {
+        return Paths.get(properties.getDirectory());
+    }
+
+    private static String segmentName(List<Payment> batch) {
+        return String.format("segment-%019d-%019d", batch.get(0).getId(), batch.get(batch.size() - 1).getId());
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Could not delete {}", path, ex);
+        }
+    }
+
+    /**
+     * Partial aggregate of one or more segments.
+     */
+    private static final class ScanAccumulator {
+
+        private long rowsScanned;
+        private long rowsMatched;
+        private final long[] countByStatus = new long[Payment.PaymentStatus.values().length];
+        private final Map<String, Long> centsByCurrency = new HashMap<>();
+
+        ScanAccumulator merge(ScanAccumulator other) {
+            ScanAccumulator merged = new ScanAccumulator();
+            merged.rowsScanned = rowsScanned + other.rowsScanned;
+            merged.rowsMatched = rowsMatched + other.rowsMatched;
+            for (int i = 0; i < countByStatus.length; i++) {
+                merged.countByStatus[i] = countByStatus[i] + other.countByStatus[i];
+            }
+            merged.centsByCurrency.putAll(centsByCurrency);
+            other.centsByCurrency.forEach((currency, cents) -> merged.centsByCurrency.merge(currency, cents,
+                    Long::sum));
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.payment.changefeed;
+
+import com.example.payment.config.ChangeFeedProperties;
+import com.example.payment.dto.ChangeFeedPage;
+import com.example.payment.dto.PaymentResponse;
+import com.example.payment.dto.PaymentResponseMapper;
+import com.example.payment.exception.InvalidPaymentException;
+import com.example.payment.model.ChangeFeedState;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.ChangeFeedStateRepository;
+import com.example.payment.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Per-merchant change feed over payments.
+ *
+ * <p>Writes do not pick a feed position themselves: inserts start with a null
+ * change sequence and updates reset it to null. A sequencer then stamps the
+ * committed pending rows in batches, holding a lock on the single
+ * {@link ChangeFeedState} row, so sequences are handed out in commit order by
+ * one sequencer at a time. A reader therefore never sees sequence N before
+ * every change below N is visible, which a clock or a sequence drawn inside
+ * the writing transaction cannot guarantee. The cursor is the last sequence
+ * a client has seen, and each page is an index range scan on
+ * (merchant_id, change_sequence).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeFeedService {
+
+    static final int STATE_ID = 1;
+
+    private static final String CURSOR_PREFIX = "v1:";
+    private static final String PENDING_SQL =
+            "SELECT id FROM payments WHERE change_sequence IS NULL ORDER BY id LIMIT ?";
+    private static final String STAMP_SQL =
+            "UPDATE payments SET change_sequence = ? WHERE id = ? AND change_sequence IS NULL";
+
+    private final PaymentRepository paymentRepository;
+    private final ChangeFeedStateRepository changeFeedStateRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ChangeFeedProperties properties;
+
+    /**
+     * Get a merchant's changes after a cursor.
+     *
+     * @param merchantId merchant identifier
+     * @param cursor cursor from a previous page, or null to start from the beginning
+     * @param limit maximum number of changes, or null for the default page size
+     * @return changed payments in sequence order and the cursor to resume from
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeedPage getChanges(String merchantId, String cursor, Integer limit) {
+        long afterSequence = decodeCursor(cursor);
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : properties.getDefaultPageSize(),
+                properties.getMaxPageSize()));
+        List<Payment> changes = new ArrayList<>(
+                paymentRepository.findChanges(merchantId, afterSequence, PageRequest.of(0, pageSize + 1)));
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes.remove(pageSize);
+        }
+        long lastSequence = changes.isEmpty() ? afterSequence : changes.get(changes.size() - 1).getChangeSequence();
+        List<PaymentResponse> responses = changes.stream()
+                .map(payment -> PaymentResponseMapper.fromEntity(payment, null))
+                .collect(Collectors.toList());
+        return new ChangeFeedPage(merchantId, responses, encodeCursor(lastSequence), hasMore);
+    }
+
+    /**
+     * Sequence all committed changes that are still pending.
+     *
+     * @return number of changes sequenced
+     */
+    @Scheduled(fixedDelayString = "${payment.change-feed.sequencer-interval-ms:500}")
+    public int sequencePendingChanges() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int total = 0;
+        int sequenced;
+        do {
+            sequenced = transaction.execute(status -> sequenceBatch());
+            total += sequenced;
+        } while (sequenced == properties.getSequencerBatchSize());
+        if (total > 0) {
+            log.debug("Sequenced {} payment changes", total);
+        }
+        return total;
+    }
+
+    private int sequenceBatch() {
+        ChangeFeedState state = changeFeedStateRepository.lockById(STATE_ID)
+                .orElseGet(() -> changeFeedStateRepository.saveAndFlush(new ChangeFeedState(STATE_ID, 0L)));
+        List<Long> pending = jdbcTemplate.queryForList(PENDING_SQL, Long.class, properties.getSequencerBatchSize());
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        long sequence = state.getLastSequence();
+        List<Object[]> stamps = new ArrayList<>(pending.size());
+        for (Long id : pending) {
+            stamps.add(new Object[]{++sequence, id});
+        }
+        jdbcTemplate.batchUpdate(STAMP_SQL, stamps);
+        state.setLastSequence(sequence);
+        return pending.size();
+    }
+
+    private static String encodeCursor(long sequence) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + sequence).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException ex) {
+            // Falls through to the error below; NumberFormatException is an IllegalArgumentException.
+        }
+        throw new InvalidPaymentException("Invalid change feed cursor");
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.payment.concurrency;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that adapts to observed latency.
+ *
+ * <p>Call latency is averaged over short sampling windows and compared with
+ * a long-term baseline. While the short-term latency stays within the
+ * tolerance of the baseline, the limit grows by about sqrt(limit) per
+ * window; when latency rises, it shrinks in proportion to the increase.
+ * Queueing in front of the connection pool shows up as latency, so the
+ * limit settles just below the point where the pool saturates. Calls over
+ * the limit are rejected at once instead of waiting.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    private static final int LONG_WINDOWS = 600;
+    private static final double BASELINE_DECAY = 0.95;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private double longRttNanos;
+    private double shortRttNanos;
+    private int windows;
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double smoothing, long windowNanos, int minWindowSamples) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.windowNanos = windowNanos;
+        this.minWindowSamples = minWindowSamples;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Acquire a slot if the limit allows it.
+     *
+     * @return permit to release when the call completes, or null when over the limit
+     */
+    public Permit tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return new Permit(System.nanoTime(), current + 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Current state for monitoring.
+     *
+     * @return limit, in-flight calls, rejections and latency estimates
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("limit", limit);
+        snapshot.put("inFlight", inFlight.get());
+        snapshot.put("rejected", rejected.sum());
+        snapshot.put("baselineLatencyMs", longRttNanos / 1_000_000.0);
+        snapshot.put("recentLatencyMs", shortRttNanos / 1_000_000.0);
+        return snapshot;
+    }
+
+    synchronized void sample(long rttNanos, int inFlightAtStart, long now) {
+        if (windowSamples == 0) {
+            windowStart = now;
+        }
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        if (windowSamples < minWindowSamples || now - windowStart < windowNanos) {
+            return;
+        }
+        double rtt = (double) windowRttSum / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        update(rtt, maxInFlight);
+    }
+
+    private void update(double rtt, int maxInFlight) {
+        shortRttNanos = rtt;
+        windows = Math.min(windows + 1, LONG_WINDOWS);
+        longRttNanos = windows == 1 ? rtt : longRttNanos + (rtt - longRttNanos) / windows;
+        if (longRttNanos > rtt * 2) {
+            // Latency dropped well below the baseline; let the baseline follow faster.
+            longRttNanos *= BASELINE_DECAY;
+        }
+        if (maxInFlight < estimatedLimit / 2) {
+            // Demand is far below the limit, so latency says nothing about it.
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rtt));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        double smoothed = estimatedLimit * (1 - smoothing) + target * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * A slot held by one in-flight call.
+     */
+    public final class Permit {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Release the slot and record the call's latency.
+         */
+        public void release() {
+            long now = System.nanoTime();
+            inFlight.decrementAndGet();
+            sample(now - startNanos, inFlightAtStart, now);
+        }
+    }
+}
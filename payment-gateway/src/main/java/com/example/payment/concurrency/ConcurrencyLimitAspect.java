@@ -0,0 +1,82 @@
+package com.example.payment.concurrency;
+
+import com.example.payment.config.ConcurrencyLimitProperties;
+import com.example.payment.exception.ServiceOverloadedException;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the read and write concurrency limits to {@code PaymentService} calls.
+ *
+ * <p>Runs outside the transaction advice, so rejected calls never wait for a
+ * connection. Methods marked {@code @Transactional(readOnly = true)} count
+ * against the read limit, everything else against the write limit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "payment.concurrency-limit", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+@Slf4j
+public class ConcurrencyLimitAspect {
+
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final Map<Method, AdaptiveConcurrencyLimiter> limiterByMethod = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitAspect(ConcurrencyLimitProperties properties) {
+        this.readLimiter = create("read", properties.getRead(), properties);
+        this.writeLimiter = create("write", properties.getWrite(), properties);
+    }
+
+    @Around("execution(public * com.example.payment.service.PaymentService.*(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        AdaptiveConcurrencyLimiter limiter = limiterByMethod.computeIfAbsent(method, this::limiterFor);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            log.debug("Rejected {} over {} limit {}", method.getName(), limiter.getName(), limiter.getLimit());
+            throw new ServiceOverloadedException(limiter.getName());
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            permit.release();
+        }
+    }
+
+    /**
+     * Limiters applied by this aspect.
+     *
+     * @return read and write limiters
+     */
+    public List<AdaptiveConcurrencyLimiter> getLimiters() {
+        return List.of(readLimiter, writeLimiter);
+    }
+
+    private AdaptiveConcurrencyLimiter limiterFor(Method method) {
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(method, Transactional.class);
+        return transactional != null && transactional.readOnly() ? readLimiter : writeLimiter;
+    }
+
+    private static AdaptiveConcurrencyLimiter create(String name, ConcurrencyLimitProperties.Limit limit,
+                                                     ConcurrencyLimitProperties properties) {
+        return new AdaptiveConcurrencyLimiter(name, limit.getInitialLimit(), limit.getMinLimit(),
+                limit.getMaxLimit(), properties.getTolerance(), properties.getSmoothing(),
+                properties.getWindow().toNanos(), properties.getMinWindowSamples());
+    }
+}
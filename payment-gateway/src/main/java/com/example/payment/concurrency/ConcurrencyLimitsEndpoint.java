@@ -0,0 +1,32 @@
+package com.example.payment.concurrency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the current concurrency limits and in-flight calls.
+ */
+@Component
+@Endpoint(id = "concurrencylimits")
+@ConditionalOnProperty(prefix = "payment.concurrency-limit", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+@RequiredArgsConstructor
+public class ConcurrencyLimitsEndpoint {
+
+    private final ConcurrencyLimitAspect concurrencyLimitAspect;
+
+    @ReadOperation
+    public Map<String, Object> limits() {
+        Map<String, Object> limits = new LinkedHashMap<>();
+        for (AdaptiveConcurrencyLimiter limiter : concurrencyLimitAspect.getLimiters()) {
+            limits.put(limiter.getName(), limiter.snapshot());
+        }
+        return limits;
+    }
+}
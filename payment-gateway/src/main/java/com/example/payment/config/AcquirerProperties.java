@@ -0,0 +1,164 @@
+package com.example.payment.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration for calls to external acquirers.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.acquirer")
+public class AcquirerProperties {
+
+    /**
+     * Time an acquirer has to answer, including hedged attempts. A payment
+     * whose call runs past it stays PROCESSING.
+     */
+    private Duration deadline = Duration.ofSeconds(2);
+
+    /**
+     * Time a process request waits for its payment to be updated, longer
+     * than the deadline; past it the request gets 504.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Concurrent calls per payment method; calls over it are rejected with 503.
+     */
+    private Map<String, Integer> bulkhead = new HashMap<>(Map.of(
+            "CARD", 100, "UPI", 100, "WALLET", 50, "NET_BANKING", 50));
+
+    /**
+     * Concurrent calls for a payment method not listed in {@link #bulkhead}.
+     */
+    private int defaultBulkhead = 20;
+
+    /**
+     * Per payment method, how long to wait for the first attempt before
+     * sending a second one; methods not listed are never hedged.
+     */
+    private Map<String, Duration> hedgeDelay = new HashMap<>();
+
+    /**
+     * Threads that apply acquirer results to payments.
+     */
+    private int completionThreads = 8;
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private Routing routing = new Routing();
+
+    private Simulator simulator = new Simulator();
+
+    /**
+     * Per-acquirer circuit breaker over the most recent calls.
+     */
+    @Data
+    public static class CircuitBreaker {
+
+        /**
+         * Calls the failure rate is computed over.
+         */
+        private int windowSize = 50;
+
+        /**
+         * Calls needed in the window before the breaker may open.
+         */
+        private int minimumCalls = 20;
+
+        /**
+         * Share of errors and timeouts that opens the breaker.
+         */
+        private double failureRateThreshold = 0.5;
+
+        /**
+         * Time calls fail fast before trial calls are let through.
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        /**
+         * Trial calls that must all succeed to close the breaker again.
+         */
+        private int halfOpenCalls = 5;
+    }
+
+    /**
+     * Choice between acquirers that serve the same payment method.
+     */
+    @Data
+    public static class Routing {
+
+        /**
+         * Age at which a latency or error sample counts half as much as a new one.
+         */
+        private Duration halfLife = Duration.ofSeconds(5);
+
+        /**
+         * Share of calls sent to one of the other acquirers, picked at random,
+         * instead of the best scored, so the stats of the others stay current.
+         */
+        private double explorationRate = 0.01;
+
+        /**
+         * How much the error rate inflates the latency score: an acquirer
+         * failing 10% of calls scores like one twice as slow at the default.
+         */
+        private double errorPenalty = 10;
+
+        /**
+         * Attempts per payment, counting hedges and failovers to another
+         * acquirer after a call that was never sent, all within the deadline.
+         */
+        private int maxAttempts = 3;
+    }
+
+    /**
+     * Simulated acquirer for local runs and tests.
+     */
+    @Data
+    public static class Simulator {
+
+        /**
+         * Whether to register the simulator as an acquirer. Off by default,
+         * as it fails and declines a share of payments at random.
+         */
+        private boolean enabled;
+
+        /**
+         * Behaviour per payment method.
+         */
+        private Map<String, Behaviour> methods = new HashMap<>(Map.of(
+                "CARD", new Behaviour(Duration.ofMillis(120), Duration.ofMillis(1500), 0.01, 0.05),
+                "UPI", new Behaviour(Duration.ofMillis(200), Duration.ofMillis(2500), 0.02, 0.03),
+                "WALLET", new Behaviour(Duration.ofMillis(80), Duration.ofMillis(600), 0.01, 0.02),
+                "NET_BANKING", new Behaviour(Duration.ofMillis(400), Duration.ofMillis(4000), 0.03, 0.05)));
+    }
+
+    /**
+     * Log-normal latency given by its median and 99th percentile, and outcome rates.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Behaviour {
+
+        private Duration medianLatency = Duration.ofMillis(100);
+        private Duration p99Latency = Duration.ofSeconds(1);
+
+        /**
+         * Share of calls that fail with an acquirer error.
+         */
+        private double failureRate;
+
+        /**
+         * Share of calls that are declined.
+         */
+        private double declineRate;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration for archiving terminal payments into cold segment files.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.archive")
+public class ArchiveProperties {
+
+    /**
+     * Whether the scheduled archival job runs.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory holding segment files. With more than one instance it must be
+     * storage every instance mounts, such as a ReadWriteMany volume, because
+     * lookups and scans on each instance read the segments one instance wrote.
+     */
+    private String directory = "data/archive";
+
+    /**
+     * Terminal payments untouched for longer than this are archived.
+     */
+    private Duration retention = Duration.ofDays(90);
+
+    /**
+     * Rows per batch; each batch becomes one segment file.
+     */
+    private int batchSize = 10_000;
+
+    /**
+     * Upper bound of batches per archival run.
+     */
+    private int maxBatchesPerRun = 100;
+
+    /**
+     * How long an archival run holds the cluster-wide archive lock before it
+     * must renew it. Runs renew after every batch; if an instance dies
+     * mid-run, the others wait at most this long before taking over.
+     */
+    private Duration lockLease = Duration.ofMinutes(10);
+
+    /**
+     * How often the segment directory is listed for segments written by
+     * other instances.
+     */
+    private Duration catalogRefreshInterval = Duration.ofSeconds(30);
+}
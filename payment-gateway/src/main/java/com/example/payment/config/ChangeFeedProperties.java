@@ -0,0 +1,27 @@
+package com.example.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration for the merchant change feed.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.change-feed")
+public class ChangeFeedProperties {
+
+    /**
+     * Changes sequenced per sequencer transaction.
+     */
+    private int sequencerBatchSize = 5000;
+
+    /**
+     * Page size when the client does not ask for one.
+     */
+    private int defaultPageSize = 100;
+
+    /**
+     * Largest page a client may ask for.
+     */
+    private int maxPageSize = 1000;
+}
@@ -0,0 +1,64 @@
+package com.example.payment.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the adaptive concurrency limits around payment service calls.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    /**
+     * Whether calls over the limit are rejected.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Limit for read-only calls.
+     */
+    private Limit read = new Limit(20, 4, 200);
+
+    /**
+     * Limit for calls that write.
+     */
+    private Limit write = new Limit(10, 2, 100);
+
+    /**
+     * Latency increase over the long-term baseline tolerated before the limit shrinks.
+     */
+    private double tolerance = 1.5;
+
+    /**
+     * Weight of each new estimate in the limit (0-1).
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Minimum duration of a sampling window.
+     */
+    private Duration window = Duration.ofMillis(100);
+
+    /**
+     * Minimum calls in a sampling window.
+     */
+    private int minWindowSamples = 10;
+
+    /**
+     * Bounds of one concurrency limit.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.payment.config;
+
+import com.example.payment.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wires a primary pool and replica pools behind a routing DataSource.
+ * Only active when {@code payment.datasource.routing.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "payment.datasource.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    /**
+     * Primary (read-write) pool, configured from {@code spring.datasource.*}.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Router over the primary and the configured replicas.
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primary,
+            DataSourceRoutingProperties properties) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            DataSourceRoutingProperties.Replica settings = properties.getReplicas().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + i);
+            pool.setJdbcUrl(settings.getUrl());
+            pool.setUsername(settings.getUsername());
+            pool.setPassword(settings.getPassword());
+            pool.setReadOnly(true);
+            pool.setMaximumPoolSize(properties.getReplicaPoolSize());
+            replicas.add(new ReplicaRoutingDataSource.Replica(pool.getPoolName(), pool));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    /**
+     * DataSource used by JPA; defers connection lookup until the first statement.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Periodic replica health probe.
+     */
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                                     DataSourceRoutingProperties properties) {
+        return new ReplicaHealthMonitor(replicaRoutingDataSource,
+                (int) Math.max(1, properties.getHealthCheckTimeout().toSeconds()));
+    }
+
+    /**
+     * Scheduled task that re-validates replicas so unhealthy ones rejoin.
+     */
+    public static class ReplicaHealthMonitor {
+
+        private final ReplicaRoutingDataSource dataSource;
+        private final int timeoutSeconds;
+
+        public ReplicaHealthMonitor(ReplicaRoutingDataSource dataSource, int timeoutSeconds) {
+            this.dataSource = dataSource;
+            this.timeoutSeconds = timeoutSeconds;
+        }
+
+        @Scheduled(fixedDelayString = "${payment.datasource.routing.health-check-interval-ms:5000}")
+        public void checkReplicas() {
+            dataSource.checkReplicaHealth(timeoutSeconds);
+        }
+    }
+}
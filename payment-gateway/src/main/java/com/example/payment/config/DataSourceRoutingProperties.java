@@ -0,0 +1,52 @@
+package com.example.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration for routing read-only transactions to replica databases.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.datasource.routing")
+public class DataSourceRoutingProperties {
+
+    /**
+     * Whether read-only transactions are routed to replicas.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Replica connection settings.
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Maximum pool size of each replica pool.
+     */
+    private int replicaPoolSize = 10;
+
+    /**
+     * How long reads for a recently written merchant or payment stay pinned to the primary.
+     * Also bounds the age of the last-write token a caller sends back to any instance.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    /**
+     * Timeout of a single replica health probe.
+     */
+    private Duration healthCheckTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Connection settings of a single replica.
+     */
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
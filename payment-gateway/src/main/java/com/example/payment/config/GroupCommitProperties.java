@@ -0,0 +1,41 @@
+package com.example.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration for group commit of payment creates: concurrent creates are
+ * collected for a short window and written with one multi-row insert and one
+ * commit.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.group-commit")
+public class GroupCommitProperties {
+
+    /**
+     * Whether creates outside a caller's transaction are group committed.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Most creates written by one insert and commit.
+     */
+    private int maxBatchSize = 64;
+
+    /**
+     * Longest the first create of a batch waits for others to join it.
+     */
+    private Duration maxWait = Duration.ofNanos(500_000);
+
+    /**
+     * Creates that may wait for a writer; further creates are rejected as overloaded.
+     */
+    private int queueCapacity = 4096;
+
+    /**
+     * Threads committing batches, each on its own connection.
+     */
+    private int writerThreads = 2;
+}
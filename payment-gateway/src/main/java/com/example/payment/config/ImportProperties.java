@@ -0,0 +1,38 @@
+package com.example.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration for bulk payment imports from CSV files.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.import")
+public class ImportProperties {
+
+    /**
+     * Directory import files are read from; requests cannot reach outside it.
+     */
+    private String directory = "data/import";
+
+    /**
+     * Bytes of the input file parsed by one task, rounded to the next line break.
+     */
+    private DataSize chunkSize = DataSize.ofMegabytes(32);
+
+    /**
+     * Rows per JDBC insert batch.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Threads parsing and validating chunks.
+     */
+    private int parserThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Threads writing batches, each on its own connection.
+     */
+    private int writerThreads = 4;
+}
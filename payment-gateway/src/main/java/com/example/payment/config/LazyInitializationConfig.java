@@ -0,0 +1,68 @@
+package com.example.payment.config;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+/**
+ * Lazy initialization of beans that are not needed to serve payments, such as
+ * the API documentation. Unlike {@code spring.main.lazy-initialization}, only
+ * beans declared by classes in {@code payment.startup.lazy-packages} are
+ * deferred, so startup still fails fast on broken payment or database wiring.
+ */
+@Configuration(proxyBeanMethods = false)
+public final class LazyInitializationConfig {
+
+    private LazyInitializationConfig() {
+    }
+
+    @Bean
+    static LazyPackagesPostProcessor lazyPackagesPostProcessor(Environment environment) {
+        List<String> packages = Binder.get(environment)
+                .bind("payment.startup.lazy-packages", Bindable.listOf(String.class))
+                .orElse(List.of());
+        return new LazyPackagesPostProcessor(packages);
+    }
+
+    /**
+     * Marks bean definitions declared in the given packages as lazy.
+     */
+    static final class LazyPackagesPostProcessor implements BeanFactoryPostProcessor {
+
+        private final List<String> packages;
+
+        LazyPackagesPostProcessor(List<String> packages) {
+            this.packages = packages.stream().map(name -> name.endsWith(".") ? name : name + ".").toList();
+        }
+
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            if (packages.isEmpty()) {
+                return;
+            }
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                String declaringClass = declaringClass(definition);
+                if (declaringClass != null && packages.stream().anyMatch(declaringClass::startsWith)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        }
+
+        private static String declaringClass(BeanDefinition definition) {
+            if (definition instanceof AnnotatedBeanDefinition annotated
+                    && annotated.getFactoryMethodMetadata() != null) {
+                return annotated.getFactoryMethodMetadata().getDeclaringClassName();
+            }
+            return definition.getBeanClassName();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.payment.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration for load-aware readiness. Each signal trips readiness when it
+ * rises above its trip threshold and clears only once it has fallen below the
+ * lower recover threshold, so a pod does not flap at the boundary.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.readiness")
+public class ReadinessProperties {
+
+    /**
+     * Whether load signals take part in readiness.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Mean wait for a pooled connection.
+     */
+    private LatencyThreshold poolWait = new LatencyThreshold(Duration.ofMillis(500), Duration.ofMillis(100));
+
+    /**
+     * Mean HTTP request latency.
+     */
+    private LatencyThreshold requestLatency = new LatencyThreshold(Duration.ofSeconds(2), Duration.ofMillis(500));
+
+    /**
+     * Deepest in-process queue, including threads waiting for a connection.
+     */
+    private DepthThreshold queueDepth = new DepthThreshold(100, 25);
+
+    /**
+     * Consecutive evaluations over a trip threshold before the pod is taken out of service.
+     */
+    private int tripAfter = 3;
+
+    /**
+     * Consecutive evaluations with every signal below its recover threshold before the pod is back in service.
+     */
+    private int recoverAfter = 5;
+
+    /**
+     * Trip and recover thresholds for a latency signal.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LatencyThreshold {
+
+        private Duration trip;
+        private Duration recover;
+    }
+
+    /**
+     * Trip and recover thresholds for a queue depth signal.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DepthThreshold {
+
+        private int trip;
+        private int recover;
+    }
+}
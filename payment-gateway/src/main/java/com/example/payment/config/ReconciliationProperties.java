@@ -0,0 +1,39 @@
+package com.example.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration for reconciling acquirer settlement files against payments.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.reconciliation")
+public class ReconciliationProperties {
+
+    /**
+     * Directory settlement files are read from and discrepancy reports are written to;
+     * requests cannot reach outside it.
+     */
+    private String directory = "data/reconciliation";
+
+    /**
+     * Payments per hash partition; the day is split into enough partitions that one
+     * partition's index stays around this size, which bounds memory per join thread.
+     */
+    private int partitionRows = 250_000;
+
+    /**
+     * Fewest hash partitions a run uses, rounded up to a power of two.
+     */
+    private int minPartitions = 16;
+
+    /**
+     * Rows fetched per round trip while streaming the day's payments.
+     */
+    private int fetchSize = 10_000;
+
+    /**
+     * Partitions joined concurrently.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+}
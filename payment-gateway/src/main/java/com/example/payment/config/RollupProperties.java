@@ -0,0 +1,29 @@
+package com.example.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the hourly payment rollups.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.rollup")
+public class RollupProperties {
+
+    /**
+     * Change feed entries folded into the rollups per aggregator transaction.
+     */
+    private int aggregatorBatchSize = 5000;
+
+    /**
+     * Payments read per backfill transaction.
+     */
+    private int backfillChunkSize = 1000;
+
+    /**
+     * Longest time range a rollup query may cover.
+     */
+    private Duration maxQueryRange = Duration.ofDays(92);
+}
@@ -0,0 +1,46 @@
+package com.example.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the end-of-day settlement job.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.settlement")
+public class SettlementProperties {
+
+    /**
+     * Whether yesterday is settled automatically on the configured schedule.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory receiving one sub-directory of CSV files per settled day.
+     */
+    private String directory = "data/settlements";
+
+    /**
+     * Rows fetched per keyset query; bounds the job's working memory.
+     */
+    private int chunkSize = 10_000;
+
+    /**
+     * Chunks between two checkpoints.
+     */
+    private int checkpointInterval = 50;
+
+    /**
+     * Fork-join parallelism used to aggregate a chunk.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * How long a run holds the cluster-wide settlement lock before it must
+     * renew it. Runs renew at every checkpoint; if an instance dies mid-run,
+     * the others wait at most this long before taking over.
+     */
+    private Duration lockLease = Duration.ofMinutes(10);
+}
@@ -0,0 +1,44 @@
+package com.example.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the payment status event stream.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.stream")
+public class StreamProperties {
+
+    /**
+     * Events buffered per subscriber; a subscriber that falls this far behind is disconnected.
+     */
+    private int subscriberBufferSize = 64;
+
+    /**
+     * Recent events kept for Last-Event-ID resume.
+     */
+    private int replayBufferSize = 4096;
+
+    /**
+     * Changes read from the change feed per query when polling.
+     */
+    private int pollBatchSize = 1000;
+
+    /**
+     * Most concurrent subscribers; further subscriptions are rejected with 503.
+     */
+    private int maxSubscribers = 10000;
+
+    /**
+     * Threads shared by all subscribers to write events.
+     */
+    private int dispatchThreads = 2;
+
+    /**
+     * Connection lifetime before the client has to reconnect.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,48 @@
+package com.example.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the stale payment sweeper.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.sweeper")
+public class SweeperProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * PENDING payments not updated for this long are cancelled.
+     */
+    private Duration pendingTimeout = Duration.ofMinutes(30);
+
+    /**
+     * PROCESSING payments not updated for this long are failed. Keep it
+     * longer than the acquirer clients' own timeouts, so a late answer from
+     * the acquirer lands before the sweeper gives up on the payment.
+     */
+    private Duration processingTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Payments claimed and updated per transaction.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Most chunks per status in one run; the rest waits for the next run.
+     */
+    private int maxChunksPerRun = 20;
+
+    /**
+     * Pause between chunks.
+     */
+    private Duration pauseBetweenChunks = Duration.ofMillis(100);
+
+    /**
+     * The run stops while any connection pool has waiting threads or is busier than this fraction.
+     */
+    private double maxPoolUsage = 0.5;
+}
@@ -0,0 +1,47 @@
+package com.example.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the JIT warm-up run after startup. The pod is kept out of
+ * readiness until synthetic payment calls stop triggering compilation or the
+ * time budget runs out.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.warmup")
+public class WarmupProperties {
+
+    /**
+     * Whether a warm-up runs before the pod reports ready.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Longest the warm-up may run; readiness flips when it is spent even if
+     * compilation has not settled.
+     */
+    private Duration timeBudget = Duration.ofSeconds(90);
+
+    /**
+     * Interval over which JIT compile time is sampled.
+     */
+    private Duration checkInterval = Duration.ofSeconds(1);
+
+    /**
+     * Compile time per interval below which compilation counts as settled.
+     */
+    private Duration settledCompileTime = Duration.ofMillis(20);
+
+    /**
+     * Consecutive settled intervals that end the warm-up.
+     */
+    private int settledChecks = 3;
+
+    /**
+     * Merchant ID the synthetic payments are created under.
+     */
+    private String merchantId = "WARMUP";
+}
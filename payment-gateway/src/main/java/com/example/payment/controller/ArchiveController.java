@@ -0,0 +1,58 @@
+package com.example.payment.controller;
+
+import com.example.payment.archive.PaymentArchiveService;
+import com.example.payment.dto.ArchiveScanResult;
+import com.example.payment.model.Payment;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * REST Controller for the cold payment archive.
+ */
+@RestController
+@RequestMapping("/api/v1/archive")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Archive API", description = "Archived payment endpoints")
+public class ArchiveController {
+
+    private final PaymentArchiveService paymentArchiveService;
+
+    /**
+     * Aggregate archived payments.
+     */
+    @GetMapping("/scan")
+    @Operation(summary = "Scan archive",
+               description = "Aggregate archived payments by merchant, status and creation time")
+    public ResponseEntity<ArchiveScanResult> scan(
+            @RequestParam(required = false) String merchantId,
+            @RequestParam(required = false) Payment.PaymentStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Scanning archive for merchant: {}", merchantId);
+        return ResponseEntity.ok(paymentArchiveService.scan(merchantId, status, from, to));
+    }
+
+    /**
+     * Run archival now.
+     */
+    @PostMapping("/run")
+    @Operation(summary = "Run archival",
+               description = "Move old terminal payments into archive segments")
+    public ResponseEntity<Map<String, Object>> run() {
+        log.info("Running payment archival");
+        return ResponseEntity.ok(paymentArchiveService.archive());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.payment.controller;
+
+import com.example.payment.dto.BulkCreateRequest;
+import com.example.payment.dto.BulkCreateResult;
+import com.example.payment.dto.BulkOperationRequest;
+import com.example.payment.dto.BulkOperationResult;
+import com.example.payment.service.BulkPaymentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for bulk payment operations.
+ */
+@RestController
+@RequestMapping("/api/v1/payments/bulk")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Bulk Payment API", description = "Bulk create, refund and cancel endpoints")
+public class BulkPaymentController {
+
+    private final BulkPaymentService bulkPaymentService;
+
+    /**
+     * Create payments in bulk.
+     */
+    @PostMapping("/create")
+    @Operation(summary = "Bulk create",
+               description = "Create up to 1000 payments, with an outcome per payment in request order")
+    public ResponseEntity<BulkCreateResult> create(@Valid @RequestBody BulkCreateRequest request) {
+        log.info("Received bulk create request");
+        return ResponseEntity.ok(bulkPaymentService.create(request));
+    }
+
+    /**
+     * Refund payments in bulk.
+     */
+    @PostMapping("/refund")
+    @Operation(summary = "Bulk refund",
+               description = "Refund completed payments selected by IDs or merchant filter")
+    public ResponseEntity<BulkOperationResult> refund(@Valid @RequestBody BulkOperationRequest request) {
+        log.info("Received bulk refund request");
+        return ResponseEntity.ok(bulkPaymentService.refund(request));
+    }
+
+    /**
+     * Cancel payments in bulk.
+     */
+    @PostMapping("/cancel")
+    @Operation(summary = "Bulk cancel",
+               description = "Cancel payments selected by IDs or merchant filter")
+    public ResponseEntity<BulkOperationResult> cancel(@Valid @RequestBody BulkOperationRequest request) {
+        log.info("Received bulk cancel request");
+        return ResponseEntity.ok(bulkPaymentService.cancel(request));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.payment.controller;
+
+import com.example.payment.changefeed.ChangeFeedService;
+import com.example.payment.dto.ChangeFeedPage;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for the merchant change feed.
+ */
+@RestController
+@RequestMapping("/api/v1/payments/merchant/{merchantId}/changes")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Change Feed API", description = "Incremental payment sync endpoints")
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+
+    /**
+     * Get changes since a cursor.
+     */
+    @GetMapping
+    @Operation(summary = "Get payment changes",
+               description = "Payments changed since the cursor; pass nextCursor back to resume")
+    public ResponseEntity<ChangeFeedPage> getChanges(
+            @PathVariable String merchantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        log.info("Fetching change feed for merchant: {}", merchantId);
+        return ResponseEntity.ok(changeFeedService.getChanges(merchantId, cursor, limit));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.payment.controller;
+
+import com.example.payment.dto.ImportStatus;
+import com.example.payment.importer.PaymentImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for bulk payment imports.
+ */
+@RestController
+@RequestMapping("/api/v1/imports")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Import API", description = "Bulk payment import endpoints")
+public class ImportController {
+
+    private final PaymentImportService paymentImportService;
+
+    /**
+     * Start an import.
+     */
+    @PostMapping
+    @Operation(summary = "Start import",
+               description = "Import payments from a CSV file in the import directory")
+    public ResponseEntity<ImportStatus> start(@RequestParam String file) {
+        log.info("Starting payment import from {}", file);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(paymentImportService.start(file));
+    }
+
+    /**
+     * Get import progress.
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Get import status",
+               description = "Progress, throughput and reject count of an import")
+    public ResponseEntity<ImportStatus> getStatus(@PathVariable String id) {
+        return paymentImportService.getStatus(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.payment.controller;
+
+import com.example.payment.config.AcquirerProperties;
+import com.example.payment.dto.PaymentField;
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.dto.PaymentResponse;
+import com.example.payment.dto.PaymentResponseMapper;
+import com.example.payment.exception.ErrorResponse;
+import com.example.payment.model.Payment;
+import com.example.payment.service.PaymentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * REST Controller for payment operations.
+ */
+@RestController
+@RequestMapping("/api/v1/payments")
+@RequiredArgsConstructor
+@Tag(name = "Payment API", description = "Payment management endpoints")
+public class PaymentController {
+
+    private final PaymentService paymentService;
+    private final AcquirerProperties acquirerProperties;
+
+    /**
+     * Health check endpoint.
+     */
+    @GetMapping("/ping")
+    @Operation(summary = "Health check", description = "Check if API is alive")
+    public ResponseEntity<Map<String, String>> ping() {
+        return ResponseEntity.ok(Map.of(
+            "status", "UP",
+            "message", "Payment Gateway is running",
+            "timestamp", java.time.LocalDateTime.now().toString()
+        ));
+    }
+
+    /**
+     * Create a new payment.
+     */
+    @PostMapping
+    @Operation(summary = "Create payment", description = "Create a new payment transaction")
+    public ResponseEntity<PaymentResponse> createPayment(
+            @Valid @RequestBody PaymentRequest request) {
+        Payment payment = paymentService.createPayment(request);
+        PaymentResponse response = PaymentResponseMapper.fromEntity(payment, 
+                                    "Payment created successfully");
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    /**
+     * Get payment by ID.
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Get payment",
+               description = "Get payment details by ID; fields=id,status,... selects a subset")
+    public ResponseEntity<?> getPaymentById(@PathVariable Long id, @RequestParam(required = false) String fields,
+                                            WebRequest webRequest) {
+        Set<PaymentField> selected = PaymentField.parse(fields);
+        if (isNotModified(webRequest, paymentService.getPaymentVersion(id).orElse(null), selected)) {
+            return null;
+        }
+        if (selected != null) {
+            return ResponseEntity.ok(paymentService.getPaymentFieldsById(id, selected));
+        }
+        Payment payment = paymentService.getPaymentById(id);
+        PaymentResponse response = PaymentResponseMapper.fromEntity(payment, 
+                                    "Payment retrieved successfully");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get payment by transaction ID.
+     */
+    @GetMapping("/transaction/{transactionId}")
+    @Operation(summary = "Get payment by transaction ID", 
+               description = "Get payment details by transaction ID")
+    public ResponseEntity<?> getPaymentByTransactionId(
+            @PathVariable String transactionId, @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        Set<PaymentField> selected = PaymentField.parse(fields);
+        if (isNotModified(webRequest,
+                paymentService.getPaymentVersionByTransactionId(transactionId).orElse(null), selected)) {
+            return null;
+        }
+        if (selected != null) {
+            return ResponseEntity.ok(paymentService.getPaymentFieldsByTransactionId(transactionId, selected));
+        }
+        Payment payment = paymentService.getPaymentByTransactionId(transactionId);
+        PaymentResponse response = PaymentResponseMapper.fromEntity(payment, 
+                                    "Payment retrieved successfully");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get all payments.
+     */
+    @GetMapping
+    @Operation(summary = "Get all payments",
+               description = "Retrieve all payments; fields=id,status,... selects a subset")
+    public ResponseEntity<List<?>> getAllPayments(@RequestParam(required = false) String fields) {
+        Set<PaymentField> selected = PaymentField.parse(fields);
+        if (selected != null) {
+            return ResponseEntity.ok(paymentService.getAllPaymentFields(selected));
+        }
+        List<Payment> payments = paymentService.getAllPayments();
+        List<PaymentResponse> responses = payments.stream()
+                .map(p -> PaymentResponseMapper.fromEntity(p, "Success"))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(responses);
+    }
+
+    /**
+     * Get payments by merchant ID.
+     */
+    @GetMapping("/merchant/{merchantId}")
+    @Operation(summary = "Get payments by merchant", 
+               description = "Get all payments for a specific merchant")
+    public ResponseEntity<List<?>> getPaymentsByMerchantId(
+            @PathVariable String merchantId, @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        Set<PaymentField> selected = PaymentField.parse(fields);
+        if (isNotModified(webRequest, paymentService.getMerchantPaymentsVersion(merchantId).orElse(null),
+                selected)) {
+            return null;
+        }
+        if (selected != null) {
+            return ResponseEntity.ok(paymentService.getPaymentFieldsByMerchantId(merchantId, selected));
+        }
+        List<Payment> payments = paymentService.getPaymentsByMerchantId(merchantId);
+        List<PaymentResponse> responses = payments.stream()
+                .map(p -> PaymentResponseMapper.fromEntity(p, "Success"))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(responses);
+    }
+
+    /**
+     * Process payment.
+     *
+     * <p>The request thread is released while the acquirer answers. The
+     * acquirer deadline normally ends the wait; should the payment update not
+     * finish within the request timeout either, the request gets 504 and the
+     * payment carries on in the background.
+     */
+    @PostMapping("/{id}/process")
+    @Operation(summary = "Process payment", 
+               description = "Send a pending payment to its acquirer")
+    public DeferredResult<ResponseEntity<PaymentResponse>> processPayment(@PathVariable Long id) {
+        DeferredResult<ResponseEntity<PaymentResponse>> result = new DeferredResult<>(
+                acquirerProperties.getRequestTimeout().toMillis(),
+                () -> new ResponseEntity<>(new ErrorResponse(HttpStatus.GATEWAY_TIMEOUT.value(), "Gateway Timeout",
+                        "Payment " + id + " is still being processed", null), HttpStatus.GATEWAY_TIMEOUT));
+        paymentService.processPayment(id).whenComplete((payment, error) -> {
+            if (error != null) {
+                result.setErrorResult(error);
+            } else {
+                result.setResult(ResponseEntity.ok(PaymentResponseMapper.fromEntity(payment,
+                        payment.getStatus() == Payment.PaymentStatus.COMPLETED
+                                ? "Payment processed successfully" : "Payment " + payment.getStatus())));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Refund payment.
+     */
+    @PostMapping("/{id}/refund")
+    @Operation(summary = "Refund payment", 
+               description = "Refund a completed payment")
+    public ResponseEntity<PaymentResponse> refundPayment(@PathVariable Long id) {
+        Payment payment = paymentService.refundPayment(id);
+        PaymentResponse response = PaymentResponseMapper.fromEntity(payment, 
+                                    "Payment refunded successfully");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Cancel payment.
+     */
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "Cancel payment", 
+               description = "Cancel a pending payment")
+    public ResponseEntity<PaymentResponse> cancelPayment(@PathVariable Long id) {
+        Payment payment = paymentService.cancelPayment(id);
+        PaymentResponse response = PaymentResponseMapper.fromEntity(payment, 
+                                    "Payment cancelled successfully");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get payment statistics.
+     */
+    @GetMapping("/statistics")
+    @Operation(summary = "Get statistics", 
+               description = "Get payment processing statistics")
+    public ResponseEntity<Map<String, Object>> getStatistics() {
+        Map<String, Object> stats = paymentService.getPaymentStatistics();
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Set the ETag for a version token and check it against If-None-Match.
+     *
+     * <p>The version is read before the payment, so a concurrent update can
+     * only make the body newer than its ETag; the next poll then sees a
+     * mismatch and refetches, and a stale body is never confirmed as current.
+     *
+     * <p>A {@code fields} selection is a different representation, so its
+     * token is part of the ETag.
+     *
+     * @return true if the client's copy is current and a 304 has been set
+     */
+    private static boolean isNotModified(WebRequest webRequest, String version, Set<PaymentField> fields) {
+        if (version == null) {
+            return false;
+        }
+        String etag = fields != null ? version + "." + PaymentField.token(fields) : version;
+        return webRequest.checkNotModified("\"" + etag + "\"");
+    }
+}
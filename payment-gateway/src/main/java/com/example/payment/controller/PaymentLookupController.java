@@ -0,0 +1,59 @@
+package com.example.payment.controller;
+
+import com.example.payment.dto.PaymentLookupRequest;
+import com.example.payment.service.PaymentLookupService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * REST Controller for multi-get payment lookups.
+ */
+@RestController
+@RequestMapping("/api/v1/payments/lookup")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Payment Lookup API", description = "Look up many payments in one request")
+public class PaymentLookupController {
+
+    private final PaymentLookupService paymentLookupService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Look up payments by IDs and/or transaction IDs.
+     */
+    @PostMapping
+    @Operation(summary = "Look up payments",
+               description = "Streams one entry per requested key in request order, with found=false for misses")
+    public ResponseEntity<StreamingResponseBody> lookup(@Valid @RequestBody PaymentLookupRequest request) {
+        log.info("Received payment lookup request");
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                paymentLookupService.lookup(request, result -> {
+                    try {
+                        generator.writeObject(result);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.payment.controller;
+
+import com.example.payment.exception.PaymentNotFoundException;
+import com.example.payment.service.PaymentService;
+import com.example.payment.stream.PaymentEventHub;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST Controller for Server-Sent Events streams of payment status changes.
+ */
+@RestController
+@RequestMapping("/api/v1/payments")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Payment Events API", description = "Push payment status changes instead of polling")
+public class PaymentStreamController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final PaymentEventHub paymentEventHub;
+    private final PaymentService paymentService;
+
+    /**
+     * Stream status changes of one payment.
+     */
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream payment events",
+               description = "Server-Sent Events for a payment's status changes; reconnect with Last-Event-ID")
+    public ResponseEntity<SseEmitter> streamPayment(
+            @PathVariable Long id,
+            @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        log.info("Opening event stream for payment: {}", id);
+        if (paymentService.getPaymentVersion(id).isEmpty()) {
+            throw new PaymentNotFoundException(id);
+        }
+        return ResponseEntity.ok(paymentEventHub.subscribePayment(id, lastEventId));
+    }
+
+    /**
+     * Stream status changes of a merchant's payments.
+     */
+    @GetMapping(path = "/merchant/{merchantId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream merchant payment events",
+               description = "Server-Sent Events for all of a merchant's payments; reconnect with Last-Event-ID")
+    public ResponseEntity<SseEmitter> streamMerchant(
+            @PathVariable String merchantId,
+            @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        log.info("Opening event stream for merchant: {}", merchantId);
+        return ResponseEntity.ok(paymentEventHub.subscribeMerchant(merchantId, lastEventId));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.payment.controller;
+
+import com.example.payment.dto.ReconciliationSummary;
+import com.example.payment.reconciliation.ReconciliationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * REST Controller for reconciling acquirer settlement files.
+ */
+@RestController
+@RequestMapping("/api/v1/reconciliations")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Reconciliation API", description = "Acquirer settlement reconciliation endpoints")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    /**
+     * Reconcile a settlement file against a day's payments.
+     */
+    @PostMapping("/{date}")
+    @Operation(summary = "Run reconciliation",
+               description = "Match an acquirer settlement file in the reconciliation directory against the "
+                       + "payments of the given day and write a discrepancy report")
+    public ResponseEntity<ReconciliationSummary> reconcile(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam String file) {
+        log.info("Reconciling {} against payments of {}", file, date);
+        return ResponseEntity.ok(reconciliationService.reconcile(date, file));
+    }
+}
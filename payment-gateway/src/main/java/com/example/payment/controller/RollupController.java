@@ -0,0 +1,58 @@
+package com.example.payment.controller;
+
+import com.example.payment.dto.HourlyRollupResponse;
+import com.example.payment.dto.RollupBackfillResult;
+import com.example.payment.model.Payment;
+import com.example.payment.rollup.PaymentRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * REST Controller for hourly payment rollups.
+ */
+@RestController
+@RequestMapping("/api/v1/rollups")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Rollup API", description = "Historical payment aggregate endpoints")
+public class RollupController {
+
+    private final PaymentRollupService paymentRollupService;
+
+    /**
+     * Get hourly aggregates in a time range.
+     */
+    @GetMapping("/hourly")
+    @Operation(summary = "Hourly rollups",
+               description = "Payment count and amount per hour, merchant, currency, payment method and status")
+    public ResponseEntity<List<HourlyRollupResponse>> getHourlyRollups(
+            @RequestParam(required = false) String merchantId,
+            @RequestParam(required = false) Payment.PaymentStatus status,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(paymentRollupService.getHourlyRollups(merchantId, from, to, status));
+    }
+
+    /**
+     * Fold existing payments into the rollups.
+     */
+    @PostMapping("/backfill")
+    @Operation(summary = "Backfill rollups",
+               description = "Fold payments that are not counted under their current status into the rollups")
+    public ResponseEntity<RollupBackfillResult> backfill() {
+        log.info("Running rollup backfill");
+        return ResponseEntity.ok(paymentRollupService.backfill());
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.payment.controller;
+
+import com.example.payment.dto.SettlementSummary;
+import com.example.payment.settlement.SettlementJob;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * REST Controller for end-of-day settlement.
+ */
+@RestController
+@RequestMapping("/api/v1/settlements")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Settlement API", description = "Daily settlement endpoints")
+public class SettlementController {
+
+    private final SettlementJob settlementJob;
+
+    /**
+     * Settle a day.
+     */
+    @PostMapping("/{date}")
+    @Operation(summary = "Run settlement",
+               description = "Write per-merchant settlement files for the given day")
+    public ResponseEntity<SettlementSummary> settle(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.info("Running settlement for {}", date);
+        return ResponseEntity.ok(settlementJob.settle(date));
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.payment.datasource;
+
+import com.example.payment.config.DataSourceRoutingProperties;
+import com.example.payment.model.Payment;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers recent writes so that follow-up reads are served by the primary
+ * instead of a replica that may not have caught up yet.
+ *
+ * <p>Writes are remembered in this instance and also handed back to the
+ * caller as a token holding the write time, in the {@value #LAST_WRITE_HEADER}
+ * header and the {@value #LAST_WRITE_COOKIE} cookie. A request that sends the
+ * token back within the window reads from the primary on whichever instance
+ * serves it.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    /**
+     * Header carrying the time of the caller's last write, in epoch milliseconds.
+     */
+    public static final String LAST_WRITE_HEADER = "X-Last-Write";
+
+    /**
+     * Cookie carrying the same token for callers that keep cookies.
+     */
+    public static final String LAST_WRITE_COOKIE = "last_write";
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private static final int EVICTION_INTERVAL = 1024;
+
+    private static final Scope NO_OP_SCOPE = () -> { };
+
+    private final boolean enabled;
+    private final Duration window;
+    private final long windowNanos;
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger writesSinceEviction = new AtomicInteger();
+
+    public ReadYourWritesTracker(DataSourceRoutingProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.window = properties.getReadYourWritesWindow();
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Record a write to the given payment.
+     *
+     * @param payment payment that was written
+     */
+    public void recordWrite(Payment payment) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        recentWrites.put(merchantKey(payment.getMerchantId()), now);
+        if (payment.getId() != null) {
+            recentWrites.put(paymentKey(payment.getId()), now);
+        }
+        if (payment.getTransactionId() != null) {
+            recentWrites.put(transactionKey(payment.getTransactionId()), now);
+        }
+        if (writesSinceEviction.incrementAndGet() % EVICTION_INTERVAL == 0) {
+            recentWrites.values().removeIf(writtenAt -> now - writtenAt > windowNanos);
+        }
+        issueToken();
+    }
+
+    /**
+     * Pin reads to the primary if the merchant wrote within the window.
+     *
+     * @param merchantId merchant identifier
+     * @return scope to close once the read completes
+     */
+    public Scope forMerchant(String merchantId) {
+        return pinIfRecent(merchantKey(merchantId));
+    }
+
+    /**
+     * Pin reads to the primary if the payment was written within the window.
+     *
+     * @param id payment ID
+     * @return scope to close once the read completes
+     */
+    public Scope forPayment(Long id) {
+        return pinIfRecent(paymentKey(id));
+    }
+
+    /**
+     * Pin reads to the primary if the transaction was written within the window.
+     *
+     * @param transactionId transaction ID
+     * @return scope to close once the read completes
+     */
+    public Scope forTransaction(String transactionId) {
+        return pinIfRecent(transactionKey(transactionId));
+    }
+
+    /**
+     * Whether reads on the current thread must go to the primary.
+     *
+     * @return true if the current thread is pinned to the primary
+     */
+    public static boolean isPrimaryPinned() {
+        return Boolean.TRUE.equals(PRIMARY_PINNED.get());
+    }
+
+    private Scope pinIfRecent(String key) {
+        if (!enabled) {
+            return NO_OP_SCOPE;
+        }
+        Long writtenAt = recentWrites.get(key);
+        boolean recent = writtenAt != null && System.nanoTime() - writtenAt <= windowNanos;
+        if (!recent && !callerWroteRecently()) {
+            return NO_OP_SCOPE;
+        }
+        Boolean previous = PRIMARY_PINNED.get();
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                PRIMARY_PINNED.remove();
+            } else {
+                PRIMARY_PINNED.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Hand the write time back to the caller of the current request. The
+     * header follows the latest write; the cookie is set on the first one.
+     */
+    private void issueToken() {
+        HttpServletResponse response = currentResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        String token = Long.toString(System.currentTimeMillis());
+        boolean first = !response.containsHeader(LAST_WRITE_HEADER);
+        response.setHeader(LAST_WRITE_HEADER, token);
+        if (first) {
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(LAST_WRITE_COOKIE, token)
+                    .path("/")
+                    .maxAge(window)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+        }
+    }
+
+    /**
+     * Whether the caller of the current request sent a token within the
+     * window. Tokens up to one window ahead of this clock are accepted to
+     * allow for skew between instances; later ones are ignored.
+     */
+    private boolean callerWroteRecently() {
+        HttpServletRequest request = currentRequest();
+        if (request == null) {
+            return false;
+        }
+        String token = request.getHeader(LAST_WRITE_HEADER);
+        if (token == null) {
+            Cookie cookie = WebUtils.getCookie(request, LAST_WRITE_COOKIE);
+            token = cookie != null ? cookie.getValue() : null;
+        }
+        if (token == null) {
+            return false;
+        }
+        try {
+            long age = System.currentTimeMillis() - Long.parseLong(token);
+            return Math.abs(age) <= window.toMillis();
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private static HttpServletRequest currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest() : null;
+    }
+
+    private static HttpServletResponse currentResponse() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getResponse() : null;
+    }
+
+    private static String merchantKey(String merchantId) {
+        return "merchant:" + merchantId;
+    }
+
+    private static String paymentKey(Long id) {
+        return "id:" + id;
+    }
+
+    private static String transactionKey(String transactionId) {
+        return "txn:" + transactionId;
+    }
+
+    /**
+     * Read scope that releases the primary pin when closed.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.payment.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * DataSource that sends read-only transactions to healthy replicas and
+ * everything else to the primary.
+ *
+ * <p>Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so the physical connection is only fetched once the transaction's read-only
+ * flag is known.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = selectReplica();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getDataSource().getConnection();
+        } catch (SQLException ex) {
+            replica.markDown(ex);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = selectReplica();
+        if (replica == null) {
+            return primary.getConnection(username, password);
+        }
+        try {
+            return replica.getDataSource().getConnection(username, password);
+        } catch (SQLException ex) {
+            replica.markDown(ex);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    /**
+     * Probe every replica and update its health flag.
+     *
+     * @param timeoutSeconds validation timeout per replica
+     */
+    public void checkReplicaHealth(int timeoutSeconds) {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.getDataSource().getConnection()) {
+                if (connection.isValid(timeoutSeconds)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(null);
+                }
+            } catch (SQLException ex) {
+                replica.markDown(ex);
+            }
+        }
+    }
+
+    /**
+     * Get the configured replicas.
+     *
+     * @return immutable list of replicas
+     */
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException ex) {
+                    log.warn("Failed to close replica pool {}", replica.getName(), ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pick a replica for the current transaction using power-of-two-choices
+     * on active connections, or null if the primary must be used.
+     */
+    private Replica selectReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ReadYourWritesTracker.isPrimaryPinned()) {
+            return null;
+        }
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = ThreadLocalRandom.current().nextInt(size);
+        Replica first = null;
+        Replica second = null;
+        for (int i = 0; i < size && second == null; i++) {
+            Replica candidate = replicas.get((start + i) % size);
+            if (!candidate.isHealthy()) {
+                continue;
+            }
+            if (first == null) {
+                first = candidate;
+            } else {
+                second = candidate;
+            }
+        }
+        if (second == null) {
+            return first;
+        }
+        return second.activeConnections() < first.activeConnections() ? second : first;
+    }
+
+    /**
+     * A replica pool together with its health state.
+     */
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        void markUp() {
+            if (!healthy) {
+                log.info("Replica {} is healthy again", name);
+                healthy = true;
+            }
+        }
+
+        void markDown(SQLException cause) {
+            if (healthy) {
+                log.warn("Replica {} marked unhealthy, falling back to primary: {}", name,
+                        cause != null ? cause.getMessage() : "connection validation failed");
+                healthy = false;
+            }
+        }
+
+        int activeConnections() {
+            if (dataSource instanceof HikariDataSource hikari) {
+                HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                return pool != null ? pool.getActiveConnections() : 0;
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.payment.dto;
+
+import com.example.payment.model.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for aggregates computed over archived payments.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveScanResult {
+
+    private int segmentsTotal;
+    private int segmentsScanned;
+    private long rowsScanned;
+    private long rowsMatched;
+    private Map<Payment.PaymentStatus, Long> countByStatus;
+    private Map<String, BigDecimal> amountByCurrency;
+}
@@ -0,0 +1,39 @@
+package com.example.payment.dto;
+
+import com.example.payment.model.Payment;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Data Transfer Object selecting the payments of a bulk refund or cancel,
+ * either by explicit IDs or by merchant with optional status and creation range.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationRequest {
+
+    @Size(max = 100000, message = "At most 100000 payment IDs per request")
+    private List<Long> ids;
+
+    private String merchantId;
+
+    private Payment.PaymentStatus status;
+
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    @AssertTrue(message = "Either ids or merchantId is required, but not both")
+    private boolean isSelectionValid() {
+        boolean byIds = ids != null && !ids.isEmpty();
+        boolean byFilter = merchantId != null && !merchantId.isBlank();
+        return byIds != byFilter;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.payment.dto;
+
+import com.example.payment.model.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the result of a bulk refund or cancel.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationResult {
+
+    private String operation;
+    private int requested;
+    private int updated;
+    private int failed;
+    private List<Outcome> outcomes;
+
+    /**
+     * Result for a single payment.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Outcome {
+
+        private Long id;
+        private Result result;
+        private Payment.PaymentStatus previousStatus;
+        private String message;
+    }
+
+    /**
+     * Per-payment result.
+     */
+    public enum Result {
+        UPDATED,
+        NOT_FOUND,
+        REJECTED
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of a merchant's change feed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedPage {
+
+    private String merchantId;
+    private List<PaymentResponse> changes;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,36 @@
+package com.example.payment.dto;
+
+import com.example.payment.model.Payment;
+import com.example.payment.model.PaymentHourlyRollup;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for one hourly rollup bucket.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HourlyRollupResponse {
+
+    private LocalDateTime hour;
+    private String merchantId;
+    private String currency;
+    private String paymentMethod;
+    private Payment.PaymentStatus status;
+    private long count;
+    private BigDecimal amount;
+
+    /**
+     * Create response from a rollup bucket.
+     */
+    public static HourlyRollupResponse fromEntity(PaymentHourlyRollup rollup) {
+        return new HourlyRollupResponse(rollup.getKey().getBucketHour(), rollup.getKey().getMerchantId(),
+                rollup.getKey().getCurrency(), rollup.getKey().getPaymentMethod(), rollup.getKey().getStatus(),
+                rollup.getPaymentCount(), rollup.getAmountTotal());
+    }
+}
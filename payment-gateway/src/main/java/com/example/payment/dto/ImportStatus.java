@@ -0,0 +1,26 @@
+package com.example.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress and throughput of a bulk payment import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportStatus {
+
+    private String id;
+    private String file;
+    private String state;
+    private long bytesTotal;
+    private long bytesProcessed;
+    private long rowsImported;
+    private long rowsRejected;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+    private String rejectFile;
+    private String error;
+}
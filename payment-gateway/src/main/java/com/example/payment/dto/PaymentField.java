@@ -0,0 +1,128 @@
+package com.example.payment.dto;
+
+import com.example.payment.exception.InvalidPaymentException;
+import com.example.payment.model.Payment;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Payment fields a client can select with the {@code fields} parameter.
+ * Each name is both the JSON property of {@link PaymentResponse} and the
+ * entity attribute it is read from, so a selection maps straight onto a
+ * JPQL select list. A selection is returned as a JSON object holding exactly
+ * the selected properties, null values included.
+ */
+public enum PaymentField {
+
+    ID("id", Payment::getId),
+    TRANSACTION_ID("transactionId", Payment::getTransactionId),
+    MERCHANT_ID("merchantId", Payment::getMerchantId),
+    AMOUNT("amount", Payment::getAmount),
+    CURRENCY("currency", Payment::getCurrency),
+    PAYMENT_METHOD("paymentMethod", Payment::getPaymentMethod),
+    CUSTOMER_EMAIL("customerEmail", Payment::getCustomerEmail),
+    STATUS("status", Payment::getStatus,
+            value -> value == null ? null : PaymentResponseMapper.toWire((Payment.PaymentStatus) value)),
+    DESCRIPTION("description", Payment::getDescription),
+    CREATED_AT("createdAt", Payment::getCreatedAt);
+
+    private final String property;
+    private final Function<Payment, Object> getter;
+    private final UnaryOperator<Object> toWire;
+
+    PaymentField(String property, Function<Payment, Object> getter) {
+        this(property, getter, UnaryOperator.identity());
+    }
+
+    PaymentField(String property, Function<Payment, Object> getter, UnaryOperator<Object> toWire) {
+        this.property = property;
+        this.getter = getter;
+        this.toWire = toWire;
+    }
+
+    /**
+     * JSON property and entity attribute name.
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Parse a comma-separated field list.
+     *
+     * @param fields field names, e.g. {@code id,transactionId,status}
+     * @return selected fields in declaration order, or null if no list was given
+     * @throws InvalidPaymentException if a name is unknown or the list selects nothing
+     */
+    public static Set<PaymentField> parse(String fields) {
+        if (fields == null) {
+            return null;
+        }
+        Set<PaymentField> selected = EnumSet.noneOf(PaymentField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                selected.add(byProperty(trimmed));
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new InvalidPaymentException("fields must name at least one field");
+        }
+        return selected;
+    }
+
+    /**
+     * Short stable token for a selection, used to tell representations apart in ETags.
+     *
+     * @param fields selected fields
+     * @return the selection as a base-36 bit mask
+     */
+    public static String token(Set<PaymentField> fields) {
+        long mask = 0;
+        for (PaymentField field : fields) {
+            mask |= 1L << field.ordinal();
+        }
+        return Long.toString(mask, Character.MAX_RADIX);
+    }
+
+    /**
+     * Build a response from a projected row whose columns follow the order of {@code fields}.
+     */
+    public static Map<String, Object> toResponse(Set<PaymentField> fields, Object[] row) {
+        Map<String, Object> response = new LinkedHashMap<>(capacity(fields));
+        int column = 0;
+        for (PaymentField field : fields) {
+            response.put(field.property, field.toWire.apply(row[column++]));
+        }
+        return response;
+    }
+
+    /**
+     * Build a response holding only the selected fields of a loaded payment.
+     */
+    public static Map<String, Object> toResponse(Set<PaymentField> fields, Payment payment) {
+        Map<String, Object> response = new LinkedHashMap<>(capacity(fields));
+        for (PaymentField field : fields) {
+            response.put(field.property, field.toWire.apply(field.getter.apply(payment)));
+        }
+        return response;
+    }
+
+    private static int capacity(Set<PaymentField> fields) {
+        return fields.size() * 4 / 3 + 1;
+    }
+
+    private static PaymentField byProperty(String property) {
+        for (PaymentField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new InvalidPaymentException("Unknown field: " + property);
+    }
+}
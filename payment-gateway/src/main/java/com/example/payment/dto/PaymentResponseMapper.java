@@ -1,32 +1,14 @@
 package com.example.payment.dto;
 
 import com.example.payment.model.Payment;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 
 /**
- * Data Transfer Object for payment responses.
+ * Builds {@link PaymentResponse}s, which live in the client module, from payment entities.
  */
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class PaymentResponse {
+public final class PaymentResponseMapper {
 
-    private Long id;
-    private String transactionId;
-    private String merchantId;
-    private BigDecimal amount;
-    private String currency;
-    private String paymentMethod;
-    private String customerEmail;
-    private Payment.PaymentStatus status;
-    private String description;
-    private LocalDateTime createdAt;
-    private String message;
+    private PaymentResponseMapper() {
+    }
 
     /**
      * Create response from Payment entity.
@@ -40,10 +22,17 @@ public class PaymentResponse {
         response.setCurrency(payment.getCurrency());
         response.setPaymentMethod(payment.getPaymentMethod());
         response.setCustomerEmail(payment.getCustomerEmail());
-        response.setStatus(payment.getStatus());
+        response.setStatus(toWire(payment.getStatus()));
         response.setDescription(payment.getDescription());
         response.setCreatedAt(payment.getCreatedAt());
         response.setMessage(message);
         return response;
     }
+
+    /**
+     * Wire status for an entity status; the two enums share constant names.
+     */
+    public static PaymentStatus toWire(Payment.PaymentStatus status) {
+        return status != null ? PaymentStatus.valueOf(status.name()) : null;
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Outcome of reconciling an acquirer settlement file against a day's payments.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationSummary {
+
+    private LocalDate date;
+    private String file;
+    private long linesRead;
+    private long paymentsRead;
+    private long matched;
+    private Map<String, Long> discrepancies;
+    private String reportFile;
+    private long elapsedMillis;
+}
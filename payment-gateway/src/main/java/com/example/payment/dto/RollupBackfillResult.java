@@ -0,0 +1,19 @@
+package com.example.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object describing the outcome of a rollup backfill.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupBackfillResult {
+
+    private long paymentsScanned;
+    private long paymentsRolledUp;
+    private int chunks;
+    private long elapsedMillis;
+}
@@ -0,0 +1,24 @@
+package com.example.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object describing the outcome of a settlement run.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementSummary {
+
+    private LocalDate date;
+    private long paymentsSettled;
+    private int merchants;
+    private int files;
+    private String directory;
+    private boolean resumedFromCheckpoint;
+    private boolean skipped;
+}
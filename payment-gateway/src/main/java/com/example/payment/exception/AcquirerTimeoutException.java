@@ -0,0 +1,30 @@
+package com.example.payment.exception;
+
+import com.example.payment.acquirer.AcquirerResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Exception thrown when an acquirer does not answer before the deadline.
+ * The outcome is unknown, so the payment stays PROCESSING until the late
+ * answer arrives.
+ */
+public class AcquirerTimeoutException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient CompletableFuture<AcquirerResponse> lateAnswer;
+
+    public AcquirerTimeoutException(Long paymentId, CompletableFuture<AcquirerResponse> lateAnswer) {
+        super("Acquirer did not answer in time; payment " + paymentId + " stays PROCESSING", null, false, false);
+        this.lateAnswer = lateAnswer;
+    }
+
+    /**
+     * @return future completed with the acquirer's answer once it arrives, or
+     *         exceptionally if the abandoned calls fail
+     */
+    public CompletableFuture<AcquirerResponse> getLateAnswer() {
+        return lateAnswer;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.payment.exception;
+
+/**
+ * Exception thrown when a payment is not sent to its acquirer because the
+ * acquirer's circuit breaker is open or its bulkhead is full.
+ * Created without a stack trace, as it is thrown on every call while an acquirer is degraded.
+ */
+public class AcquirerUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AcquirerUnavailableException(String reason) {
+        super("Acquirer unavailable (" + reason + "), retry later", null, false, false);
+    }
+}
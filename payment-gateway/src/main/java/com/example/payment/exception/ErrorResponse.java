@@ -0,0 +1,73 @@
+package com.example.payment.exception;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Standard error response structure for API exceptions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorResponse {
+
+    private static volatile Timestamp lastTimestamp = new Timestamp(System.currentTimeMillis());
+
+    private LocalDateTime timestamp;
+    private int status;
+    private String error;
+    private String message;
+    private String path;
+    private List<String> details;
+    /** Validation failures keyed by field name. */
+    private Map<String, String> errors;
+
+    /**
+     * Creates an ErrorResponse with a single message.
+     *
+     * @param status HTTP status code
+     * @param error error type
+     * @param message error message
+     * @param path request path
+     */
+    public ErrorResponse(int status, String error, String message, String path) {
+        this.timestamp = currentTimestamp();
+        this.status = status;
+        this.error = error;
+        this.message = message;
+        this.path = path;
+    }
+
+    /**
+     * Current time at millisecond precision. Error responses created within the
+     * same millisecond share one immutable instance, so an error storm does not
+     * allocate a timestamp per response.
+     */
+    private static LocalDateTime currentTimestamp() {
+        long millis = System.currentTimeMillis();
+        Timestamp last = lastTimestamp;
+        if (last.millis != millis) {
+            last = new Timestamp(millis);
+            lastTimestamp = last;
+        }
+        return last.value;
+    }
+
+    private static final class Timestamp {
+
+        private final long millis;
+        private final LocalDateTime value;
+
+        Timestamp(long millis) {
+            this.millis = millis;
+            this.value = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        }
+    }
+}
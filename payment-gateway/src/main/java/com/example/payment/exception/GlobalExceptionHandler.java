@@ -0,0 +1,118 @@
+package com.example.payment.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Global exception handler for all REST controllers.
+ * Responses reuse the shared empty header set, so an error costs little more
+ * than its {@link ErrorResponse}.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    /**
+     * Handle validation errors.
+     */
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponse> handleValidationExceptions(
+            MethodArgumentNotValidException ex) {
+        List<String> details = new ArrayList<>();
+        Map<String, String> fieldErrors = new LinkedHashMap<>();
+        ex.getBindingResult().getAllErrors().forEach(error -> {
+            String name = error instanceof FieldError fieldError ? fieldError.getField() : error.getObjectName();
+            details.add(name + ": " + error.getDefaultMessage());
+            fieldErrors.putIfAbsent(name, error.getDefaultMessage());
+        });
+        ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Bad Request",
+                "Validation failed", null);
+        error.setDetails(details);
+        error.setErrors(fieldErrors);
+        return new ResponseEntity<>(error, HttpHeaders.EMPTY, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handle payment not found exception.
+     */
+    @ExceptionHandler(PaymentNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentNotFoundException(
+            PaymentNotFoundException ex) {
+        return new ResponseEntity<>(new ErrorResponse(HttpStatus.NOT_FOUND.value(), "Not Found",
+                ex.getMessage(), null), HttpHeaders.EMPTY, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handle invalid payment input.
+     */
+    @ExceptionHandler(InvalidPaymentException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidPaymentException(
+            InvalidPaymentException ex) {
+        return new ResponseEntity<>(new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Invalid Payment",
+                ex.getMessage(), null), HttpHeaders.EMPTY, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handle payment exception.
+     */
+    @ExceptionHandler(PaymentException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentException(
+            PaymentException ex) {
+        return new ResponseEntity<>(new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Payment Error",
+                ex.getMessage(), null), HttpHeaders.EMPTY, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handle calls rejected by a concurrency limit.
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleServiceOverloadedException(
+            ServiceOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), "Service Unavailable",
+                        ex.getMessage(), null));
+    }
+
+    /**
+     * Handle acquirer unavailable exception.
+     */
+    @ExceptionHandler(AcquirerUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleAcquirerUnavailableException(
+            AcquirerUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), "Service Unavailable",
+                        ex.getMessage(), null));
+    }
+
+    /**
+     * Handle acquirer timeout exception.
+     */
+    @ExceptionHandler(AcquirerTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleAcquirerTimeoutException(
+            AcquirerTimeoutException ex) {
+        return new ResponseEntity<>(new ErrorResponse(HttpStatus.GATEWAY_TIMEOUT.value(), "Gateway Timeout",
+                ex.getMessage(), null), HttpHeaders.EMPTY, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    /**
+     * Handle generic exceptions.
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGenericException(
+            Exception ex) {
+        return new ResponseEntity<>(new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                "Internal Server Error", "An unexpected error occurred", null), HttpHeaders.EMPTY,
+                HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
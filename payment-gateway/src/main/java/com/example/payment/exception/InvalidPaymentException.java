@@ -2,16 +2,21 @@ package com.example.payment.exception;
 
 /**
  * Exception thrown when payment validation fails.
+ * Created without a stack trace: it reports bad input, not a code path, and
+ * rejections are frequent enough on the API and import paths that filling
+ * in the stack would dominate their cost.
  */
 public class InvalidPaymentException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructs a new InvalidPaymentException with the specified detail message.
      *
      * @param message the detail message
      */
     public InvalidPaymentException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     /**
@@ -0,0 +1,14 @@
+package com.example.payment.exception;
+
+/**
+ * Exception thrown when a call is rejected by a concurrency limit.
+ * Created without a stack trace, as rejections must stay cheap under overload.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ServiceOverloadedException(String limiter) {
+        super("Service overloaded (" + limiter + " limit reached), retry later", null, false, false);
+    }
+}
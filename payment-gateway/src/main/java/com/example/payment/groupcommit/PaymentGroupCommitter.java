@@ -0,0 +1,257 @@
+package com.example.payment.groupcommit;
+
+import com.example.payment.config.GroupCommitProperties;
+import com.example.payment.exception.ServiceOverloadedException;
+import com.example.payment.model.Payment;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group commit for payment creates.
+ *
+ * <p>Each create otherwise pays for its own transaction and commit. Here the
+ * calling thread queues its payment and waits; writer threads take up to
+ * {@code maxBatchSize} queued payments, waiting at most {@code maxWait} after
+ * the first for others to arrive, and write them with one multi-row insert
+ * in one transaction. A lone caller is written at once instead of waiting out
+ * the window. If the batch fails, for example on a transaction ID collision,
+ * its payments are retried one per transaction, so each caller gets its own
+ * ID or its own error.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.group-commit", name = "enabled", havingValue = "true")
+@Slf4j
+public class PaymentGroupCommitter {
+
+    private static final String INSERT_PREFIX = "INSERT INTO payments (transaction_id, merchant_id, amount, currency, "
+            + "payment_method, customer_email, status, description, created_at, updated_at) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingInsert> queue;
+    private final String[] insertSql;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final DistributionSummary batchSizes;
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public PaymentGroupCommitter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 GroupCommitProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        this.insertSql = new String[maxBatchSize + 1];
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX).append(ROW);
+        for (int rows = 1; rows <= maxBatchSize; rows++) {
+            insertSql[rows] = sql.toString();
+            sql.append(", ").append(ROW);
+        }
+        this.batchSizes = DistributionSummary.builder("payment.group-commit.batch.size")
+                .description("Payments written per group commit")
+                .register(meterRegistry);
+        for (int i = 1; i <= Math.max(1, properties.getWriterThreads()); i++) {
+            Thread writer = new Thread(this::drain, "payment-group-commit-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+    }
+
+    /**
+     * Insert a payment as part of the next group commit and wait for that commit.
+     *
+     * @param payment new payment; its transaction ID and timestamps are filled in if missing
+     * @return the committed payment with its ID
+     */
+    public Payment insert(Payment payment) {
+        PendingInsert pending = new PendingInsert(payment);
+        inFlight.incrementAndGet();
+        try {
+            if (!running || !queue.offer(pending)) {
+                throw new ServiceOverloadedException("group-commit");
+            }
+            return pending.result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        List<PendingInsert> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(pending -> pending.result.completeExceptionally(
+                new IllegalStateException("Group commit is shutting down")));
+    }
+
+    private void drain() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingInsert first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                commit(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.result.completeExceptionally(
+                        new IllegalStateException("Group commit writer interrupted")));
+                return;
+            } catch (RuntimeException ex) {
+                batch.forEach(pending -> pending.result.completeExceptionally(ex));
+                log.error("Group commit of {} payments failed", batch.size(), ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Fill the batch from the queue until it is full, the window closes, or no other caller is waiting.
+     */
+    private void collect(List<PendingInsert> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            // Callers already in this batch or in another writer's are the only ones that could join soon
+            if (batch.size() >= maxBatchSize || remaining <= 0 || inFlight.get() <= batch.size()) {
+                return;
+            }
+            PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingInsert> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> transactionIds = new HashSet<>();
+        for (PendingInsert pending : batch) {
+            Payment payment = pending.payment;
+            // Generated IDs only carry millisecond time and a small random part, so a batch must not repeat one
+            while (payment.getTransactionId() == null || !transactionIds.add(payment.getTransactionId())) {
+                payment.setTransactionId(Payment.generateTransactionId());
+            }
+            if (payment.getCreatedAt() == null) {
+                payment.setCreatedAt(now);
+            }
+            payment.setUpdatedAt(payment.getCreatedAt());
+        }
+        batchSizes.record(batch.size());
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> insertRows(batch));
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), ids.get(i));
+            }
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(ex);
+                return;
+            }
+            log.debug("Group commit of {} payments failed, retrying one by one: {}", batch.size(), ex.getMessage());
+            for (PendingInsert pending : batch) {
+                try {
+                    List<Long> ids = transactionTemplate.execute(status -> insertRows(List.of(pending)));
+                    complete(pending, ids.get(0));
+                } catch (RuntimeException rowEx) {
+                    pending.result.completeExceptionally(rowEx);
+                }
+            }
+        }
+    }
+
+    private List<Long> insertRows(List<PendingInsert> rows) {
+        String sql = insertSql[rows.size()];
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"id"});
+            int index = 1;
+            for (PendingInsert row : rows) {
+                Payment payment = row.payment;
+                ps.setString(index++, payment.getTransactionId());
+                ps.setString(index++, payment.getMerchantId());
+                ps.setBigDecimal(index++, payment.getAmount());
+                ps.setString(index++, payment.getCurrency());
+                ps.setString(index++, payment.getPaymentMethod());
+                ps.setString(index++, payment.getCustomerEmail());
+                ps.setString(index++, payment.getStatus().name());
+                ps.setString(index++, payment.getDescription());
+                ps.setTimestamp(index++, Timestamp.valueOf(payment.getCreatedAt()));
+                ps.setTimestamp(index++, Timestamp.valueOf(payment.getUpdatedAt()));
+            }
+            return ps;
+        }, keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        if (generated.size() != rows.size()) {
+            throw new IllegalStateException("Expected " + rows.size() + " generated IDs, got " + generated.size());
+        }
+        List<Long> ids = new ArrayList<>(generated.size());
+        for (Map<String, Object> key : generated) {
+            ids.add(((Number) key.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    private static void complete(PendingInsert pending, long id) {
+        pending.payment.setId(id);
+        pending.result.complete(pending.payment);
+    }
+
+    /**
+     * A queued payment and the caller waiting for its commit.
+     */
+    private static final class PendingInsert {
+
+        private final Payment payment;
+        private final CompletableFuture<Payment> result = new CompletableFuture<>();
+
+        PendingInsert(Payment payment) {
+            this.payment = payment;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.payment.health;
+
+import com.example.payment.config.ReadinessProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Readiness indicator that takes the pod out of service while it is saturated.
+ *
+ * <p>Every evaluation samples the mean connection pool wait and mean HTTP
+ * request latency since the previous evaluation, and the depth of in-process
+ * queues (threads waiting for a pooled connection plus every
+ * {@link QueueDepthSource}). The indicator reports OUT_OF_SERVICE after
+ * {@code tripAfter} consecutive evaluations with a signal over its trip
+ * threshold, and UP again after {@code recoverAfter} consecutive evaluations
+ * with all signals below their recover thresholds. Probes read the last
+ * result, so they stay cheap while the pod is overloaded. Request latency
+ * leaves out actuator probes and the event streams, whose requests last as
+ * long as a client stays subscribed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.readiness", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class LoadReadinessHealthIndicator implements HealthIndicator {
+
+    private static final String ACTUATOR_URI_PREFIX = "/actuator";
+    private static final String EVENT_STREAM_URI_SUFFIX = "/events";
+
+    private final ReadinessProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<QueueDepthSource> queueDepthSources;
+    private final TimerDelta poolWait;
+    private final TimerDelta requestLatency;
+    private volatile Health health = Health.up().build();
+
+    // Guarded by this
+    private boolean tripped;
+    private int evaluationsOver;
+    private int evaluationsUnder;
+
+    public LoadReadinessHealthIndicator(ReadinessProperties properties, MeterRegistry meterRegistry,
+                                        ObjectProvider<QueueDepthSource> queueDepthSources) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.queueDepthSources = queueDepthSources;
+        this.poolWait = new TimerDelta("hikaricp.connections.acquire", timer -> true);
+        this.requestLatency = new TimerDelta("http.server.requests", timer -> {
+            String uri = timer.getId().getTag("uri");
+            return uri == null || !(uri.startsWith(ACTUATOR_URI_PREFIX) || uri.endsWith(EVENT_STREAM_URI_SUFFIX));
+        });
+    }
+
+    @Override
+    public Health health() {
+        return health;
+    }
+
+    /**
+     * Sample the load signals and update readiness.
+     */
+    @Scheduled(fixedDelayString = "${payment.readiness.evaluation-interval-ms:1000}")
+    public synchronized void evaluate() {
+        double poolWaitMs = poolWait.meanMillis(meterRegistry);
+        double requestLatencyMs = requestLatency.meanMillis(meterRegistry);
+        Map<String, Integer> queueDepths = queueDepths();
+        int maxQueueDepth = queueDepths.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+
+        List<String> overThreshold = new ArrayList<>();
+        if (poolWaitMs > properties.getPoolWait().getTrip().toMillis()) {
+            overThreshold.add("poolWait");
+        }
+        if (requestLatencyMs > properties.getRequestLatency().getTrip().toMillis()) {
+            overThreshold.add("requestLatency");
+        }
+        if (maxQueueDepth > properties.getQueueDepth().getTrip()) {
+            overThreshold.add("queueDepth");
+        }
+        boolean allRecovered = poolWaitMs < properties.getPoolWait().getRecover().toMillis()
+                && requestLatencyMs < properties.getRequestLatency().getRecover().toMillis()
+                && maxQueueDepth < properties.getQueueDepth().getRecover();
+
+        if (!tripped) {
+            evaluationsOver = overThreshold.isEmpty() ? 0 : evaluationsOver + 1;
+            if (evaluationsOver >= properties.getTripAfter()) {
+                tripped = true;
+                evaluationsUnder = 0;
+                log.warn("Taking pod out of service, over threshold: {}", overThreshold);
+            }
+        } else {
+            evaluationsUnder = allRecovered ? evaluationsUnder + 1 : 0;
+            if (evaluationsUnder >= properties.getRecoverAfter()) {
+                tripped = false;
+                evaluationsOver = 0;
+                log.info("Load recovered, pod back in service");
+            }
+        }
+
+        health = (tripped ? Health.outOfService() : Health.up())
+                .withDetail("poolWaitMs", Math.round(poolWaitMs))
+                .withDetail("requestLatencyMs", Math.round(requestLatencyMs))
+                .withDetail("queueDepths", queueDepths)
+                .withDetail("overThreshold", overThreshold)
+                .build();
+    }
+
+    private Map<String, Integer> queueDepths() {
+        Map<String, Integer> depths = new TreeMap<>();
+        for (Gauge gauge : meterRegistry.find("hikaricp.connections.pending").gauges()) {
+            depths.merge("connectionPool:" + gauge.getId().getTag("pool"), (int) gauge.value(), Integer::sum);
+        }
+        queueDepthSources.orderedStream().forEach(source -> depths.putAll(source.queueDepths()));
+        return depths;
+    }
+
+    /**
+     * Mean duration of a timer's samples, across all its tag sets, since the previous call.
+     */
+    private static final class TimerDelta {
+
+        private final String name;
+        private final Predicate<Timer> filter;
+        private long lastCount;
+        private double lastTotalNanos;
+
+        TimerDelta(String name, Predicate<Timer> filter) {
+            this.name = name;
+            this.filter = filter;
+        }
+
+        double meanMillis(MeterRegistry registry) {
+            long count = 0;
+            double totalNanos = 0;
+            for (Timer timer : registry.find(name).timers()) {
+                if (filter.test(timer)) {
+                    count += timer.count();
+                    totalNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+                }
+            }
+            long samples = count - lastCount;
+            double elapsedNanos = totalNanos - lastTotalNanos;
+            lastCount = count;
+            lastTotalNanos = totalNanos;
+            return samples <= 0 ? 0 : elapsedNanos / samples / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.payment.health;
+
+import java.util.Map;
+
+/**
+ * In-process queue whose depth counts towards load-aware readiness.
+ */
+public interface QueueDepthSource {
+
+    /**
+     * Current depth of each queue.
+     *
+     * @return queue name to number of waiting items
+     */
+    Map<String, Integer> queueDepths();
+}
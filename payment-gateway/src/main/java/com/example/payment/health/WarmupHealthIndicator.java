@@ -0,0 +1,39 @@
+package com.example.payment.health;
+
+import com.example.payment.warmup.PaymentWarmupRunner;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Readiness indicator that keeps the pod out of service until the JIT warm-up
+ * has finished, and reports how long it took. UP when warm-up is disabled.
+ */
+@Component
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final ObjectProvider<PaymentWarmupRunner> runner;
+
+    public WarmupHealthIndicator(ObjectProvider<PaymentWarmupRunner> runner) {
+        this.runner = runner;
+    }
+
+    @Override
+    public Health health() {
+        PaymentWarmupRunner warmup = runner.getIfAvailable();
+        if (warmup == null) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        PaymentWarmupRunner.Result result = warmup.getResult();
+        if (result == null) {
+            return Health.outOfService().withDetail("elapsedMs", warmup.getElapsed().toMillis()).build();
+        }
+        return Health.up()
+                .withDetail("outcome", result.outcome())
+                .withDetail("durationMs", result.duration().toMillis())
+                .withDetail("iterations", result.iterations())
+                .withDetail("compileTimeMs", result.compileTime().toMillis())
+                .build();
+    }
+}
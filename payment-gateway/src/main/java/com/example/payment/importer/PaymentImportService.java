@@ -0,0 +1,519 @@
+package com.example.payment.importer;
+
+import com.example.payment.config.ImportProperties;
+import com.example.payment.dto.ImportStatus;
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.exception.InvalidPaymentException;
+import com.example.payment.model.Payment;
+import com.example.payment.service.PaymentValidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of historical payments from CSV files.
+ *
+ * <p>The input file is memory-mapped and split into chunks on line
+ * boundaries. Chunks are parsed and validated in parallel with the same rules
+ * as {@code PaymentService.createPayment}; valid rows are handed in batches to
+ * writer threads, each inserting through its own connection. A full writer
+ * queue makes parsers write the batch themselves, which bounds memory. Rows
+ * that fail validation or insertion go to a reject file next to the input.
+ *
+ * <p>Records must be single-line; quoted fields may contain commas.
+ */
+@Service
+@Slf4j
+public class PaymentImportService {
+
+    static final String HEADER =
+            "transaction_id,merchant_id,amount,currency,payment_method,customer_email,status,created_at,description";
+
+    private static final String INSERT_SQL = "INSERT INTO payments (transaction_id, merchant_id, amount, currency, "
+            + "payment_method, customer_email, status, description, created_at, updated_at, completed_at, "
+            + "refunded_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int FIELD_COUNT = 9;
+    private static final int MAX_REASON_LENGTH = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ImportProperties properties;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(threadFactory("payment-import"));
+
+    public PaymentImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                Validator validator, ImportProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.properties = properties;
+        this.importedRows = Counter.builder("payment.import.rows").tag("outcome", "imported")
+                .description("Rows inserted by bulk imports").register(meterRegistry);
+        this.rejectedRows = Counter.builder("payment.import.rows").tag("outcome", "rejected")
+                .description("Rows written to import reject files").register(meterRegistry);
+    }
+
+    /**
+     * Start importing a file from the import directory in the background.
+     *
+     * @param fileName file name relative to the import directory
+     * @return initial status of the import
+     */
+    public ImportStatus start(String fileName) {
+        ImportJob job = createJob(fileName);
+        coordinator.execute(() -> execute(job));
+        return job.toStatus();
+    }
+
+    /**
+     * Import a file from the import directory and wait for completion.
+     *
+     * @param fileName file name relative to the import directory
+     * @return final status of the import
+     */
+    public ImportStatus importFile(String fileName) {
+        ImportJob job = createJob(fileName);
+        execute(job);
+        return job.toStatus();
+    }
+
+    /**
+     * Current status of an import.
+     *
+     * @param id import identifier
+     * @return status, if the import is known
+     */
+    public Optional<ImportStatus> getStatus(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(ImportJob::toStatus);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    private ImportJob createJob(String fileName) {
+        Path directory = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new InvalidPaymentException("Import file not found in import directory: " + fileName);
+        }
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file,
+                file.resolveSibling(file.getFileName() + ".rejects.csv"));
+        jobs.put(job.id, job);
+        return job;
+    }
+
+    private void execute(ImportJob job) {
+        log.info("Starting import {} of {}", job.id, job.file);
+        try (FileChannel channel = FileChannel.open(job.file, StandardOpenOption.READ);
+             RejectWriter rejects = new RejectWriter(job.rejectFile)) {
+            job.bytesTotal = channel.size();
+            List<long[]> chunks = split(channel, skipHeader(channel));
+            runChunks(job, channel, chunks, rejects);
+        } catch (IOException | RuntimeException ex) {
+            job.fail(ex);
+        }
+        job.finish();
+        ImportStatus status = job.toStatus();
+        log.info("Import {} {}: {} rows imported, {} rejected in {} ms ({} rows/s)", job.id, status.getState(),
+                status.getRowsImported(), status.getRowsRejected(), status.getElapsedMillis(),
+                status.getRowsPerSecond());
+    }
+
+    private void runChunks(ImportJob job, FileChannel channel, List<long[]> chunks, RejectWriter rejects) {
+        int writerThreads = Math.max(1, properties.getWriterThreads());
+        ThreadPoolExecutor writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writerThreads * 2), threadFactory("payment-import-writer"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        ExecutorService parsers = Executors.newFixedThreadPool(Math.max(1, properties.getParserThreads()),
+                threadFactory("payment-import-parser"));
+        try {
+            List<Future<?>> futures = new ArrayList<>(chunks.size());
+            for (long[] chunk : chunks) {
+                futures.add(parsers.submit(() -> {
+                    parseChunk(job, channel, chunk[0], chunk[1], writers, rejects);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            job.fail(ex);
+        } catch (ExecutionException ex) {
+            job.fail(ex.getCause());
+        } finally {
+            parsers.shutdownNow();
+            writers.shutdown();
+            awaitQuietly(writers);
+        }
+    }
+
+    private long skipHeader(FileChannel channel) throws IOException {
+        long end = nextLineStart(channel, 0);
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(end, HEADER.length() + 8));
+        channel.read(buffer, 0);
+        String header = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).strip();
+        if (!HEADER.equals(header)) {
+            throw new InvalidPaymentException("Import file header must be: " + HEADER);
+        }
+        return end;
+    }
+
+    private List<long[]> split(FileChannel channel, long start) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.max(1, Math.min(properties.getChunkSize().toBytes(), Integer.MAX_VALUE));
+        List<long[]> chunks = new ArrayList<>();
+        long from = start;
+        while (from < size) {
+            long to = from + chunkSize >= size ? size : nextLineStart(channel, from + chunkSize);
+            chunks.add(new long[]{from, to});
+            from = to;
+        }
+        return chunks;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    private void parseChunk(ImportJob job, FileChannel channel, long from, long to,
+                            ThreadPoolExecutor writers, RejectWriter rejects) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        byte[] line = new byte[512];
+        int length = 0;
+        long lineStart = from;
+        long reported = from;
+        while (buffer.hasRemaining() && !job.isFailed()) {
+            byte b = buffer.get();
+            if (b != '\n') {
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+                continue;
+            }
+            acceptLine(job, line, length, lineStart, batch, rejects);
+            length = 0;
+            lineStart = from + buffer.position();
+            if (batch.size() >= batchSize) {
+                dispatch(job, batch, writers, rejects);
+                batch = new ArrayList<>(batchSize);
+                job.bytesProcessed.addAndGet(lineStart - reported);
+                reported = lineStart;
+            }
+        }
+        if (length > 0) {
+            acceptLine(job, line, length, lineStart, batch, rejects);
+        }
+        if (!batch.isEmpty()) {
+            dispatch(job, batch, writers, rejects);
+        }
+        job.bytesProcessed.addAndGet(to - reported);
+    }
+
+    private void acceptLine(ImportJob job, byte[] bytes, int length, long offset,
+                            List<ImportRow> batch, RejectWriter rejects) {
+        int end = length > 0 && bytes[length - 1] == '\r' ? length - 1 : length;
+        if (end == 0) {
+            return;
+        }
+        String line = new String(bytes, 0, end, StandardCharsets.UTF_8);
+        try {
+            batch.add(new ImportRow(offset, line, toParameters(line)));
+        } catch (InvalidPaymentException ex) {
+            reject(job, rejects, offset, ex.getMessage(), line);
+        }
+    }
+
+    private Object[] toParameters(String line) {
+        List<String> fields = parseFields(line);
+        if (fields.size() != FIELD_COUNT) {
+            throw new InvalidPaymentException("Expected " + FIELD_COUNT + " fields but found " + fields.size());
+        }
+        BigDecimal amount = parseAmount(fields.get(2));
+        String description = fields.get(8).isEmpty() ? null : fields.get(8);
+        PaymentRequest request = new PaymentRequest(fields.get(1), amount, fields.get(3), fields.get(4),
+                fields.get(5), description);
+        Set<ConstraintViolation<PaymentRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new InvalidPaymentException(violations.stream().map(ConstraintViolation::getMessage)
+                    .sorted().collect(Collectors.joining("; ")));
+        }
+        PaymentValidator.validate(request);
+
+        Payment.PaymentStatus status = parseStatus(fields.get(6));
+        Timestamp createdAt = Timestamp.valueOf(parseCreatedAt(fields.get(7)));
+        String transactionId = fields.get(0).isEmpty() ? "TXN-" + UUID.randomUUID() : fields.get(0);
+        boolean captured = status == Payment.PaymentStatus.COMPLETED || status == Payment.PaymentStatus.REFUNDED;
+        return new Object[]{transactionId, request.getMerchantId(), amount, request.getCurrency(),
+            request.getPaymentMethod(), request.getCustomerEmail(), status.name(), description, createdAt, createdAt,
+            captured ? createdAt : null, status == Payment.PaymentStatus.REFUNDED ? createdAt : null};
+    }
+
+    private static BigDecimal parseAmount(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidPaymentException("Invalid amount: " + value);
+        }
+    }
+
+    private static Payment.PaymentStatus parseStatus(String value) {
+        try {
+            return Payment.PaymentStatus.valueOf(value);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidPaymentException("Invalid status: " + value);
+        }
+    }
+
+    private static LocalDateTime parseCreatedAt(String value) {
+        if (value.isEmpty()) {
+            return LocalDateTime.now();
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw new InvalidPaymentException("Invalid created_at: " + value);
+        }
+    }
+
+    /**
+     * Split a CSV record into fields; double quotes enclose fields and are escaped by doubling.
+     */
+    static List<String> parseFields(String line) {
+        List<String> fields = new ArrayList<>(FIELD_COUNT);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().strip());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().strip());
+        return fields;
+    }
+
+    private void dispatch(ImportJob job, List<ImportRow> batch, ThreadPoolExecutor writers, RejectWriter rejects) {
+        writers.execute(() -> {
+            if (job.isFailed()) {
+                return;
+            }
+            try {
+                write(job, batch, rejects);
+            } catch (RuntimeException ex) {
+                job.fail(ex);
+            }
+        });
+    }
+
+    private void write(ImportJob job, List<ImportRow> batch, RejectWriter rejects) {
+        List<Object[]> parameters = batch.stream().map(ImportRow::parameters).collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.batchUpdate(INSERT_SQL, parameters));
+            job.rowsImported.addAndGet(batch.size());
+            importedRows.increment(batch.size());
+        } catch (DataIntegrityViolationException ex) {
+            // Isolate the offending rows; the rest of the batch is still imported.
+            for (ImportRow row : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.update(INSERT_SQL, row.parameters()));
+                    job.rowsImported.incrementAndGet();
+                    importedRows.increment();
+                } catch (DataIntegrityViolationException rowEx) {
+                    reject(job, rejects, row.offset(), rowEx.getMostSpecificCause().getMessage(), row.line());
+                }
+            }
+        }
+    }
+
+    private void reject(ImportJob job, RejectWriter rejects, long offset, String reason, String line) {
+        rejects.write(offset, reason, line);
+        job.rowsRejected.incrementAndGet();
+        rejectedRows.increment();
+    }
+
+    private static void awaitQuietly(ExecutorService executor) {
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A parsed, validated row with its position in the input for reject reporting.
+     */
+    private record ImportRow(long offset, String line, Object[] parameters) {
+    }
+
+    /**
+     * Reject file shared by all parser and writer threads.
+     */
+    private static final class RejectWriter implements Closeable {
+
+        private final BufferedWriter writer;
+
+        RejectWriter(Path path) throws IOException {
+            this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            writer.write("byte_offset,reason,record\n");
+        }
+
+        synchronized void write(long offset, String reason, String line) {
+            String text = reason == null ? "Rejected" : reason;
+            if (text.length() > MAX_REASON_LENGTH) {
+                text = text.substring(0, MAX_REASON_LENGTH);
+            }
+            try {
+                writer.write(offset + ",\"" + text.replace("\"", "\"\"").replace('\n', ' ') + "\"," + line + "\n");
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    /**
+     * Mutable progress of one import.
+     */
+    private static final class ImportJob {
+
+        private final String id;
+        private final Path file;
+        private final Path rejectFile;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong bytesProcessed = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private volatile long bytesTotal;
+        private volatile long endNanos;
+        private volatile String state = "RUNNING";
+        private volatile String error;
+
+        ImportJob(String id, Path file, Path rejectFile) {
+            this.id = id;
+            this.file = file;
+            this.rejectFile = rejectFile;
+        }
+
+        boolean isFailed() {
+            return error != null;
+        }
+
+        synchronized void fail(Throwable cause) {
+            if (error == null) {
+                log.error("Import {} failed", id, cause);
+                error = String.valueOf(cause.getMessage());
+            }
+        }
+
+        void finish() {
+            endNanos = System.nanoTime();
+            state = isFailed() ? "FAILED" : "COMPLETED";
+        }
+
+        ImportStatus toStatus() {
+            long elapsedNanos = (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            long rows = rowsImported.get();
+            long rowsPerSecond = elapsedNanos == 0 ? 0 : rows * 1_000_000_000L / elapsedNanos;
+            return new ImportStatus(id, file.getFileName().toString(), state, bytesTotal, bytesProcessed.get(),
+                    rows, rowsRejected.get(), elapsedMillis, rowsPerSecond, rejectFile.getFileName().toString(),
+                    error);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.payment.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.Value;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Offline summary of the payment operation events in a {@code .jfr} recording.
+ *
+ * <p>Prints one row per operation with its latency percentiles and how the
+ * mean splits into repository time and everything else. The analyzer only
+ * needs the JDK, so it runs straight from the compiled classes:
+ * {@code java -cp target/classes com.example.payment.jfr.JfrRecordingAnalyzer recording.jfr}.
+ * The events only cover calls over the recording's threshold, so the
+ * percentiles describe slow calls, not all traffic.
+ */
+public final class JfrRecordingAnalyzer {
+
+    private static final String ROW_FORMAT = "%-32s %7s %6s %9s %9s %9s %9s %9s %9s%n";
+
+    private JfrRecordingAnalyzer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrRecordingAnalyzer <recording.jfr>");
+            System.exit(2);
+        }
+        List<OperationSummary> summaries = summarize(Path.of(args[0]));
+        System.out.printf(ROW_FORMAT, "operation", "count", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms",
+                "db ms", "other ms");
+        for (OperationSummary summary : summaries) {
+            System.out.printf(ROW_FORMAT, summary.getOperation(), summary.getCount(), summary.getErrors(),
+                    millis(summary.getP50()), millis(summary.getP95()), millis(summary.getP99()),
+                    millis(summary.getMax()), millis(summary.getMeanDbTime()), millis(summary.getMeanOtherTime()));
+        }
+    }
+
+    /**
+     * Summarize the payment operation events in a recording.
+     *
+     * @param recording path of the {@code .jfr} file
+     * @return one summary per operation, by operation name
+     * @throws IOException if the recording cannot be read
+     */
+    public static List<OperationSummary> summarize(Path recording) throws IOException {
+        Map<String, Samples> byOperation = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (PaymentOperationEvent.NAME.equals(event.getEventType().getName())) {
+                    byOperation.computeIfAbsent(event.getString("operation"), operation -> new Samples())
+                            .add(event.getDuration().toNanos(), event.getDuration("dbTime").toNanos(),
+                                    !"OK".equals(event.getString("outcome")));
+                }
+            }
+        }
+        List<OperationSummary> summaries = new ArrayList<>(byOperation.size());
+        byOperation.forEach((operation, samples) -> summaries.add(samples.summarize(operation)));
+        return summaries;
+    }
+
+    private static String millis(Duration duration) {
+        return String.format("%.2f", duration.toNanos() / 1_000_000.0);
+    }
+
+    /**
+     * Latency breakdown of one operation.
+     */
+    @Value
+    public static class OperationSummary {
+
+        String operation;
+        int count;
+        int errors;
+        Duration p50;
+        Duration p95;
+        Duration p99;
+        Duration max;
+        Duration meanDbTime;
+        Duration meanOtherTime;
+    }
+
+    private static final class Samples {
+
+        private long[] durations = new long[64];
+        private int count;
+        private int errors;
+        private long totalDuration;
+        private long totalDbTime;
+
+        void add(long duration, long dbTime, boolean failed) {
+            if (count == durations.length) {
+                durations = Arrays.copyOf(durations, count * 2);
+            }
+            durations[count++] = duration;
+            totalDuration += duration;
+            totalDbTime += dbTime;
+            if (failed) {
+                errors++;
+            }
+        }
+
+        OperationSummary summarize(String operation) {
+            long[] sorted = Arrays.copyOf(durations, count);
+            Arrays.sort(sorted);
+            long meanDb = totalDbTime / count;
+            return new OperationSummary(operation, count, errors,
+                    Duration.ofNanos(percentile(sorted, 0.50)),
+                    Duration.ofNanos(percentile(sorted, 0.95)),
+                    Duration.ofNanos(percentile(sorted, 0.99)),
+                    Duration.ofNanos(sorted[count - 1]),
+                    Duration.ofNanos(meanDb),
+                    Duration.ofNanos(totalDuration / count - meanDb));
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.payment.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one {@code PaymentService} call.
+ *
+ * <p>The event duration is the total time of the call, including the
+ * transaction commit. Only calls over the threshold are recorded; the
+ * settings in {@code jfr/payment.jfc} override the default below.
+ */
+@Name(PaymentOperationEvent.NAME)
+@Label("Payment Operation")
+@Category("Payment Gateway")
+@Description("A PaymentService call with its merchant, status transition and repository time")
+@StackTrace(false)
+@Threshold("20 ms")
+public class PaymentOperationEvent extends Event {
+
+    public static final String NAME = "com.example.payment.PaymentOperation";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Outcome")
+    @Description("OK, or the simple name of the exception thrown")
+    String outcome;
+
+    @Label("Merchant ID")
+    String merchantId;
+
+    @Label("Payment ID")
+    long paymentId;
+
+    @Label("Payment Method")
+    String paymentMethod;
+
+    @Label("From Status")
+    String fromStatus;
+
+    @Label("To Status")
+    String toStatus;
+
+    @Label("Results")
+    @Description("Number of payments returned by list lookups")
+    int resultCount;
+
+    @Label("Database Time")
+    @Description("Time spent in repository calls; excludes the flush at commit")
+    @Timespan(Timespan.NANOSECONDS)
+    long dbTime;
+}
@@ -0,0 +1,137 @@
+package com.example.payment.jfr;
+
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.model.Payment;
+import com.example.payment.stream.PaymentStatusChangedEvent;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Emits a {@link PaymentOperationEvent} for {@code PaymentService} calls.
+ *
+ * <p>Runs inside the concurrency limit but outside the transaction advice,
+ * so the event duration includes the commit. While an event is open on the
+ * thread, repository calls add to its database time and status change
+ * events fill in the transition. When no recording has the event enabled,
+ * the cost is one enabled check per call. Fields are only filled in for
+ * calls over the threshold.
+ *
+ * <p>An operation returning a {@link CompletableFuture}, such as processing
+ * a payment, ends when the future completes rather than when the method
+ * returns, so the event covers the acquirer call and records the final
+ * status. Database time spent after the method returned is not counted.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "payment.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentOperationRecorder {
+
+    private static final ThreadLocal<PaymentOperationEvent> CURRENT = new ThreadLocal<>();
+
+    @Around("execution(public * com.example.payment.service.PaymentService.*(..))")
+    public Object recordOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        PaymentOperationEvent event = new PaymentOperationEvent();
+        if (!event.isEnabled() || CURRENT.get() != null) {
+            return joinPoint.proceed();
+        }
+        CURRENT.set(event);
+        event.begin();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable ex) {
+            CURRENT.remove();
+            finish(event, joinPoint, null, ex);
+            throw ex;
+        }
+        CURRENT.remove();
+        if (result instanceof CompletableFuture<?> future) {
+            future.whenComplete((value, error) -> finish(event, joinPoint, value,
+                    error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+        } else {
+            finish(event, joinPoint, result, null);
+        }
+        return result;
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object recordDatabaseTime(ProceedingJoinPoint joinPoint) throws Throwable {
+        PaymentOperationEvent event = CURRENT.get();
+        if (event == null) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            event.dbTime += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Record a status transition made by the current operation.
+     *
+     * @param change status change published by the service
+     */
+    @EventListener
+    public void onStatusChanged(PaymentStatusChangedEvent change) {
+        PaymentOperationEvent event = CURRENT.get();
+        if (event == null) {
+            return;
+        }
+        if (event.toStatus == null && change.getPreviousStatus() != null) {
+            event.fromStatus = change.getPreviousStatus().name();
+        }
+        event.toStatus = change.getStatus().name();
+        event.merchantId = change.getMerchantId();
+    }
+
+    private static void finish(PaymentOperationEvent event, ProceedingJoinPoint joinPoint, Object result,
+                               Throwable failure) {
+        event.end();
+        if (event.shouldCommit()) {
+            describe(event, (MethodSignature) joinPoint.getSignature(), joinPoint.getArgs(), result, failure);
+            event.commit();
+        }
+    }
+
+    private static void describe(PaymentOperationEvent event, MethodSignature signature, Object[] args,
+                                 Object result, Throwable failure) {
+        event.operation = signature.getName();
+        event.outcome = failure == null ? "OK" : failure.getClass().getSimpleName();
+        String[] parameterNames = signature.getParameterNames();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof PaymentRequest request) {
+                event.merchantId = request.getMerchantId();
+                event.paymentMethod = request.getPaymentMethod();
+            } else if (parameterNames != null && "merchantId".equals(parameterNames[i])) {
+                event.merchantId = (String) args[i];
+            } else if (parameterNames != null && "id".equals(parameterNames[i]) && args[i] instanceof Long id) {
+                event.paymentId = id;
+            }
+        }
+        if (result instanceof Payment payment) {
+            event.paymentId = payment.getId() != null ? payment.getId() : 0;
+            event.merchantId = payment.getMerchantId();
+            event.paymentMethod = payment.getPaymentMethod();
+            if (event.toStatus != null && payment.getStatus() != null) {
+                // Completed after the method returned, outside the status change listener
+                event.toStatus = payment.getStatus().name();
+            }
+        } else if (result instanceof Collection<?> payments) {
+            event.resultCount = payments.size();
+        }
+    }
+}
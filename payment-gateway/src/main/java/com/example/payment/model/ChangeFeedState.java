@@ -0,0 +1,27 @@
+package com.example.payment.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last change sequence handed out by the change feed sequencer. The single
+ * row doubles as the lock that serializes sequencers across instances.
+ */
+@Entity
+@Table(name = "payment_change_feed")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedState {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long lastSequence;
+}
@@ -0,0 +1,153 @@
+package com.example.payment.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Payment entity representing a payment transaction.
+ * Stores payment details, status, and audit information.
+ */
+@Entity
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_created_at", columnList = "createdAt, id"),
+    @Index(name = "idx_payments_merchant_change_seq", columnList = "merchantId, changeSequence"),
+    @Index(name = "idx_payments_change_seq", columnList = "changeSequence"),
+    @Index(name = "idx_payments_merchant_updated_at", columnList = "merchantId, updatedAt"),
+    @Index(name = "idx_payments_status_updated_at", columnList = "status, updatedAt"),
+    @Index(name = "idx_payments_merchant_id", columnList = "merchantId, id"),
+    @Index(name = "idx_payments_customer_email", columnList = "customerEmail"),
+    @Index(name = "idx_payments_completed_at", columnList = "completedAt, id"),
+    @Index(name = "idx_payments_refunded_at", columnList = "refundedAt, id")
+})
+@EntityListeners(AuditingEntityListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Payment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "Merchant ID is required")
+    @Column(nullable = false)
+    private String merchantId;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @NotBlank(message = "Currency is required")
+    @Pattern(regexp = "^(USD|EUR|GBP|INR)$", message = "Invalid currency code")
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @NotBlank(message = "Payment method is required")
+    @Column(nullable = false)
+    private String paymentMethod;
+
+    @Email(message = "Invalid customer email")
+    @Column(nullable = false)
+    private String customerEmail;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private PaymentStatus status = PaymentStatus.PENDING;
+
+    @Column(length = 500)
+    private String description;
+
+    @Column(unique = true, updatable = false)
+    private String transactionId;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * When the payment first became COMPLETED; settlement counts its capture on that day.
+     */
+    private LocalDateTime completedAt;
+
+    /**
+     * When the payment was refunded; settlement counts the refund on that day.
+     */
+    private LocalDateTime refundedAt;
+
+    /**
+     * Position in the change feed; null until the committed change is sequenced.
+     */
+    private Long changeSequence;
+
+    /**
+     * Status this payment is currently counted under in the hourly rollups;
+     * null until the rollup aggregator or backfill has seen it. Only written
+     * by them, never through the entity.
+     */
+    @Column(length = 20, insertable = false, updatable = false)
+    @Enumerated(EnumType.STRING)
+    private PaymentStatus rollupStatus;
+
+    /**
+     * Payment status enumeration.
+     */
+    public enum PaymentStatus {
+        PENDING,
+        PROCESSING,
+        COMPLETED,
+        FAILED,
+        REFUNDED,
+        CANCELLED
+    }
+
+    /**
+     * Pre-persist callback to generate transaction ID and stamp a settled status.
+     */
+    @PrePersist
+    protected void onCreate() {
+        if (transactionId == null) {
+            transactionId = generateTransactionId();
+        }
+        stampStatusTime();
+    }
+
+    /**
+     * Generate a transaction ID for a new payment.
+     *
+     * @return transaction ID of the form TXN-millis-random
+     */
+    public static String generateTransactionId() {
+        return "TXN-" + System.currentTimeMillis() + "-" + (int) (Math.random() * 10000);
+    }
+
+    /**
+     * Pre-update callback queuing the change for the change feed sequencer and stamping a settled status.
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        changeSequence = null;
+        stampStatusTime();
+    }
+
+    private void stampStatusTime() {
+        if (status == PaymentStatus.COMPLETED && completedAt == null) {
+            completedAt = LocalDateTime.now();
+        } else if (status == PaymentStatus.REFUNDED && refundedAt == null) {
+            refundedAt = LocalDateTime.now();
+        }
+    }
+}
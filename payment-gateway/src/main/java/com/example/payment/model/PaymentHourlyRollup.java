@@ -0,0 +1,37 @@
+package com.example.payment.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Number and total amount of the payments created in one hour that are
+ * currently in one status, per merchant, currency and payment method.
+ * Maintained by the rollup aggregator; rows are never written by requests.
+ */
+@Entity
+@Table(name = "payment_hourly_rollups", indexes = {
+    @Index(name = "idx_payment_rollups_merchant_hour", columnList = "merchantId, bucketHour"),
+    @Index(name = "idx_payment_rollups_bucket_hour", columnList = "bucketHour")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentHourlyRollup {
+
+    @EmbeddedId
+    private PaymentRollupKey key;
+
+    @Column(nullable = false)
+    private long paymentCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amountTotal;
+}
@@ -0,0 +1,28 @@
+package com.example.payment.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last change feed sequence folded into the hourly rollups. The single row
+ * doubles as the lock that serializes aggregators and backfills across
+ * instances.
+ */
+@Entity
+@Table(name = "payment_rollup_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentRollupState {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long lastSequence;
+}
@@ -0,0 +1,157 @@
+package com.example.payment.reconciliation;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash index over one partition's payments, keyed by
+ * transaction ID. Columns are held in parallel primitive arrays and the
+ * transaction IDs in a single byte arena, so an entry costs roughly sixty
+ * bytes and no objects regardless of how many payments the partition holds.
+ */
+final class PaymentIndex {
+
+    private static final int EMPTY = -1;
+
+    private long[] hashes;
+    private long[] ids;
+    private long[] amountCents;
+    private short[] currencies;
+    private byte[] statuses;
+    private boolean[] matched;
+    private int[] keyOffsets;
+    private byte[] keys;
+    private int keyBytes;
+    private int size;
+    private int[] slots;
+    private int mask;
+
+    PaymentIndex(int expectedEntries) {
+        int capacity = Math.max(16, expectedEntries);
+        hashes = new long[capacity];
+        ids = new long[capacity];
+        amountCents = new long[capacity];
+        currencies = new short[capacity];
+        statuses = new byte[capacity];
+        matched = new boolean[capacity];
+        keyOffsets = new int[capacity + 1];
+        keys = new byte[capacity * 24];
+        allocateSlots(Integer.highestOneBit(capacity * 2 - 1) << 1);
+    }
+
+    /**
+     * Add a payment. Transaction IDs are unique in the payments table, so no duplicate check is made.
+     *
+     * @return entry number of the payment
+     */
+    int add(long hash, long id, long cents, short currency, byte status, byte[] key, int keyLength) {
+        if (size == hashes.length) {
+            growEntries();
+        }
+        if (keyBytes + keyLength > keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(keys.length * 2, keyBytes + keyLength));
+        }
+        int entry = size++;
+        hashes[entry] = hash;
+        ids[entry] = id;
+        amountCents[entry] = cents;
+        currencies[entry] = currency;
+        statuses[entry] = status;
+        System.arraycopy(key, 0, keys, keyBytes, keyLength);
+        keyOffsets[entry] = keyBytes;
+        keyBytes += keyLength;
+        keyOffsets[size] = keyBytes;
+        if (size * 2 > slots.length) {
+            allocateSlots(slots.length << 1);
+            for (int i = 0; i < size; i++) {
+                insert(i);
+            }
+        } else {
+            insert(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Look up a transaction ID.
+     *
+     * @return entry number, or -1 when no payment has this transaction ID
+     */
+    int find(long hash, byte[] key, int keyLength) {
+        int slot = (int) hash & mask;
+        while (true) {
+            int entry = slots[slot];
+            if (entry == EMPTY) {
+                return EMPTY;
+            }
+            if (hashes[entry] == hash && Arrays.equals(keys, keyOffsets[entry], keyOffsets[entry + 1],
+                    key, 0, keyLength)) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Mark an entry as matched by a settlement line.
+     *
+     * @return whether it had already been matched
+     */
+    boolean markMatched(int entry) {
+        boolean previous = matched[entry];
+        matched[entry] = true;
+        return previous;
+    }
+
+    boolean isMatched(int entry) {
+        return matched[entry];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long idAt(int entry) {
+        return ids[entry];
+    }
+
+    long amountCentsAt(int entry) {
+        return amountCents[entry];
+    }
+
+    short currencyAt(int entry) {
+        return currencies[entry];
+    }
+
+    byte statusAt(int entry) {
+        return statuses[entry];
+    }
+
+    byte[] keyAt(int entry) {
+        return Arrays.copyOfRange(keys, keyOffsets[entry], keyOffsets[entry + 1]);
+    }
+
+    private void insert(int entry) {
+        int slot = (int) hashes[entry] & mask;
+        while (slots[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry;
+    }
+
+    private void allocateSlots(int capacity) {
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private void growEntries() {
+        int capacity = hashes.length * 2;
+        hashes = Arrays.copyOf(hashes, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        amountCents = Arrays.copyOf(amountCents, capacity);
+        currencies = Arrays.copyOf(currencies, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        matched = Arrays.copyOf(matched, capacity);
+        keyOffsets = Arrays.copyOf(keyOffsets, capacity + 1);
+    }
+}
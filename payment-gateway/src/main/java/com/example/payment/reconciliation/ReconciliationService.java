@@ -0,0 +1,603 @@
+package com.example.payment.reconciliation;
+
+import com.example.payment.config.ReconciliationProperties;
+import com.example.payment.dto.ReconciliationSummary;
+import com.example.payment.exception.InvalidPaymentException;
+import com.example.payment.model.Payment.PaymentStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reconciles an acquirer's daily settlement file against the payments
+ * created that day, matching them by transaction ID.
+ *
+ * <p>Settlement files run to millions of lines, so neither side is held in
+ * memory whole. The day's payments are streamed from one database cursor and
+ * the file line by line, and both are spilled to disk in hash partitions of
+ * the transaction ID. The partitions are then joined in parallel: each loads
+ * its payments into a primitive {@link PaymentIndex}, probes it with its file
+ * lines and writes the discrepancies it finds. Memory is one partition index
+ * per join thread; the partition count grows with the day's volume so each
+ * index holds around {@code partitionRows} payments.
+ *
+ * <p>The file is CSV with the header {@code transaction_id,amount,currency,status},
+ * amounts in major units and statuses named as in {@link PaymentStatus}.
+ * Discrepancies are written next to it as {@code <file>.discrepancies.csv},
+ * grouped by partition rather than in line order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReconciliationService {
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM payments WHERE created_at >= ? AND created_at < ?";
+    private static final String PAYMENTS_SQL = "SELECT id, transaction_id, amount, currency, status "
+            + "FROM payments WHERE created_at >= ? AND created_at < ?";
+    private static final String REPORT_HEADER = "type,transaction_id,payment_id,line,payment_amount,payment_currency,"
+            + "payment_status,file_amount,file_currency,file_status,detail\n";
+
+    /**
+     * Caps the spill files open at once, two per partition.
+     */
+    private static final int MAX_PARTITIONS = 256;
+    private static final int MAX_TRANSACTION_ID_LENGTH = 255;
+    private static final int SPILL_BUFFER_SIZE = 32 * 1024;
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+    private static final Set<PaymentStatus> SETTLED = EnumSet.of(PaymentStatus.COMPLETED, PaymentStatus.REFUNDED);
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+    private static final Discrepancy[] DISCREPANCIES = Discrepancy.values();
+    private static final int MATCHED = DISCREPANCIES.length;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ReconciliationProperties properties;
+
+    /**
+     * Kind of disagreement between the settlement file and our payments.
+     */
+    public enum Discrepancy {
+        /** The file settles a transaction ID we have no payment for on that day. */
+        NOT_IN_PAYMENTS,
+        /** A completed or refunded payment the file does not settle. */
+        NOT_IN_FILE,
+        /** Amount or currency differ. */
+        AMOUNT_MISMATCH,
+        /** The acquirer reports a different status. */
+        STATUS_MISMATCH,
+        /** The file settles the same transaction ID more than once. */
+        DUPLICATE_IN_FILE,
+        /** The line could not be parsed. */
+        INVALID_LINE
+    }
+
+    /**
+     * Reconcile a settlement file from the reconciliation directory against a day's payments.
+     *
+     * @param date day the payments were created
+     * @param fileName file name relative to the reconciliation directory
+     * @return counts per discrepancy and the report location
+     */
+    public ReconciliationSummary reconcile(LocalDate date, String fileName) {
+        Path file = resolve(fileName);
+        Path report = file.resolveSibling(file.getFileName() + ".discrepancies.csv");
+        long started = System.nanoTime();
+        Timestamp from = Timestamp.valueOf(date.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(date.plusDays(1).atStartOfDay());
+        Long expected = jdbcTemplate.queryForObject(COUNT_SQL, Long.class, from, to);
+        Path work = null;
+        try {
+            work = Files.createTempDirectory(file.getParent(), ".reconcile-");
+            Run run = new Run(work, partitions(expected == null ? 0 : expected));
+            try {
+                spillPayments(run, from, to);
+                spillFile(run, file);
+            } finally {
+                run.closeSpills();
+            }
+            long[] totals = join(run);
+            writeReport(run, report);
+
+            Map<String, Long> discrepancies = new LinkedHashMap<>();
+            for (Discrepancy discrepancy : DISCREPANCIES) {
+                discrepancies.put(discrepancy.name(), totals[discrepancy.ordinal()]);
+            }
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+            log.info("Reconciled {} lines of {} against {} payments of {} in {} ms over {} partitions: {}",
+                    run.linesRead, file.getFileName(), run.paymentsRead, date, elapsedMillis, run.partitions,
+                    discrepancies);
+            return new ReconciliationSummary(date, file.getFileName().toString(), run.linesRead, run.paymentsRead,
+                    totals[MATCHED], discrepancies, report.toString(), elapsedMillis);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            deleteQuietly(work);
+        }
+    }
+
+    private Path resolve(String fileName) {
+        Path directory = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new InvalidPaymentException("Settlement file not found in reconciliation directory: " + fileName);
+        }
+        return file;
+    }
+
+    private int partitions(long payments) {
+        long rows = Math.max(1, properties.getPartitionRows());
+        long wanted = Math.max(properties.getMinPartitions(), (payments + rows - 1) / rows);
+        int capped = (int) Math.min(Math.max(1, wanted), MAX_PARTITIONS);
+        return capped == 1 ? 1 : Integer.highestOneBit(capped - 1) << 1;
+    }
+
+    private void spillPayments(Run run, Timestamp from, Timestamp to) {
+        Row row = new Row();
+        TransactionTemplate cursor = new TransactionTemplate(transactionManager);
+        // Drivers such as PostgreSQL only stream with a fetch size inside a transaction
+        cursor.setReadOnly(true);
+        cursor.executeWithoutResult(status -> jdbcTemplate.query(PAYMENTS_SQL, ps -> {
+            ps.setFetchSize(properties.getFetchSize());
+            ps.setTimestamp(1, from);
+            ps.setTimestamp(2, to);
+        }, rs -> {
+            String transactionId = rs.getString(2);
+            if (transactionId == null) {
+                return;
+            }
+            row.setKey(transactionId);
+            row.ref = rs.getLong(1);
+            row.cents = rs.getBigDecimal(3).movePointRight(2).longValueExact();
+            row.currency = run.currencies.code(rs.getString(4));
+            row.status = (byte) PaymentStatus.valueOf(rs.getString(5)).ordinal();
+            run.spill(run.payments, row);
+            run.paymentsRead++;
+        }));
+    }
+
+    private void spillFile(Run run, Path file) throws IOException {
+        Row row = new Row();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            long number = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isBlank() || number == 1 && line.startsWith("transaction_id")) {
+                    continue;
+                }
+                run.linesRead++;
+                String error = parse(line, number, row, run.currencies);
+                if (error == null) {
+                    run.spill(run.lines, row);
+                } else {
+                    int comma = line.indexOf(',');
+                    String transactionId = (comma < 0 ? line : line.substring(0, comma)).trim();
+                    writeDiscrepancy(run.invalid, Discrepancy.INVALID_LINE, transactionId, -1, number,
+                            null, null, error);
+                    run.invalidLines++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Parse a settlement line into the row.
+     *
+     * @return why the line is invalid, or null when it parsed
+     */
+    private static String parse(String line, long number, Row row, Dictionary currencies) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 4) {
+            return "Expected 4 fields";
+        }
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+        }
+        if (fields[0].isEmpty() || fields[0].length() > MAX_TRANSACTION_ID_LENGTH) {
+            return "Invalid transaction ID";
+        }
+        long cents;
+        try {
+            cents = new BigDecimal(fields[1]).movePointRight(2).longValueExact();
+        } catch (NumberFormatException | ArithmeticException ex) {
+            return "Invalid amount";
+        }
+        if (!isCurrencyCode(fields[2])) {
+            return "Invalid currency";
+        }
+        PaymentStatus status;
+        try {
+            status = PaymentStatus.valueOf(fields[3]);
+        } catch (IllegalArgumentException ex) {
+            return "Unknown status";
+        }
+        row.setKey(fields[0]);
+        row.ref = number;
+        row.cents = cents;
+        row.currency = currencies.code(fields[2]);
+        row.status = (byte) status.ordinal();
+        return null;
+    }
+
+    private static boolean isCurrencyCode(String value) {
+        if (value.length() != 3) {
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            char c = value.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long[] join(Run run) throws IOException {
+        int threads = Math.max(1, Math.min(properties.getParallelism(), run.partitions));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, threadFactory("reconciliation"));
+        try {
+            List<Future<long[]>> futures = new ArrayList<>(run.partitions);
+            for (int partition = 0; partition < run.partitions; partition++) {
+                int p = partition;
+                futures.add(pool.submit(() -> joinPartition(run, p)));
+            }
+            long[] totals = new long[MATCHED + 1];
+            totals[Discrepancy.INVALID_LINE.ordinal()] = run.invalidLines;
+            for (Future<long[]> future : futures) {
+                long[] counts = future.get();
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += counts[i];
+                }
+            }
+            return totals;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliation interrupted", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Reconciliation failed", ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long[] joinPartition(Run run, int partition) throws IOException {
+        long[] counts = new long[MATCHED + 1];
+        Spill payments = run.payments[partition];
+        Spill lines = run.lines[partition];
+        PaymentIndex index = new PaymentIndex((int) payments.records);
+        Row row = new Row();
+        try (DataInputStream in = payments.open()) {
+            for (long i = 0; i < payments.records; i++) {
+                row.readFrom(in);
+                index.add(row.hash, row.ref, row.cents, row.currency, row.status, row.key, row.keyLength);
+            }
+        }
+        Files.delete(payments.path);
+
+        try (DataInputStream in = lines.open();
+             BufferedWriter out = Files.newBufferedWriter(run.part(partition), StandardCharsets.UTF_8)) {
+            for (long i = 0; i < lines.records; i++) {
+                row.readFrom(in);
+                int entry = index.find(row.hash, row.key, row.keyLength);
+                Discrepancy found = null;
+                if (entry < 0) {
+                    found = Discrepancy.NOT_IN_PAYMENTS;
+                } else if (index.markMatched(entry)) {
+                    found = Discrepancy.DUPLICATE_IN_FILE;
+                } else {
+                    if (row.cents != index.amountCentsAt(entry) || row.currency != index.currencyAt(entry)) {
+                        found = Discrepancy.AMOUNT_MISMATCH;
+                        report(run, out, counts, found, index, entry, row);
+                    }
+                    if (row.status != index.statusAt(entry)) {
+                        found = Discrepancy.STATUS_MISMATCH;
+                        report(run, out, counts, found, index, entry, row);
+                    }
+                    if (found == null) {
+                        counts[MATCHED]++;
+                    }
+                    continue;
+                }
+                report(run, out, counts, found, entry < 0 ? null : index, entry, row);
+            }
+            for (int entry = 0; entry < index.size(); entry++) {
+                if (!index.isMatched(entry) && SETTLED.contains(STATUSES[index.statusAt(entry)])) {
+                    report(run, out, counts, Discrepancy.NOT_IN_FILE, index, entry, null);
+                }
+            }
+        }
+        Files.delete(lines.path);
+        return counts;
+    }
+
+    private void report(Run run, Writer out, long[] counts, Discrepancy type, PaymentIndex index, int entry,
+                        Row line) throws IOException {
+        counts[type.ordinal()]++;
+        String transactionId = line != null
+                ? new String(line.key, 0, line.keyLength, StandardCharsets.UTF_8)
+                : new String(index.keyAt(entry), StandardCharsets.UTF_8);
+        String payment = index == null ? null : BigDecimal.valueOf(index.amountCentsAt(entry), 2).toPlainString()
+                + ',' + run.currencies.value(index.currencyAt(entry)) + ',' + STATUSES[index.statusAt(entry)];
+        String settled = line == null ? null : BigDecimal.valueOf(line.cents, 2).toPlainString()
+                + ',' + run.currencies.value(line.currency) + ',' + STATUSES[line.status];
+        writeDiscrepancy(out, type, transactionId, index == null ? -1 : index.idAt(entry),
+                line == null ? -1 : line.ref, payment, settled, "");
+    }
+
+    private static void writeDiscrepancy(Writer out, Discrepancy type, String transactionId, long paymentId,
+                                         long lineNumber, String payment, String settled, String detail)
+            throws IOException {
+        out.write(type.name());
+        out.write(',');
+        out.write(csv(transactionId));
+        out.write(',');
+        out.write(paymentId < 0 ? "" : Long.toString(paymentId));
+        out.write(',');
+        out.write(lineNumber < 0 ? "" : Long.toString(lineNumber));
+        out.write(',');
+        out.write(payment == null ? ",," : payment);
+        out.write(',');
+        out.write(settled == null ? ",," : settled);
+        out.write(',');
+        out.write(csv(detail));
+        out.write('\n');
+    }
+
+    private static void writeReport(Run run, Path report) throws IOException {
+        try (FileChannel out = FileChannel.open(report, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.wrap(REPORT_HEADER.getBytes(StandardCharsets.UTF_8));
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            append(out, run.invalidPath);
+            for (int partition = 0; partition < run.partitions; partition++) {
+                append(out, run.part(partition));
+            }
+            out.force(false);
+        }
+    }
+
+    private static void append(FileChannel out, Path part) throws IOException {
+        try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * 64-bit FNV-1a of the UTF-8 bytes, finished with the MurmurHash3 mixer so
+     * that both the high (partition) and low (slot) bits are well spread.
+     */
+    static long hash(byte[] key, int length) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ (key[i] & 0xff)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static void deleteQuietly(Path work) {
+        if (work == null) {
+            return;
+        }
+        try {
+            FileSystemUtils.deleteRecursively(work);
+        } catch (IOException ex) {
+            log.warn("Could not remove reconciliation work directory {}", work, ex);
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * One payment or settlement line in spill format; reused across rows.
+     * {@code ref} is the payment ID or the line number.
+     */
+    private static final class Row {
+
+        private final byte[] key = new byte[MAX_TRANSACTION_ID_LENGTH * 3];
+        private int keyLength;
+        private long hash;
+        private long ref;
+        private long cents;
+        private short currency;
+        private byte status;
+
+        void setKey(String transactionId) {
+            byte[] bytes = transactionId.getBytes(StandardCharsets.UTF_8);
+            System.arraycopy(bytes, 0, key, 0, bytes.length);
+            keyLength = bytes.length;
+            hash = hash(key, keyLength);
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeLong(hash);
+            out.writeLong(ref);
+            out.writeLong(cents);
+            out.writeShort(currency);
+            out.writeByte(status);
+            out.writeShort(keyLength);
+            out.write(key, 0, keyLength);
+        }
+
+        void readFrom(DataInputStream in) throws IOException {
+            hash = in.readLong();
+            ref = in.readLong();
+            cents = in.readLong();
+            currency = in.readShort();
+            status = in.readByte();
+            keyLength = in.readUnsignedShort();
+            in.readFully(key, 0, keyLength);
+        }
+    }
+
+    /**
+     * Append-only spill file of one side of one partition.
+     */
+    private static final class Spill implements Closeable {
+
+        private final Path path;
+        private final DataOutputStream out;
+        private long records;
+
+        Spill(Path path) throws IOException {
+            this.path = path;
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), SPILL_BUFFER_SIZE));
+        }
+
+        void write(Row row) throws IOException {
+            row.writeTo(out);
+            records++;
+        }
+
+        DataInputStream open() throws IOException {
+            return new DataInputStream(new BufferedInputStream(Files.newInputStream(path), SPILL_BUFFER_SIZE));
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Currency dictionary assigning dense short codes; filled single-threaded before the join reads it.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Short> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        short code(String value) {
+            Short code = codes.get(value);
+            if (code == null) {
+                code = (short) values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        String value(short code) {
+            return values.get(code);
+        }
+    }
+
+    /**
+     * Spill files, counters and dictionary of one reconciliation.
+     */
+    private static final class Run {
+
+        private final Path work;
+        private final int partitions;
+        private final Spill[] payments;
+        private final Spill[] lines;
+        private final Path invalidPath;
+        private final BufferedWriter invalid;
+        private final Dictionary currencies = new Dictionary();
+        private long paymentsRead;
+        private long linesRead;
+        private long invalidLines;
+
+        Run(Path work, int partitions) throws IOException {
+            this.work = work;
+            this.partitions = partitions;
+            this.payments = new Spill[partitions];
+            this.lines = new Spill[partitions];
+            for (int partition = 0; partition < partitions; partition++) {
+                payments[partition] = new Spill(work.resolve("payments-" + partition + ".bin"));
+                lines[partition] = new Spill(work.resolve("lines-" + partition + ".bin"));
+            }
+            this.invalidPath = work.resolve("invalid.csv");
+            this.invalid = Files.newBufferedWriter(invalidPath, StandardCharsets.UTF_8);
+        }
+
+        void spill(Spill[] side, Row row) {
+            try {
+                side[(int) (row.hash >>> 32) & (partitions - 1)].write(row);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        Path part(int partition) {
+            return work.resolve("discrepancies-" + partition + ".csv");
+        }
+
+        void closeSpills() throws IOException {
+            for (int partition = 0; partition < partitions; partition++) {
+                payments[partition].close();
+                lines[partition].close();
+            }
+            invalid.close();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.payment.repository;
+
+import com.example.payment.model.JobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for scheduled job leases.
+ */
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    /**
+     * Take the lease if it has expired, or extend it if the caller already holds it.
+     *
+     * @param name job name
+     * @param owner identity of the calling instance
+     * @param now current time
+     * @param until new expiry of the lease
+     * @return 1 if the caller holds the lease now, 0 otherwise
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE JobLock l SET l.lockedUntil = :until, l.lockedBy = :owner "
+            + "WHERE l.name = :name AND (l.lockedUntil <= :now OR l.lockedBy = :owner)")
+    int claim(@Param("name") String name, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    /**
+     * Create the lease row held by the caller. Fails with a key violation if
+     * another instance created it first.
+     *
+     * @param name job name
+     * @param owner identity of the calling instance
+     * @param until expiry of the lease
+     * @return number of rows inserted
+     */
+    @Modifying
+    @Query(value = "INSERT INTO job_locks (name, locked_until, locked_by) VALUES (:name, :until, :owner)",
+            nativeQuery = true)
+    int insert(@Param("name") String name, @Param("owner") String owner, @Param("until") LocalDateTime until);
+
+    /**
+     * Give the lease up early if the caller still holds it.
+     *
+     * @param name job name
+     * @param owner identity of the calling instance
+     * @param now current time, stored as the expiry
+     * @return number of leases released
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE JobLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
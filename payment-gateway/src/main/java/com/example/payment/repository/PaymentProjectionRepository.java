@@ -0,0 +1,50 @@
+package com.example.payment.repository;
+
+import com.example.payment.dto.PaymentField;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads that select only some payment columns.
+ *
+ * <p>Each row holds the selected fields in the iteration order of the given
+ * set. No entities are loaded, so nothing enters the persistence context.
+ */
+public interface PaymentProjectionRepository {
+
+    /**
+     * Select fields of a payment by ID.
+     *
+     * @param id payment ID
+     * @param fields columns to select
+     * @return the row, or an empty list if the payment does not exist
+     */
+    List<Object[]> findFieldsById(Long id, Set<PaymentField> fields);
+
+    /**
+     * Select fields of a payment by transaction ID.
+     *
+     * @param transactionId unique transaction identifier
+     * @param fields columns to select
+     * @return the row, or an empty list if the payment does not exist
+     */
+    List<Object[]> findFieldsByTransactionId(String transactionId, Set<PaymentField> fields);
+
+    /**
+     * Select fields of a merchant's payments.
+     *
+     * @param merchantId merchant identifier
+     * @param fields columns to select
+     * @return one row per payment
+     */
+    List<Object[]> findFieldsByMerchantId(String merchantId, Set<PaymentField> fields);
+
+    /**
+     * Select fields of all payments.
+     *
+     * @param fields columns to select
+     * @return one row per payment
+     */
+    List<Object[]> findAllFields(Set<PaymentField> fields);
+}
@@ -0,0 +1,59 @@
+package com.example.payment.repository;
+
+import com.example.payment.dto.PaymentField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * JPQL implementation of {@link PaymentProjectionRepository}; the select
+ * list is built from the requested fields.
+ */
+class PaymentProjectionRepositoryImpl implements PaymentProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> findFieldsById(Long id, Set<PaymentField> fields) {
+        return select(fields, "id", id);
+    }
+
+    @Override
+    public List<Object[]> findFieldsByTransactionId(String transactionId, Set<PaymentField> fields) {
+        return select(fields, "transactionId", transactionId);
+    }
+
+    @Override
+    public List<Object[]> findFieldsByMerchantId(String merchantId, Set<PaymentField> fields) {
+        return select(fields, "merchantId", merchantId);
+    }
+
+    @Override
+    public List<Object[]> findAllFields(Set<PaymentField> fields) {
+        return select(fields, null, null);
+    }
+
+    private List<Object[]> select(Set<PaymentField> fields, String attribute, Object value) {
+        String columns = fields.stream()
+                .map(field -> "p." + field.getProperty())
+                .collect(Collectors.joining(", "));
+        String jpql = "SELECT " + columns + " FROM Payment p"
+                + (attribute != null ? " WHERE p." + attribute + " = :value" : "");
+        Query query = entityManager.createQuery(jpql);
+        if (attribute != null) {
+            query.setParameter("value", value);
+        }
+        List<?> results = query.getResultList();
+        List<Object[]> rows = new ArrayList<>(results.size());
+        for (Object result : results) {
+            rows.add(fields.size() == 1 ? new Object[]{result} : (Object[]) result);
+        }
+        return rows;
+    }
+}
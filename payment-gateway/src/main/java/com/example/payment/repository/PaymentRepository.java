@@ -0,0 +1,287 @@
+package com.example.payment.repository;
+
+import com.example.payment.model.Payment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for Payment entity operations.
+ */
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Long>, PaymentProjectionRepository {
+
+    /**
+     * Find payment by transaction ID.
+     *
+     * @param transactionId unique transaction identifier
+     * @return Optional containing payment if found
+     */
+    Optional<Payment> findByTransactionId(String transactionId);
+
+    /**
+     * Find payments by transaction IDs.
+     *
+     * @param transactionIds unique transaction identifiers
+     * @return payments found, in no particular order
+     */
+    List<Payment> findByTransactionIdIn(Collection<String> transactionIds);
+
+    /**
+     * Find all payments by merchant ID.
+     *
+     * @param merchantId merchant identifier
+     * @return List of payments for the merchant
+     */
+    List<Payment> findByMerchantId(String merchantId);
+
+    /**
+     * Find payments by status.
+     *
+     * @param status payment status
+     * @return List of payments with specified status
+     */
+    List<Payment> findByStatus(Payment.PaymentStatus status);
+
+    /**
+     * Find all payments by customer email, through the customer_email index.
+     *
+     * @param email customer email address
+     * @return List of payments for the customer
+     */
+    List<Payment> findByCustomerEmail(String email);
+
+    /**
+     * Count pending payments.
+     *
+     * @return count of pending payments
+     */
+    @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = 'PENDING'")
+    long countPendingPayments();
+
+    /**
+     * Count payments in a status.
+     *
+     * @param status payment status
+     * @return count of payments with the status
+     */
+    long countByStatus(Payment.PaymentStatus status);
+
+    /**
+     * Find the oldest payments in a status last updated before the cutoff.
+     * Ordered to match the (status, updated_at) index so the scan stops once
+     * the page is full, however many payments are archivable.
+     *
+     * @param status terminal status eligible for archival
+     * @param cutoff rows updated before this instant qualify
+     * @param pageable batch size
+     * @return payment IDs ordered by ascending updatedAt
+     */
+    @Query("SELECT p.id FROM Payment p WHERE p.status = :status AND p.updatedAt < :cutoff "
+            + "ORDER BY p.status, p.updatedAt")
+    List<Long> findArchivableIds(@Param("status") Payment.PaymentStatus status,
+                                 @Param("cutoff") LocalDateTime cutoff,
+                                 Pageable pageable);
+
+    /**
+     * Lock the given payments that are still in the status and last updated before the cutoff.
+     *
+     * @param ids candidate IDs from {@link #findArchivableIds}
+     * @param status terminal status eligible for archival
+     * @param cutoff rows updated before this instant qualify
+     * @return payments ordered by ascending id
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id IN :ids AND p.status = :status AND p.updatedAt < :cutoff "
+            + "ORDER BY p.id")
+    List<Payment> findArchivable(@Param("ids") Collection<Long> ids,
+                                 @Param("status") Payment.PaymentStatus status,
+                                 @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Count how many of the given IDs still exist.
+     *
+     * @param ids payment IDs
+     * @return number of existing payments
+     */
+    long countByIdIn(Collection<Long> ids);
+
+    /**
+     * Lock the given payments and read the fields needed to check a status transition.
+     *
+     * @param ids payment IDs
+     * @return current state of the payments that exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id AS id, p.merchantId AS merchantId, p.transactionId AS transactionId, p.status AS status "
+            + "FROM Payment p WHERE p.id IN :ids")
+    List<StatusView> lockStatuses(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Move payments to a new status if they are still in one of the allowed statuses.
+     *
+     * @param ids payment IDs
+     * @param allowed statuses the transition is valid from
+     * @param target new status
+     * @param now modification timestamp, and the completion or refund time when the target is COMPLETED or REFUNDED
+     * @return number of payments updated
+     */
+    default int updateStatusIn(Collection<Long> ids, Collection<Payment.PaymentStatus> allowed,
+                               Payment.PaymentStatus target, LocalDateTime now) {
+        return updateStatusIn(ids, allowed, target, now, target == Payment.PaymentStatus.COMPLETED ? now : null,
+                target == Payment.PaymentStatus.REFUNDED ? now : null);
+    }
+
+    /**
+     * Move payments to a new status, stamping the completion and refund times not set yet.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :target, p.updatedAt = :now, p.changeSequence = NULL, "
+            + "p.completedAt = COALESCE(p.completedAt, :completedAt), "
+            + "p.refundedAt = COALESCE(p.refundedAt, :refundedAt) "
+            + "WHERE p.id IN :ids AND p.status IN :allowed")
+    int updateStatusIn(@Param("ids") Collection<Long> ids,
+                       @Param("allowed") Collection<Payment.PaymentStatus> allowed,
+                       @Param("target") Payment.PaymentStatus target,
+                       @Param("now") LocalDateTime now,
+                       @Param("completedAt") LocalDateTime completedAt,
+                       @Param("refundedAt") LocalDateTime refundedAt);
+
+    /**
+     * Page through a merchant's payment IDs in a status set and creation range, by ascending id.
+     * Ordered to match the (merchant_id, id) index so the scan stops once the page is full.
+     *
+     * @param merchantId merchant identifier
+     * @param statuses statuses to include
+     * @param from inclusive lower bound on creation time
+     * @param to exclusive upper bound on creation time
+     * @param afterId only IDs greater than this are returned
+     * @param pageable page size
+     * @return matching payment IDs
+     */
+    @Query("SELECT p.id FROM Payment p WHERE p.merchantId = :merchantId AND p.status IN :statuses "
+            + "AND p.createdAt >= :from AND p.createdAt < :to AND p.id > :afterId ORDER BY p.merchantId, p.id")
+    List<Long> findIdsByMerchant(@Param("merchantId") String merchantId,
+                                 @Param("statuses") Collection<Payment.PaymentStatus> statuses,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to,
+                                 @Param("afterId") Long afterId,
+                                 Pageable pageable);
+
+    /**
+     * Find a merchant's payments sequenced after the given change sequence.
+     *
+     * @param merchantId merchant identifier
+     * @param afterSequence only changes after this sequence are returned
+     * @param pageable page size
+     * @return payments ordered by change sequence
+     */
+    @Query("SELECT p FROM Payment p WHERE p.merchantId = :merchantId AND p.changeSequence > :afterSequence "
+            + "ORDER BY p.changeSequence")
+    List<Payment> findChanges(@Param("merchantId") String merchantId,
+                              @Param("afterSequence") long afterSequence,
+                              Pageable pageable);
+
+    /**
+     * Find changes of all merchants sequenced after the given change sequence.
+     *
+     * @param afterSequence only changes after this sequence are returned
+     * @param pageable page size
+     * @return changes ordered by change sequence, without loading the entities
+     */
+    @Query("SELECT p.id AS id, p.merchantId AS merchantId, p.transactionId AS transactionId, p.status AS status, "
+            + "p.updatedAt AS updatedAt, p.changeSequence AS changeSequence FROM Payment p "
+            + "WHERE p.changeSequence > :afterSequence ORDER BY p.changeSequence")
+    List<ChangeView> findAllChanges(@Param("afterSequence") long afterSequence, Pageable pageable);
+
+    /**
+     * Highest change sequence handed out so far, or 0 if none.
+     */
+    @Query("SELECT COALESCE(MAX(p.changeSequence), 0) FROM Payment p")
+    long findLastChangeSequence();
+
+    /**
+     * Read a payment's last modification time without loading the entity.
+     *
+     * @param id payment ID
+     * @return version of the payment, if it exists
+     */
+    @Query("SELECT p.id AS id, p.updatedAt AS updatedAt FROM Payment p WHERE p.id = :id")
+    Optional<VersionView> findVersionById(@Param("id") Long id);
+
+    /**
+     * Read a payment's last modification time by transaction ID without loading the entity.
+     *
+     * @param transactionId unique transaction identifier
+     * @return version of the payment, if it exists
+     */
+    @Query("SELECT p.id AS id, p.updatedAt AS updatedAt FROM Payment p WHERE p.transactionId = :transactionId")
+    Optional<VersionView> findVersionByTransactionId(@Param("transactionId") String transactionId);
+
+    /**
+     * Count a merchant's payments and their changes not sequenced yet, and find the latest change sequence.
+     *
+     * @param merchantId merchant identifier
+     * @return payment count, pending changes and latest change sequence, answered from the
+     *         (merchant_id, change_sequence) index
+     */
+    @Query("SELECT COUNT(p) AS count, COUNT(p) - COUNT(p.changeSequence) AS pending, "
+            + "COALESCE(MAX(p.changeSequence), 0) AS lastSequence FROM Payment p WHERE p.merchantId = :merchantId")
+    MerchantVersionView findMerchantVersion(@Param("merchantId") String merchantId);
+
+    /**
+     * Identity and status of a payment, without loading the entity.
+     */
+    interface StatusView {
+
+        Long getId();
+
+        String getMerchantId();
+
+        String getTransactionId();
+
+        Payment.PaymentStatus getStatus();
+    }
+
+    /**
+     * A sequenced status change of a payment.
+     */
+    interface ChangeView extends StatusView {
+
+        LocalDateTime getUpdatedAt();
+
+        Long getChangeSequence();
+    }
+
+    /**
+     * Last modification time of a payment.
+     */
+    interface VersionView {
+
+        Long getId();
+
+        LocalDateTime getUpdatedAt();
+    }
+
+    /**
+     * Size and change feed position of a merchant's payments.
+     */
+    interface MerchantVersionView {
+
+        long getCount();
+
+        long getPending();
+
+        long getLastSequence();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.payment.repository;
+
+import com.example.payment.model.PaymentHourlyRollup;
+import com.example.payment.model.PaymentRollupKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for hourly rollup buckets.
+ */
+@Repository
+public interface PaymentRollupRepository extends JpaRepository<PaymentHourlyRollup, PaymentRollupKey> {
+
+    /**
+     * Find a merchant's non-empty buckets in an hour range.
+     *
+     * @param merchantId merchant identifier
+     * @param from first hour, inclusive
+     * @param to last hour, exclusive
+     * @return buckets by hour
+     */
+    @Query("SELECT r FROM PaymentHourlyRollup r WHERE r.key.merchantId = :merchantId "
+            + "AND r.key.bucketHour >= :from AND r.key.bucketHour < :to AND r.paymentCount > 0 "
+            + "ORDER BY r.key.bucketHour")
+    List<PaymentHourlyRollup> findMerchantRange(@Param("merchantId") String merchantId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    /**
+     * Find all merchants' non-empty buckets in an hour range.
+     *
+     * @param from first hour, inclusive
+     * @param to last hour, exclusive
+     * @return buckets by hour and merchant
+     */
+    @Query("SELECT r FROM PaymentHourlyRollup r WHERE r.key.bucketHour >= :from AND r.key.bucketHour < :to "
+            + "AND r.paymentCount > 0 ORDER BY r.key.bucketHour, r.key.merchantId")
+    List<PaymentHourlyRollup> findRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
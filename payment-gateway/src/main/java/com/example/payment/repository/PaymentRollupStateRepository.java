@@ -0,0 +1,28 @@
+package com.example.payment.repository;
+
+import com.example.payment.model.PaymentRollupState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository for the rollup aggregator state.
+ */
+@Repository
+public interface PaymentRollupStateRepository extends JpaRepository<PaymentRollupState, Integer> {
+
+    /**
+     * Lock the aggregator state until the end of the transaction.
+     *
+     * @param id state row identifier
+     * @return the locked state, if it exists
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM PaymentRollupState s WHERE s.id = :id")
+    Optional<PaymentRollupState> lockById(@Param("id") Integer id);
+}
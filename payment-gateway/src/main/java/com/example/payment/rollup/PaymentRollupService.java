@@ -0,0 +1,246 @@
+package com.example.payment.rollup;
+
+import com.example.payment.config.RollupProperties;
+import com.example.payment.dto.HourlyRollupResponse;
+import com.example.payment.dto.RollupBackfillResult;
+import com.example.payment.exception.InvalidPaymentException;
+import com.example.payment.model.Payment;
+import com.example.payment.model.PaymentHourlyRollup;
+import com.example.payment.model.PaymentRollupKey;
+import com.example.payment.model.PaymentRollupState;
+import com.example.payment.repository.PaymentRollupRepository;
+import com.example.payment.repository.PaymentRollupStateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Hourly rollups of payments for historical dashboards.
+ *
+ * <p>Each bucket counts the payments created in one hour, per merchant,
+ * currency and payment method, under the status they are in now. Every
+ * payment row remembers the status it is counted under, so folding a row in
+ * is a diff: when its status differs from the counted one, the old bucket is
+ * decremented and the new one incremented, and seeing the same row twice
+ * changes nothing. The aggregator follows the change feed from its last
+ * sequence in batches; the backfill walks the table by id for payments that
+ * existed before the aggregator started. Both hold the single state row lock
+ * while they fold, so replicas never race on a bucket. Buckets survive
+ * archival, so history stays queryable after payments leave the table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentRollupService {
+
+    static final int STATE_ID = 1;
+
+    private static final String COLUMNS = "SELECT id, merchant_id, currency, payment_method, amount, created_at, "
+            + "status, rollup_status, change_sequence FROM payments ";
+    private static final String CHANGES_SQL = COLUMNS + "WHERE change_sequence > ? ORDER BY change_sequence LIMIT ?";
+    private static final String BACKFILL_SQL = COLUMNS + "WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String MAX_SEQUENCE_SQL = "SELECT COALESCE(MAX(change_sequence), 0) FROM payments";
+    private static final String INCREMENT_SQL = "UPDATE payment_hourly_rollups "
+            + "SET payment_count = payment_count + ?, amount_total = amount_total + ? "
+            + "WHERE merchant_id = ? AND bucket_hour = ? AND currency = ? AND payment_method = ? AND status = ?";
+    private static final String INSERT_SQL = "INSERT INTO payment_hourly_rollups "
+            + "(payment_count, amount_total, merchant_id, bucket_hour, currency, payment_method, status) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String MARK_SQL = "UPDATE payments SET rollup_status = ? WHERE id = ?";
+
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> {
+        String rollupStatus = rs.getString(8);
+        LocalDateTime hour = rs.getTimestamp(6).toLocalDateTime().truncatedTo(ChronoUnit.HOURS);
+        return new Row(rs.getLong(1),
+                new PaymentRollupKey(rs.getString(2), hour, rs.getString(3), rs.getString(4),
+                        Payment.PaymentStatus.valueOf(rs.getString(7))),
+                rs.getBigDecimal(5),
+                rollupStatus != null ? Payment.PaymentStatus.valueOf(rollupStatus) : null,
+                rs.getLong(9));
+    };
+
+    private final PaymentRollupRepository rollupRepository;
+    private final PaymentRollupStateRepository stateRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final RollupProperties properties;
+
+    /**
+     * Get hourly buckets in a time range.
+     *
+     * @param merchantId merchant identifier, or null for all merchants
+     * @param from start of the range, rounded down to the hour
+     * @param to end of the range, exclusive
+     * @param status only buckets in this status, or null for all
+     * @return non-empty buckets by hour
+     */
+    @Transactional(readOnly = true)
+    public List<HourlyRollupResponse> getHourlyRollups(String merchantId, LocalDateTime from, LocalDateTime to,
+                                                       Payment.PaymentStatus status) {
+        LocalDateTime fromHour = from.truncatedTo(ChronoUnit.HOURS);
+        if (!to.isAfter(fromHour)) {
+            throw new InvalidPaymentException("Rollup range must end after it starts");
+        }
+        if (Duration.between(fromHour, to).compareTo(properties.getMaxQueryRange()) > 0) {
+            throw new InvalidPaymentException("Rollup range may cover at most " + properties.getMaxQueryRange().toDays()
+                    + " days");
+        }
+        List<PaymentHourlyRollup> rollups = merchantId != null
+                ? rollupRepository.findMerchantRange(merchantId, fromHour, to)
+                : rollupRepository.findRange(fromHour, to);
+        return rollups.stream()
+                .filter(rollup -> status == null || rollup.getKey().getStatus() == status)
+                .map(HourlyRollupResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Fold all sequenced changes since the last run into the rollups.
+     *
+     * @return number of change feed entries read
+     */
+    @Scheduled(fixedDelayString = "${payment.rollup.aggregator-interval-ms:5000}")
+    public int aggregatePendingChanges() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int total = 0;
+        int read;
+        do {
+            read = transaction.execute(status -> aggregateBatch());
+            total += read;
+        } while (read == properties.getAggregatorBatchSize());
+        if (total > 0) {
+            log.debug("Folded {} payment changes into hourly rollups", total);
+        }
+        return total;
+    }
+
+    /**
+     * Fold every payment into the rollups that is not counted under its current status yet.
+     *
+     * @return how many payments were read and folded in
+     */
+    public RollupBackfillResult backfill() {
+        long started = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long scanned = 0;
+        long rolledUp = 0;
+        int chunks = 0;
+        long afterId = 0;
+        List<Row> rows;
+        do {
+            long startId = afterId;
+            rows = transaction.execute(status -> {
+                lockState();
+                List<Row> chunk = jdbcTemplate.query(BACKFILL_SQL, ROW_MAPPER, startId,
+                        properties.getBackfillChunkSize());
+                fold(chunk);
+                return chunk;
+            });
+            chunks++;
+            scanned += rows.size();
+            rolledUp += rows.stream().filter(Row::isStale).count();
+            if (!rows.isEmpty()) {
+                afterId = rows.get(rows.size() - 1).id();
+            }
+        } while (rows.size() == properties.getBackfillChunkSize());
+        long elapsed = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        log.info("Rollup backfill scanned {} payments and folded in {} in {} ms", scanned, rolledUp, elapsed);
+        return new RollupBackfillResult(scanned, rolledUp, chunks, elapsed);
+    }
+
+    private int aggregateBatch() {
+        PaymentRollupState state = lockState();
+        List<Row> rows = jdbcTemplate.query(CHANGES_SQL, ROW_MAPPER, state.getLastSequence(),
+                properties.getAggregatorBatchSize());
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        fold(rows);
+        state.setLastSequence(rows.get(rows.size() - 1).changeSequence());
+        return rows.size();
+    }
+
+    /**
+     * Lock the state row, creating it at the current feed position on first use.
+     * Payments sequenced before that are left to the backfill.
+     */
+    private PaymentRollupState lockState() {
+        return stateRepository.lockById(STATE_ID).orElseGet(() -> stateRepository.saveAndFlush(
+                new PaymentRollupState(STATE_ID, jdbcTemplate.queryForObject(MAX_SEQUENCE_SQL, Long.class))));
+    }
+
+    private void fold(List<Row> rows) {
+        Map<PaymentRollupKey, Delta> deltas = new HashMap<>();
+        List<Object[]> marks = new ArrayList<>();
+        for (Row row : rows) {
+            if (!row.isStale()) {
+                continue;
+            }
+            if (row.rollupStatus() != null) {
+                PaymentRollupKey previous = new PaymentRollupKey(row.key().getMerchantId(), row.key().getBucketHour(),
+                        row.key().getCurrency(), row.key().getPaymentMethod(), row.rollupStatus());
+                deltas.computeIfAbsent(previous, key -> new Delta()).add(-1, row.amount().negate());
+            }
+            deltas.computeIfAbsent(row.key(), key -> new Delta()).add(1, row.amount());
+            marks.add(new Object[]{row.key().getStatus().name(), row.id()});
+        }
+        if (marks.isEmpty()) {
+            return;
+        }
+        List<Object[]> changes = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            if (delta.count != 0 || delta.amount.signum() != 0) {
+                changes.add(new Object[]{delta.count, delta.amount, key.getMerchantId(),
+                        Timestamp.valueOf(key.getBucketHour()), key.getCurrency(), key.getPaymentMethod(),
+                        key.getStatus().name()});
+            }
+        });
+        int[] updated = jdbcTemplate.batchUpdate(INCREMENT_SQL, changes);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                inserts.add(changes.get(i));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+        jdbcTemplate.batchUpdate(MARK_SQL, marks);
+    }
+
+    private record Row(long id, PaymentRollupKey key, BigDecimal amount, Payment.PaymentStatus rollupStatus,
+                       long changeSequence) {
+
+        boolean isStale() {
+            return key.getStatus() != rollupStatus;
+        }
+    }
+
+    private static final class Delta {
+
+        private long count;
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        void add(long count, BigDecimal amount) {
+            this.count += count;
+            this.amount = this.amount.add(amount);
+        }
+    }
+}
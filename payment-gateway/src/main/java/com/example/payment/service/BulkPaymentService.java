@@ -0,0 +1,258 @@
+package com.example.payment.service;
+
+import com.example.payment.datasource.ReadYourWritesTracker;
+import com.example.payment.dto.BulkCreateRequest;
+import com.example.payment.dto.BulkCreateResult;
+import com.example.payment.dto.BulkOperationRequest;
+import com.example.payment.dto.BulkOperationResult;
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.dto.PaymentResponseMapper;
+import com.example.payment.exception.InvalidPaymentException;
+import com.example.payment.exception.PaymentException;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.PaymentRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk create, refund and cancel.
+ *
+ * <p>A bulk create validates each payment on its own and writes the valid
+ * ones in one transaction; if that transaction fails, they are written one
+ * per transaction so each gets its own ID or its own error.
+ *
+ * <p>Refunds and cancels are processed in chunks, each in its own transaction: the
+ * chunk's rows are locked and their statuses read with one query, then every
+ * eligible payment is moved with one conditional UPDATE. The status rules
+ * match {@link PaymentService#refundPayment} and {@link PaymentService#cancelPayment}.
+ * A failure rolls back only the current chunk; earlier chunks stay committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkPaymentService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final PaymentRepository paymentRepository;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final PlatformTransactionManager transactionManager;
+    private final Validator validator;
+
+    /**
+     * Create the requested payments.
+     *
+     * @param request payments to create
+     * @return per-payment outcomes in request order
+     */
+    public BulkCreateResult create(BulkCreateRequest request) {
+        List<PaymentRequest> requests = request.getPayments();
+        log.info("Bulk create of {} payments", requests.size());
+        BulkCreateResult.Outcome[] outcomes = new BulkCreateResult.Outcome[requests.size()];
+        List<Integer> indexes = new ArrayList<>();
+        List<Payment> payments = new ArrayList<>();
+        Set<String> transactionIds = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                validate(requests.get(i));
+            } catch (InvalidPaymentException ex) {
+                outcomes[i] = new BulkCreateResult.Outcome(i, BulkCreateResult.Result.INVALID, null, ex.getMessage());
+                continue;
+            }
+            Payment payment = PaymentService.newPayment(requests.get(i));
+            // Generated IDs only carry millisecond time and a small random part, so a batch must not repeat one
+            do {
+                payment.setTransactionId(Payment.generateTransactionId());
+            } while (!transactionIds.add(payment.getTransactionId()));
+            indexes.add(i);
+            payments.add(payment);
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        boolean batched = false;
+        try {
+            if (!payments.isEmpty()) {
+                transaction.executeWithoutResult(tx -> paymentRepository.saveAll(payments));
+            }
+            batched = true;
+        } catch (RuntimeException ex) {
+            log.debug("Bulk create of {} payments failed, retrying one by one: {}", payments.size(), ex.getMessage());
+        }
+        for (int k = 0; k < payments.size(); k++) {
+            int index = indexes.get(k);
+            Payment payment = payments.get(k);
+            if (!batched) {
+                // The rolled-back insert may have assigned an ID; clear it so the retry inserts again
+                payment.setId(null);
+                try {
+                    transaction.executeWithoutResult(tx -> paymentRepository.save(payment));
+                } catch (RuntimeException ex) {
+                    log.warn("Bulk create of payment {} failed: {}", index, ex.getMessage());
+                    outcomes[index] = new BulkCreateResult.Outcome(index, BulkCreateResult.Result.FAILED, null,
+                            "Payment could not be stored");
+                    continue;
+                }
+            }
+            outcomes[index] = created(index, payment);
+        }
+        int created = (int) Arrays.stream(outcomes)
+                .filter(outcome -> outcome.getResult() == BulkCreateResult.Result.CREATED).count();
+        log.info("Bulk create finished: {} payments, {} created", requests.size(), created);
+        return new BulkCreateResult(requests.size(), created, requests.size() - created, Arrays.asList(outcomes));
+    }
+
+    /**
+     * Refund the selected payments.
+     *
+     * @param request payment IDs or merchant filter
+     * @return per-payment outcomes
+     */
+    public BulkOperationResult refund(BulkOperationRequest request) {
+        return apply(Transition.REFUND, request);
+    }
+
+    /**
+     * Cancel the selected payments.
+     *
+     * @param request payment IDs or merchant filter
+     * @return per-payment outcomes
+     */
+    public BulkOperationResult cancel(BulkOperationRequest request) {
+        return apply(Transition.CANCEL, request);
+    }
+
+    private BulkOperationResult apply(Transition transition, BulkOperationRequest request) {
+        log.info("Bulk {} for {}", transition, request.getIds() != null
+                ? request.getIds().size() + " payment IDs" : "merchant " + request.getMerchantId());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<BulkOperationResult.Outcome> outcomes = new ArrayList<>();
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            List<Long> ids = request.getIds().stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+                outcomes.addAll(transaction.execute(tx -> applyChunk(transition, chunk)));
+            }
+        } else {
+            Set<Payment.PaymentStatus> statuses = EnumSet.copyOf(transition.allowed);
+            if (request.getStatus() != null) {
+                statuses.retainAll(Set.of(request.getStatus()));
+            }
+            LocalDateTime from = request.getFrom() != null ? request.getFrom() : EARLIEST;
+            LocalDateTime to = request.getTo() != null ? request.getTo() : LATEST;
+            long afterId = 0;
+            while (!statuses.isEmpty()) {
+                List<Long> chunk = paymentRepository.findIdsByMerchant(request.getMerchantId(), statuses, from, to,
+                        afterId, PageRequest.of(0, CHUNK_SIZE));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                outcomes.addAll(transaction.execute(tx -> applyChunk(transition, chunk)));
+                afterId = chunk.get(chunk.size() - 1);
+            }
+        }
+        int updated = (int) outcomes.stream()
+                .filter(outcome -> outcome.getResult() == BulkOperationResult.Result.UPDATED).count();
+        log.info("Bulk {} finished: {} payments, {} updated", transition, outcomes.size(), updated);
+        return new BulkOperationResult(transition.name(), outcomes.size(), updated, outcomes.size() - updated,
+                outcomes);
+    }
+
+    private List<BulkOperationResult.Outcome> applyChunk(Transition transition, List<Long> chunk) {
+        Map<Long, PaymentRepository.StatusView> current = paymentRepository.lockStatuses(chunk).stream()
+                .collect(Collectors.toMap(PaymentRepository.StatusView::getId, Function.identity()));
+        List<BulkOperationResult.Outcome> outcomes = new ArrayList<>(chunk.size());
+        Set<Long> eligible = new LinkedHashSet<>();
+        for (Long id : chunk) {
+            PaymentRepository.StatusView view = current.get(id);
+            if (view == null) {
+                outcomes.add(new BulkOperationResult.Outcome(id, BulkOperationResult.Result.NOT_FOUND, null,
+                        "Payment not found with ID: " + id));
+            } else if (!transition.allowed.contains(view.getStatus())) {
+                outcomes.add(new BulkOperationResult.Outcome(id, BulkOperationResult.Result.REJECTED,
+                        view.getStatus(), transition.rejection));
+            } else {
+                outcomes.add(new BulkOperationResult.Outcome(id, BulkOperationResult.Result.UPDATED,
+                        view.getStatus(), null));
+                eligible.add(id);
+            }
+        }
+        if (eligible.isEmpty()) {
+            return outcomes;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int updated = paymentRepository.updateStatusIn(eligible, transition.allowed, transition.target, now);
+        if (updated != eligible.size()) {
+            // Rows are locked above, so this only happens if locking is not honoured.
+            throw new PaymentException("Concurrent modification during bulk " + transition);
+        }
+        for (Long id : eligible) {
+            PaymentRepository.StatusView view = current.get(id);
+            Payment written = new Payment();
+            written.setId(id);
+            written.setMerchantId(view.getMerchantId());
+            written.setTransactionId(view.getTransactionId());
+            readYourWritesTracker.recordWrite(written);
+        }
+        return outcomes;
+    }
+
+    private void validate(PaymentRequest request) {
+        if (request == null) {
+            throw new InvalidPaymentException("Payment is required");
+        }
+        Set<ConstraintViolation<PaymentRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new InvalidPaymentException(violations.stream().map(ConstraintViolation::getMessage)
+                    .sorted().collect(Collectors.joining("; ")));
+        }
+        PaymentValidator.validate(request);
+    }
+
+    private BulkCreateResult.Outcome created(int index, Payment payment) {
+        readYourWritesTracker.recordWrite(payment);
+        return new BulkCreateResult.Outcome(index, BulkCreateResult.Result.CREATED,
+                PaymentResponseMapper.fromEntity(payment, "Payment created successfully"), null);
+    }
+
+    /**
+     * Status transitions available in bulk.
+     */
+    private enum Transition {
+        REFUND(EnumSet.of(Payment.PaymentStatus.COMPLETED), Payment.PaymentStatus.REFUNDED,
+                "Only completed payments can be refunded"),
+        CANCEL(EnumSet.complementOf(EnumSet.of(Payment.PaymentStatus.COMPLETED, Payment.PaymentStatus.REFUNDED)),
+                Payment.PaymentStatus.CANCELLED, "Cannot cancel completed or refunded payments");
+
+        private final Set<Payment.PaymentStatus> allowed;
+        private final Payment.PaymentStatus target;
+        private final String rejection;
+
+        Transition(Set<Payment.PaymentStatus> allowed, Payment.PaymentStatus target, String rejection) {
+            this.allowed = allowed;
+            this.target = target;
+            this.rejection = rejection;
+        }
+    }
+}
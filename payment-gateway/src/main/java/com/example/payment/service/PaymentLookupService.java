@@ -0,0 +1,80 @@
+package com.example.payment.service;
+
+import com.example.payment.dto.PaymentLookupRequest;
+import com.example.payment.dto.PaymentLookupResult;
+import com.example.payment.dto.PaymentResponse;
+import com.example.payment.dto.PaymentResponseMapper;
+import com.example.payment.model.Payment;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Multi-get of payments by IDs and transaction IDs.
+ *
+ * <p>Keys are resolved in chunks with one IN query per chunk, and each
+ * chunk's results are handed to the sink before the next chunk is read, so
+ * a caller can stream the response without holding all payments in memory.
+ * Results follow request order: IDs first, then transaction IDs. A key that
+ * does not exist is reported with {@code found=false} instead of failing
+ * the request.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentLookupService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private final PaymentService paymentService;
+
+    /**
+     * Look up payments and pass one result per requested key to the sink, in request order.
+     *
+     * @param request payment IDs and/or transaction IDs
+     * @param sink receives the results; called once per key, chunk by chunk
+     */
+    public void lookup(PaymentLookupRequest request, Consumer<PaymentLookupResult> sink) {
+        List<Long> ids = request.getIds() != null ? request.getIds() : List.of();
+        List<String> transactionIds = request.getTransactionIds() != null ? request.getTransactionIds() : List.of();
+        log.info("Looking up {} payment IDs and {} transaction IDs", ids.size(), transactionIds.size());
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            Map<Long, Payment> found = index(paymentService.getPaymentsByIds(distinct(chunk)), Payment::getId);
+            for (Long id : chunk) {
+                Payment payment = found.get(id);
+                sink.accept(new PaymentLookupResult(id, null, payment != null, toResponse(payment)));
+            }
+        }
+        for (int from = 0; from < transactionIds.size(); from += CHUNK_SIZE) {
+            List<String> chunk = transactionIds.subList(from, Math.min(from + CHUNK_SIZE, transactionIds.size()));
+            Map<String, Payment> found = index(paymentService.getPaymentsByTransactionIds(distinct(chunk)),
+                    Payment::getTransactionId);
+            for (String transactionId : chunk) {
+                Payment payment = found.get(transactionId);
+                sink.accept(new PaymentLookupResult(null, transactionId, payment != null, toResponse(payment)));
+            }
+        }
+    }
+
+    private static <K> Collection<K> distinct(List<K> keys) {
+        return keys.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static <K> Map<K, Payment> index(List<Payment> payments, Function<Payment, K> key) {
+        return payments.stream().collect(Collectors.toMap(key, Function.identity(), (first, second) -> first));
+    }
+
+    private static PaymentResponse toResponse(Payment payment) {
+        return payment != null ? PaymentResponseMapper.fromEntity(payment, null) : null;
+    }
+}
@@ -0,0 +1,537 @@
+package com.example.payment.service;
+
+import com.example.payment.acquirer.AcquirerGateway;
+import com.example.payment.acquirer.AcquirerNotSentException;
+import com.example.payment.acquirer.AcquirerRequest;
+import com.example.payment.acquirer.AcquirerResponse;
+import com.example.payment.archive.PaymentArchiveService;
+import com.example.payment.datasource.ReadYourWritesTracker;
+import com.example.payment.dto.PaymentField;
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.exception.AcquirerTimeoutException;
+import com.example.payment.exception.InvalidPaymentException;
+import com.example.payment.exception.PaymentException;
+import com.example.payment.exception.PaymentNotFoundException;
+import com.example.payment.groupcommit.PaymentGroupCommitter;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.stream.PaymentStatusChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service class for payment business logic.
+ */
+@Service
+@Slf4j
+@Transactional
+public class PaymentService {
+
+    private final PaymentRepository paymentRepository;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final PaymentArchiveService paymentArchiveService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AcquirerGateway acquirerGateway;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Null unless group commit is enabled.
+     */
+    private final PaymentGroupCommitter groupCommitter;
+
+    public PaymentService(PaymentRepository paymentRepository, ReadYourWritesTracker readYourWritesTracker,
+                          PaymentArchiveService paymentArchiveService, ApplicationEventPublisher eventPublisher,
+                          AcquirerGateway acquirerGateway, PlatformTransactionManager transactionManager,
+                          ObjectProvider<PaymentGroupCommitter> groupCommitter) {
+        this.paymentRepository = paymentRepository;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.paymentArchiveService = paymentArchiveService;
+        this.eventPublisher = eventPublisher;
+        this.acquirerGateway = acquirerGateway;
+        this.transactionManager = transactionManager;
+        this.groupCommitter = groupCommitter.getIfAvailable();
+    }
+
+    /**
+     * Create a new payment.
+     *
+     * <p>With group commit enabled, a create that is not part of a caller's
+     * transaction is written together with concurrent creates; otherwise it
+     * commits on its own.
+     *
+     * @param request payment request details
+     * @return created payment
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Payment createPayment(PaymentRequest request) {
+        PaymentValidator.validate(request);
+        
+        Payment payment = newPayment(request);
+        Payment savedPayment = groupCommitter != null && !TransactionSynchronizationManager.isActualTransactionActive()
+                ? groupCommitter.insert(payment)
+                : paymentRepository.save(payment);
+        readYourWritesTracker.recordWrite(savedPayment);
+        publishStatusChange(savedPayment, null);
+        log.info("Payment {} created for merchant {}", savedPayment.getId(), savedPayment.getMerchantId());
+        
+        return savedPayment;
+    }
+
+    /**
+     * New pending payment entity for a validated request.
+     */
+    static Payment newPayment(PaymentRequest request) {
+        Payment payment = new Payment();
+        payment.setMerchantId(request.getMerchantId());
+        payment.setAmount(request.getAmount());
+        payment.setCurrency(request.getCurrency());
+        payment.setPaymentMethod(request.getPaymentMethod());
+        payment.setCustomerEmail(request.getCustomerEmail());
+        payment.setDescription(request.getDescription());
+        payment.setStatus(Payment.PaymentStatus.PENDING);
+        return payment;
+    }
+
+    /**
+     * Get payment by ID.
+     *
+     * @param id payment ID
+     * @return payment details
+     */
+    @Transactional(readOnly = true)
+    public Payment getPaymentById(Long id) {
+        log.info("Fetching payment with ID: {}", id);
+        try (ReadYourWritesTracker.Scope scope = readYourWritesTracker.forPayment(id)) {
+            return paymentRepository.findById(id)
+                    .orElseThrow(() -> new PaymentNotFoundException(id));
+        }
+    }
+
+    /**
+     * Get payment by transaction ID, falling back to the cold archive.
+     *
+     * @param transactionId transaction ID
+     * @return payment details
+     */
+    @Transactional(readOnly = true)
+    public Payment getPaymentByTransactionId(String transactionId) {
+        log.info("Fetching payment with transaction ID: {}", transactionId);
+        try (ReadYourWritesTracker.Scope scope = readYourWritesTracker.forTransaction(transactionId)) {
+            return paymentRepository.findByTransactionId(transactionId)
+                    .or(() -> paymentArchiveService.findByTransactionId(transactionId))
+                    .orElseThrow(() -> new PaymentNotFoundException("transactionId", transactionId));
+        }
+    }
+
+    /**
+     * Get all payments.
+     *
+     * @return list of all payments
+     */
+    @Transactional(readOnly = true)
+    public List<Payment> getAllPayments() {
+        log.info("Fetching all payments");
+        return paymentRepository.findAll();
+    }
+
+    /**
+     * Get payments by merchant ID.
+     *
+     * @param merchantId merchant identifier
+     * @return list of payments
+     */
+    @Transactional(readOnly = true)
+    public List<Payment> getPaymentsByMerchantId(String merchantId) {
+        log.info("Fetching payments for merchant: {}", merchantId);
+        try (ReadYourWritesTracker.Scope scope = readYourWritesTracker.forMerchant(merchantId)) {
+            return paymentRepository.findByMerchantId(merchantId);
+        }
+    }
+
+    /**
+     * Get selected fields of a payment by ID.
+     *
+     * @param id payment ID
+     * @param fields fields to read; only these columns are selected
+     * @return response holding only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPaymentFieldsById(Long id, Set<PaymentField> fields) {
+        log.info("Fetching fields {} of payment with ID: {}", fields, id);
+        try (ReadYourWritesTracker.Scope scope = readYourWritesTracker.forPayment(id)) {
+            return paymentRepository.findFieldsById(id, fields).stream()
+                    .findFirst()
+                    .map(row -> PaymentField.toResponse(fields, row))
+                    .orElseThrow(() -> new PaymentNotFoundException(id));
+        }
+    }
+
+    /**
+     * Get selected fields of a payment by transaction ID, falling back to the cold archive.
+     *
+     * @param transactionId transaction ID
+     * @param fields fields to read; only these columns are selected
+     * @return response holding only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPaymentFieldsByTransactionId(String transactionId, Set<PaymentField> fields) {
+        log.info("Fetching fields {} of payment with transaction ID: {}", fields, transactionId);
+        try (ReadYourWritesTracker.Scope scope = readYourWritesTracker.forTransaction(transactionId)) {
+            return paymentRepository.findFieldsByTransactionId(transactionId, fields).stream()
+                    .findFirst()
+                    .map(row -> PaymentField.toResponse(fields, row))
+                    .or(() -> paymentArchiveService.findByTransactionId(transactionId)
+                            .map(payment -> PaymentField.toResponse(fields, payment)))
+                    .orElseThrow(() -> new PaymentNotFoundException("transactionId", transactionId));
+        }
+    }
+
+    /**
+     * Get selected fields of all payments.
+     *
+     * @param fields fields to read; only these columns are selected
+     * @return responses holding only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllPaymentFields(Set<PaymentField> fields) {
+        log.info("Fetching fields {} of all payments", fields);
+        return toResponses(fields, paymentRepository.findAllFields(fields));
+    }
+
+    /**
+     * Get selected fields of a merchant's payments.
+     *
+     * @param merchantId merchant identifier
+     * @param fields fields to read; only these columns are selected
+     * @return responses holding only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getPaymentFieldsByMerchantId(String merchantId, Set<PaymentField> fields) {
+        log.info("Fetching fields {} of payments for merchant: {}", fields, merchantId);
+        try (ReadYourWritesTracker.Scope scope = readYourWritesTracker.forMerchant(merchantId)) {
+            return toResponses(fields, paymentRepository.findFieldsByMerchantId(merchantId, fields));
+        }
+    }
+
+    /**
+     * Get the payments that exist among the given IDs.
+     *
+     * @param ids payment IDs
+     * @return payments found, in no particular order
+     */
+    @Transactional(readOnly = true)
+    public List<Payment> getPaymentsByIds(Collection<Long> ids) {
+        log.debug("Fetching {} payments by ID", ids.size());
+        return paymentRepository.findAllById(ids);
+    }
+
+    /**
+     * Get the payments that exist among the given transaction IDs, falling back to the cold archive.
+     *
+     * @param transactionIds transaction IDs
+     * @return payments found, in no particular order
+     */
+    @Transactional(readOnly = true)
+    public List<Payment> getPaymentsByTransactionIds(Collection<String> transactionIds) {
+        log.debug("Fetching {} payments by transaction ID", transactionIds.size());
+        List<Payment> payments = new ArrayList<>(paymentRepository.findByTransactionIdIn(transactionIds));
+        if (payments.size() < transactionIds.size()) {
+            Set<String> missing = new HashSet<>(transactionIds);
+            payments.forEach(payment -> missing.remove(payment.getTransactionId()));
+            if (!missing.isEmpty()) {
+                payments.addAll(paymentArchiveService.findByTransactionIds(missing));
+            }
+        }
+        return payments;
+    }
+
+    /**
+     * Get a payment's version without loading it.
+     *
+     * @param id payment ID
+     * @return token that changes whenever the payment does, or empty if it is not found
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getPaymentVersion(Long id) {
+        try (ReadYourWritesTracker.Scope scope = readYourWritesTracker.forPayment(id)) {
+            return paymentRepository.findVersionById(id)
+                    .map(version -> versionToken(version.getId(), version.getUpdatedAt()));
+        }
+    }
+
+    /**
+     * Get a payment's version by transaction ID without loading it.
+     *
+     * @param transactionId transaction ID
+     * @return token that changes whenever the payment does, or empty if it is not in the hot table
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getPaymentVersionByTransactionId(String transactionId) {
+        try (ReadYourWritesTracker.Scope scope = readYourWritesTracker.forTransaction(transactionId)) {
+            return paymentRepository.findVersionByTransactionId(transactionId)
+                    .map(version -> versionToken(version.getId(), version.getUpdatedAt()));
+        }
+    }
+
+    /**
+     * Get the version of a merchant's payment list without loading it.
+     *
+     * <p>The token is the payment count and the merchant's highest change
+     * sequence. Once the change feed sequencer has stamped an insert or
+     * update, it holds a sequence above every earlier one, and every delete
+     * lowers the count, so the token changes whenever the list does, however
+     * close together the writes were. Until then the change has no sequence
+     * and the list has no version.
+     *
+     * @param merchantId merchant identifier
+     * @return token for the merchant's current payments, or empty while a change is waiting to be sequenced
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getMerchantPaymentsVersion(String merchantId) {
+        try (ReadYourWritesTracker.Scope scope = readYourWritesTracker.forMerchant(merchantId)) {
+            PaymentRepository.MerchantVersionView version = paymentRepository.findMerchantVersion(merchantId);
+            if (version.getPending() > 0) {
+                return Optional.empty();
+            }
+            return Optional.of(Long.toString(version.getCount(), 36) + "-"
+                    + Long.toString(version.getLastSequence(), 36));
+        }
+    }
+
+    /**
+     * Send a pending payment to its acquirer.
+     *
+     * <p>The acquirer call is admitted before anything is written, so a
+     * payment rejected by a full bulkhead or open circuit breaker stays
+     * PENDING. The move to PROCESSING is committed before the call is sent,
+     * and the method returns without waiting for the answer. When it arrives,
+     * the payment is moved to COMPLETED, or to FAILED on a decline or an
+     * error the call never left with, in a new transaction, unless something
+     * else moved it first. Any other error may come after the acquirer
+     * approved, so the payment stays PROCESSING. A call that runs past the
+     * deadline leaves it PROCESSING too, and the acquirer's late answer is
+     * applied the same way once it arrives. A payment whose outcome stays
+     * unknown is left to the stale payment sweeper, and to reconciliation
+     * against the acquirer's settlement file.
+     *
+     * @param id payment ID
+     * @return future completed with the processed payment, or exceptionally
+     *         with an {@link AcquirerTimeoutException}
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<Payment> processPayment(Long id) {
+        log.info("Processing payment with ID: {}", id);
+        Payment payment = getPaymentById(id);
+        if (payment.getStatus() != Payment.PaymentStatus.PENDING) {
+            throw new PaymentException("Payment cannot be processed in current status: " 
+                                     + payment.getStatus());
+        }
+
+        AcquirerGateway.Admission admission = acquirerGateway.admit(payment.getPaymentMethod());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Payment processing;
+        try {
+            processing = transaction.execute(status -> startProcessing(id));
+        } catch (RuntimeException ex) {
+            admission.cancel();
+            throw ex;
+        }
+
+        CompletableFuture<Payment> result = new CompletableFuture<>();
+        admission.send(new AcquirerRequest(processing.getId(), processing.getTransactionId(),
+                        processing.getMerchantId(), processing.getAmount(), processing.getCurrency(),
+                        processing.getPaymentMethod(), Instant.now().plus(admission.getDeadline())))
+                .whenComplete((response, error) -> {
+                    if (error instanceof AcquirerTimeoutException timeout) {
+                        result.completeExceptionally(error);
+                        timeout.getLateAnswer().whenComplete((late, lateError) -> {
+                            try {
+                                transaction.execute(status -> finishProcessing(id, late, lateError));
+                            } catch (RuntimeException ex) {
+                                log.error("Failed to apply the late acquirer answer for payment {}", id, ex);
+                            }
+                        });
+                        return;
+                    }
+                    try {
+                        result.complete(transaction.execute(status -> finishProcessing(id, response, error)));
+                    } catch (RuntimeException ex) {
+                        result.completeExceptionally(ex);
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * Refund payment.
+     *
+     * @param id payment ID
+     * @return refunded payment
+     */
+    public Payment refundPayment(Long id) {
+        log.info("Refunding payment with ID: {}", id);
+        Payment payment = getPaymentById(id);
+        
+        if (payment.getStatus() != Payment.PaymentStatus.COMPLETED) {
+            throw new InvalidPaymentException("Only completed payments can be refunded");
+        }
+        
+        payment.setStatus(Payment.PaymentStatus.REFUNDED);
+        Payment refunded = paymentRepository.save(payment);
+        readYourWritesTracker.recordWrite(refunded);
+        publishStatusChange(refunded, Payment.PaymentStatus.COMPLETED);
+        
+        log.info("Payment refunded successfully: {}", id);
+        return refunded;
+    }
+
+    /**
+     * Cancel payment.
+     *
+     * @param id payment ID
+     * @return cancelled payment
+     */
+    public Payment cancelPayment(Long id) {
+        log.info("Cancelling payment with ID: {}", id);
+        Payment payment = getPaymentById(id);
+        
+        if (payment.getStatus() == Payment.PaymentStatus.COMPLETED 
+            || payment.getStatus() == Payment.PaymentStatus.REFUNDED) {
+            throw new PaymentException("Cannot cancel completed or refunded payments");
+        }
+        
+        Payment.PaymentStatus previousStatus = payment.getStatus();
+        payment.setStatus(Payment.PaymentStatus.CANCELLED);
+        Payment cancelled = paymentRepository.save(payment);
+        readYourWritesTracker.recordWrite(cancelled);
+        publishStatusChange(cancelled, previousStatus);
+        
+        log.info("Payment cancelled successfully: {}", id);
+        return cancelled;
+    }
+
+    /**
+     * Update payment status.
+     *
+     * @param id payment ID
+     * @param status new payment status
+     * @return updated payment
+     */
+    public Payment updatePaymentStatus(Long id, Payment.PaymentStatus status) {
+        log.info("Updating payment status for ID: {} to {}", id, status);
+        Payment payment = getPaymentById(id);
+        Payment.PaymentStatus previousStatus = payment.getStatus();
+        payment.setStatus(status);
+        Payment updated = paymentRepository.save(payment);
+        readYourWritesTracker.recordWrite(updated);
+        if (previousStatus != status) {
+            publishStatusChange(updated, previousStatus);
+        }
+        log.info("Payment status updated successfully: {}", id);
+        return updated;
+    }
+
+    /**
+     * Get payment statistics.
+     *
+     * @return statistics map
+     */
+    @Transactional(readOnly = true)
+    public java.util.Map<String, Object> getPaymentStatistics() {
+        log.info("Fetching payment statistics");
+        long totalPayments = paymentRepository.count();
+        long pendingPayments = paymentRepository.countPendingPayments();
+        
+        java.util.Map<String, Object> stats = new java.util.HashMap<>();
+        stats.put("totalPayments", totalPayments);
+        stats.put("pendingPayments", pendingPayments);
+        stats.put("completedPayments", paymentRepository.countByStatus(Payment.PaymentStatus.COMPLETED));
+        
+        return stats;
+    }
+
+    /**
+     * Publish a status change for the flight recorder event of the current call.
+     * Subscribers of the event stream see the change through the change feed.
+     */
+    private void publishStatusChange(Payment payment, Payment.PaymentStatus previousStatus) {
+        eventPublisher.publishEvent(new PaymentStatusChangedEvent(payment.getId(), payment.getTransactionId(),
+                payment.getMerchantId(), previousStatus, payment.getStatus(), LocalDateTime.now()));
+    }
+
+    private Payment startProcessing(Long id) {
+        if (paymentRepository.updateStatusIn(List.of(id), List.of(Payment.PaymentStatus.PENDING),
+                Payment.PaymentStatus.PROCESSING, LocalDateTime.now()) == 0) {
+            throw new PaymentException("Payment cannot be processed in current status: "
+                    + paymentRepository.findById(id).map(Payment::getStatus).orElse(null));
+        }
+        Payment processing = paymentRepository.findById(id).orElseThrow(() -> new PaymentNotFoundException(id));
+        readYourWritesTracker.recordWrite(processing);
+        publishStatusChange(processing, Payment.PaymentStatus.PENDING);
+        return processing;
+    }
+
+    private Payment finishProcessing(Long id, AcquirerResponse response, Throwable error) {
+        if (error != null && !(error instanceof AcquirerNotSentException)) {
+            log.warn("Payment {} stays PROCESSING, the acquirer may have approved it: {}", id, error.getMessage());
+            return paymentRepository.findById(id).orElseThrow(() -> new PaymentNotFoundException(id));
+        }
+        Payment.PaymentStatus target = error == null && response.isApproved()
+                ? Payment.PaymentStatus.COMPLETED : Payment.PaymentStatus.FAILED;
+        int updated = paymentRepository.updateStatusIn(List.of(id), List.of(Payment.PaymentStatus.PROCESSING),
+                target, LocalDateTime.now());
+        Payment processed = paymentRepository.findById(id).orElseThrow(() -> new PaymentNotFoundException(id));
+        if (updated == 0) {
+            if (target == Payment.PaymentStatus.COMPLETED) {
+                log.error("Payment {} approved by the acquirer after it left PROCESSING; now {}, reference {}",
+                        id, processed.getStatus(), response.getReference());
+            } else {
+                log.warn("Payment {} left PROCESSING before the acquirer answered; now {}", id, processed.getStatus());
+            }
+            return processed;
+        }
+        readYourWritesTracker.recordWrite(processed);
+        publishStatusChange(processed, Payment.PaymentStatus.PROCESSING);
+        if (error != null) {
+            log.warn("Payment {} failed: {}", id, error.getMessage());
+        } else if (!response.isApproved()) {
+            log.info("Payment {} declined: {}", id, response.getDeclineReason());
+        } else {
+            log.info("Payment processed successfully: {}", id);
+        }
+        return processed;
+    }
+
+    private static List<Map<String, Object>> toResponses(Set<PaymentField> fields, List<Object[]> rows) {
+        List<Map<String, Object>> responses = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            responses.add(PaymentField.toResponse(fields, row));
+        }
+        return responses;
+    }
+
+    private static String versionToken(long key, LocalDateTime updatedAt) {
+        long micros = updatedAt == null ? 0
+                : updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+        return Long.toString(key, 36) + "-" + Long.toString(micros, 36);
+    }
+}
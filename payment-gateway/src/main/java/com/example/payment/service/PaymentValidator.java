@@ -0,0 +1,51 @@
+package com.example.payment.service;
+
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.exception.InvalidPaymentException;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Business validation rules applied to every new payment, whether it arrives
+ * through the API or a bulk import.
+ */
+public final class PaymentValidator {
+
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("10000.00");
+    private static final Set<String> CURRENCIES = Set.of("USD", "EUR", "GBP", "INR");
+
+    // Stackless and immutable, so one instance per rule serves every rejection without allocating.
+    private static final InvalidPaymentException NON_POSITIVE_AMOUNT =
+            new InvalidPaymentException("Payment amount must be greater than zero");
+    private static final InvalidPaymentException AMOUNT_OVER_LIMIT =
+            new InvalidPaymentException("Amount exceeds maximum limit");
+    private static final InvalidPaymentException UNSUPPORTED_CURRENCY =
+            new InvalidPaymentException("Currency must be USD, EUR, GBP, or INR");
+
+    private PaymentValidator() {
+    }
+
+    /**
+     * Validate a payment request.
+     *
+     * @param request payment request details
+     * @throws InvalidPaymentException when a rule is violated
+     */
+    public static void validate(PaymentRequest request) {
+        // Validate amount
+        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw NON_POSITIVE_AMOUNT;
+        }
+
+        // Validate amount limit
+        if (request.getAmount().compareTo(MAX_AMOUNT) > 0) {
+            throw AMOUNT_OVER_LIMIT;
+        }
+
+        // Validate currency
+        if (request.getCurrency() == null || !CURRENCIES.contains(request.getCurrency())) {
+            throw UNSUPPORTED_CURRENCY;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.payment.settlement;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table keyed by a primitive (merchant, currency) code
+ * pair, holding settlement sums in parallel {@code long} arrays so that
+ * aggregation never boxes or allocates per row.
+ */
+final class SettlementAccumulator {
+
+    private static final long EMPTY = -1L;
+    private static final int CURRENCY_BITS = 16;
+
+    private long[] keys;
+    private long[] grossCents;
+    private long[] completedCount;
+    private long[] refundCents;
+    private long[] refundCount;
+    private int size;
+
+    SettlementAccumulator(int expectedEntries) {
+        allocate(Integer.highestOneBit(Math.max(16, expectedEntries * 2 - 1)) << 1);
+    }
+
+    static long key(int merchantCode, int currencyCode) {
+        return ((long) merchantCode << CURRENCY_BITS) | currencyCode;
+    }
+
+    static int merchantCode(long key) {
+        return (int) (key >>> CURRENCY_BITS);
+    }
+
+    static int currencyCode(long key) {
+        return (int) (key & ((1 << CURRENCY_BITS) - 1));
+    }
+
+    /**
+     * Record a capture, or a refund of a capture that may have been settled on an earlier day.
+     */
+    void add(long key, long amountCents, boolean refund) {
+        int slot = slotFor(key);
+        if (refund) {
+            refundCents[slot] += amountCents;
+            refundCount[slot]++;
+        } else {
+            grossCents[slot] += amountCents;
+            completedCount[slot]++;
+        }
+    }
+
+    void merge(SettlementAccumulator other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] == EMPTY) {
+                continue;
+            }
+            int slot = slotFor(other.keys[i]);
+            grossCents[slot] += other.grossCents[i];
+            completedCount[slot] += other.completedCount[i];
+            refundCents[slot] += other.refundCents[i];
+            refundCount[slot] += other.refundCount[i];
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Slots that hold an entry, in table order.
+     */
+    int[] occupiedSlots() {
+        int[] slots = new int[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                slots[n++] = i;
+            }
+        }
+        return slots;
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    long grossCentsAt(int slot) {
+        return grossCents[slot];
+    }
+
+    long completedCountAt(int slot) {
+        return completedCount[slot];
+    }
+
+    long refundCentsAt(int slot) {
+        return refundCents[slot];
+    }
+
+    long refundCountAt(int slot) {
+        return refundCount[slot];
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        for (int slot : occupiedSlots()) {
+            out.writeLong(keys[slot]);
+            out.writeLong(grossCents[slot]);
+            out.writeLong(completedCount[slot]);
+            out.writeLong(refundCents[slot]);
+            out.writeLong(refundCount[slot]);
+        }
+    }
+
+    static SettlementAccumulator readFrom(DataInputStream in) throws IOException {
+        int entries = in.readInt();
+        SettlementAccumulator accumulator = new SettlementAccumulator(entries);
+        for (int i = 0; i < entries; i++) {
+            int slot = accumulator.slotFor(in.readLong());
+            accumulator.grossCents[slot] = in.readLong();
+            accumulator.completedCount[slot] = in.readLong();
+            accumulator.refundCents[slot] = in.readLong();
+            accumulator.refundCount[slot] = in.readLong();
+        }
+        return accumulator;
+    }
+
+    private int slotFor(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+            return slotFor(key);
+        }
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldGross = grossCents;
+        long[] oldCompleted = completedCount;
+        long[] oldRefund = refundCents;
+        long[] oldRefundCount = refundCount;
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotFor(oldKeys[i]);
+                grossCents[slot] = oldGross[i];
+                completedCount[slot] = oldCompleted[i];
+                refundCents[slot] = oldRefund[i];
+                refundCount[slot] = oldRefundCount[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        grossCents = new long[capacity];
+        completedCount = new long[capacity];
+        refundCents = new long[capacity];
+        refundCount = new long[capacity];
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
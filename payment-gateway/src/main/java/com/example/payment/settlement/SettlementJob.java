@@ -0,0 +1,466 @@
+package com.example.payment.settlement;
+
+import com.example.payment.config.SettlementProperties;
+import com.example.payment.dto.SettlementSummary;
+import com.example.payment.repository.JobLockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * End-of-day settlement: per merchant and currency, the gross amount
+ * captured that day, the refunds made that day, their counts and the net
+ * amount. A capture counts on the day its payment completed and a refund on
+ * the day it was refunded, whenever the payment was created.
+ *
+ * <p>The day's captures and then its refunds are streamed in
+ * keyset-paginated chunks ordered by (completedAt, id) and (refundedAt, id),
+ * so the working set is one chunk plus one accumulator entry per
+ * (merchant, currency) regardless of the day's volume. Each chunk is
+ * aggregated with fork-join into primitive-keyed accumulators. Progress is
+ * checkpointed to disk so an interrupted run resumes where it stopped. A run
+ * holds the {@code payment-settlement} lease in {@code job_locks}, renewed at
+ * every checkpoint, so one instance settles at a time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SettlementJob {
+
+    private static final String CAPTURES_SQL = "SELECT id, completed_at, merchant_id, currency, amount "
+            + "FROM payments WHERE completed_at < ? AND (completed_at > ? OR (completed_at = ? AND id > ?)) "
+            + "AND status IN ('COMPLETED', 'REFUNDED') ORDER BY completed_at, id LIMIT ?";
+    private static final String REFUNDS_SQL = "SELECT id, refunded_at, merchant_id, currency, amount "
+            + "FROM payments WHERE refunded_at < ? AND (refunded_at > ? OR (refunded_at = ? AND id > ?)) "
+            + "AND status = 'REFUNDED' ORDER BY refunded_at, id LIMIT ?";
+
+    static final String LOCK_NAME = "payment-settlement";
+
+    private static final String CHECKPOINT_FILE = "checkpoint.bin";
+    private static final int CHECKPOINT_VERSION = 2;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER =
+            "merchant_id,currency,completed_count,gross_amount,refund_count,refund_amount,net_amount\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SettlementProperties properties;
+    private final JobLockRepository jobLockRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    /**
+     * Settle the previous day; no-op unless settlement is enabled. Runs on
+     * every instance, and the settlement lock lets one of them do the work.
+     */
+    @Scheduled(cron = "${payment.settlement.cron:0 15 0 * * *}")
+    public void settleYesterday() {
+        if (properties.isEnabled()) {
+            settle(LocalDate.now().minusDays(1));
+        }
+    }
+
+    /**
+     * Settle the captures and refunds of the given day, unless another
+     * instance holds the settlement lock.
+     *
+     * @param date settlement day
+     * @return summary of the run
+     */
+    public synchronized SettlementSummary settle(LocalDate date) {
+        Path directory = Paths.get(properties.getDirectory(), date.toString());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        if (!holdLock(transaction)) {
+            log.info("Skipping settlement of {}, another instance holds the settlement lock", date);
+            return new SettlementSummary(date, 0, 0, 0, directory.toString(), false, true);
+        }
+        try {
+            return settleLocked(date, directory, transaction);
+        } finally {
+            transaction.executeWithoutResult(status ->
+                    jobLockRepository.release(LOCK_NAME, owner, LocalDateTime.now()));
+        }
+    }
+
+    private SettlementSummary settleLocked(LocalDate date, Path directory, TransactionTemplate transaction) {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        try {
+            Files.createDirectories(directory);
+            boolean resumed = Files.exists(checkpoint);
+            State state = resumed ? State.read(checkpoint) : new State(date.atStartOfDay());
+            if (resumed) {
+                log.info("Resuming settlement of {} after {} payments", date, state.rowsProcessed);
+            }
+
+            if (!aggregate(state, date.atStartOfDay(), date.plusDays(1).atStartOfDay(), checkpoint, transaction)) {
+                log.warn("Lost the settlement lock, stopping settlement of {} after {} payments",
+                        date, state.rowsProcessed);
+                return new SettlementSummary(date, state.rowsProcessed, 0, 0, directory.toString(), resumed, true);
+            }
+            int files = writeReports(directory, date, state);
+            Files.deleteIfExists(checkpoint);
+
+            log.info("Settled {} payments for {} merchants on {}", state.rowsProcessed, files, date);
+            return new SettlementSummary(date, state.rowsProcessed, files, files, directory.toString(), resumed,
+                    false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Aggregate the day's captures, then its refunds, from the state's position on.
+     *
+     * @return false if the settlement lock was lost at a checkpoint
+     */
+    private boolean aggregate(State state, LocalDateTime dayStart, LocalDateTime dayEnd, Path checkpoint,
+                              TransactionTemplate transaction) throws IOException {
+        int chunkSize = properties.getChunkSize();
+        Chunk chunk = new Chunk(chunkSize);
+        ForkJoinPool pool = new ForkJoinPool(properties.getParallelism());
+        try {
+            int chunksSinceCheckpoint = 0;
+            while (state.phase <= State.REFUNDS) {
+                readChunk(state, chunk, dayEnd, chunkSize);
+                if (chunk.size > 0) {
+                    int threshold = Math.max(1024, chunk.size / (properties.getParallelism() * 4));
+                    state.accumulator.merge(pool.invoke(new AggregateTask(chunk, 0, chunk.size, threshold)));
+                    state.rowsProcessed += chunk.size;
+                    state.lastChangedAt = chunk.lastChangedAt;
+                    state.lastId = chunk.ids[chunk.size - 1];
+                }
+                if (chunk.size < chunkSize) {
+                    state.phase++;
+                    state.lastChangedAt = dayStart;
+                    state.lastId = Long.MIN_VALUE;
+                }
+                if (chunk.size > 0 && ++chunksSinceCheckpoint >= properties.getCheckpointInterval()) {
+                    state.write(checkpoint);
+                    chunksSinceCheckpoint = 0;
+                    if (!holdLock(transaction)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void readChunk(State state, Chunk chunk, LocalDateTime dayEnd, int chunkSize) {
+        chunk.size = 0;
+        boolean refunds = state.phase == State.REFUNDS;
+        Timestamp after = Timestamp.valueOf(state.lastChangedAt);
+        jdbcTemplate.query(refunds ? REFUNDS_SQL : CAPTURES_SQL, ps -> {
+            ps.setFetchSize(chunkSize);
+            ps.setTimestamp(1, Timestamp.valueOf(dayEnd));
+            ps.setTimestamp(2, after);
+            ps.setTimestamp(3, after);
+            ps.setLong(4, state.lastId);
+            ps.setInt(5, chunkSize);
+        }, rs -> {
+            int row = chunk.size++;
+            chunk.ids[row] = rs.getLong(1);
+            chunk.lastChangedAt = rs.getTimestamp(2).toLocalDateTime();
+            chunk.merchantCodes[row] = state.merchants.code(rs.getString(3));
+            chunk.currencyCodes[row] = state.currencies.code(rs.getString(4));
+            chunk.amountCents[row] = rs.getBigDecimal(5).movePointRight(2).longValueExact();
+            chunk.refunds[row] = refunds;
+        });
+    }
+
+    /**
+     * Take or renew the settlement lease. The lease row is created on first
+     * use where the schema did not come from the migrations.
+     */
+    private boolean holdLock(TransactionTemplate transaction) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(properties.getLockLease());
+        Integer claimed = transaction.execute(status -> jobLockRepository.claim(LOCK_NAME, owner, now, until));
+        if (claimed != null && claimed > 0) {
+            return true;
+        }
+        if (jobLockRepository.existsById(LOCK_NAME)) {
+            return false;
+        }
+        try {
+            transaction.executeWithoutResult(status -> jobLockRepository.insert(LOCK_NAME, owner, until));
+            return true;
+        } catch (DataIntegrityViolationException ex) {
+            return false;
+        }
+    }
+
+    private int writeReports(Path directory, LocalDate date, State state) throws IOException {
+        SettlementAccumulator totals = state.accumulator;
+        Integer[] slots = Arrays.stream(totals.occupiedSlots()).boxed().toArray(Integer[]::new);
+        Arrays.sort(slots, Comparator
+                .comparing((Integer slot) -> state.merchants.value(merchantCodeAt(totals, slot)))
+                .thenComparing(slot -> state.currencies.value(SettlementAccumulator.currencyCode(totals.keyAt(slot)))));
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        StringBuilder line = new StringBuilder(128);
+        int files = 0;
+        int start = 0;
+        while (start < slots.length) {
+            int merchantCode = merchantCodeAt(totals, slots[start]);
+            int end = start;
+            while (end < slots.length && merchantCodeAt(totals, slots[end]) == merchantCode) {
+                end++;
+            }
+            String merchantId = state.merchants.value(merchantCode);
+            Path file = directory.resolve("settlement-" + date + "-" + fileSafe(merchantId) + ".csv");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                buffer.clear();
+                write(channel, buffer, encoder, CSV_HEADER);
+                for (int i = start; i < end; i++) {
+                    int slot = slots[i];
+                    long gross = totals.grossCentsAt(slot);
+                    long refunds = totals.refundCentsAt(slot);
+                    line.setLength(0);
+                    line.append(csv(merchantId)).append(',')
+                            .append(state.currencies.value(SettlementAccumulator.currencyCode(totals.keyAt(slot))))
+                            .append(',').append(totals.completedCountAt(slot))
+                            .append(',').append(BigDecimal.valueOf(gross, 2).toPlainString())
+                            .append(',').append(totals.refundCountAt(slot))
+                            .append(',').append(BigDecimal.valueOf(refunds, 2).toPlainString())
+                            .append(',').append(BigDecimal.valueOf(gross - refunds, 2).toPlainString())
+                            .append('\n');
+                    write(channel, buffer, encoder, line);
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            files++;
+            start = end;
+        }
+        return files;
+    }
+
+    private static int merchantCodeAt(SettlementAccumulator totals, int slot) {
+        return SettlementAccumulator.merchantCode(totals.keyAt(slot));
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, CharsetEncoder encoder, CharSequence text)
+            throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (!result.isOverflow()) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String fileSafe(String merchantId) {
+        String safe = merchantId.replaceAll("[^A-Za-z0-9_-]", "_");
+        return safe.equals(merchantId) ? safe : safe + "-" + Integer.toHexString(merchantId.hashCode());
+    }
+
+    /**
+     * Fork-join task aggregating a row range of a chunk.
+     */
+    private static final class AggregateTask extends RecursiveTask<SettlementAccumulator> {
+
+        private final Chunk chunk;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        AggregateTask(Chunk chunk, int from, int to, int threshold) {
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected SettlementAccumulator compute() {
+            if (to - from <= threshold) {
+                SettlementAccumulator accumulator = new SettlementAccumulator(64);
+                for (int row = from; row < to; row++) {
+                    accumulator.add(SettlementAccumulator.key(chunk.merchantCodes[row], chunk.currencyCodes[row]),
+                            chunk.amountCents[row], chunk.refunds[row]);
+                }
+                return accumulator;
+            }
+            int middle = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(chunk, from, middle, threshold);
+            left.fork();
+            SettlementAccumulator right = new AggregateTask(chunk, middle, to, threshold).compute();
+            SettlementAccumulator merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+
+    /**
+     * Reusable column buffers for one chunk of rows.
+     */
+    private static final class Chunk {
+
+        private final long[] ids;
+        private final int[] merchantCodes;
+        private final int[] currencyCodes;
+        private final long[] amountCents;
+        private final boolean[] refunds;
+        private LocalDateTime lastChangedAt;
+        private int size;
+
+        Chunk(int capacity) {
+            ids = new long[capacity];
+            merchantCodes = new int[capacity];
+            currencyCodes = new int[capacity];
+            amountCents = new long[capacity];
+            refunds = new boolean[capacity];
+        }
+    }
+
+    /**
+     * String dictionary assigning dense int codes.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        String value(int code) {
+            return values.get(code);
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(values.size());
+            for (String value : values) {
+                out.writeUTF(value);
+            }
+        }
+
+        static Dictionary readFrom(DataInputStream in) throws IOException {
+            Dictionary dictionary = new Dictionary();
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                dictionary.code(in.readUTF());
+            }
+            return dictionary;
+        }
+    }
+
+    /**
+     * Restartable job state: phase and keyset position, dictionaries and running totals.
+     */
+    private static final class State {
+
+        static final int CAPTURES = 0;
+        static final int REFUNDS = 1;
+
+        private int phase = CAPTURES;
+        private LocalDateTime lastChangedAt;
+        private long lastId = Long.MIN_VALUE;
+        private long rowsProcessed;
+        private Dictionary merchants = new Dictionary();
+        private Dictionary currencies = new Dictionary();
+        private SettlementAccumulator accumulator = new SettlementAccumulator(1024);
+
+        State(LocalDateTime start) {
+            this.lastChangedAt = start;
+        }
+
+        void write(Path file) throws IOException {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(CHECKPOINT_VERSION);
+                out.writeInt(phase);
+                out.writeUTF(lastChangedAt.toString());
+                out.writeLong(lastId);
+                out.writeLong(rowsProcessed);
+                merchants.writeTo(out);
+                currencies.writeTo(out);
+                accumulator.writeTo(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        static State read(Path file) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (in.readInt() != CHECKPOINT_VERSION) {
+                    throw new IOException("Unsupported settlement checkpoint: " + file);
+                }
+                int phase = in.readInt();
+                State state = new State(LocalDateTime.parse(in.readUTF()));
+                state.phase = phase;
+                state.lastId = in.readLong();
+                state.rowsProcessed = in.readLong();
+                state.merchants = Dictionary.readFrom(in);
+                state.currencies = Dictionary.readFrom(in);
+                state.accumulator = SettlementAccumulator.readFrom(in);
+                return state;
+            }
+        }
+    }
+}
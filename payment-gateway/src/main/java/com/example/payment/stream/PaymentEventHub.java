@@ -0,0 +1,371 @@
+package com.example.payment.stream;
+
+import com.example.payment.config.StreamProperties;
+import com.example.payment.exception.ServiceOverloadedException;
+import com.example.payment.health.QueueDepthSource;
+import com.example.payment.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans payment status changes out to Server-Sent Events subscribers.
+ *
+ * <p>Changes come from the shared change feed rather than from this
+ * instance's own writes, so a subscriber sees payments updated by any
+ * replica. Every instance polls the feed for all merchants and publishes
+ * each changed payment with its change sequence as the event ID. As the
+ * feed holds a payment's latest change only, a payment updated twice
+ * between polls is published once with its final status, and the previous
+ * status is not known. Events reach subscribers within about the sequencer
+ * interval plus the poll interval of the commit.
+ *
+ * <p>A subscriber holds an async request open without holding a thread. Each
+ * subscriber has a bounded queue, and a small dispatcher pool shared by all
+ * subscribers drains the queues. A subscriber whose queue fills is
+ * disconnected instead of being buffered without limit. It reconnects with
+ * Last-Event-ID and catches up from the ring of recent events. If it has
+ * fallen out of the ring, or from before this instance started polling, it
+ * gets a {@code reset} event telling it to refetch. Change sequences are
+ * the same on every instance, so a client may resume against any of them.
+ * Only committed changes are sequenced, so a rolled-back transition is
+ * never pushed.
+ */
+@Component
+@Slf4j
+public class PaymentEventHub implements QueueDepthSource {
+
+    static final String STATUS_EVENT = "status";
+    static final String RESET_EVENT = "reset";
+
+    private static final Entry HEARTBEAT = new Entry(0, null);
+
+    private final StreamProperties properties;
+    private final PaymentRepository paymentRepository;
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ThreadPoolExecutor dispatcher;
+    private final Counter dropped;
+
+    // Guarded by this; both are -1 until the first poll
+    private final Entry[] replay;
+    private long firstSequence = -1;
+    private long lastSequence = -1;
+
+    public PaymentEventHub(StreamProperties properties, PaymentRepository paymentRepository,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.paymentRepository = paymentRepository;
+        this.replay = new Entry[properties.getReplayBufferSize()];
+        AtomicInteger threads = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(properties.getDispatchThreads(), properties.getDispatchThreads(),
+                0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "event-stream-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("payment.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open payment event stream subscriptions")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("payment.stream.dropped")
+                .description("Subscribers disconnected for falling behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Subscribe to status changes of one payment.
+     *
+     * @param paymentId payment ID
+     * @param lastEventId ID of the last event the client received, or null
+     * @return emitter for the response
+     */
+    public SseEmitter subscribePayment(Long paymentId, String lastEventId) {
+        return subscribe(paymentKey(paymentId), lastEventId);
+    }
+
+    /**
+     * Subscribe to status changes of all of a merchant's payments.
+     *
+     * @param merchantId merchant identifier
+     * @param lastEventId ID of the last event the client received, or null
+     * @return emitter for the response
+     */
+    public SseEmitter subscribeMerchant(String merchantId, String lastEventId) {
+        return subscribe(merchantKey(merchantId), lastEventId);
+    }
+
+    /**
+     * Publish the changes sequenced since the previous poll. The first poll,
+     * and every poll while nobody is subscribed, only notes where the feed
+     * stands; a client resuming from before that gets a reset.
+     */
+    @Scheduled(fixedDelayString = "${payment.stream.poll-interval-ms:500}")
+    public void pollChanges() {
+        long after;
+        synchronized (this) {
+            after = lastSequence;
+        }
+        if (after < 0 || subscriberCount.get() == 0) {
+            long head = paymentRepository.findLastChangeSequence();
+            synchronized (this) {
+                // A subscriber that arrived meanwhile reads from the previous position
+                if (lastSequence < 0 || subscriberCount.get() == 0) {
+                    firstSequence = head;
+                    lastSequence = head;
+                    return;
+                }
+                after = lastSequence;
+            }
+        }
+        List<PaymentRepository.ChangeView> changes;
+        do {
+            changes = paymentRepository.findAllChanges(after, PageRequest.of(0, properties.getPollBatchSize()));
+            publish(changes);
+            if (!changes.isEmpty()) {
+                after = changes.get(changes.size() - 1).getChangeSequence();
+            }
+        } while (changes.size() == properties.getPollBatchSize());
+    }
+
+    private synchronized void publish(List<PaymentRepository.ChangeView> changes) {
+        for (PaymentRepository.ChangeView change : changes) {
+            Entry entry = new Entry(change.getChangeSequence(), new PaymentStatusChangedEvent(change.getId(),
+                    change.getTransactionId(), change.getMerchantId(), null, change.getStatus(),
+                    change.getUpdatedAt()));
+            replay[(int) (entry.sequence % replay.length)] = entry;
+            lastSequence = entry.sequence;
+            deliver(paymentKey(change.getId()), entry);
+            deliver(merchantKey(change.getMerchantId()), entry);
+        }
+    }
+
+    /**
+     * Send a comment to every subscriber so idle connections stay open and dead ones are noticed.
+     */
+    @Scheduled(fixedDelayString = "${payment.stream.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.enqueue(HEARTBEAT)));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public Map<String, Integer> queueDepths() {
+        return Map.of("eventStreamDispatch", dispatcher.getQueue().size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    private SseEmitter subscribe(String key, String lastEventId) {
+        if (subscriberCount.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceOverloadedException("stream subscriber");
+        }
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(key, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+        emitter.onTimeout(emitter::complete);
+        synchronized (this) {
+            // Replay and registration happen under the publish lock, so no event is missed or sent twice.
+            replayTo(subscriber, lastEventId);
+            subscribers.compute(key, (k, set) -> {
+                Set<Subscriber> target = set != null ? set : ConcurrentHashMap.newKeySet();
+                target.add(subscriber);
+                return target;
+            });
+        }
+        return emitter;
+    }
+
+    private void replayTo(Subscriber subscriber, String lastEventId) {
+        if (lastEventId == null || lastEventId.isEmpty()) {
+            return;
+        }
+        long after = parseEventId(lastEventId);
+        if (firstSequence < 0 || after < Math.max(firstSequence, lastSequence - replay.length)) {
+            subscriber.enqueue(new Entry(Math.max(lastSequence, 0), null));
+            return;
+        }
+        if (after > lastSequence) {
+            // Resuming from an instance further along the feed than this one
+            subscriber.resumeAfter = after;
+            return;
+        }
+        List<Entry> missed = new ArrayList<>();
+        for (long sequence = after + 1; sequence <= lastSequence; sequence++) {
+            // Sequences of payments changed again since are gaps in the feed
+            Entry entry = replay[(int) (sequence % replay.length)];
+            if (entry != null && entry.sequence == sequence && subscriber.matches(entry.event)) {
+                missed.add(entry);
+            }
+        }
+        if (missed.size() >= properties.getSubscriberBufferSize()) {
+            subscriber.enqueue(new Entry(lastSequence, null));
+        } else {
+            missed.forEach(subscriber::enqueue);
+        }
+    }
+
+    private void deliver(String key, Entry entry) {
+        Set<Subscriber> set = subscribers.get(key);
+        if (set != null) {
+            set.forEach(subscriber -> {
+                if (entry.sequence > subscriber.resumeAfter) {
+                    subscriber.enqueue(entry);
+                }
+            });
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSseEvent(Entry entry) {
+        if (entry == HEARTBEAT) {
+            return SseEmitter.event().comment("heartbeat");
+        }
+        SseEmitter.SseEventBuilder builder = SseEmitter.event().id(Long.toString(entry.sequence));
+        return entry.event == null
+                ? builder.name(RESET_EVENT).data(RESET_EVENT)
+                : builder.name(STATUS_EVENT).data(entry.event, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Change sequence of an event ID, or -1 if it is malformed.
+     */
+    private static long parseEventId(String eventId) {
+        try {
+            return Long.parseLong(eventId);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private static String paymentKey(Long paymentId) {
+        return "payment:" + paymentId;
+    }
+
+    private static String merchantKey(String merchantId) {
+        return "merchant:" + merchantId;
+    }
+
+    /**
+     * A published change and its position; a null event marks a reset.
+     */
+    private static final class Entry {
+
+        private final long sequence;
+        private final PaymentStatusChangedEvent event;
+
+        Entry(long sequence, PaymentStatusChangedEvent event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
+    /**
+     * One open stream with its bounded queue of pending events.
+     */
+    private final class Subscriber {
+
+        private final String key;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Entry> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /**
+         * Changes up to this sequence were already sent by another instance; set before registration.
+         */
+        private long resumeAfter = -1;
+
+        Subscriber(String key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(properties.getSubscriberBufferSize());
+        }
+
+        boolean matches(PaymentStatusChangedEvent event) {
+            return key.equals(paymentKey(event.getPaymentId())) || key.equals(merchantKey(event.getMerchantId()));
+        }
+
+        void enqueue(Entry entry) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(entry)) {
+                if (close()) {
+                    dropped.increment();
+                    log.debug("Disconnecting slow event stream subscriber {}", key);
+                    emitter.complete();
+                }
+                return;
+            }
+            schedule();
+        }
+
+        /**
+         * Unregister the subscriber.
+         *
+         * @return true on the first call
+         */
+        boolean close() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            subscribers.computeIfPresent(key, (k, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+            subscriberCount.decrementAndGet();
+            return true;
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Entry entry;
+                while (!closed.get() && (entry = queue.poll()) != null) {
+                    emitter.send(toSseEvent(entry));
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // The client went away or the emitter already completed.
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            if (!closed.get() && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
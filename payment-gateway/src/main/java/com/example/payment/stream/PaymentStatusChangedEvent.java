@@ -0,0 +1,22 @@
+package com.example.payment.stream;
+
+import com.example.payment.model.Payment;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payment moved to a new status; published inside the writing transaction.
+ * The event stream builds its events from the change feed instead, without
+ * the previous status.
+ */
+@Value
+public class PaymentStatusChangedEvent {
+
+    Long paymentId;
+    String transactionId;
+    String merchantId;
+    Payment.PaymentStatus previousStatus;
+    Payment.PaymentStatus status;
+    LocalDateTime changedAt;
+}
@@ -0,0 +1,168 @@
+package com.example.payment.sweeper;
+
+import com.example.payment.config.SweeperProperties;
+import com.example.payment.datasource.ReadYourWritesTracker;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cancels abandoned PENDING payments and fails PROCESSING payments left
+ * behind by a crash.
+ *
+ * <p>Each chunk is one short transaction. It claims the oldest expired rows
+ * with {@code FOR UPDATE SKIP LOCKED} and moves them with one conditional
+ * UPDATE. Every replica can run the sweeper at the same time: a row locked by
+ * another replica, or by a live request, is skipped rather than waited for,
+ * and the status condition on the UPDATE keeps a row from being swept twice.
+ * A run stops early while a connection pool has waiting threads or is busier
+ * than the configured share, and pauses between chunks, so the sweeper
+ * only uses spare capacity.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.sweeper", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class StalePaymentSweeper {
+
+    private static final String CLAIM_SQL = "SELECT id, merchant_id, transaction_id FROM payments "
+            + "WHERE status = ? AND updated_at < ? ORDER BY updated_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private final PaymentRepository paymentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final SweeperProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Counter throttled;
+
+    public StalePaymentSweeper(PaymentRepository paymentRepository, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               ReadYourWritesTracker readYourWritesTracker, SweeperProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.throttled = Counter.builder("payment.sweeper.throttled")
+                .description("Sweeper runs stopped early because the connection pool was busy")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sweep expired PENDING and PROCESSING payments.
+     *
+     * @return number of payments moved
+     */
+    @Scheduled(fixedDelayString = "${payment.sweeper.interval-ms:60000}",
+               initialDelayString = "${payment.sweeper.initial-delay-ms:60000}")
+    public int sweep() {
+        int swept = sweep(Payment.PaymentStatus.PENDING, Payment.PaymentStatus.CANCELLED,
+                properties.getPendingTimeout());
+        swept += sweep(Payment.PaymentStatus.PROCESSING, Payment.PaymentStatus.FAILED,
+                properties.getProcessingTimeout());
+        if (swept > 0) {
+            log.info("Swept {} stale payments", swept);
+        }
+        return swept;
+    }
+
+    private int sweep(Payment.PaymentStatus from, Payment.PaymentStatus to, Duration timeout) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(timeout);
+        Counter swept = Counter.builder("payment.sweeper.swept")
+                .description("Stale payments moved by the sweeper")
+                .tag("from", from.name())
+                .tag("to", to.name())
+                .register(meterRegistry);
+        int total = 0;
+        for (int chunk = 0; chunk < properties.getMaxChunksPerRun(); chunk++) {
+            if (chunk > 0 && !pause()) {
+                break;
+            }
+            if (isPoolBusy()) {
+                throttled.increment();
+                log.debug("Sweeper backing off, connection pool busy");
+                break;
+            }
+            int claimed = transactionTemplate.execute(tx -> sweepChunk(from, to, cutoff, swept));
+            total += claimed;
+            if (claimed < properties.getChunkSize()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int sweepChunk(Payment.PaymentStatus from, Payment.PaymentStatus to, LocalDateTime cutoff,
+                           Counter swept) {
+        List<Claimed> claimed = jdbcTemplate.query(CLAIM_SQL,
+                (rs, row) -> new Claimed(rs.getLong(1), rs.getString(2), rs.getString(3)),
+                from.name(), Timestamp.valueOf(cutoff), properties.getChunkSize());
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> ids = claimed.stream().map(Claimed::id).collect(Collectors.toSet());
+        int updated = paymentRepository.updateStatusIn(ids, Set.of(from), to, now);
+        swept.increment(updated);
+        for (Claimed row : claimed) {
+            Payment written = new Payment();
+            written.setId(row.id());
+            written.setMerchantId(row.merchantId());
+            written.setTransactionId(row.transactionId());
+            readYourWritesTracker.recordWrite(written);
+        }
+        return claimed.size();
+    }
+
+    private boolean isPoolBusy() {
+        for (Gauge pending : meterRegistry.find("hikaricp.connections.pending").gauges()) {
+            if (pending.value() > 0) {
+                return true;
+            }
+        }
+        for (Gauge active : meterRegistry.find("hikaricp.connections.active").gauges()) {
+            Gauge max = meterRegistry.find("hikaricp.connections.max")
+                    .tag("pool", active.getId().getTag("pool")).gauge();
+            if (max != null && max.value() > 0 && active.value() / max.value() > properties.getMaxPoolUsage()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sleep between chunks.
+     *
+     * @return false if interrupted
+     */
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getPauseBetweenChunks().toMillis());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Claimed(long id, String merchantId, String transactionId) {
+    }
+}
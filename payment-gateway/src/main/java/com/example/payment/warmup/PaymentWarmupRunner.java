@@ -0,0 +1,244 @@
+package com.example.payment.warmup;
+
+import com.example.payment.config.WarmupProperties;
+import com.example.payment.controller.PaymentController;
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.dto.PaymentResponse;
+import com.example.payment.model.Payment;
+import com.example.payment.service.PaymentService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.UncheckedIOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Warms up the payment request path before the pod takes traffic.
+ *
+ * <p>Right after startup the payment code runs interpreted or at C1, so the
+ * first minutes of traffic on a new pod have a high tail. Once the
+ * application is ready, this drives synthetic payments through
+ * {@link PaymentController}: each create request is parsed from JSON and
+ * validated, the payment is read back by id, field selection, transaction
+ * ID and merchant, moved through PROCESSING to COMPLETED and refunded, a
+ * second payment is cancelled, and every response is serialized. Each
+ * iteration runs in a transaction that is rolled back, so nothing is
+ * committed and no status event is delivered. The acquirer call itself is
+ * left out, as it would send synthetic authorizations to a real acquirer.
+ *
+ * <p>Iterations repeat until JIT compile time stays under
+ * {@code settledCompileTime} for {@code settledChecks} consecutive check
+ * intervals, or the time budget is spent. The pod stays out of readiness
+ * until then.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentWarmupRunner {
+
+    private static final List<String> METHODS = List.of("CARD", "UPI", "WALLET", "NET_BANKING");
+    private static final List<String> CURRENCIES = List.of("USD", "EUR", "GBP", "INR");
+    private static final String FIELDS = "id,status,amount,currency";
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+
+    /**
+     * A request without conditional headers, so no read is answered with 304.
+     */
+    private static final WebRequest UNCONDITIONAL_REQUEST = (WebRequest) Proxy.newProxyInstance(
+            WebRequest.class.getClassLoader(), new Class<?>[]{WebRequest.class},
+            (proxy, method, args) -> method.getReturnType() == boolean.class ? Boolean.FALSE : null);
+
+    private final PaymentController paymentController;
+    private final PaymentService paymentService;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final WarmupProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private volatile long startedNanos;
+    private volatile Result result;
+
+    /**
+     * Start the warm-up on its own thread, so liveness and the actuator are served meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread thread = new Thread(this::run, "payment-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Run the warm-up to completion.
+     *
+     * @return how the warm-up ended and how long it took
+     */
+    public Result run() {
+        long started = System.nanoTime();
+        startedNanos = started;
+        long budget = properties.getTimeBudget().toNanos();
+        long interval = properties.getCheckInterval().toNanos();
+        long settledMillis = properties.getSettledCompileTime().toMillis();
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean monitored = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        long compileStartMillis = monitored ? compiler.getTotalCompilationTime() : 0;
+        log.info("Starting JIT warm-up, budget {}", properties.getTimeBudget());
+
+        Outcome outcome = Outcome.BUDGET_SPENT;
+        long iterations = 0;
+        long lastCompileMillis = compileStartMillis;
+        long nextCheck = started + interval;
+        int settledChecks = 0;
+        int consecutiveFailures = 0;
+        try {
+            while (System.nanoTime() - started < budget) {
+                try {
+                    iterate(iterations++);
+                    consecutiveFailures = 0;
+                } catch (RuntimeException ex) {
+                    // A one-off failure, such as a transaction ID collision, still warmed most of the path
+                    if (++consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+                        throw ex;
+                    }
+                    log.debug("Warm-up iteration {} failed: {}", iterations, ex.getMessage());
+                }
+                long now = System.nanoTime();
+                if (monitored && now >= nextCheck) {
+                    long compileMillis = compiler.getTotalCompilationTime();
+                    log.debug("Warm-up iteration {}: {} ms compiling since the last check", iterations,
+                            compileMillis - lastCompileMillis);
+                    settledChecks = compileMillis - lastCompileMillis < settledMillis ? settledChecks + 1 : 0;
+                    lastCompileMillis = compileMillis;
+                    nextCheck = now + interval;
+                    if (settledChecks >= properties.getSettledChecks()) {
+                        outcome = Outcome.SETTLED;
+                        break;
+                    }
+                }
+            }
+        } catch (RuntimeException ex) {
+            // Readiness must not hang on a broken warm-up; the other indicators cover real faults
+            outcome = Outcome.FAILED;
+            log.warn("JIT warm-up failed after {} iterations", iterations, ex);
+        }
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - started);
+        long compileMillis = monitored ? compiler.getTotalCompilationTime() - compileStartMillis : 0;
+        Result finished = new Result(outcome, duration, iterations, Duration.ofMillis(compileMillis));
+        Timer.builder("payment.warmup.duration")
+                .tag("outcome", outcome.name().toLowerCase())
+                .register(meterRegistry)
+                .record(duration);
+        log.info("JIT warm-up {} after {} ms: {} iterations, {} ms compiling", outcome, duration.toMillis(),
+                iterations, compileMillis);
+        result = finished;
+        return finished;
+    }
+
+    /**
+     * Outcome of the warm-up.
+     *
+     * @return result, or null while the warm-up has not finished
+     */
+    public Result getResult() {
+        return result;
+    }
+
+    /**
+     * Time since the warm-up started.
+     *
+     * @return elapsed time, zero before it starts
+     */
+    public Duration getElapsed() {
+        long started = startedNanos;
+        return started == 0 ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - started);
+    }
+
+    private void iterate(long iteration) {
+        String method = METHODS.get((int) (iteration % METHODS.size()));
+        String currency = CURRENCIES.get((int) (iteration / METHODS.size() % CURRENCIES.size()));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            PaymentResponse created = create(method, currency, iteration);
+            Long id = created.getId();
+            serialize(paymentController.getPaymentById(id, null, UNCONDITIONAL_REQUEST));
+            serialize(paymentController.getPaymentById(id, FIELDS, UNCONDITIONAL_REQUEST));
+            serialize(paymentController.getPaymentByTransactionId(created.getTransactionId(), null,
+                    UNCONDITIONAL_REQUEST));
+            serialize(paymentController.getPaymentsByMerchantId(properties.getMerchantId(), null,
+                    UNCONDITIONAL_REQUEST));
+            paymentService.updatePaymentStatus(id, Payment.PaymentStatus.PROCESSING);
+            paymentService.updatePaymentStatus(id, Payment.PaymentStatus.COMPLETED);
+            serialize(paymentController.refundPayment(id));
+            serialize(paymentController.cancelPayment(create(method, currency, iteration).getId()));
+        });
+    }
+
+    private PaymentResponse create(String method, String currency, long iteration) {
+        try {
+            String json = objectMapper.writeValueAsString(new PaymentRequest(properties.getMerchantId(),
+                    BigDecimal.valueOf(100 + iteration % 10_000, 2), currency, method,
+                    "warmup@example.com", "JIT warm-up"));
+            PaymentRequest request = objectMapper.readValue(json, PaymentRequest.class);
+            Set<ConstraintViolation<PaymentRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                throw new IllegalStateException("Invalid warm-up request: " + violations);
+            }
+            ResponseEntity<PaymentResponse> response = paymentController.createPayment(request);
+            serialize(response);
+            return response.getBody();
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void serialize(ResponseEntity<?> response) {
+        try {
+            objectMapper.writeValueAsBytes(response.getBody());
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * How a warm-up ended.
+     */
+    public enum Outcome {
+        SETTLED,
+        BUDGET_SPENT,
+        FAILED
+    }
+
+    /**
+     * Outcome and cost of a warm-up.
+     *
+     * @param outcome why the warm-up ended
+     * @param duration time it ran
+     * @param iterations synthetic payment round trips driven
+     * @param compileTime JIT compile time spent meanwhile, zero if the JVM does not report it
+     */
+    public record Result(Outcome outcome, Duration duration, long iterations, Duration compileTime) {
+    }
+}
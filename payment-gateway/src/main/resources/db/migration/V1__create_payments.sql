@@ -0,0 +1,17 @@
+-- Payments table as mapped by the Payment entity.
+CREATE TABLE payments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    transaction_id VARCHAR(255) UNIQUE,
+    merchant_id VARCHAR(255) NOT NULL,
+    amount NUMERIC(10, 2) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    payment_method VARCHAR(255) NOT NULL,
+    customer_email VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL
+        CHECK (status IN ('PENDING', 'PROCESSING', 'COMPLETED', 'FAILED', 'REFUNDED', 'CANCELLED')),
+    description VARCHAR(500),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_payments_created_at ON payments (created_at, id);
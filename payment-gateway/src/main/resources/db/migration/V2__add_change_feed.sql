@@ -0,0 +1,12 @@
+-- Change feed: per-payment sequence stamped after commit, and the sequencer state row.
+ALTER TABLE payments ADD COLUMN change_sequence BIGINT;
+
+CREATE INDEX idx_payments_merchant_change_seq ON payments (merchant_id, change_sequence);
+CREATE INDEX idx_payments_change_seq ON payments (change_sequence);
+
+CREATE TABLE payment_change_feed (
+    id INTEGER PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+);
+
+INSERT INTO payment_change_feed (id, last_sequence) VALUES (1, 0);
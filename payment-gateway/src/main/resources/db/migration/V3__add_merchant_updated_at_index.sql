@@ -0,0 +1,2 @@
+-- Conditional GET: lets a merchant's payment count and latest update be read from the index.
+CREATE INDEX idx_payments_merchant_updated_at ON payments (merchant_id, updated_at);
@@ -0,0 +1,2 @@
+-- Stale payment sweeper: finds expired PENDING/PROCESSING rows oldest first.
+CREATE INDEX idx_payments_status_updated_at ON payments (status, updated_at);
@@ -0,0 +1,5 @@
+-- Keyset paging of a merchant's payments by id (bulk operations) stops once a page is full.
+CREATE INDEX idx_payments_merchant_id ON payments (merchant_id, id);
+
+-- Customer lookups by email no longer scan the table.
+CREATE INDEX idx_payments_customer_email ON payments (customer_email);
@@ -0,0 +1,8 @@
+-- Leases that let one instance at a time run a cluster-wide scheduled job.
+CREATE TABLE job_locks (
+    name VARCHAR(64) PRIMARY KEY,
+    locked_until TIMESTAMP(6) NOT NULL,
+    locked_by VARCHAR(255)
+);
+
+INSERT INTO job_locks (name, locked_until) VALUES ('payment-archive', TIMESTAMP '1970-01-01 00:00:00');
@@ -0,0 +1,12 @@
+-- Settlement counts a capture on the day it completed and a refund on the day it was refunded.
+ALTER TABLE payments ADD COLUMN completed_at TIMESTAMP(6);
+ALTER TABLE payments ADD COLUMN refunded_at TIMESTAMP(6);
+
+-- Earlier refunds kept no completion time; their creation time is the closest known.
+UPDATE payments SET completed_at = updated_at WHERE status = 'COMPLETED';
+UPDATE payments SET completed_at = created_at, refunded_at = updated_at WHERE status = 'REFUNDED';
+
+CREATE INDEX idx_payments_completed_at ON payments (completed_at, id);
+CREATE INDEX idx_payments_refunded_at ON payments (refunded_at, id);
+
+INSERT INTO job_locks (name, locked_until) VALUES ('payment-settlement', TIMESTAMP '1970-01-01 00:00:00');
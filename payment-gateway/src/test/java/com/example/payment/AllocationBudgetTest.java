@@ -0,0 +1,141 @@
+package com.example.payment;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.payment.config.DataSourceRoutingProperties;
+import com.example.payment.datasource.ReadYourWritesTracker;
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.exception.GlobalExceptionHandler;
+import com.example.payment.exception.InvalidPaymentException;
+import com.example.payment.exception.PaymentNotFoundException;
+import com.example.payment.groupcommit.PaymentGroupCommitter;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.service.PaymentService;
+import com.example.payment.service.PaymentValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Allocation budgets for the create and error paths.
+ *
+ * <p>Each operation is warmed up and then run in a loop while the current
+ * thread's allocation counter is read before and after. The JIT may remove
+ * some allocations, so the budgets are upper bounds, not exact sizes. A
+ * failure means a change added per-call garbage to one of these paths.
+ */
+class AllocationBudgetTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int MEASURED = 10_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final Logger serviceLogger = (Logger) LoggerFactory.getLogger(PaymentService.class);
+    private Level serviceLoggerLevel;
+
+    private PaymentRequest validRequest;
+    private PaymentRequest invalidRequest;
+
+    @BeforeEach
+    void setUp() {
+        validRequest = new PaymentRequest();
+        validRequest.setMerchantId("MERCHANT_123");
+        validRequest.setAmount(new BigDecimal("100.00"));
+        validRequest.setCurrency("USD");
+        validRequest.setPaymentMethod("CARD");
+        validRequest.setCustomerEmail("test@example.com");
+
+        invalidRequest = new PaymentRequest();
+        invalidRequest.setMerchantId("MERCHANT_123");
+        invalidRequest.setAmount(new BigDecimal("20000.00"));
+        invalidRequest.setCurrency("USD");
+
+        // Log events are still created at INFO and count towards the budget, but nothing is written.
+        serviceLoggerLevel = serviceLogger.getLevel();
+        serviceLogger.setLevel(Level.INFO);
+        serviceLogger.setAdditive(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        serviceLogger.setLevel(serviceLoggerLevel);
+        serviceLogger.setAdditive(true);
+    }
+
+    @Test
+    void testValidate_Accepted_AllocatesNothing() {
+        double bytes = bytesPerOperation(() -> PaymentValidator.validate(validRequest));
+
+        assertWithinBudget("validate (accepted)", bytes, 1);
+    }
+
+    @Test
+    void testValidate_Rejected_AllocatesNothing() {
+        double bytes = bytesPerOperation(() -> {
+            try {
+                PaymentValidator.validate(invalidRequest);
+            } catch (InvalidPaymentException expected) {
+                // Rejection is the measured path.
+            }
+        });
+
+        assertWithinBudget("validate (rejected)", bytes, 1);
+    }
+
+    @Test
+    void testCreatePayment_WithinBudget() {
+        AtomicLong ids = new AtomicLong();
+        PaymentRepository repository = (PaymentRepository) Proxy.newProxyInstance(
+                PaymentRepository.class.getClassLoader(), new Class<?>[]{PaymentRepository.class},
+                (proxy, method, args) -> {
+                    Payment payment = (Payment) args[0];
+                    payment.setId(ids.incrementAndGet());
+                    return payment;
+                });
+        PaymentService service = new PaymentService(repository,
+                new ReadYourWritesTracker(new DataSourceRoutingProperties()), null, event -> { }, null, null,
+                new DefaultListableBeanFactory().getBeanProvider(PaymentGroupCommitter.class));
+
+        double bytes = bytesPerOperation(() -> service.createPayment(validRequest));
+
+        assertWithinBudget("createPayment", bytes, 768);
+    }
+
+    @Test
+    void testErrorResponse_WithinBudget() {
+        GlobalExceptionHandler handler = new GlobalExceptionHandler();
+        PaymentNotFoundException notFound = new PaymentNotFoundException(42L);
+
+        double bytes = bytesPerOperation(() -> handler.handlePaymentNotFoundException(notFound));
+
+        assertWithinBudget("error response", bytes, 128);
+    }
+
+    private static double bytesPerOperation(Runnable operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED; i++) {
+            operation.run();
+        }
+        return (double) (THREADS.getCurrentThreadAllocatedBytes() - before) / MEASURED;
+    }
+
+    private static void assertWithinBudget(String operation, double bytes, int budget) {
+        assertTrue(bytes <= budget,
+                () -> String.format("%s allocated %.1f bytes/op, budget is %d", operation, bytes, budget));
+    }
+}
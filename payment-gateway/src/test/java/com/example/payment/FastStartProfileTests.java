@@ -0,0 +1,58 @@
+package com.example.payment;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the fast-start profile: the migrations build a schema Hibernate
+ * validates against the entities, and springdoc beans are deferred.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:faststart")
+@ActiveProfiles("fast-start")
+class FastStartProfileTests {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    void migrationsMatchEntityMapping() {
+        // Context startup fails if ddl-auto=validate finds a mismatch.
+        assertEquals(0, flyway.info().pending().length);
+        assertTrue(flyway.info().applied().length > 0);
+    }
+
+    @Test
+    void springdocBeansAreLazy() {
+        List<String> springdocBeans = Arrays.stream(beanFactory.getBeanDefinitionNames())
+                .filter(name -> declaredBy(beanFactory.getBeanDefinition(name)).startsWith("org.springdoc."))
+                .collect(Collectors.toList());
+
+        assertFalse(springdocBeans.isEmpty());
+        springdocBeans.forEach(name -> assertTrue(beanFactory.getBeanDefinition(name).isLazyInit(), name));
+        assertTrue(springdocBeans.stream().anyMatch(name -> !beanFactory.containsSingleton(name)));
+    }
+
+    private static String declaredBy(BeanDefinition definition) {
+        if (definition instanceof AnnotatedBeanDefinition annotated && annotated.getFactoryMethodMetadata() != null) {
+            return annotated.getFactoryMethodMetadata().getDeclaringClassName();
+        }
+        return String.valueOf(definition.getBeanClassName());
+    }
+}
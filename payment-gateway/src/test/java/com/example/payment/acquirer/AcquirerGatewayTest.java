@@ -0,0 +1,212 @@
+package com.example.payment.acquirer;
+
+import com.example.payment.config.AcquirerProperties;
+import com.example.payment.exception.AcquirerTimeoutException;
+import com.example.payment.exception.AcquirerUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for AcquirerGateway against a stub acquirer whose answers the test controls.
+ */
+class AcquirerGatewayTest {
+
+    private final StubAcquirer acquirer = new StubAcquirer("stub");
+    private AcquirerProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private AcquirerGateway gateway;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AcquirerProperties();
+        properties.setDeadline(Duration.ofMillis(300));
+        properties.setBulkhead(Map.of("CARD", 2));
+        properties.getCircuitBreaker().setWindowSize(4);
+        properties.getCircuitBreaker().setMinimumCalls(4);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMillis(200));
+        properties.getCircuitBreaker().setHalfOpenCalls(1);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (gateway != null) {
+            gateway.shutdown();
+        }
+    }
+
+    @Test
+    void callPastTheDeadlineTimesOutAndItsLateAnswerIsKept() throws Exception {
+        properties.setBulkhead(Map.of("CARD", 1));
+        gateway = newGateway();
+
+        CompletableFuture<AcquirerResponse> result = send();
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        AcquirerTimeoutException timeout = assertInstanceOf(AcquirerTimeoutException.class, thrown.getCause());
+        assertFalse(acquirer.calls.get(0).isCancelled());
+        assertEquals(1, meterRegistry.get("payment.acquirer.latency").tag("outcome", "timeout").timer().count());
+        gateway.admit("CARD").cancel();
+
+        acquirer.calls.get(0).complete(AcquirerResponse.approved("REF-LATE"));
+        assertEquals("REF-LATE", timeout.getLateAnswer().get(2, TimeUnit.SECONDS).getReference());
+    }
+
+    @Test
+    void fullBulkheadRejectsUntilACallFinishes() throws Exception {
+        gateway = newGateway();
+        CompletableFuture<AcquirerResponse> first = send();
+        send();
+
+        assertThrows(AcquirerUnavailableException.class, () -> gateway.admit("CARD"));
+
+        acquirer.calls.get(0).complete(AcquirerResponse.approved("REF-1"));
+        assertTrue(first.get(2, TimeUnit.SECONDS).isApproved());
+        gateway.admit("CARD").cancel();
+        assertEquals(1, meterRegistry.get("payment.acquirer.rejected").tag("reason", "bulkhead_full")
+                .counter().count());
+    }
+
+    @Test
+    void breakerOpensOnFailuresAndClosesAfterASuccessfulTrial() throws Exception {
+        properties.setBulkhead(Map.of("CARD", 10));
+        gateway = newGateway();
+        for (int i = 0; i < 4; i++) {
+            CompletableFuture<AcquirerResponse> result = send();
+            acquirer.calls.get(i).completeExceptionally(new IllegalStateException("connection reset"));
+            ExecutionException thrown = assertThrows(ExecutionException.class,
+                    () -> result.get(2, TimeUnit.SECONDS));
+            assertInstanceOf(AcquirerException.class, thrown.getCause());
+        }
+
+        assertThrows(AcquirerUnavailableException.class, () -> gateway.admit("CARD"));
+
+        Thread.sleep(250);
+        CompletableFuture<AcquirerResponse> trial = send();
+        assertThrows(AcquirerUnavailableException.class, () -> gateway.admit("CARD"));
+        acquirer.calls.get(4).complete(AcquirerResponse.approved("REF-5"));
+        assertTrue(trial.get(2, TimeUnit.SECONDS).isApproved());
+
+        assertEquals(CircuitBreaker.State.CLOSED.ordinal(),
+                meterRegistry.get("payment.acquirer.circuit.state").gauge().value());
+    }
+
+    @Test
+    void hedgeGoesToTheSameAcquirerAfterTheDelayAndFirstAnswerWins() throws Exception {
+        properties.setHedgeDelay(Map.of("CARD", Duration.ofMillis(50)));
+        properties.getRouting().setExplorationRate(0);
+        StubAcquirer secondary = new StubAcquirer("secondary");
+        gateway = new AcquirerGateway(List.of(acquirer, secondary), properties, meterRegistry);
+
+        CompletableFuture<AcquirerResponse> result = send();
+        awaitCalls(acquirer, 2);
+        acquirer.calls.get(1).complete(AcquirerResponse.approved("REF-2"));
+
+        assertEquals("REF-2", result.get(2, TimeUnit.SECONDS).getReference());
+        assertTrue(acquirer.calls.get(0).isCancelled());
+        assertTrue(secondary.calls.isEmpty());
+        assertEquals(1, meterRegistry.get("payment.acquirer.hedges").counter().count());
+    }
+
+    @Test
+    void errorAfterTheCallWasSentIsNotFailedOver() throws Exception {
+        properties.getRouting().setExplorationRate(0);
+        StubAcquirer secondary = new StubAcquirer("secondary");
+        gateway = new AcquirerGateway(List.of(acquirer, secondary), properties, meterRegistry);
+
+        CompletableFuture<AcquirerResponse> result = send();
+        acquirer.calls.get(0).completeExceptionally(new AcquirerException("connection reset"));
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(AcquirerException.class, thrown.getCause());
+        assertTrue(secondary.calls.isEmpty());
+    }
+
+    @Test
+    void callNeverSentFailsOverToAnotherAcquirerAndRoutingAvoidsTheFailingOne() throws Exception {
+        properties.getRouting().setExplorationRate(0);
+        StubAcquirer secondary = new StubAcquirer("secondary");
+        gateway = new AcquirerGateway(List.of(acquirer, secondary), properties, meterRegistry);
+
+        CompletableFuture<AcquirerResponse> result = send();
+        acquirer.calls.get(0).completeExceptionally(new AcquirerNotSentException("connection refused"));
+        awaitCalls(secondary, 1);
+        secondary.calls.get(0).complete(AcquirerResponse.approved("REF-1"));
+
+        assertEquals("REF-1", result.get(2, TimeUnit.SECONDS).getReference());
+        assertEquals(1, meterRegistry.get("payment.acquirer.routed").tag("acquirer", "secondary")
+                .tag("reason", "failover").counter().count());
+
+        send();
+        assertEquals(2, secondary.calls.size());
+        assertEquals(1, acquirer.calls.size());
+    }
+
+    @Test
+    void gatewayWithoutAcquirersFailsAtStartup() {
+        assertThrows(IllegalStateException.class, () -> new AcquirerGateway(List.of(), properties, meterRegistry));
+    }
+
+    private AcquirerGateway newGateway() {
+        return new AcquirerGateway(List.of(acquirer), properties, meterRegistry);
+    }
+
+    private void awaitCalls(StubAcquirer stub, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (stub.calls.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private CompletableFuture<AcquirerResponse> send() {
+        AcquirerGateway.Admission admission = gateway.admit("CARD");
+        return admission.send(new AcquirerRequest(1L, "TXN-1", "MERCHANT_123", new BigDecimal("100.00"), "USD",
+                "CARD", Instant.now().plus(admission.getDeadline())));
+    }
+
+    private static final class StubAcquirer implements AcquirerClient {
+
+        private final String name;
+        private final List<CompletableFuture<AcquirerResponse>> calls = new CopyOnWriteArrayList<>();
+
+        StubAcquirer(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Set<String> getPaymentMethods() {
+            return Set.of("CARD");
+        }
+
+        @Override
+        public CompletableFuture<AcquirerResponse> authorize(AcquirerRequest request) {
+            CompletableFuture<AcquirerResponse> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        }
+    }
+}
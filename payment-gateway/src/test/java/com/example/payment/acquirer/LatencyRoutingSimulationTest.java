@@ -0,0 +1,131 @@
+package com.example.payment.acquirer;
+
+import com.example.payment.config.AcquirerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Simulation of two stand-in acquirers serving CARD, one of which degrades
+ * halfway through. Compares latency-aware routing against picking an
+ * acquirer at random and prints the latency of each.
+ *
+ * <p>Its assertions are on wall-clock latency, so it is excluded from the
+ * default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class LatencyRoutingSimulationTest {
+
+    private static final int CONCURRENCY = 16;
+    private static final int WARM_UP_CALLS = 300;
+    private static final int MEASURED_CALLS = 1200;
+
+    private static final AcquirerProperties.Behaviour HEALTHY =
+            new AcquirerProperties.Behaviour(Duration.ofMillis(5), Duration.ofMillis(20), 0, 0);
+    private static final AcquirerProperties.Behaviour DEGRADED =
+            new AcquirerProperties.Behaviour(Duration.ofMillis(80), Duration.ofMillis(600), 0.05, 0);
+
+    @Test
+    void routingAroundADegradedAcquirerCutsTheTail() throws InterruptedException {
+        Result random = simulate(0.5);
+        Result routed = simulate(0.01);
+
+        System.out.printf("%-8s %8s %8s %8s %10s%n", "routing", "p50 ms", "p99 ms", "max ms", "degraded");
+        random.print("random");
+        routed.print("latency");
+
+        assertTrue(routed.p99 * 2 < random.p99, "p99 " + routed.p99 + " ms vs " + random.p99 + " ms at random");
+        assertTrue(routed.degradedShare < 0.1, "sent " + routed.degradedShare + " of calls to the degraded acquirer");
+    }
+
+    /**
+     * @param explorationRate 0.5 picks one of the two acquirers at random
+     */
+    private Result simulate(double explorationRate) throws InterruptedException {
+        AcquirerProperties properties = new AcquirerProperties();
+        properties.setBulkhead(Map.of("CARD", CONCURRENCY * 4));
+        properties.getCircuitBreaker().setMinimumCalls(Integer.MAX_VALUE);
+        properties.getRouting().setHalfLife(Duration.ofSeconds(1));
+        properties.getRouting().setExplorationRate(explorationRate);
+        Map<String, AcquirerProperties.Behaviour> healthy = new ConcurrentHashMap<>(Map.of("CARD", HEALTHY));
+        Map<String, AcquirerProperties.Behaviour> degrading = new ConcurrentHashMap<>(Map.of("CARD", HEALTHY));
+        SimulatedAcquirer alpha = new SimulatedAcquirer("alpha", healthy);
+        SimulatedAcquirer beta = new SimulatedAcquirer("beta", degrading);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AcquirerGateway gateway = new AcquirerGateway(List.of(alpha, beta), properties, meterRegistry);
+        try {
+            run(gateway, WARM_UP_CALLS);
+            degrading.put("CARD", DEGRADED);
+            double betaBefore = routedTo(meterRegistry, "beta");
+            List<Long> latencies = run(gateway, MEASURED_CALLS);
+            return new Result(latencies, (routedTo(meterRegistry, "beta") - betaBefore) / MEASURED_CALLS);
+        } finally {
+            gateway.shutdown();
+            alpha.shutdown();
+            beta.shutdown();
+        }
+    }
+
+    private List<Long> run(AcquirerGateway gateway, int calls) throws InterruptedException {
+        Semaphore slots = new Semaphore(CONCURRENCY);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < calls; i++) {
+            slots.acquire();
+            long started = System.nanoTime();
+            AcquirerGateway.Admission admission = gateway.admit("CARD");
+            admission.send(new AcquirerRequest((long) i, "TXN-" + i, "MERCHANT_123", new BigDecimal("10.00"), "USD",
+                            "CARD", Instant.now().plus(admission.getDeadline())))
+                    .whenComplete((response, error) -> {
+                        latencies.add(System.nanoTime() - started);
+                        slots.release();
+                    });
+        }
+        slots.acquire(CONCURRENCY);
+        return new ArrayList<>(latencies);
+    }
+
+    private static double routedTo(SimpleMeterRegistry meterRegistry, String acquirer) {
+        return meterRegistry.find("payment.acquirer.routed").tag("acquirer", acquirer).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private static final class Result {
+
+        private final double p50;
+        private final double p99;
+        private final double max;
+        private final double degradedShare;
+
+        Result(List<Long> latencies, double degradedShare) {
+            Collections.sort(latencies);
+            this.p50 = millis(latencies, 0.50);
+            this.p99 = millis(latencies, 0.99);
+            this.max = millis(latencies, 1.0);
+            this.degradedShare = degradedShare;
+        }
+
+        void print(String name) {
+            System.out.printf("%-8s %8.1f %8.1f %8.1f %9.1f%%%n", name, p50, p99, max, degradedShare * 100);
+        }
+
+        private static double millis(List<Long> sorted, double quantile) {
+            int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+            return sorted.get(Math.max(index, 0)) / 1_000_000.0;
+        }
+    }
+}
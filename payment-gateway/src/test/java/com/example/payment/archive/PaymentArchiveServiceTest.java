@@ -0,0 +1,189 @@
+package com.example.payment.archive;
+
+import com.example.payment.config.ArchiveProperties;
+import com.example.payment.dto.ArchiveScanResult;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.JobLockRepository;
+import com.example.payment.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for PaymentArchiveService and the segment file format.
+ */
+@ExtendWith(MockitoExtension.class)
+class PaymentArchiveServiceTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private JobLockRepository jobLockRepository;
+
+    @TempDir
+    Path directory;
+
+    private PaymentArchiveService archiveService;
+    private List<Payment> oldPayments;
+
+    @BeforeEach
+    void setUp() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(directory.toString());
+        archiveService = new PaymentArchiveService(paymentRepository, transactionManager, properties,
+                jobLockRepository);
+
+        oldPayments = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            Payment payment = new Payment();
+            payment.setId((long) i);
+            payment.setTransactionId("TXN-100" + i);
+            payment.setMerchantId(i % 2 == 0 ? "MERCHANT_A" : "MERCHANT_B");
+            payment.setAmount(new BigDecimal("10.5" + i));
+            payment.setCurrency(i <= 3 ? "USD" : "EUR");
+            payment.setPaymentMethod("CARD");
+            payment.setCustomerEmail("customer" + i + "@example.com");
+            payment.setStatus(i == 6 ? Payment.PaymentStatus.REFUNDED : Payment.PaymentStatus.COMPLETED);
+            payment.setDescription(i == 1 ? null : "Payment " + i);
+            payment.setCreatedAt(BASE_TIME.plusDays(i));
+            payment.setUpdatedAt(BASE_TIME.plusDays(i).plusHours(1));
+            oldPayments.add(payment);
+        }
+    }
+
+    @Test
+    void testSegment_RoundTrip() throws Exception {
+        ArchiveSegment segment = ArchiveSegment.write(directory.resolve("test.seg"), oldPayments);
+
+        assertEquals(6, segment.getRowCount());
+        assertEquals(1L, segment.getMinId());
+        assertEquals(6L, segment.getMaxId());
+        assertEquals("MERCHANT_A", segment.getMinMerchantId());
+        assertEquals("MERCHANT_B", segment.getMaxMerchantId());
+        assertEquals(BASE_TIME.plusDays(1), segment.getMinCreatedAt());
+
+        ArchiveSegment.Columns columns = segment.load();
+        for (int row = 0; row < columns.size(); row++) {
+            assertEquals(oldPayments.get(row), columns.toPayment(row));
+        }
+    }
+
+    @Test
+    void testArchive_WritesSegmentAndDeletesRows() {
+        archiveOldPayments();
+
+        assertTrue(Files.exists(directory.resolve(
+                "segment-0000000000000000001-0000000000000000006.seg")));
+        verify(paymentRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L, 4L, 5L, 6L));
+    }
+
+    @Test
+    void testFindByTransactionId_FromArchive() {
+        archiveOldPayments();
+
+        Optional<Payment> found = archiveService.findByTransactionId("TXN-1004");
+
+        assertTrue(found.isPresent());
+        assertEquals(4L, found.get().getId());
+        assertFalse(archiveService.findByTransactionId("TXN-9999").isPresent());
+    }
+
+    @Test
+    void testFindByTransactionIds_FromArchive() {
+        archiveOldPayments();
+
+        List<Payment> found = archiveService.findByTransactionIds(List.of("TXN-1006", "TXN-1002", "TXN-9999"));
+
+        assertEquals(List.of(2L, 6L), found.stream().map(Payment::getId).sorted().toList());
+        assertTrue(archiveService.findByTransactionIds(List.of("TXN-0000", "TXN-9999")).isEmpty());
+    }
+
+    @Test
+    void testScan_FiltersAndAggregates() {
+        archiveOldPayments();
+
+        ArchiveScanResult result = archiveService.scan("MERCHANT_A", null, null, BASE_TIME.plusDays(6));
+
+        assertEquals(1, result.getSegmentsScanned());
+        assertEquals(2, result.getRowsMatched());
+        assertEquals(new BigDecimal("10.52"), result.getAmountByCurrency().get("USD"));
+        assertEquals(new BigDecimal("10.54"), result.getAmountByCurrency().get("EUR"));
+
+        ArchiveScanResult pruned = archiveService.scan(null, null, BASE_TIME.plusYears(1), null);
+        assertEquals(0, pruned.getSegmentsScanned());
+        assertEquals(0, pruned.getRowsMatched());
+    }
+
+    @Test
+    void testArchive_SkippedWhileAnotherInstanceHoldsTheLock() {
+        when(jobLockRepository.claim(eq(PaymentArchiveService.LOCK_NAME), anyString(), any(), any())).thenReturn(0);
+        when(jobLockRepository.existsById(PaymentArchiveService.LOCK_NAME)).thenReturn(true);
+
+        Map<String, Object> result = archiveService.archive();
+
+        assertEquals(true, result.get("skipped"));
+        assertEquals(0, result.get("segmentsWritten"));
+        verify(paymentRepository, never()).findArchivableIds(any(), any(LocalDateTime.class), any());
+        verify(jobLockRepository, never()).release(any(), any(), any());
+    }
+
+    @Test
+    void testScan_PicksUpSegmentsWrittenByAnotherInstance() {
+        ArchiveProperties readerProperties = new ArchiveProperties();
+        readerProperties.setDirectory(directory.toString());
+        readerProperties.setCatalogRefreshInterval(Duration.ZERO);
+        PaymentArchiveService reader = new PaymentArchiveService(paymentRepository, transactionManager,
+                readerProperties, jobLockRepository);
+        assertEquals(0, reader.scan(null, null, null, null).getSegmentsScanned());
+
+        archiveOldPayments();
+
+        assertEquals(6, reader.scan(null, null, null, null).getRowsMatched());
+        assertTrue(reader.findByTransactionId("TXN-1004").isPresent());
+    }
+
+    private void archiveOldPayments() {
+        when(jobLockRepository.claim(eq(PaymentArchiveService.LOCK_NAME), anyString(), any(), any())).thenReturn(1);
+        when(paymentRepository.findArchivableIds(any(), any(LocalDateTime.class), any()))
+                .thenReturn(oldPayments.stream().map(Payment::getId).toList())
+                .thenReturn(List.of());
+        when(paymentRepository.findArchivable(anyCollection(), any(), any(LocalDateTime.class)))
+                .thenReturn(oldPayments);
+
+        Map<String, Object> result = archiveService.archive();
+
+        assertEquals(1, result.get("segmentsWritten"));
+        assertEquals(6L, result.get("paymentsArchived"));
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.payment.changefeed;
+
+import com.example.payment.config.ChangeFeedProperties;
+import com.example.payment.dto.ChangeFeedPage;
+import com.example.payment.dto.PaymentResponse;
+import com.example.payment.dto.PaymentStatus;
+import com.example.payment.exception.InvalidPaymentException;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.ChangeFeedStateRepository;
+import com.example.payment.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for ChangeFeedService. Runs without a test transaction so that
+ * sequencing sees committed writes, as it does in production.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChangeFeedServiceTest {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ChangeFeedStateRepository changeFeedStateRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private ChangeFeedService changeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        ChangeFeedProperties properties = new ChangeFeedProperties();
+        properties.setSequencerBatchSize(3);
+        changeFeedService = new ChangeFeedService(paymentRepository, changeFeedStateRepository,
+                new JdbcTemplate(dataSource), transactionManager, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentRepository.deleteAll();
+        changeFeedStateRepository.deleteAll();
+    }
+
+    @Test
+    void testGetChanges_PagesThroughMerchantChanges() {
+        for (int i = 0; i < 5; i++) {
+            create("MERCHANT_A", i);
+        }
+        create("MERCHANT_B", 99);
+        assertEquals(0, changeFeedService.getChanges("MERCHANT_A", null, 10).getChanges().size());
+
+        assertEquals(6, changeFeedService.sequencePendingChanges());
+
+        ChangeFeedPage first = changeFeedService.getChanges("MERCHANT_A", null, 2);
+        ChangeFeedPage second = changeFeedService.getChanges("MERCHANT_A", first.getNextCursor(), 2);
+        ChangeFeedPage third = changeFeedService.getChanges("MERCHANT_A", second.getNextCursor(), 2);
+        assertTrue(first.isHasMore());
+        assertTrue(second.isHasMore());
+        assertFalse(third.isHasMore());
+        assertEquals(List.of("TXN-FEED-0", "TXN-FEED-1"), transactionIds(first));
+        assertEquals(List.of("TXN-FEED-2", "TXN-FEED-3"), transactionIds(second));
+        assertEquals(List.of("TXN-FEED-4"), transactionIds(third));
+
+        ChangeFeedPage caughtUp = changeFeedService.getChanges("MERCHANT_A", third.getNextCursor(), 2);
+        assertTrue(caughtUp.getChanges().isEmpty());
+        assertEquals(third.getNextCursor(), caughtUp.getNextCursor());
+    }
+
+    @Test
+    void testGetChanges_UpdatedPaymentsReappearAfterCursor() {
+        Payment first = create("MERCHANT_A", 1);
+        Payment second = create("MERCHANT_A", 2);
+        changeFeedService.sequencePendingChanges();
+        String cursor = changeFeedService.getChanges("MERCHANT_A", null, 10).getNextCursor();
+
+        Payment reloaded = paymentRepository.findById(first.getId()).orElseThrow();
+        reloaded.setStatus(Payment.PaymentStatus.COMPLETED);
+        paymentRepository.save(reloaded);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> paymentRepository.updateStatusIn(
+                List.of(second.getId()), List.of(Payment.PaymentStatus.PENDING), Payment.PaymentStatus.CANCELLED,
+                LocalDateTime.now()));
+        assertTrue(changeFeedService.getChanges("MERCHANT_A", cursor, 10).getChanges().isEmpty());
+
+        changeFeedService.sequencePendingChanges();
+
+        List<PaymentResponse> changes = changeFeedService.getChanges("MERCHANT_A", cursor, 10).getChanges();
+        assertEquals(2, changes.size());
+        assertEquals(PaymentStatus.COMPLETED, changes.get(0).getStatus());
+        assertEquals(PaymentStatus.CANCELLED, changes.get(1).getStatus());
+        assertEquals(2, changeFeedService.getChanges("MERCHANT_A", null, 10).getChanges().size());
+
+        List<PaymentRepository.ChangeView> all = paymentRepository.findAllChanges(0, PageRequest.of(0, 10));
+        assertEquals(List.of(first.getId(), second.getId()),
+                all.stream().map(PaymentRepository.ChangeView::getId).collect(Collectors.toList()));
+        assertEquals(Payment.PaymentStatus.CANCELLED, all.get(1).getStatus());
+        assertEquals("TXN-FEED-2", all.get(1).getTransactionId());
+        assertEquals("MERCHANT_A", all.get(1).getMerchantId());
+        assertTrue(all.get(0).getChangeSequence() < all.get(1).getChangeSequence());
+        assertNotNull(all.get(1).getUpdatedAt());
+    }
+
+    @Test
+    void testMerchantVersion_ChangesForUpdatesInTheSameInstant() {
+        Payment first = create("MERCHANT_A", 1);
+        Payment second = create("MERCHANT_A", 2);
+        changeFeedService.sequencePendingChanges();
+        LocalDateTime now = LocalDateTime.now();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> paymentRepository.updateStatusIn(List.of(first.getId()),
+                List.of(Payment.PaymentStatus.PENDING), Payment.PaymentStatus.CANCELLED, now));
+        assertEquals(1, paymentRepository.findMerchantVersion("MERCHANT_A").getPending());
+        changeFeedService.sequencePendingChanges();
+        PaymentRepository.MerchantVersionView afterFirst = paymentRepository.findMerchantVersion("MERCHANT_A");
+
+        transaction.executeWithoutResult(status -> paymentRepository.updateStatusIn(List.of(second.getId()),
+                List.of(Payment.PaymentStatus.PENDING), Payment.PaymentStatus.CANCELLED, now));
+        changeFeedService.sequencePendingChanges();
+        PaymentRepository.MerchantVersionView afterSecond = paymentRepository.findMerchantVersion("MERCHANT_A");
+
+        assertEquals(0, afterFirst.getPending());
+        assertEquals(0, afterSecond.getPending());
+        assertEquals(2, afterSecond.getCount());
+        assertTrue(afterSecond.getLastSequence() > afterFirst.getLastSequence());
+    }
+
+    @Test
+    void testGetChanges_RejectsInvalidCursor() {
+        assertThrows(InvalidPaymentException.class,
+                () -> changeFeedService.getChanges("MERCHANT_A", "not-a-cursor", 10));
+    }
+
+    private Payment create(String merchantId, int index) {
+        Payment payment = new Payment();
+        payment.setMerchantId(merchantId);
+        payment.setAmount(new BigDecimal("15.00"));
+        payment.setCurrency("EUR");
+        payment.setPaymentMethod("CARD");
+        payment.setCustomerEmail("customer" + index + "@example.com");
+        payment.setTransactionId("TXN-FEED-" + index);
+        return paymentRepository.save(payment);
+    }
+
+    private static List<String> transactionIds(ChangeFeedPage page) {
+        return page.getChanges().stream().map(PaymentResponse::getTransactionId).collect(Collectors.toList());
+    }
+}
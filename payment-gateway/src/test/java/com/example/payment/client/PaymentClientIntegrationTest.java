@@ -0,0 +1,118 @@
+package com.example.payment.client;
+
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.dto.PaymentResponse;
+import com.example.payment.dto.PaymentStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for PaymentClient against the application on a random port.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:payment-client;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.payment=WARN"
+})
+class PaymentClientIntegrationTest {
+
+    private static final int CALLERS = 40;
+
+    @LocalServerPort
+    private int port;
+
+    private PaymentClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = PaymentClient.builder(URI.create("http://localhost:" + port))
+                .batchWindow(Duration.ofMillis(20))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void testCreateAndGet_ConcurrentCallsAreBatchedAndEachGetsItsOwnPayment() {
+        List<CompletableFuture<PaymentResponse>> creates = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            creates.add(client.createPayment(request("MERCHANT_SDK", "1" + i + ".00", "USD")));
+        }
+        List<PaymentResponse> created = creates.stream().map(CompletableFuture::join).toList();
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < CALLERS; i++) {
+            PaymentResponse payment = created.get(i);
+            assertNotNull(payment.getTransactionId());
+            assertEquals(PaymentStatus.PENDING, payment.getStatus());
+            assertEquals(new BigDecimal("1" + i + ".00"), payment.getAmount());
+            ids.add(payment.getId());
+        }
+        assertEquals(CALLERS, ids.size());
+
+        List<CompletableFuture<PaymentResponse>> byId = new ArrayList<>();
+        List<CompletableFuture<PaymentResponse>> byTransactionId = new ArrayList<>();
+        for (PaymentResponse payment : created) {
+            byId.add(client.getPayment(payment.getId()));
+            byTransactionId.add(client.getPaymentByTransactionId(payment.getTransactionId()));
+        }
+        for (int i = 0; i < CALLERS; i++) {
+            assertEquals(created.get(i).getTransactionId(), byId.get(i).join().getTransactionId());
+            assertEquals(created.get(i).getId(), byTransactionId.get(i).join().getId());
+            assertNotNull(byId.get(i).join().getCreatedAt());
+        }
+    }
+
+    @Test
+    void testCreate_InvalidPaymentFailsOnlyItsOwnCall() {
+        CompletableFuture<PaymentResponse> valid = client.createPayment(request("MERCHANT_SDK", "25.00", "EUR"));
+        CompletableFuture<PaymentResponse> invalid = client.createPayment(request("MERCHANT_SDK", "25.00", "JPY"));
+
+        assertNotNull(valid.join().getId());
+        PaymentClientException ex = failure(invalid);
+        assertEquals(400, ex.getStatusCode());
+        assertEquals("Currency must be USD, EUR, GBP, or INR", ex.getMessage());
+        assertEquals(404, failure(client.getPayment(Long.MAX_VALUE)).getStatusCode());
+    }
+
+    @Test
+    void testCancelAndRefund_ReportApiErrors() {
+        PaymentResponse payment = client.createPayment(request("MERCHANT_SDK", "40.00", "GBP")).join();
+
+        PaymentClientException ex = failure(client.refundPayment(payment.getId()));
+        assertEquals(400, ex.getStatusCode());
+        assertEquals("Only completed payments can be refunded", ex.getMessage());
+        assertEquals(PaymentStatus.CANCELLED, client.cancelPayment(payment.getId()).join().getStatus());
+        assertEquals(PaymentStatus.CANCELLED, client.getPayment(payment.getId()).join().getStatus());
+    }
+
+    private static PaymentClientException failure(CompletableFuture<PaymentResponse> call) {
+        CompletionException ex = assertThrows(CompletionException.class, call::join);
+        return (PaymentClientException) ex.getCause();
+    }
+
+    private static PaymentRequest request(String merchantId, String amount, String currency) {
+        return new PaymentRequest(merchantId, new BigDecimal(amount), currency, "CARD", "sdk@example.com",
+                "Client SDK test");
+    }
+}
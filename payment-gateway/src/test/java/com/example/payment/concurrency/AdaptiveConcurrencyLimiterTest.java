@@ -0,0 +1,93 @@
+package com.example.payment.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimiter.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void testTryAcquire_RejectsOverLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 1.5, 0.2, WINDOW, 10);
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.tryAcquire();
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejected());
+        first.release();
+        assertNotNull(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void testSample_GrowsWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 100, 1.5, 0.2, WINDOW, 10);
+
+        feed(limiter, 20, 5 * MILLI, 10);
+
+        assertTrue(limiter.getLimit() > 10, "limit should grow, was " + limiter.getLimit());
+    }
+
+    @Test
+    void testSample_ShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 50, 2, 100, 1.5, 0.2, WINDOW, 10);
+        // Establish a long-term latency baseline, as after some uptime.
+        feed(limiter, 600, 5 * MILLI, 100);
+        int baseline = limiter.getLimit();
+
+        feed(limiter, 20, 50 * MILLI, 50);
+
+        assertTrue(limiter.getLimit() < baseline / 2, "limit should shrink, was " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 2);
+    }
+
+    @Test
+    void testSample_IgnoresWindowsFarBelowTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 40, 2, 100, 1.5, 0.2, WINDOW, 10);
+        feed(limiter, 5, 5 * MILLI, 3);
+
+        feed(limiter, 20, 500 * MILLI, 3);
+
+        assertEquals(40, limiter.getLimit());
+    }
+
+    @Test
+    void testPermit_ReleaseRecordsLatency() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 1, 10, 1.5, 0.2, 0, 1);
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            permits.add(limiter.tryAcquire());
+        }
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::release);
+
+        assertEquals(0, limiter.getInFlight());
+        assertTrue((double) limiter.snapshot().get("baselineLatencyMs") >= 0);
+    }
+
+    private static void feed(AdaptiveConcurrencyLimiter limiter, int windows, long rtt, int inFlight) {
+        long now = System.nanoTime();
+        for (int w = 0; w < windows; w++) {
+            for (int i = 0; i < 10; i++) {
+                limiter.sample(rtt, inFlight, now);
+            }
+            now += WINDOW;
+            limiter.sample(rtt, inFlight, now);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.payment.controller;
+
+import com.example.payment.config.AcquirerProperties;
+import com.example.payment.model.Payment;
+import com.example.payment.dto.PaymentField;
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.exception.AcquirerTimeoutException;
+import com.example.payment.exception.AcquirerUnavailableException;
+import com.example.payment.exception.ServiceOverloadedException;
+import com.example.payment.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for PaymentController.
+ */
+@WebMvcTest(controllers = PaymentController.class)
+@Import({PaymentController.class, AcquirerProperties.class})
+@EnableAutoConfiguration(exclude = {
+    DataSourceAutoConfiguration.class,
+    HibernateJpaAutoConfiguration.class,
+    JpaRepositoriesAutoConfiguration.class
+})
+@MockBean(JpaMetamodelMappingContext.class)
+class PaymentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private PaymentService paymentService;
+
+    private Payment testPayment;
+    private PaymentRequest testRequest;
+
+    @BeforeEach
+    void setUp() {
+        testPayment = new Payment();
+        testPayment.setId(1L);
+        testPayment.setMerchantId("MERCHANT_123");
+        testPayment.setAmount(new BigDecimal("100.00"));
+        testPayment.setCurrency("USD");
+        testPayment.setStatus(Payment.PaymentStatus.PENDING);
+        testPayment.setTransactionId("TXN-12345");
+
+        testRequest = new PaymentRequest();
+        testRequest.setMerchantId("MERCHANT_123");
+        testRequest.setAmount(new BigDecimal("100.00"));
+        testRequest.setCurrency("USD");
+        testRequest.setPaymentMethod("CARD");
+        testRequest.setDescription("Test payment");
+        testRequest.setCustomerEmail("test@example.com");
+    }
+
+    @Test
+    void testHealthCheck() throws Exception {
+        mockMvc.perform(get("/api/v1/payments/ping"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("UP"))
+            .andExpect(jsonPath("$.message").value("Payment Gateway is running"));
+    }
+
+    @Test
+    void testPing() throws Exception {
+        mockMvc.perform(get("/api/v1/payments/ping"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value("Payment Gateway is running"))
+            .andExpect(jsonPath("$.status").value("UP"));
+    }
+
+    @Test
+    void testCreatePayment_Success() throws Exception {
+        // Arrange
+        when(paymentService.createPayment(any(PaymentRequest.class))).thenReturn(testPayment);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testRequest)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").value(1L))
+            .andExpect(jsonPath("$.merchantId").value("MERCHANT_123"))
+            .andExpect(jsonPath("$.amount").value(100.00))
+            .andExpect(jsonPath("$.currency").value("USD"))
+            .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void testCreatePayment_ValidationError_NullAmount() throws Exception {
+        // Arrange
+        testRequest.setAmount(null);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testRequest)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors.amount").value("Amount is required"))
+            .andExpect(jsonPath("$.details[0]").value("amount: Amount is required"));
+    }
+
+    @Test
+    void testCreatePayment_ValidationError_InvalidCurrency() throws Exception {
+        // Arrange
+        testRequest.setCurrency("US");
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testRequest)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetPayment_Overloaded() throws Exception {
+        // Arrange
+        when(paymentService.getPaymentById(1L)).thenThrow(new ServiceOverloadedException("read"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/payments/1"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "1"))
+            .andExpect(jsonPath("$.status").value(503));
+    }
+
+    @Test
+    void testGetPayment_Success() throws Exception {
+        // Arrange
+        when(paymentService.getPaymentById(1L)).thenReturn(testPayment);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/payments/1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(1L))
+            .andExpect(jsonPath("$.merchantId").value("MERCHANT_123"))
+            .andExpect(jsonPath("$.description").hasJsonPath());
+    }
+
+    @Test
+    void testGetPayment_SetsETag() throws Exception {
+        // Arrange
+        when(paymentService.getPaymentVersion(1L)).thenReturn(Optional.of("1-abc"));
+        when(paymentService.getPaymentById(1L)).thenReturn(testPayment);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/payments/1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1-abc\""))
+            .andExpect(jsonPath("$.id").value(1L));
+    }
+
+    @Test
+    void testGetPayment_NotModified() throws Exception {
+        // Arrange
+        when(paymentService.getPaymentVersion(1L)).thenReturn(Optional.of("1-abc"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/payments/1").header("If-None-Match", "\"1-abc\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"1-abc\""))
+            .andExpect(content().string(""));
+        verify(paymentService, never()).getPaymentById(anyLong());
+    }
+
+    @Test
+    void testGetPaymentsByMerchant_NotModified() throws Exception {
+        // Arrange
+        when(paymentService.getMerchantPaymentsVersion("MERCHANT_123")).thenReturn(Optional.of("2-xyz"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/payments/merchant/MERCHANT_123").header("If-None-Match", "\"2-xyz\""))
+            .andExpect(status().isNotModified());
+        verify(paymentService, never()).getPaymentsByMerchantId(any());
+    }
+
+    @Test
+    void testGetPayment_SelectedFieldsOnly() throws Exception {
+        // Arrange
+        Set<PaymentField> fields = EnumSet.of(PaymentField.ID, PaymentField.STATUS);
+        when(paymentService.getPaymentVersion(1L)).thenReturn(Optional.of("1-abc"));
+        when(paymentService.getPaymentFieldsById(1L, fields))
+            .thenReturn(PaymentField.toResponse(fields, testPayment));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/payments/1").param("fields", "status,id"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1-abc.3l\""))
+            .andExpect(jsonPath("$.id").value(1L))
+            .andExpect(jsonPath("$.status").value("PENDING"))
+            .andExpect(jsonPath("$.merchantId").doesNotExist())
+            .andExpect(jsonPath("$.message").doesNotExist());
+        verify(paymentService, never()).getPaymentById(anyLong());
+    }
+
+    @Test
+    void testGetPayment_SelectedNullFieldIsKept() throws Exception {
+        // Arrange
+        Set<PaymentField> fields = EnumSet.of(PaymentField.ID, PaymentField.DESCRIPTION);
+        when(paymentService.getPaymentVersion(1L)).thenReturn(Optional.of("1-abc"));
+        when(paymentService.getPaymentFieldsById(1L, fields))
+            .thenReturn(PaymentField.toResponse(fields, testPayment));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/payments/1").param("fields", "id,description"))
+            .andExpect(status().isOk())
+            .andExpect(content().json("{\"id\":1,\"description\":null}", true));
+    }
+
+    @Test
+    void testGetPaymentsByMerchant_UnknownField() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/payments/merchant/MERCHANT_123").param("fields", "id,cardNumber"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Unknown field: cardNumber"));
+        verify(paymentService, never()).getPaymentFieldsByMerchantId(any(), any());
+    }
+
+    @Test
+    void testGetAllPayments() throws Exception {
+        // Arrange
+        List<Payment> payments = Arrays.asList(testPayment);
+        when(paymentService.getAllPayments()).thenReturn(payments);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/payments"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(1L));
+    }
+
+    @Test
+    void testRefundPayment_Success() throws Exception {
+        // Arrange
+        testPayment.setStatus(Payment.PaymentStatus.REFUNDED);
+        when(paymentService.refundPayment(1L)).thenReturn(testPayment);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/payments/1/refund"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("REFUNDED"));
+    }
+
+    @Test
+    void testProcessPayment_AnswersOnceTheAcquirerHas() throws Exception {
+        // Arrange
+        CompletableFuture<Payment> processing = new CompletableFuture<>();
+        when(paymentService.processPayment(1L)).thenReturn(processing);
+
+        // Act
+        MvcResult started = mockMvc.perform(post("/api/v1/payments/1/process"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        testPayment.setStatus(Payment.PaymentStatus.COMPLETED);
+        processing.complete(testPayment);
+
+        // Assert
+        mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("COMPLETED"))
+            .andExpect(jsonPath("$.message").value("Payment processed successfully"));
+    }
+
+    @Test
+    void testProcessPayment_AcquirerTimeout() throws Exception {
+        // Arrange
+        when(paymentService.processPayment(1L)).thenReturn(CompletableFuture.failedFuture(
+                new AcquirerTimeoutException(1L, new CompletableFuture<>())));
+
+        // Act
+        MvcResult started = mockMvc.perform(post("/api/v1/payments/1/process"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isGatewayTimeout())
+            .andExpect(jsonPath("$.status").value(504));
+    }
+
+    @Test
+    void testProcessPayment_AcquirerUnavailable() throws Exception {
+        // Arrange
+        when(paymentService.processPayment(1L)).thenThrow(new AcquirerUnavailableException("CARD bulkhead full"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/payments/1/process"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "5"))
+            .andExpect(jsonPath("$.status").value(503));
+    }
+
+    @Test
+    void testProcessPayment_RequestTimeoutWhileStillProcessing() throws Exception {
+        // Arrange
+        when(paymentService.processPayment(1L)).thenReturn(new CompletableFuture<>());
+
+        // Act
+        MvcResult started = mockMvc.perform(post("/api/v1/payments/1/process"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MockAsyncContext asyncContext = (MockAsyncContext) started.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        // Assert
+        mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isGatewayTimeout())
+            .andExpect(jsonPath("$.message").value("Payment 1 is still being processed"));
+    }
+
+    // Removed: testUpdatePaymentStatus_Success since controller does not expose this endpoint.
+}
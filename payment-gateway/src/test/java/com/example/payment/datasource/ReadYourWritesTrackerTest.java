@@ -0,0 +1,139 @@
+package com.example.payment.datasource;
+
+import com.example.payment.config.DataSourceRoutingProperties;
+import com.example.payment.model.Payment;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for ReadYourWritesTracker, including the last-write token that
+ * carries the window between instances.
+ */
+class ReadYourWritesTrackerTest {
+
+    private DataSourceRoutingProperties properties;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DataSourceRoutingProperties();
+        properties.setEnabled(true);
+        properties.setReadYourWritesWindow(Duration.ofSeconds(5));
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testRecordWrite_ReturnsTokenOnce() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(properties);
+
+        tracker.recordWrite(payment(1L, "MERCHANT_123"));
+        tracker.recordWrite(payment(2L, "MERCHANT_123"));
+
+        String token = response.getHeader(ReadYourWritesTracker.LAST_WRITE_HEADER);
+        assertNotNull(token);
+        assertTrue(Math.abs(System.currentTimeMillis() - Long.parseLong(token)) < 5000);
+        assertEquals(1, response.getHeaders(HttpHeaders.SET_COOKIE).size());
+        Cookie cookie = response.getCookie(ReadYourWritesTracker.LAST_WRITE_COOKIE);
+        assertNotNull(cookie);
+        assertEquals(5, cookie.getMaxAge());
+        assertTrue(cookie.isHttpOnly());
+    }
+
+    @Test
+    void testTokenFromAnotherInstance_PinsReadToPrimary() {
+        // This instance never saw the write, only the caller's token
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(properties);
+        request.addHeader(ReadYourWritesTracker.LAST_WRITE_HEADER, Long.toString(System.currentTimeMillis() - 1000));
+
+        try (ReadYourWritesTracker.Scope scope = tracker.forPayment(7L)) {
+            assertTrue(ReadYourWritesTracker.isPrimaryPinned());
+        }
+        assertFalse(ReadYourWritesTracker.isPrimaryPinned());
+    }
+
+    @Test
+    void testTokenCookie_PinsReadToPrimary() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(properties);
+        request.setCookies(new Cookie(ReadYourWritesTracker.LAST_WRITE_COOKIE,
+                Long.toString(System.currentTimeMillis())));
+
+        try (ReadYourWritesTracker.Scope scope = tracker.forMerchant("MERCHANT_123")) {
+            assertTrue(ReadYourWritesTracker.isPrimaryPinned());
+        }
+    }
+
+    @Test
+    void testExpiredFutureOrInvalidToken_DoesNotPin() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(properties);
+        long now = System.currentTimeMillis();
+        for (String token : new String[] {Long.toString(now - 6000), Long.toString(now + 60_000), "soon"}) {
+            request = new MockHttpServletRequest();
+            request.addHeader(ReadYourWritesTracker.LAST_WRITE_HEADER, token);
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+
+            try (ReadYourWritesTracker.Scope scope = tracker.forTransaction("TXN-1")) {
+                assertFalse(ReadYourWritesTracker.isPrimaryPinned(), token);
+            }
+        }
+    }
+
+    @Test
+    void testNestedScopes_RestoreOuterPin() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(properties);
+        tracker.recordWrite(payment(7L, "MERCHANT_123"));
+        RequestContextHolder.resetRequestAttributes();
+
+        try (ReadYourWritesTracker.Scope outer = tracker.forPayment(7L)) {
+            try (ReadYourWritesTracker.Scope inner = tracker.forMerchant("MERCHANT_123")) {
+                assertTrue(ReadYourWritesTracker.isPrimaryPinned());
+            }
+            assertTrue(ReadYourWritesTracker.isPrimaryPinned());
+        }
+        assertFalse(ReadYourWritesTracker.isPrimaryPinned());
+    }
+
+    @Test
+    void testDisabled_NeitherRecordsNorPins() {
+        properties.setEnabled(false);
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(properties);
+        request.addHeader(ReadYourWritesTracker.LAST_WRITE_HEADER, Long.toString(System.currentTimeMillis()));
+
+        tracker.recordWrite(payment(7L, "MERCHANT_123"));
+
+        assertNull(response.getHeader(ReadYourWritesTracker.LAST_WRITE_HEADER));
+        try (ReadYourWritesTracker.Scope scope = tracker.forPayment(7L)) {
+            assertFalse(ReadYourWritesTracker.isPrimaryPinned());
+        }
+    }
+
+    private static Payment payment(Long id, String merchantId) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setMerchantId(merchantId);
+        payment.setTransactionId("TXN-" + id);
+        return payment;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.payment.datasource;
+
+import com.example.payment.config.DataSourceRoutingProperties;
+import com.example.payment.model.Payment;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for ReplicaRoutingDataSource using two local H2 databases.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+    private ReadYourWritesTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+        routingDataSource = new ReplicaRoutingDataSource(primary,
+                List.of(new ReplicaRoutingDataSource.Replica("replica-0", replica)));
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        DataSourceRoutingProperties properties = new DataSourceRoutingProperties();
+        properties.setEnabled(true);
+        tracker = new ReadYourWritesTracker(properties);
+    }
+
+    @Test
+    void testReadOnlyTransaction_RoutedToReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void testReadWriteTransaction_RoutedToPrimary() {
+        assertEquals("primary", readWriteTransaction.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void testRecentWrite_PinsReadToPrimary() {
+        Payment payment = new Payment();
+        payment.setId(7L);
+        payment.setMerchantId("MERCHANT_123");
+        tracker.recordWrite(payment);
+
+        try (ReadYourWritesTracker.Scope scope = tracker.forMerchant("MERCHANT_123")) {
+            assertEquals("primary", readOnlyTransaction.execute(status -> whoAmI()));
+        }
+        try (ReadYourWritesTracker.Scope scope = tracker.forMerchant("MERCHANT_456")) {
+            assertEquals("replica", readOnlyTransaction.execute(status -> whoAmI()));
+        }
+    }
+
+    @Test
+    void testUnreachableReplica_FallsBackToPrimary() {
+        DataSource missing = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";IFEXISTS=TRUE", "sa", "");
+        routingDataSource = new ReplicaRoutingDataSource(h2("primary"),
+                List.of(new ReplicaRoutingDataSource.Replica("replica-0", missing)));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnlyTransaction.setReadOnly(true);
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> whoAmI()));
+        assertFalse(routingDataSource.getReplicas().get(0).isHealthy());
+    }
+
+    @Test
+    void testHealthCheck_RestoresReplica() {
+        ReplicaRoutingDataSource.Replica replica = routingDataSource.getReplicas().get(0);
+        replica.markDown(null);
+        assertEquals("primary", readOnlyTransaction.execute(status -> whoAmI()));
+
+        routingDataSource.checkReplicaHealth(1);
+
+        assertTrue(replica.isHealthy());
+        assertEquals("replica", readOnlyTransaction.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void testHealthCheck_MarksUnreachableReplicaDown() {
+        DataSource missing = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";IFEXISTS=TRUE", "sa", "");
+        routingDataSource = new ReplicaRoutingDataSource(h2("primary"),
+                List.of(new ReplicaRoutingDataSource.Replica("replica-0", missing)));
+
+        routingDataSource.checkReplicaHealth(1);
+
+        assertFalse(routingDataSource.getReplicas().get(0).isHealthy());
+    }
+
+    @Test
+    void testConnectionWithCredentials_RoutedLikeDefault() throws SQLException {
+        DataSource missing = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";IFEXISTS=TRUE", "sa", "");
+        ReplicaRoutingDataSource fallback = new ReplicaRoutingDataSource(h2("primary"),
+                List.of(new ReplicaRoutingDataSource.Replica("replica-0", missing)));
+
+        assertEquals("primary", nodeName(routingDataSource.getConnection("sa", "")));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            assertEquals("replica", nodeName(routingDataSource.getConnection("sa", "")));
+            assertEquals("primary", nodeName(fallback.getConnection("sa", "")));
+            assertFalse(fallback.getReplicas().get(0).isHealthy());
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    @Test
+    void testPooledReplicas_LeastBusyPickedAndClosed() throws SQLException {
+        HikariDataSource busy = pool("busy");
+        HikariDataSource idle = pool("idle");
+        ReplicaRoutingDataSource pooled = new ReplicaRoutingDataSource(h2("primary"), List.of(
+                new ReplicaRoutingDataSource.Replica("replica-0", busy),
+                new ReplicaRoutingDataSource.Replica("replica-1", idle)));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection held = busy.getConnection()) {
+            for (int i = 0; i < 10; i++) {
+                assertEquals("idle", nodeName(pooled.getConnection()));
+            }
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+
+        pooled.close();
+
+        assertTrue(busy.isClosed());
+        assertTrue(idle.isClosed());
+    }
+
+    private static String nodeName(Connection connection) throws SQLException {
+        try (connection) {
+            return new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                    .queryForObject("SELECT name FROM node", String.class);
+        }
+    }
+
+    private static HikariDataSource pool(String name) {
+        DataSource database = h2(name);
+        HikariDataSource pool = new HikariDataSource();
+        pool.setDataSource(database);
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+
+    private String whoAmI() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE node (name VARCHAR(20))");
+        template.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
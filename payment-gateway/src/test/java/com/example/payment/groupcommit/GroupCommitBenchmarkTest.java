@@ -0,0 +1,144 @@
+package com.example.payment.groupcommit;
+
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.service.PaymentService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput and latency of payment creates with one commit per create
+ * against group commit, over a range of concurrent callers.
+ *
+ * <p>Both modes go through {@link PaymentService#createPayment} on a
+ * file-backed H2 database that writes on every commit. A per-request create
+ * is made to commit on its own by running it in a transaction of its own,
+ * which is the path taken whenever group commit is disabled. Each level runs
+ * for {@code -Dbenchmark.seconds} (3 by default) after a one-second warm-up,
+ * at the caller counts in {@code -Dbenchmark.callers} (1, 4, 16, 64 by
+ * default), and prints creates per second with p50 and p99 latency.
+ *
+ * <p>Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/group-commit/payments;WRITE_DELAY=0",
+        "spring.jpa.show-sql=false",
+        "payment.group-commit.enabled=true",
+        "payment.concurrency-limit.enabled=false",
+        "logging.level.com.example.payment=WARN"
+})
+class GroupCommitBenchmarkTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void groupCommitAgainstPerRequestCommits() throws Exception {
+        int[] callerCounts = Arrays.stream(System.getProperty("benchmark.callers", "1,4,16,64").split(","))
+                .mapToInt(count -> Integer.parseInt(count.trim()))
+                .toArray();
+        long seconds = Long.getLong("benchmark.seconds", 3);
+        TransactionTemplate perRequest = new TransactionTemplate(transactionManager);
+        DistributionSummary batchSizes = meterRegistry.get("payment.group-commit.batch.size").summary();
+
+        System.out.printf("%-13s %8s %12s %10s %10s %10s%n", "mode", "callers", "creates/s", "p50 us", "p99 us",
+                "batch");
+        for (int callers : callerCounts) {
+            Result single = run(callers, seconds, () -> perRequest.execute(status -> create()));
+            print("per-request", callers, single, 1);
+
+            long batches = batchSizes.count();
+            double rows = batchSizes.totalAmount();
+            Result grouped = run(callers, seconds, this::create);
+            double meanBatch = (batchSizes.totalAmount() - rows) / Math.max(1, batchSizes.count() - batches);
+            print("group-commit", callers, grouped, meanBatch);
+
+            assertTrue(single.creates() > 0 && grouped.creates() > 0);
+        }
+    }
+
+    private Object create() {
+        return paymentService.createPayment(new PaymentRequest("BENCH", new BigDecimal("10.00"), "USD", "CARD",
+                "bench@example.com", "Group commit benchmark"));
+    }
+
+    private static Result run(int callers, long seconds, Supplier<Object> create) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            long end = warmupEnd + TimeUnit.SECONDS.toNanos(seconds);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    long now = System.nanoTime();
+                    while (now < end) {
+                        create.get();
+                        long done = System.nanoTime();
+                        if (now >= warmupEnd) {
+                            if (count == latencies.length) {
+                                latencies = Arrays.copyOf(latencies, count * 2);
+                            }
+                            latencies[count++] = done - now;
+                        }
+                        now = done;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            start.countDown();
+            long[] all = new long[0];
+            for (Future<long[]> future : futures) {
+                long[] latencies = future.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + latencies.length);
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+            }
+            Arrays.sort(all);
+            return new Result(all.length, all.length / (double) seconds,
+                    percentile(all, 0.50), percentile(all, 0.99));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, quantile * sorted.length)];
+    }
+
+    private static void print(String mode, int callers, Result result, double meanBatch) {
+        System.out.printf("%-13s %8d %12.0f %10d %10d %10.1f%n", mode, callers, result.perSecond(),
+                result.p50Nanos() / 1000, result.p99Nanos() / 1000, meanBatch);
+    }
+
+    private record Result(long creates, double perSecond, long p50Nanos, long p99Nanos) {
+    }
+}
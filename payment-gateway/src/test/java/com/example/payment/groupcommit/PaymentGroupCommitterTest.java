@@ -0,0 +1,134 @@
+package com.example.payment.groupcommit;
+
+import com.example.payment.config.GroupCommitProperties;
+import com.example.payment.model.Payment;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for PaymentGroupCommitter against an in-memory H2 database.
+ */
+class PaymentGroupCommitterTest {
+
+    private static final int CALLERS = 32;
+
+    private JdbcTemplate jdbc;
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentGroupCommitter committer;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:group-commit-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE payments (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "transaction_id VARCHAR(255) UNIQUE, merchant_id VARCHAR(255) NOT NULL, "
+                + "amount NUMERIC(10,2) NOT NULL, currency VARCHAR(3) NOT NULL, payment_method VARCHAR(255) NOT NULL, "
+                + "customer_email VARCHAR(255) NOT NULL, status VARCHAR(20) NOT NULL, description VARCHAR(500), "
+                + "created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP NOT NULL)");
+
+        GroupCommitProperties properties = new GroupCommitProperties();
+        properties.setMaxBatchSize(8);
+        properties.setMaxWait(Duration.ofMillis(50));
+        properties.setWriterThreads(1);
+        meterRegistry = new SimpleMeterRegistry();
+        committer = new PaymentGroupCommitter(jdbc, new DataSourceTransactionManager(dataSource), properties,
+                meterRegistry);
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        committer.shutdown();
+    }
+
+    @Test
+    void testInsert_ConcurrentCreatesShareCommitsAndGetTheirOwnIds() throws Exception {
+        List<Future<Payment>> results = submit(index -> payment("M-" + index, "USD"));
+
+        Set<Long> ids = new HashSet<>();
+        for (Future<Payment> result : results) {
+            Payment payment = result.get();
+            assertNotNull(payment.getId());
+            assertNotNull(payment.getTransactionId());
+            ids.add(payment.getId());
+            assertEquals(payment.getMerchantId(), jdbc.queryForObject(
+                    "SELECT merchant_id FROM payments WHERE id = ?", String.class, payment.getId()));
+        }
+        assertEquals(CALLERS, ids.size());
+        DistributionSummary batches = meterRegistry.get("payment.group-commit.batch.size").summary();
+        assertEquals(CALLERS, (long) batches.totalAmount());
+        assertTrue(batches.count() < CALLERS, "creates should share commits");
+    }
+
+    @Test
+    void testInsert_FailedCreateDoesNotFailTheRestOfItsBatch() throws Exception {
+        List<Future<Payment>> results = submit(index -> payment("M-" + index, index == 3 ? "TOO-LONG" : "EUR"));
+
+        int failed = 0;
+        for (int i = 0; i < results.size(); i++) {
+            Future<Payment> result = results.get(i);
+            if (i == 3) {
+                Exception ex = assertThrows(Exception.class, result::get);
+                assertTrue(ex.getCause() instanceof DataAccessException);
+                failed++;
+            } else {
+                assertNotNull(result.get().getId());
+            }
+        }
+        assertEquals(1, failed);
+        assertEquals(CALLERS - 1, jdbc.queryForObject("SELECT COUNT(*) FROM payments", Integer.class));
+    }
+
+    private List<Future<Payment>> submit(IntFunction<Payment> payments) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Payment>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            Payment payment = payments.apply(i);
+            results.add(callers.submit(() -> {
+                start.await();
+                return committer.insert(payment);
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+
+    private static Payment payment(String merchantId, String currency) {
+        Payment payment = new Payment();
+        payment.setMerchantId(merchantId);
+        payment.setAmount(new BigDecimal("12.34"));
+        payment.setCurrency(currency);
+        payment.setPaymentMethod("CARD");
+        payment.setCustomerEmail("customer@example.com");
+        payment.setStatus(Payment.PaymentStatus.PENDING);
+        return payment;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.payment.health;
+
+import com.example.payment.config.ReadinessProperties;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for LoadReadinessHealthIndicator.
+ */
+class LoadReadinessHealthIndicatorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger queueDepth;
+    private LoadReadinessHealthIndicator indicator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        queueDepth = new AtomicInteger();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("testQueue", (QueueDepthSource) () -> Map.of("test", queueDepth.get()));
+        indicator = new LoadReadinessHealthIndicator(new ReadinessProperties(), meterRegistry,
+                beanFactory.getBeanProvider(QueueDepthSource.class));
+    }
+
+    @Test
+    void testEvaluate_TripsAndRecoversWithHysteresis() {
+        assertEquals(Status.UP, indicator.health().getStatus());
+
+        evaluateWithLatency(3000, 2);
+        assertEquals(Status.UP, indicator.health().getStatus());
+        evaluateWithLatency(3000, 1);
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+
+        // Between the recover and trip thresholds the pod stays out of service.
+        evaluateWithLatency(1000, 10);
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+
+        evaluateWithLatency(100, 4);
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+        evaluateWithLatency(100, 1);
+        assertEquals(Status.UP, indicator.health().getStatus());
+    }
+
+    @Test
+    void testEvaluate_TripsOnQueueDepth() {
+        queueDepth.set(500);
+        for (int i = 0; i < 3; i++) {
+            indicator.evaluate();
+        }
+
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+        assertEquals(Map.of("test", 500), indicator.health().getDetails().get("queueDepths"));
+    }
+
+    @Test
+    void testEvaluate_IgnoresActuatorRequests() {
+        Timer probes = meterRegistry.timer("http.server.requests", "uri", "/actuator/health/readiness");
+        for (int i = 0; i < 5; i++) {
+            probes.record(Duration.ofSeconds(10));
+            indicator.evaluate();
+        }
+
+        assertEquals(Status.UP, indicator.health().getStatus());
+        assertEquals(0L, indicator.health().getDetails().get("requestLatencyMs"));
+    }
+
+    @Test
+    void testEvaluate_IgnoresEventStreams() {
+        Timer payment = meterRegistry.timer("http.server.requests", "uri", "/api/v1/payments/{id}/events");
+        Timer merchant = meterRegistry.timer("http.server.requests", "uri",
+                "/api/v1/payments/merchant/{merchantId}/events");
+        for (int i = 0; i < 5; i++) {
+            payment.record(Duration.ofMinutes(30));
+            merchant.record(Duration.ofMinutes(30));
+            indicator.evaluate();
+        }
+
+        assertEquals(Status.UP, indicator.health().getStatus());
+        assertEquals(0L, indicator.health().getDetails().get("requestLatencyMs"));
+    }
+
+    private void evaluateWithLatency(long millis, int evaluations) {
+        Timer requests = meterRegistry.timer("http.server.requests", "uri", "/api/v1/payments");
+        for (int i = 0; i < evaluations; i++) {
+            requests.record(Duration.ofMillis(millis));
+            indicator.evaluate();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.payment.importer;
+
+import com.example.payment.config.ImportProperties;
+import com.example.payment.dto.ImportStatus;
+import com.example.payment.exception.InvalidPaymentException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for PaymentImportService against an in-memory H2 database.
+ */
+class PaymentImportServiceTest {
+
+    private static final int VALID_ROWS = 2000;
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:import-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE payments (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "transaction_id VARCHAR(255) UNIQUE, merchant_id VARCHAR(255) NOT NULL, "
+                + "amount NUMERIC(10,2) NOT NULL, currency VARCHAR(3) NOT NULL, payment_method VARCHAR(255) NOT NULL, "
+                + "customer_email VARCHAR(255) NOT NULL, status VARCHAR(20) NOT NULL, description VARCHAR(500), "
+                + "created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP NOT NULL, completed_at TIMESTAMP, "
+                + "refunded_at TIMESTAMP)");
+
+        ImportProperties properties = new ImportProperties();
+        properties.setDirectory(directory.toString());
+        properties.setChunkSize(DataSize.ofKilobytes(8));
+        properties.setBatchSize(50);
+        properties.setParserThreads(3);
+        properties.setWriterThreads(2);
+        meterRegistry = new SimpleMeterRegistry();
+        importService = new PaymentImportService(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                Validation.buildDefaultValidatorFactory().getValidator(), properties, meterRegistry);
+    }
+
+    @Test
+    void testImportFile_ImportsValidRowsAndRejectsInvalid() throws Exception {
+        StringBuilder csv = new StringBuilder(PaymentImportService.HEADER).append('\n');
+        for (int i = 0; i < VALID_ROWS; i++) {
+            csv.append("TXN-IMPORT-").append(i).append(",MERCHANT_").append(i % 7)
+                    .append(",25.50,USD,CARD,customer").append(i).append("@example.com,COMPLETED,")
+                    .append("2023-06-01T10:15:30,\"Order ").append(i).append(", imported\"\r\n");
+        }
+        csv.append("TXN-BAD-1,MERCHANT_1,0,USD,CARD,a@example.com,COMPLETED,,\n");
+        csv.append("TXN-BAD-2,MERCHANT_1,10.00,JPY,CARD,a@example.com,COMPLETED,,\n");
+        csv.append("TXN-BAD-3,MERCHANT_1,10.00,USD,CARD,not-an-email,COMPLETED,,\n");
+        csv.append("TXN-BAD-4,MERCHANT_1,10.00,USD,CARD,a@example.com,BOGUS,,\n");
+        csv.append("TXN-BAD-5,MERCHANT_1,20000.00,USD,CARD,a@example.com,COMPLETED,,\n");
+        csv.append("TXN-IMPORT-7,MERCHANT_1,10.00,USD,CARD,a@example.com,COMPLETED,,duplicate\n");
+        csv.append("too,few,fields\n");
+        csv.append(",MERCHANT_9,12.00,EUR,UPI,b@example.com,REFUNDED,,no trailing newline");
+        Files.writeString(directory.resolve("payments.csv"), csv, StandardCharsets.UTF_8);
+
+        ImportStatus status = importService.importFile("payments.csv");
+
+        assertEquals("COMPLETED", status.getState());
+        assertEquals(VALID_ROWS + 1, status.getRowsImported());
+        assertEquals(7, status.getRowsRejected());
+        assertEquals(status.getBytesTotal(), status.getBytesProcessed() + PaymentImportService.HEADER.length() + 1);
+        assertEquals(VALID_ROWS + 1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payments", Long.class));
+        assertEquals("Order 5, imported", jdbcTemplate.queryForObject(
+                "SELECT description FROM payments WHERE transaction_id = 'TXN-IMPORT-5'", String.class));
+        assertEquals(Timestamp.valueOf("2023-06-01 10:15:30"), jdbcTemplate.queryForObject(
+                "SELECT completed_at FROM payments WHERE transaction_id = 'TXN-IMPORT-5'", Timestamp.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payments WHERE refunded_at IS NOT NULL", Long.class));
+        assertEquals(VALID_ROWS + 1.0, meterRegistry.get("payment.import.rows").tag("outcome", "imported")
+                .counter().count());
+
+        List<String> rejects = Files.readAllLines(directory.resolve(status.getRejectFile()));
+        assertEquals(8, rejects.size());
+        assertTrue(rejects.stream().anyMatch(line -> line.contains("Currency must be USD, EUR, GBP, or INR")));
+        assertTrue(rejects.stream().anyMatch(line -> line.contains("Amount exceeds maximum limit")));
+        assertTrue(rejects.stream().anyMatch(line -> line.endsWith("TXN-IMPORT-7,MERCHANT_1,10.00,USD,CARD,"
+                + "a@example.com,COMPLETED,,duplicate")));
+    }
+
+    @Test
+    void testImportFile_RejectsPathOutsideImportDirectory() {
+        assertThrows(InvalidPaymentException.class, () -> importService.importFile("../payments.csv"));
+    }
+
+    @Test
+    void testImportFile_RejectsUnexpectedHeader() throws Exception {
+        Files.writeString(directory.resolve("wrong.csv"), "id,amount\n1,10.00\n", StandardCharsets.UTF_8);
+
+        ImportStatus status = importService.importFile("wrong.csv");
+
+        assertEquals("FAILED", status.getState());
+        assertEquals(0, status.getRowsImported());
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.payment.jfr;
+
+import com.example.payment.config.DataSourceRoutingProperties;
+import com.example.payment.datasource.ReadYourWritesTracker;
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.exception.PaymentNotFoundException;
+import com.example.payment.groupcommit.PaymentGroupCommitter;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.service.PaymentService;
+import com.example.payment.stream.PaymentStatusChangedEvent;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for PaymentOperationRecorder and JfrRecordingAnalyzer with an in-process recording.
+ */
+class PaymentOperationRecorderTest {
+
+    private static final long SAVE_MILLIS = 5;
+
+    @TempDir
+    Path tempDir;
+
+    private PaymentOperationRecorder recorder;
+    private PaymentService paymentService;
+    private PaymentRequest request;
+
+    @BeforeEach
+    void setUp() {
+        recorder = new PaymentOperationRecorder();
+        PaymentRepository stubRepository = (PaymentRepository) Proxy.newProxyInstance(
+                PaymentRepository.class.getClassLoader(), new Class<?>[]{PaymentRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("save")) {
+                        Thread.sleep(SAVE_MILLIS);
+                        Payment payment = (Payment) args[0];
+                        payment.setId(7L);
+                        return payment;
+                    }
+                    return method.getName().equals("findById") ? Optional.empty() : null;
+                });
+        PaymentRepository repository = proxy(stubRepository, recorder);
+        paymentService = proxy(new PaymentService(repository,
+                new ReadYourWritesTracker(new DataSourceRoutingProperties()), null,
+                event -> recorder.onStatusChanged((PaymentStatusChangedEvent) event), null, null,
+                new DefaultListableBeanFactory().getBeanProvider(PaymentGroupCommitter.class)), recorder);
+
+        request = new PaymentRequest();
+        request.setMerchantId("MERCHANT_123");
+        request.setAmount(new BigDecimal("100.00"));
+        request.setCurrency("USD");
+        request.setPaymentMethod("CARD");
+        request.setCustomerEmail("test@example.com");
+    }
+
+    @Test
+    void testRecording_CapturesOperationsAndAnalyzerSummarizes() throws Exception {
+        Path file = tempDir.resolve("payments.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PaymentOperationEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            paymentService.createPayment(request);
+            assertThrows(PaymentNotFoundException.class, () -> paymentService.getPaymentById(99L));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        RecordedEvent created = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> "createPayment".equals(event.getString("operation")))
+                .findFirst().orElseThrow();
+        assertEquals("MERCHANT_123", created.getString("merchantId"));
+        assertEquals("CARD", created.getString("paymentMethod"));
+        assertEquals(7L, created.getLong("paymentId"));
+        assertNull(created.getString("fromStatus"));
+        assertEquals("PENDING", created.getString("toStatus"));
+
+        List<JfrRecordingAnalyzer.OperationSummary> summaries = JfrRecordingAnalyzer.summarize(file);
+        assertEquals(List.of("createPayment", "getPaymentById"), summaries.stream()
+                .map(JfrRecordingAnalyzer.OperationSummary::getOperation).collect(Collectors.toList()));
+        JfrRecordingAnalyzer.OperationSummary create = summaries.get(0);
+        assertEquals(1, create.getCount());
+        assertEquals(0, create.getErrors());
+        assertTrue(create.getMeanDbTime().toMillis() >= SAVE_MILLIS);
+        assertTrue(create.getMax().compareTo(create.getMeanDbTime()) >= 0);
+        assertEquals(1, summaries.get(1).getErrors());
+    }
+
+    @Test
+    void testRecording_SkipsOperationsUnderThreshold() throws Exception {
+        Path file = tempDir.resolve("fast.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PaymentOperationEvent.NAME).withThreshold(Duration.ofSeconds(1));
+            recording.start();
+            paymentService.createPayment(request);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        assertTrue(JfrRecordingAnalyzer.summarize(file).isEmpty());
+    }
+
+    @Test
+    void testRecording_AsyncOperationEndsWhenItsFutureCompletes() throws Exception {
+        CompletableFuture<Payment> processing = new CompletableFuture<>();
+        PaymentService asyncService = mock(PaymentService.class);
+        when(asyncService.processPayment(1L)).thenAnswer(invocation -> {
+            recorder.onStatusChanged(new PaymentStatusChangedEvent(1L, "TXN-1", "MERCHANT_123",
+                    Payment.PaymentStatus.PENDING, Payment.PaymentStatus.PROCESSING, LocalDateTime.now()));
+            return processing;
+        });
+        PaymentService recorded = proxy(asyncService, recorder);
+        Path file = tempDir.resolve("async.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PaymentOperationEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            CompletableFuture<Payment> result = recorded.processPayment(1L);
+            Thread.sleep(SAVE_MILLIS * 4);
+            Payment completed = new Payment();
+            completed.setId(1L);
+            completed.setMerchantId("MERCHANT_123");
+            completed.setPaymentMethod("CARD");
+            completed.setStatus(Payment.PaymentStatus.COMPLETED);
+            processing.complete(completed);
+            assertSame(completed, result.join());
+            recording.stop();
+            recording.dump(file);
+        }
+
+        RecordedEvent processed = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> "processPayment".equals(event.getString("operation")))
+                .findFirst().orElseThrow();
+        assertTrue(processed.getDuration().toMillis() >= SAVE_MILLIS * 4);
+        assertEquals("PENDING", processed.getString("fromStatus"));
+        assertEquals("COMPLETED", processed.getString("toStatus"));
+        assertEquals("OK", processed.getString("outcome"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target, Object aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(!target.getClass().isInterface() && !Proxy.isProxyClass(target.getClass()));
+        factory.addAspect(aspect);
+        return (T) factory.getProxy();
+    }
+}
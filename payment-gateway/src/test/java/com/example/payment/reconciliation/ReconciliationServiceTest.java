@@ -0,0 +1,143 @@
+package com.example.payment.reconciliation;
+
+import com.example.payment.config.ReconciliationProperties;
+import com.example.payment.dto.ReconciliationSummary;
+import com.example.payment.exception.InvalidPaymentException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for ReconciliationService against an in-memory H2 database.
+ */
+class ReconciliationServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 15);
+
+    @TempDir
+    Path directory;
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbc;
+    private ReconciliationProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:reconciliation-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE payments (id BIGINT PRIMARY KEY, transaction_id VARCHAR(255) UNIQUE, "
+                + "currency VARCHAR(3), amount NUMERIC(10,2), status VARCHAR(20), created_at TIMESTAMP)");
+
+        properties = new ReconciliationProperties();
+        properties.setDirectory(directory.toString());
+        properties.setMinPartitions(4);
+        properties.setParallelism(2);
+    }
+
+    @Test
+    void testReconcile_ReportsEachKindOfDiscrepancy() throws Exception {
+        insert(1, "TXN-1", "USD", "10.00", "COMPLETED", 1);
+        insert(2, "TXN-2", "USD", "20.00", "COMPLETED", 2);
+        insert(3, "TXN-3", "EUR", "5.00", "REFUNDED", 3);
+        insert(4, "TXN-4", "USD", "7.00", "COMPLETED", 4);
+        insert(5, "TXN-5", "USD", "3.00", "PENDING", 5);
+        insert(6, "TXN-6", "USD", "1.00", "COMPLETED", 30);
+        Files.write(directory.resolve("acquirer.csv"), List.of(
+                "transaction_id,amount,currency,status",
+                "TXN-1,10.00,USD,COMPLETED",
+                "TXN-2,21.00,USD,COMPLETED",
+                "TXN-3,5,EUR,COMPLETED",
+                "TXN-6,1.00,USD,COMPLETED",
+                "TXN-1,10.00,USD,COMPLETED",
+                "TXN-7,abc,USD,COMPLETED",
+                "TXN-8,1.00,USD"));
+
+        ReconciliationSummary summary = service().reconcile(DAY, "acquirer.csv");
+
+        assertEquals(7, summary.getLinesRead());
+        assertEquals(5, summary.getPaymentsRead());
+        assertEquals(1, summary.getMatched());
+        assertEquals(1, summary.getDiscrepancies().get("NOT_IN_PAYMENTS"));
+        assertEquals(1, summary.getDiscrepancies().get("NOT_IN_FILE"));
+        assertEquals(1, summary.getDiscrepancies().get("AMOUNT_MISMATCH"));
+        assertEquals(1, summary.getDiscrepancies().get("STATUS_MISMATCH"));
+        assertEquals(1, summary.getDiscrepancies().get("DUPLICATE_IN_FILE"));
+        assertEquals(2, summary.getDiscrepancies().get("INVALID_LINE"));
+
+        List<String> report = Files.readAllLines(Path.of(summary.getReportFile()));
+        assertEquals("type,transaction_id,payment_id,line,payment_amount,payment_currency,payment_status,"
+                + "file_amount,file_currency,file_status,detail", report.get(0));
+        assertTrue(report.contains("AMOUNT_MISMATCH,TXN-2,2,3,20.00,USD,COMPLETED,21.00,USD,COMPLETED,"));
+        assertTrue(report.contains("STATUS_MISMATCH,TXN-3,3,4,5.00,EUR,REFUNDED,5.00,EUR,COMPLETED,"));
+        assertTrue(report.contains("NOT_IN_FILE,TXN-4,4,,7.00,USD,COMPLETED,,,,"));
+        assertTrue(report.contains("NOT_IN_PAYMENTS,TXN-6,,5,,,,1.00,USD,COMPLETED,"));
+        assertTrue(report.contains("DUPLICATE_IN_FILE,TXN-1,1,6,10.00,USD,COMPLETED,10.00,USD,COMPLETED,"));
+        assertTrue(report.contains("INVALID_LINE,TXN-7,,7,,,,,,,Invalid amount"));
+        assertTrue(report.contains("INVALID_LINE,TXN-8,,8,,,,,,,Expected 4 fields"));
+        assertEquals(8, report.size());
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void testReconcile_SpreadsLargeDaysOverPartitions() throws Exception {
+        properties.setPartitionRows(500);
+        List<Object[]> rows = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        lines.add("transaction_id,amount,currency,status");
+        for (int id = 1; id <= 5000; id++) {
+            String transactionId = "TXN-" + UUID.randomUUID();
+            rows.add(new Object[]{id, transactionId, "INR", BigDecimal.valueOf(id, 2), "COMPLETED",
+                    Timestamp.valueOf(DAY.atStartOfDay().plusSeconds(id))});
+            if (id % 100 == 0) {
+                continue;
+            }
+            String amount = BigDecimal.valueOf(id % 250 == 1 ? id + 1 : id, 2).toPlainString();
+            lines.add(transactionId + "," + amount + ",INR,COMPLETED");
+        }
+        jdbc.batchUpdate("INSERT INTO payments VALUES (?, ?, ?, ?, ?, ?)", rows);
+        Files.write(directory.resolve("large.csv"), lines);
+
+        ReconciliationSummary summary = service().reconcile(DAY, "large.csv");
+
+        assertEquals(5000, summary.getPaymentsRead());
+        assertEquals(4950, summary.getLinesRead());
+        assertEquals(50, summary.getDiscrepancies().get("NOT_IN_FILE"));
+        assertEquals(20, summary.getDiscrepancies().get("AMOUNT_MISMATCH"));
+        assertEquals(4930, summary.getMatched());
+    }
+
+    @Test
+    void testReconcile_RejectsFilesOutsideDirectory() {
+        assertThrows(InvalidPaymentException.class, () -> service().reconcile(DAY, "../acquirer.csv"));
+        assertThrows(InvalidPaymentException.class, () -> service().reconcile(DAY, "missing.csv"));
+    }
+
+    private ReconciliationService service() {
+        return new ReconciliationService(jdbc, new DataSourceTransactionManager(dataSource), properties);
+    }
+
+    private void insert(long id, String transactionId, String currency, String amount, String status, int hour) {
+        jdbc.update("INSERT INTO payments VALUES (?, ?, ?, ?, ?, ?)", id, transactionId, currency,
+                new BigDecimal(amount), status, Timestamp.valueOf(DAY.atStartOfDay().plusHours(hour)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.payment.repository;
+
+import com.example.payment.model.JobLock;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the job lease queries of JobLockRepository.
+ */
+@DataJpaTest
+class JobLockRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    @Test
+    void testClaim_OneHolderUntilTheLeaseExpiresOrIsReleased() {
+        assertEquals(1, jobLockRepository.insert("job", "a", NOW.plusMinutes(10)));
+
+        assertEquals(0, jobLockRepository.claim("job", "b", NOW, NOW.plusMinutes(10)));
+        assertEquals(1, jobLockRepository.claim("job", "a", NOW.plusMinutes(5), NOW.plusMinutes(15)));
+        assertEquals(0, jobLockRepository.claim("job", "b", NOW.plusMinutes(12), NOW.plusMinutes(22)));
+        assertEquals(1, jobLockRepository.claim("job", "b", NOW.plusMinutes(15), NOW.plusMinutes(25)));
+
+        assertEquals(0, jobLockRepository.release("job", "a", NOW.plusMinutes(16)));
+        assertEquals(1, jobLockRepository.release("job", "b", NOW.plusMinutes(16)));
+        JobLock lock = jobLockRepository.findById("job").orElseThrow();
+        assertEquals(NOW.plusMinutes(16), lock.getLockedUntil());
+        assertEquals(1, jobLockRepository.claim("job", "a", NOW.plusMinutes(16), NOW.plusMinutes(26)));
+    }
+}
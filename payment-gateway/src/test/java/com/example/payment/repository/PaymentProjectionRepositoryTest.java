@@ -0,0 +1,74 @@
+package com.example.payment.repository;
+
+import com.example.payment.dto.PaymentField;
+import com.example.payment.dto.PaymentStatus;
+import com.example.payment.model.Payment;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the field projections of PaymentRepository.
+ */
+@DataJpaTest
+class PaymentProjectionRepositoryTest {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        payment = new Payment();
+        payment.setMerchantId("MERCHANT_A");
+        payment.setAmount(new BigDecimal("12.50"));
+        payment.setCurrency("USD");
+        payment.setPaymentMethod("CARD");
+        payment.setCustomerEmail("customer@example.com");
+        payment.setDescription("x".repeat(500));
+        payment = entityManager.persistFlushFind(payment);
+        entityManager.clear();
+    }
+
+    @Test
+    void testFindFields_SelectsOnlyRequestedColumns() {
+        Set<PaymentField> fields = EnumSet.of(PaymentField.STATUS, PaymentField.TRANSACTION_ID, PaymentField.ID);
+
+        List<Object[]> rows = paymentRepository.findFieldsByMerchantId("MERCHANT_A", fields);
+
+        assertEquals(1, rows.size());
+        assertArrayEquals(new Object[]{payment.getId(), payment.getTransactionId(), Payment.PaymentStatus.PENDING},
+                rows.get(0));
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+        Map<String, Object> response = PaymentField.toResponse(fields, rows.get(0));
+        assertEquals(List.of("id", "transactionId", "status"), List.copyOf(response.keySet()));
+        assertEquals(PaymentStatus.PENDING, response.get("status"));
+    }
+
+    @Test
+    void testFindFields_SingleColumnAndMissingPayment() {
+        Set<PaymentField> fields = EnumSet.of(PaymentField.AMOUNT);
+
+        assertEquals(0, new BigDecimal("12.50").compareTo(
+                (BigDecimal) paymentRepository.findFieldsById(payment.getId(), fields).get(0)[0]));
+        assertEquals(1, paymentRepository.findAllFields(fields).size());
+        assertTrue(paymentRepository.findFieldsByTransactionId("TXN-MISSING", fields).isEmpty());
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.payment.rollup;
+
+import com.example.payment.changefeed.ChangeFeedService;
+import com.example.payment.config.ChangeFeedProperties;
+import com.example.payment.config.RollupProperties;
+import com.example.payment.dto.HourlyRollupResponse;
+import com.example.payment.dto.RollupBackfillResult;
+import com.example.payment.exception.InvalidPaymentException;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.ChangeFeedStateRepository;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.repository.PaymentRollupRepository;
+import com.example.payment.repository.PaymentRollupStateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for PaymentRollupService. Runs without a test transaction so that
+ * the aggregator sees committed, sequenced changes, as it does in production.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentRollupServiceTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2024, 3, 15, 10, 0);
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ChangeFeedStateRepository changeFeedStateRepository;
+
+    @Autowired
+    private PaymentRollupRepository rollupRepository;
+
+    @Autowired
+    private PaymentRollupStateRepository stateRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private ChangeFeedService changeFeedService;
+    private PaymentRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        changeFeedService = new ChangeFeedService(paymentRepository, changeFeedStateRepository, jdbcTemplate,
+                transactionManager, new ChangeFeedProperties());
+        RollupProperties properties = new RollupProperties();
+        properties.setAggregatorBatchSize(2);
+        properties.setBackfillChunkSize(2);
+        rollupService = new PaymentRollupService(rollupRepository, stateRepository, jdbcTemplate,
+                transactionManager, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentRepository.deleteAll();
+        changeFeedStateRepository.deleteAll();
+        rollupRepository.deleteAll();
+        stateRepository.deleteAll();
+    }
+
+    @Test
+    void testBackfillThenAggregate_TracksStatusChanges() {
+        Payment first = create("MERCHANT_A", "10.00", 0);
+        create("MERCHANT_A", "5.50", 30);
+        create("MERCHANT_A", "7.00", 90);
+        create("MERCHANT_B", "1.00", 0);
+        changeFeedService.sequencePendingChanges();
+        assertEquals(0, rollupService.aggregatePendingChanges());
+
+        RollupBackfillResult backfill = rollupService.backfill();
+        assertEquals(4, backfill.getPaymentsScanned());
+        assertEquals(4, backfill.getPaymentsRolledUp());
+        assertEquals(0, rollupService.backfill().getPaymentsRolledUp());
+
+        List<HourlyRollupResponse> pending = rollupService.getHourlyRollups("MERCHANT_A", HOUR, HOUR.plusHours(2),
+                null);
+        assertEquals(2, pending.size());
+        assertBucket(pending.get(0), HOUR, Payment.PaymentStatus.PENDING, 2, "15.50");
+        assertBucket(pending.get(1), HOUR.plusHours(1), Payment.PaymentStatus.PENDING, 1, "7.00");
+
+        Payment reloaded = paymentRepository.findById(first.getId()).orElseThrow();
+        reloaded.setStatus(Payment.PaymentStatus.COMPLETED);
+        paymentRepository.save(reloaded);
+        changeFeedService.sequencePendingChanges();
+        assertEquals(1, rollupService.aggregatePendingChanges());
+
+        List<HourlyRollupResponse> firstHour = rollupService.getHourlyRollups("MERCHANT_A", HOUR, HOUR.plusHours(1),
+                null);
+        assertEquals(2, firstHour.size());
+        HourlyRollupResponse completed = firstHour.stream()
+                .filter(bucket -> bucket.getStatus() == Payment.PaymentStatus.COMPLETED).findFirst().orElseThrow();
+        assertBucket(completed, HOUR, Payment.PaymentStatus.COMPLETED, 1, "10.00");
+        assertEquals(List.of(completed), rollupService.getHourlyRollups("MERCHANT_A", HOUR.plusMinutes(20),
+                HOUR.plusHours(1), Payment.PaymentStatus.COMPLETED));
+        assertEquals(3, rollupService.getHourlyRollups(null, HOUR, HOUR.plusHours(1), null).size());
+    }
+
+    @Test
+    void testAggregate_NewPaymentsAfterStart() {
+        rollupService.aggregatePendingChanges();
+        for (int i = 0; i < 3; i++) {
+            create("MERCHANT_A", "2.00", i);
+        }
+        changeFeedService.sequencePendingChanges();
+
+        assertEquals(3, rollupService.aggregatePendingChanges());
+
+        List<HourlyRollupResponse> buckets = rollupService.getHourlyRollups("MERCHANT_A", HOUR, HOUR.plusHours(1),
+                Payment.PaymentStatus.PENDING);
+        assertEquals(1, buckets.size());
+        assertBucket(buckets.get(0), HOUR, Payment.PaymentStatus.PENDING, 3, "6.00");
+        assertEquals(0, rollupService.backfill().getPaymentsRolledUp());
+    }
+
+    @Test
+    void testGetHourlyRollups_RejectsInvalidRange() {
+        assertThrows(InvalidPaymentException.class,
+                () -> rollupService.getHourlyRollups("MERCHANT_A", HOUR, HOUR, null));
+        assertThrows(InvalidPaymentException.class,
+                () -> rollupService.getHourlyRollups("MERCHANT_A", HOUR, HOUR.plusDays(93), null));
+        assertTrue(rollupService.getHourlyRollups("MERCHANT_A", HOUR, HOUR.plusDays(92), null).isEmpty());
+    }
+
+    private Payment create(String merchantId, String amount, int minutesAfterHour) {
+        Payment payment = new Payment();
+        payment.setMerchantId(merchantId);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setCurrency("USD");
+        payment.setPaymentMethod("CARD");
+        payment.setCustomerEmail("customer@example.com");
+        Payment saved = paymentRepository.save(payment);
+        jdbcTemplate.update("UPDATE payments SET created_at = ? WHERE id = ?",
+                Timestamp.valueOf(HOUR.plusMinutes(minutesAfterHour)), saved.getId());
+        return saved;
+    }
+
+    private static void assertBucket(HourlyRollupResponse bucket, LocalDateTime hour, Payment.PaymentStatus status,
+                                     long count, String amount) {
+        assertEquals(hour, bucket.getHour());
+        assertEquals(status, bucket.getStatus());
+        assertEquals(count, bucket.getCount());
+        assertEquals(0, new BigDecimal(amount).compareTo(bucket.getAmount()));
+    }
+}
@@ -0,0 +1,399 @@
+package com.example.payment.scaling;
+
+import com.example.payment.config.DataSourceRoutingProperties;
+import com.example.payment.datasource.ReadYourWritesTracker;
+import com.example.payment.dto.PaymentField;
+import com.example.payment.groupcommit.PaymentGroupCommitter;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.service.PaymentService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToLongFunction;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Data-volume scaling suite for the payment queries.
+ *
+ * <p>Seeds the migrated schema in a file-backed H2 database with payments
+ * whose merchants follow a Zipf distribution (the largest merchant has about
+ * an eighth of all payments), with realistic status, method and currency
+ * mixes, one payment every three seconds from a year ago (10^7 span the
+ * year) and a few payments per customer. At each size in
+ * {@code -Dscaling.sizes} (10^4 and 10^6 by default, grown in place)
+ * every operation is run once to count the rows it scanned, using H2's
+ * EXPLAIN ANALYZE on each statement it issued, and then timed.
+ *
+ * <p>Rows scanned are divided by the rows the operation matched, so an
+ * indexed lookup stays flat however much a merchant grows. An operation that
+ * should be served by an index is flagged when that ratio grows faster than
+ * the square root of the table size between the smallest and largest size,
+ * which is what a scan looks like. Operations that must read a fixed share
+ * of the table are reported but not flagged.
+ *
+ * <p>Last run at 10^4 and 10^6 (about four minutes, mostly seeding): nothing
+ * flagged. Lookups by ID, transaction ID, customer email and version read at
+ * most one row more than they return, archival and status locking read 201
+ * and 101 rows per batch of 100, and merchant reads scan only the merchant's
+ * own rows (1096 for 1095 at 10^6). Only {@code count} and
+ * {@code getPaymentStatistics} read a fixed share of the table. 10^7 has not
+ * been run; add it with {@code -Dscaling.sizes=10000,1000000,10000000}.
+ *
+ * <p>Excluded from the default build; run with {@code mvn test -Pscaling}
+ * and, for a quick pass, {@code -Dscaling.sizes=10000,100000}.
+ */
+@Tag("scaling")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/scaling/payments",
+        "spring.flyway.enabled=true",
+        "spring.flyway.clean-disabled=false",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "logging.level.com.example.payment=INFO"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryScalingTest {
+
+    private static final int MERCHANTS = 1000;
+    private static final double MERCHANT_SKEW = 1.1;
+    private static final int SEED_BATCH = 10_000;
+    private static final int SECONDS_BETWEEN_PAYMENTS = 3;
+    private static final int PAYMENTS_PER_CUSTOMER = 4;
+    private static final int CUSTOMER_SPREAD = 4000;
+    private static final int TIMED_RUNS = 5;
+    private static final double FLAG_EXPONENT = 0.5;
+
+    private static final String INSERT_SQL = "INSERT INTO payments (transaction_id, merchant_id, amount, currency, "
+            + "payment_method, customer_email, status, description, created_at, updated_at, change_sequence) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String[] STATUSES = {"COMPLETED", "FAILED", "REFUNDED", "CANCELLED", "PENDING", "PROCESSING"};
+    private static final double[] STATUS_SHARES = {0.80, 0.08, 0.04, 0.03, 0.04, 0.01};
+    private static final String[] METHODS = {"CARD", "UPI", "WALLET", "NET_BANKING"};
+    private static final double[] METHOD_SHARES = {0.55, 0.25, 0.12, 0.08};
+    private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "INR"};
+    private static final double[] CURRENCY_SHARES = {0.50, 0.20, 0.10, 0.20};
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CapturingPostProcessor capturingPostProcessor;
+
+    private final Random random = new Random(42);
+    private final double[] merchantCdf = zipfCdf(MERCHANTS, MERCHANT_SKEW);
+    private final LocalDateTime epoch = LocalDateTime.now().minusDays(365);
+
+    @Test
+    void indexedOperationsScaleSublinearly() throws SQLException {
+        long[] sizes = Arrays.stream(System.getProperty("scaling.sizes", "10000,1000000").split(","))
+                .mapToLong(size -> Long.parseLong(size.trim()))
+                .sorted()
+                .toArray();
+        PaymentService service = new PaymentService(paymentRepository,
+                new ReadYourWritesTracker(new DataSourceRoutingProperties()), null, event -> { }, null, null,
+                new DefaultListableBeanFactory().getBeanProvider(PaymentGroupCommitter.class));
+        List<Operation> operations = operations(service);
+        Map<String, List<Measurement>> results = new LinkedHashMap<>();
+
+        long seeded = 0;
+        for (long size : sizes) {
+            seed(seeded, size);
+            seeded = size;
+            Probe probe = probe(size);
+            for (Operation operation : operations) {
+                results.computeIfAbsent(operation.name(), name -> new ArrayList<>())
+                        .add(measure(operation, probe, size));
+            }
+        }
+
+        List<String> flagged = report(operations, results);
+        assertTrue(flagged.isEmpty(), "Operations scanning more than an index should: " + flagged);
+    }
+
+    private List<Operation> operations(PaymentService service) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        EnumSet<PaymentField> fields = EnumSet.of(PaymentField.ID, PaymentField.STATUS, PaymentField.AMOUNT);
+        List<Payment.PaymentStatus> terminal = List.of(Payment.PaymentStatus.COMPLETED,
+                Payment.PaymentStatus.FAILED, Payment.PaymentStatus.REFUNDED, Payment.PaymentStatus.CANCELLED);
+        List<Operation> operations = new ArrayList<>();
+        // PaymentRepository
+        operations.add(indexed("findById", p -> paymentRepository.findById(p.id()).stream().count()));
+        operations.add(indexed("findByTransactionId",
+                p -> paymentRepository.findByTransactionId(p.transactionId()).stream().count()));
+        operations.add(indexed("findByTransactionIdIn",
+                p -> paymentRepository.findByTransactionIdIn(p.transactionIds()).size()));
+        operations.add(indexed("findByMerchantId", p -> paymentRepository.findByMerchantId(p.merchant()).size()));
+        operations.add(indexed("findByStatus",
+                p -> paymentRepository.findByStatus(Payment.PaymentStatus.PROCESSING).size()));
+        operations.add(indexed("findByCustomerEmail",
+                p -> paymentRepository.findByCustomerEmail(p.customerEmail()).size()));
+        operations.add(indexed("countPendingPayments", p -> paymentRepository.countPendingPayments()));
+        operations.add(indexed("countByIdIn", p -> paymentRepository.countByIdIn(p.ids())));
+        operations.add(indexed("findArchivable", p -> transaction.execute(status -> paymentRepository
+                .findArchivable(paymentRepository.findArchivableIds(Payment.PaymentStatus.COMPLETED,
+                        p.archiveCutoff(), PageRequest.of(0, 100)), Payment.PaymentStatus.COMPLETED,
+                        p.archiveCutoff()).size())));
+        operations.add(indexed("lockStatuses", p -> transaction.execute(status ->
+                paymentRepository.lockStatuses(p.ids()).size())));
+        operations.add(indexed("findIdsByMerchant", p -> paymentRepository.findIdsByMerchant(p.largestMerchant(),
+                terminal, epoch, p.now(), 0L, PageRequest.of(0, 100)).size()));
+        operations.add(indexed("findChanges", p -> paymentRepository.findChanges(p.largestMerchant(),
+                p.recentSequence(), PageRequest.of(0, 100)).size()));
+        operations.add(indexed("findAllChanges", p -> paymentRepository.findAllChanges(p.recentSequence(),
+                PageRequest.of(0, 100)).size()));
+        operations.add(indexed("findLastChangeSequence", p -> paymentRepository.findLastChangeSequence() > 0 ? 1 : 0));
+        operations.add(indexed("findVersionById", p -> paymentRepository.findVersionById(p.id()).stream().count()));
+        operations.add(indexed("findVersionByTransactionId",
+                p -> paymentRepository.findVersionByTransactionId(p.transactionId()).stream().count()));
+        operations.add(indexed("findMerchantVersion",
+                p -> paymentRepository.findMerchantVersion(p.largestMerchant()).getCount()));
+        operations.add(indexed("findFieldsByMerchantId",
+                p -> paymentRepository.findFieldsByMerchantId(p.merchant(), fields).size()));
+        operations.add(indexed("updateStatusIn", p -> transaction.execute(status -> {
+            status.setRollbackOnly();
+            return paymentRepository.updateStatusIn(p.ids(), List.of(Payment.PaymentStatus.PENDING),
+                    Payment.PaymentStatus.CANCELLED, p.now());
+        })));
+        operations.add(fullScan("count", p -> paymentRepository.count()));
+        // PaymentService reads
+        operations.add(indexed("service.getPaymentsByMerchantId",
+                p -> service.getPaymentsByMerchantId(p.merchant()).size()));
+        operations.add(indexed("service.getPaymentsByIds", p -> service.getPaymentsByIds(p.ids()).size()));
+        operations.add(indexed("service.getPaymentsByTransactionIds",
+                p -> service.getPaymentsByTransactionIds(p.transactionIds()).size()));
+        operations.add(indexed("service.getMerchantPaymentsVersion",
+                p -> service.getMerchantPaymentsVersion(p.largestMerchant()).isEmpty() ? 0 : p.largestCount()));
+        operations.add(indexed("service.getPaymentFieldsByMerchantId",
+                p -> service.getPaymentFieldsByMerchantId(p.merchant(), fields).size()));
+        operations.add(fullScan("service.getPaymentStatistics", p -> {
+            Map<String, Object> statistics = service.getPaymentStatistics();
+            return ((Number) statistics.get("pendingPayments")).longValue()
+                    + ((Number) statistics.get("completedPayments")).longValue();
+        }));
+        return operations;
+    }
+
+    private Measurement measure(Operation operation, Probe probe, long size) throws SQLException {
+        StatementCapture capture = capturingPostProcessor.capture;
+        capture.start();
+        long matched = operation.run().applyAsLong(probe);
+        List<StatementCapture.Statement> statements = capture.stop();
+        long scanned = capture.rowsScanned(statements);
+        long[] nanos = new long[TIMED_RUNS];
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long started = System.nanoTime();
+            operation.run().applyAsLong(probe);
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        return new Measurement(size, matched, scanned, nanos[TIMED_RUNS / 2] / 1_000_000.0);
+    }
+
+    /**
+     * Print every measurement and return the indexed operations whose scanned-to-matched ratio grew too fast.
+     */
+    private List<String> report(List<Operation> operations, Map<String, List<Measurement>> results) {
+        List<String> flagged = new ArrayList<>();
+        System.out.printf("%-38s %11s %11s %11s %10s %9s%n", "operation", "payments", "matched", "scanned",
+                "median ms", "growth");
+        for (Operation operation : operations) {
+            List<Measurement> measurements = results.get(operation.name());
+            Measurement first = measurements.get(0);
+            Measurement last = measurements.get(measurements.size() - 1);
+            double growth = measurements.size() < 2 ? 0
+                    : Math.log(last.amplification() / first.amplification())
+                    / Math.log((double) last.size() / first.size());
+            boolean flag = operation.indexed() && growth > FLAG_EXPONENT;
+            if (flag) {
+                flagged.add(operation.name());
+            }
+            for (Measurement m : measurements) {
+                System.out.printf("%-38s %11d %11d %11d %10.2f %9s%n", operation.name(), m.size(), m.matched(),
+                        m.scanned(), m.millis(), m == last ? String.format("%.2f%s", growth,
+                                flag ? " !" : operation.indexed() ? "" : " scan") : "");
+            }
+        }
+        return flagged;
+    }
+
+    /**
+     * Add payments until the table holds {@code to} rows. Distributions do not
+     * depend on the target size, so growing in place matches seeding afresh.
+     */
+    private void seed(long from, long to) {
+        for (long start = from; start < to; start += SEED_BATCH) {
+            List<Object[]> rows = new ArrayList<>(SEED_BATCH);
+            for (long i = start; i < Math.min(start + SEED_BATCH, to); i++) {
+                LocalDateTime createdAt = epoch.plusSeconds(i * SECONDS_BETWEEN_PAYMENTS);
+                String status = pick(STATUSES, STATUS_SHARES);
+                LocalDateTime updatedAt = createdAt.plusSeconds(random.nextInt(3600));
+                rows.add(new Object[]{"TXN-SEED-" + i, merchant(pickMerchant()),
+                        BigDecimal.valueOf(100 + random.nextInt(99_900), 2), pick(CURRENCIES, CURRENCY_SHARES),
+                        pick(METHODS, METHOD_SHARES), customerEmail(customer(i)),
+                        status, null, Timestamp.valueOf(createdAt), Timestamp.valueOf(updatedAt), i + 1});
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private Probe probe(long size) {
+        long middle = size / 2;
+        long id = jdbcTemplate.queryForObject("SELECT id FROM payments WHERE transaction_id = ?", Long.class,
+                "TXN-SEED-" + middle);
+        String email = jdbcTemplate.queryForObject("SELECT customer_email FROM payments WHERE id = ?",
+                String.class, id);
+        List<Long> ids = LongStream.range(0, 100).map(i -> 1 + i * (size / 100)).boxed().toList();
+        List<String> transactionIds = LongStream.range(0, 100).mapToObj(i -> "TXN-SEED-" + i * (size / 100))
+                .toList();
+        long largestCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payments WHERE merchant_id = ?",
+                Long.class, merchant(0));
+        long maxSequence = jdbcTemplate.queryForObject("SELECT MAX(change_sequence) FROM payments", Long.class);
+        return new Probe(id, "TXN-SEED-" + middle, ids, transactionIds, merchant(100), merchant(0), largestCount,
+                email, maxSequence - 1000, epoch.plusDays(30), LocalDateTime.now());
+    }
+
+    private int pickMerchant() {
+        int index = Arrays.binarySearch(merchantCdf, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, MERCHANTS - 1);
+    }
+
+    private String pick(String[] values, double[] shares) {
+        double roll = random.nextDouble();
+        for (int i = 0; i < values.length - 1; i++) {
+            roll -= shares[i];
+            if (roll < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+
+    private static String merchant(int rank) {
+        return String.format("MERCHANT_%04d", rank);
+    }
+
+    /**
+     * Customer of the i-th payment: about four payments each, made within a
+     * few thousand payments of each other, so the customer base grows with the table.
+     */
+    private long customer(long i) {
+        return (i + random.nextInt(CUSTOMER_SPREAD)) / PAYMENTS_PER_CUSTOMER;
+    }
+
+    private static String customerEmail(long customer) {
+        return "customer" + customer + "@example.com";
+    }
+
+    private static double[] zipfCdf(int n, double skew) {
+        double[] cdf = new double[n];
+        double total = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            total += 1 / Math.pow(rank, skew);
+            cdf[rank - 1] = total;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= total;
+        }
+        return cdf;
+    }
+
+    private static Operation indexed(String name, ToLongFunction<Probe> run) {
+        return new Operation(name, true, run);
+    }
+
+    private static Operation fullScan(String name, ToLongFunction<Probe> run) {
+        return new Operation(name, false, run);
+    }
+
+    /**
+     * An operation under test; {@code run} returns the number of rows it matched.
+     */
+    private record Operation(String name, boolean indexed, ToLongFunction<Probe> run) {
+    }
+
+    /**
+     * Arguments for the operations at one size, chosen from rows that exist at that size.
+     */
+    private record Probe(long id, String transactionId, List<Long> ids, List<String> transactionIds,
+                         String merchant, String largestMerchant, long largestCount, String customerEmail,
+                         long recentSequence, LocalDateTime archiveCutoff, LocalDateTime now) {
+    }
+
+    private record Measurement(long size, long matched, long scanned, double millis) {
+
+        double amplification() {
+            return (double) Math.max(scanned, 1) / Math.max(matched, 1);
+        }
+    }
+
+    @TestConfiguration
+    static class ScalingConfig {
+
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+
+        @Bean
+        static CapturingPostProcessor capturingPostProcessor() {
+            return new CapturingPostProcessor();
+        }
+    }
+
+    /**
+     * Wraps the data source so the statements of each operation can be recorded.
+     */
+    static final class CapturingPostProcessor implements BeanPostProcessor {
+
+        private StatementCapture capture;
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && capture == null) {
+                capture = new StatementCapture(dataSource);
+                return capture.dataSource();
+            }
+            return bean;
+        }
+    }
+}
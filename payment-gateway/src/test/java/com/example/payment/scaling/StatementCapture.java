@@ -0,0 +1,144 @@
+package com.example.payment.scaling;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Records the statements run through a data source, with their parameters,
+ * so each can be replayed under H2's {@code EXPLAIN ANALYZE} to count the
+ * rows it scanned.
+ */
+final class StatementCapture {
+
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+    private final DataSource target;
+    private final List<Statement> captured = new ArrayList<>();
+    private volatile boolean capturing;
+
+    StatementCapture(DataSource target) {
+        this.target = target;
+    }
+
+    /**
+     * Data source that hands out recording connections.
+     */
+    DataSource dataSource() {
+        return proxy(DataSource.class, target, (method, args, result) -> result instanceof Connection connection
+                ? connection(connection) : result);
+    }
+
+    /**
+     * Start recording on the calling thread's operations.
+     */
+    void start() {
+        synchronized (captured) {
+            captured.clear();
+        }
+        capturing = true;
+    }
+
+    /**
+     * Stop recording.
+     *
+     * @return statements run since {@link #start()}
+     */
+    List<Statement> stop() {
+        capturing = false;
+        synchronized (captured) {
+            return new ArrayList<>(captured);
+        }
+    }
+
+    /**
+     * Rows scanned by the given statements, summed over every table access in their plans.
+     * Each statement is run again under EXPLAIN ANALYZE in a transaction that is rolled back.
+     */
+    long rowsScanned(List<Statement> statements) throws SQLException {
+        long scanned = 0;
+        try (Connection connection = target.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                for (Statement statement : statements) {
+                    try (PreparedStatement explain = connection.prepareStatement("EXPLAIN ANALYZE "
+                            + statement.sql())) {
+                        for (int i = 0; i < statement.parameters().size(); i++) {
+                            explain.setObject(i + 1, statement.parameters().get(i));
+                        }
+                        try (ResultSet plan = explain.executeQuery()) {
+                            while (plan.next()) {
+                                Matcher matcher = SCAN_COUNT.matcher(plan.getString(1));
+                                while (matcher.find()) {
+                                    scanned += Long.parseLong(matcher.group(1));
+                                }
+                            }
+                        }
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+        return scanned;
+    }
+
+    private Connection connection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) ->
+                method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement
+                        ? statement(statement, (String) args[0]) : result);
+    }
+
+    private PreparedStatement statement(PreparedStatement statement, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.startsWith("execute") && (args == null || args.length == 0) && capturing) {
+                synchronized (captured) {
+                    captured.add(new Statement(sql, new ArrayList<>(parameters.values())));
+                }
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T delegate, AfterCall afterCall) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return afterCall.apply(method, args, method.invoke(delegate, args));
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(StatementCapture.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    @FunctionalInterface
+    private interface AfterCall {
+
+        Object apply(Method method, Object[] args, Object result) throws SQLException;
+    }
+
+    /**
+     * A statement as run, with its parameters in order.
+     */
+    record Statement(String sql, List<Object> parameters) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.payment.service;
+
+import com.example.payment.config.DataSourceRoutingProperties;
+import com.example.payment.datasource.ReadYourWritesTracker;
+import com.example.payment.dto.BulkCreateRequest;
+import com.example.payment.dto.BulkCreateResult;
+import com.example.payment.dto.BulkOperationRequest;
+import com.example.payment.dto.BulkOperationResult;
+import com.example.payment.dto.PaymentRequest;
+import com.example.payment.dto.PaymentStatus;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.PaymentRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for BulkPaymentService against the JPA repository on H2.
+ */
+@DataJpaTest
+class BulkPaymentServiceTest {
+
+    private static final int PAYMENTS = BulkPaymentService.CHUNK_SIZE + 250;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BulkPaymentService bulkPaymentService;
+    private List<Payment> payments;
+
+    @BeforeEach
+    void setUp() {
+        bulkPaymentService = new BulkPaymentService(paymentRepository,
+                new ReadYourWritesTracker(new DataSourceRoutingProperties()), transactionManager,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        List<Payment> toSave = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS; i++) {
+            Payment payment = new Payment();
+            payment.setMerchantId(i % 2 == 0 ? "MERCHANT_A" : "MERCHANT_B");
+            payment.setAmount(new BigDecimal("20.00"));
+            payment.setCurrency("USD");
+            payment.setPaymentMethod("CARD");
+            payment.setCustomerEmail("customer" + i + "@example.com");
+            payment.setStatus(i % 5 == 0 ? Payment.PaymentStatus.PENDING : Payment.PaymentStatus.COMPLETED);
+            payment.setTransactionId("TXN-BULK-" + i);
+            toSave.add(payment);
+        }
+        payments = paymentRepository.saveAll(toSave);
+    }
+
+    @Test
+    void testRefund_ByIds_ReportsPerIdOutcomes() {
+        List<Long> ids = payments.stream().map(Payment::getId).collect(Collectors.toList());
+        ids.add(-1L);
+        BulkOperationRequest request = new BulkOperationRequest(ids, null, null, null, null);
+
+        BulkOperationResult result = bulkPaymentService.refund(request);
+
+        int pending = PAYMENTS / 5;
+        assertEquals(PAYMENTS + 1, result.getRequested());
+        assertEquals(PAYMENTS - pending, result.getUpdated());
+        assertEquals(pending + 1, result.getFailed());
+        BulkOperationResult.Outcome first = result.getOutcomes().get(0);
+        assertEquals(BulkOperationResult.Result.REJECTED, first.getResult());
+        assertEquals(Payment.PaymentStatus.PENDING, first.getPreviousStatus());
+        assertEquals("Only completed payments can be refunded", first.getMessage());
+        BulkOperationResult.Outcome missing = result.getOutcomes().get(PAYMENTS);
+        assertEquals(BulkOperationResult.Result.NOT_FOUND, missing.getResult());
+        assertNull(missing.getPreviousStatus());
+        assertEquals(PAYMENTS - pending, paymentRepository.findByStatus(Payment.PaymentStatus.REFUNDED).size());
+        assertEquals(Payment.PaymentStatus.REFUNDED,
+                paymentRepository.findById(payments.get(1).getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testCancel_ByMerchantFilter() {
+        BulkOperationRequest request = new BulkOperationRequest(null, "MERCHANT_A", null, null, null);
+
+        BulkOperationResult result = bulkPaymentService.cancel(request);
+
+        // Only the pending half of MERCHANT_A's payments (every tenth payment) can be cancelled.
+        int expected = PAYMENTS / 10;
+        assertEquals(expected, result.getUpdated());
+        assertEquals(0, result.getFailed());
+        assertEquals(expected, paymentRepository.findByStatus(Payment.PaymentStatus.CANCELLED).size());
+    }
+
+    @Test
+    void testRefund_ByMerchantFilter_StatusOutsideTransitionMatchesNothing() {
+        BulkOperationRequest request = new BulkOperationRequest(null, "MERCHANT_B",
+                Payment.PaymentStatus.PENDING, null, null);
+
+        BulkOperationResult result = bulkPaymentService.refund(request);
+
+        assertEquals(0, result.getRequested());
+        assertEquals(0, paymentRepository.findByStatus(Payment.PaymentStatus.REFUNDED).size());
+    }
+
+    @Test
+    void testCreate_ReportsPerPaymentOutcomesInRequestOrder() {
+        BulkCreateRequest request = new BulkCreateRequest(Arrays.asList(
+                new PaymentRequest("MERCHANT_C", new BigDecimal("15.00"), "EUR", "CARD", "c1@example.com", null),
+                new PaymentRequest("MERCHANT_C", new BigDecimal("15.00"), "XYZ", "CARD", "c2@example.com", null),
+                null,
+                new PaymentRequest("MERCHANT_C", new BigDecimal("20000.00"), "USD", "UPI", "c3@example.com", null),
+                new PaymentRequest("MERCHANT_C", new BigDecimal("25.00"), "USD", "UPI", "c4@example.com", "Bulk")));
+
+        BulkCreateResult result = bulkPaymentService.create(request);
+
+        assertEquals(5, result.getRequested());
+        assertEquals(2, result.getCreated());
+        assertEquals(3, result.getFailed());
+        List<BulkCreateResult.Outcome> outcomes = result.getOutcomes();
+        assertEquals(BulkCreateResult.Result.CREATED, outcomes.get(0).getResult());
+        assertEquals(PaymentStatus.PENDING, outcomes.get(0).getPayment().getStatus());
+        assertEquals(BulkCreateResult.Result.INVALID, outcomes.get(1).getResult());
+        assertEquals("Currency must be USD, EUR, GBP, or INR", outcomes.get(1).getMessage());
+        assertEquals("Payment is required", outcomes.get(2).getMessage());
+        assertEquals("Amount exceeds maximum limit", outcomes.get(3).getMessage());
+        assertNull(outcomes.get(3).getPayment());
+        assertEquals(4, outcomes.get(4).getIndex());
+        assertEquals("Bulk", outcomes.get(4).getPayment().getDescription());
+        assertNotEquals(outcomes.get(0).getPayment().getTransactionId(),
+                outcomes.get(4).getPayment().getTransactionId());
+        assertEquals(2, paymentRepository.findByMerchantId("MERCHANT_C").size());
+    }
+}
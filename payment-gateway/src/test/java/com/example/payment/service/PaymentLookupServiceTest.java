@@ -0,0 +1,88 @@
+package com.example.payment.service;
+
+import com.example.payment.dto.PaymentLookupRequest;
+import com.example.payment.dto.PaymentLookupResult;
+import com.example.payment.model.Payment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for PaymentLookupService.
+ */
+@ExtendWith(MockitoExtension.class)
+class PaymentLookupServiceTest {
+
+    @Mock
+    private PaymentService paymentService;
+
+    @InjectMocks
+    private PaymentLookupService paymentLookupService;
+
+    @Test
+    void testLookup_PreservesOrderAndReportsMissing() {
+        when(paymentService.getPaymentsByIds(anyCollection()))
+                .thenReturn(List.of(payment(3L, "TXN-3"), payment(1L, "TXN-1")));
+        when(paymentService.getPaymentsByTransactionIds(anyCollection()))
+                .thenReturn(List.of(payment(2L, "TXN-2")));
+        PaymentLookupRequest request = new PaymentLookupRequest(List.of(1L, 9L, 3L, 1L), List.of("TXN-X", "TXN-2"));
+
+        List<PaymentLookupResult> results = new ArrayList<>();
+        paymentLookupService.lookup(request, results::add);
+
+        assertEquals(6, results.size());
+        assertEquals(List.of(1L, 9L, 3L, 1L), results.subList(0, 4).stream()
+                .map(PaymentLookupResult::getId).collect(Collectors.toList()));
+        assertTrue(results.get(0).isFound());
+        assertEquals("TXN-1", results.get(0).getPayment().getTransactionId());
+        assertFalse(results.get(1).isFound());
+        assertNull(results.get(1).getPayment());
+        assertEquals("TXN-X", results.get(4).getTransactionId());
+        assertFalse(results.get(4).isFound());
+        assertEquals(2L, results.get(5).getPayment().getId());
+    }
+
+    @Test
+    void testLookup_ResolvesInChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, PaymentLookupService.CHUNK_SIZE + 1).boxed()
+                .collect(Collectors.toList());
+        when(paymentService.getPaymentsByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> chunk = invocation.getArgument(0);
+            assertTrue(chunk.size() <= PaymentLookupService.CHUNK_SIZE);
+            return chunk.stream().map(id -> payment(id, "TXN-" + id)).collect(Collectors.toList());
+        });
+
+        List<PaymentLookupResult> results = new ArrayList<>();
+        paymentLookupService.lookup(new PaymentLookupRequest(ids, null), results::add);
+
+        assertEquals(ids.size(), results.size());
+        assertTrue(results.stream().allMatch(PaymentLookupResult::isFound));
+        verify(paymentService, times(2)).getPaymentsByIds(anyCollection());
+    }
+
+    private static Payment payment(Long id, String transactionId) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setTransactionId(transactionId);
+        payment.setMerchantId("MERCHANT_123");
+        payment.setStatus(Payment.PaymentStatus.COMPLETED);
+        return payment;
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.payment.service;
+
+import com.example.payment.acquirer.AcquirerClient;
+import com.example.payment.acquirer.AcquirerException;
+import com.example.payment.acquirer.AcquirerGateway;
+import com.example.payment.acquirer.AcquirerNotSentException;
+import com.example.payment.acquirer.AcquirerRequest;
+import com.example.payment.acquirer.AcquirerResponse;
+import com.example.payment.archive.PaymentArchiveService;
+import com.example.payment.config.AcquirerProperties;
+import com.example.payment.datasource.ReadYourWritesTracker;
+import com.example.payment.exception.AcquirerTimeoutException;
+import com.example.payment.exception.AcquirerUnavailableException;
+import com.example.payment.exception.PaymentException;
+import com.example.payment.groupcommit.PaymentGroupCommitter;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.stream.PaymentStatusChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for PaymentService.processPayment against a stub acquirer whose answers the test controls.
+ */
+@ExtendWith(MockitoExtension.class)
+class PaymentProcessingTest {
+
+    private static final List<Payment.PaymentStatus> PENDING = List.of(Payment.PaymentStatus.PENDING);
+    private static final List<Payment.PaymentStatus> PROCESSING = List.of(Payment.PaymentStatus.PROCESSING);
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Mock
+    private PaymentArchiveService paymentArchiveService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final StubAcquirer acquirer = new StubAcquirer();
+    private AcquirerGateway gateway;
+    private PaymentService paymentService;
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        AcquirerProperties properties = new AcquirerProperties();
+        properties.setDeadline(Duration.ofMillis(200));
+        properties.setBulkhead(Map.of("CARD", 1));
+        gateway = new AcquirerGateway(List.of(acquirer), properties, new SimpleMeterRegistry());
+        paymentService = new PaymentService(paymentRepository, readYourWritesTracker, paymentArchiveService,
+                eventPublisher, gateway, transactionManager,
+                new DefaultListableBeanFactory().getBeanProvider(PaymentGroupCommitter.class));
+
+        payment = new Payment();
+        payment.setId(1L);
+        payment.setTransactionId("TXN-12345");
+        payment.setMerchantId("MERCHANT_123");
+        payment.setAmount(new BigDecimal("100.00"));
+        payment.setCurrency("USD");
+        payment.setPaymentMethod("CARD");
+        payment.setStatus(Payment.PaymentStatus.PENDING);
+    }
+
+    @Test
+    void testProcessPayment_ApprovedCompletesAfterProcessingIsCommitted() throws Exception {
+        findByIdReturns(payment, withStatus(Payment.PaymentStatus.PROCESSING),
+                withStatus(Payment.PaymentStatus.COMPLETED));
+        when(paymentRepository.updateStatusIn(eq(List.of(1L)), eq(PENDING), eq(Payment.PaymentStatus.PROCESSING),
+                any())).thenReturn(1);
+        when(paymentRepository.updateStatusIn(eq(List.of(1L)), eq(PROCESSING), eq(Payment.PaymentStatus.COMPLETED),
+                any())).thenReturn(1);
+
+        CompletableFuture<Payment> result = paymentService.processPayment(1L);
+
+        assertFalse(result.isDone());
+        assertEquals("TXN-12345", acquirer.requests.get(0).getTransactionId());
+        acquirer.calls.get(0).complete(AcquirerResponse.approved("REF-1"));
+        assertEquals(Payment.PaymentStatus.COMPLETED, result.get(2, TimeUnit.SECONDS).getStatus());
+        verify(eventPublisher).publishEvent(argThat(isTransition(Payment.PaymentStatus.COMPLETED)));
+    }
+
+    @Test
+    void testProcessPayment_DeclinedFails() throws Exception {
+        findByIdReturns(payment, withStatus(Payment.PaymentStatus.PROCESSING),
+                withStatus(Payment.PaymentStatus.FAILED));
+        when(paymentRepository.updateStatusIn(eq(List.of(1L)), eq(PENDING), eq(Payment.PaymentStatus.PROCESSING),
+                any())).thenReturn(1);
+        when(paymentRepository.updateStatusIn(eq(List.of(1L)), eq(PROCESSING), eq(Payment.PaymentStatus.FAILED),
+                any())).thenReturn(1);
+
+        CompletableFuture<Payment> result = paymentService.processPayment(1L);
+        acquirer.calls.get(0).complete(AcquirerResponse.declined("REF-1", "Insufficient funds"));
+
+        assertEquals(Payment.PaymentStatus.FAILED, result.get(2, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    void testProcessPayment_ErrorAfterTheAcquirerMayHaveApprovedStaysProcessing() throws Exception {
+        findByIdReturns(payment, withStatus(Payment.PaymentStatus.PROCESSING),
+                withStatus(Payment.PaymentStatus.PROCESSING));
+        when(paymentRepository.updateStatusIn(eq(List.of(1L)), eq(PENDING), eq(Payment.PaymentStatus.PROCESSING),
+                any())).thenReturn(1);
+
+        CompletableFuture<Payment> result = paymentService.processPayment(1L);
+        acquirer.calls.get(0).completeExceptionally(new AcquirerException("connection reset after approval"));
+
+        assertEquals(Payment.PaymentStatus.PROCESSING, result.get(2, TimeUnit.SECONDS).getStatus());
+        verify(paymentRepository, never()).updateStatusIn(any(), eq(PROCESSING), any(), any());
+        verify(eventPublisher, never()).publishEvent(argThat(isTransition(Payment.PaymentStatus.FAILED)));
+    }
+
+    @Test
+    void testProcessPayment_ErrorBeforeSendingFails() throws Exception {
+        findByIdReturns(payment, withStatus(Payment.PaymentStatus.PROCESSING),
+                withStatus(Payment.PaymentStatus.FAILED));
+        when(paymentRepository.updateStatusIn(eq(List.of(1L)), eq(PENDING), eq(Payment.PaymentStatus.PROCESSING),
+                any())).thenReturn(1);
+        when(paymentRepository.updateStatusIn(eq(List.of(1L)), eq(PROCESSING), eq(Payment.PaymentStatus.FAILED),
+                any())).thenReturn(1);
+
+        CompletableFuture<Payment> result = paymentService.processPayment(1L);
+        acquirer.calls.get(0).completeExceptionally(new AcquirerNotSentException("connection refused"));
+
+        assertEquals(Payment.PaymentStatus.FAILED, result.get(2, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    void testProcessPayment_PaymentMovedMeanwhileIsLeftAlone() throws Exception {
+        findByIdReturns(payment, withStatus(Payment.PaymentStatus.PROCESSING),
+                withStatus(Payment.PaymentStatus.CANCELLED));
+        when(paymentRepository.updateStatusIn(eq(List.of(1L)), eq(PENDING), eq(Payment.PaymentStatus.PROCESSING),
+                any())).thenReturn(1);
+        when(paymentRepository.updateStatusIn(eq(List.of(1L)), eq(PROCESSING), eq(Payment.PaymentStatus.COMPLETED),
+                any())).thenReturn(0);
+
+        CompletableFuture<Payment> result = paymentService.processPayment(1L);
+        acquirer.calls.get(0).complete(AcquirerResponse.approved("REF-1"));
+
+        assertEquals(Payment.PaymentStatus.CANCELLED, result.get(2, TimeUnit.SECONDS).getStatus());
+        verify(eventPublisher, never()).publishEvent(argThat(isTransition(Payment.PaymentStatus.COMPLETED)));
+    }
+
+    @Test
+    void testProcessPayment_LostRaceToProcessingGivesTheAdmissionBack() {
+        findByIdReturns(payment, withStatus(Payment.PaymentStatus.CANCELLED));
+        when(paymentRepository.updateStatusIn(eq(List.of(1L)), eq(PENDING), eq(Payment.PaymentStatus.PROCESSING),
+                any())).thenReturn(0);
+
+        assertThrows(PaymentException.class, () -> paymentService.processPayment(1L));
+
+        assertEquals(0, acquirer.calls.size());
+        gateway.admit("CARD").cancel();
+    }
+
+    @Test
+    void testProcessPayment_AdmissionRejectedLeavesThePaymentPending() {
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        AcquirerGateway.Admission held = gateway.admit("CARD");
+
+        assertThrows(AcquirerUnavailableException.class, () -> paymentService.processPayment(1L));
+
+        verify(paymentRepository, never()).updateStatusIn(any(), any(), any(), any());
+        held.cancel();
+    }
+
+    @Test
+    void testProcessPayment_TimeoutLeavesProcessingUntilTheLateAnswer() throws Exception {
+        findByIdReturns(payment, withStatus(Payment.PaymentStatus.PROCESSING),
+                withStatus(Payment.PaymentStatus.COMPLETED));
+        when(paymentRepository.updateStatusIn(eq(List.of(1L)), eq(PENDING), eq(Payment.PaymentStatus.PROCESSING),
+                any())).thenReturn(1);
+        when(paymentRepository.updateStatusIn(eq(List.of(1L)), eq(PROCESSING), eq(Payment.PaymentStatus.COMPLETED),
+                any())).thenReturn(1);
+
+        CompletableFuture<Payment> result = paymentService.processPayment(1L);
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(AcquirerTimeoutException.class, thrown.getCause());
+        verify(paymentRepository, never()).updateStatusIn(any(), eq(PROCESSING), any(), any());
+
+        acquirer.calls.get(0).complete(AcquirerResponse.approved("REF-LATE"));
+        verify(paymentRepository, timeout(2000)).updateStatusIn(eq(List.of(1L)), eq(PROCESSING),
+                eq(Payment.PaymentStatus.COMPLETED), any());
+    }
+
+    private static ArgumentMatcher<Object> isTransition(Payment.PaymentStatus target) {
+        return event -> event instanceof PaymentStatusChangedEvent change
+                && change.getPreviousStatus() == Payment.PaymentStatus.PROCESSING && change.getStatus() == target;
+    }
+
+    /**
+     * Stub findById to return the given states of the payment in turn, then the last one again.
+     */
+    private void findByIdReturns(Payment... states) {
+        OngoingStubbing<Optional<Payment>> stubbing = when(paymentRepository.findById(1L));
+        for (Payment state : states) {
+            stubbing = stubbing.thenReturn(Optional.of(state));
+        }
+    }
+
+    private Payment withStatus(Payment.PaymentStatus status) {
+        Payment copy = new Payment();
+        copy.setId(payment.getId());
+        copy.setTransactionId(payment.getTransactionId());
+        copy.setMerchantId(payment.getMerchantId());
+        copy.setAmount(payment.getAmount());
+        copy.setCurrency(payment.getCurrency());
+        copy.setPaymentMethod(payment.getPaymentMethod());
+        copy.setStatus(status);
+        return copy;
+    }
+
+    private static final class StubAcquirer implements AcquirerClient {
+
+        private final List<AcquirerRequest> requests = new CopyOnWriteArrayList<>();
+        private final List<CompletableFuture<AcquirerResponse>> calls = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String getName() {
+            return "stub";
+        }
+
+        @Override
+        public Set<String> getPaymentMethods() {
+            return Set.of("CARD");
+        }
+
+        @Override
+        public CompletableFuture<AcquirerResponse> authorize(AcquirerRequest request) {
+            CompletableFuture<AcquirerResponse> call = new CompletableFuture<>();
+            requests.add(request);
+            calls.add(call);
+            return call;
+        }
+    }
+}
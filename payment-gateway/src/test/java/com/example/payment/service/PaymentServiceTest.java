@@ -1,21 +1,31 @@
 package com.example.payment.service;
 
+import com.example.payment.acquirer.AcquirerGateway;
+import com.example.payment.archive.PaymentArchiveService;
+import com.example.payment.datasource.ReadYourWritesTracker;
 import com.example.payment.exception.InvalidPaymentException;
 import com.example.payment.exception.PaymentNotFoundException;
+import com.example.payment.groupcommit.PaymentGroupCommitter;
 import com.example.payment.model.Payment;
 import com.example.payment.dto.PaymentRequest;
 import com.example.payment.repository.PaymentRepository;
+import com.example.payment.stream.PaymentStatusChangedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -34,6 +44,24 @@ class PaymentServiceTest {
     @Mock
     private PaymentRepository paymentRepository;
 
+    @Mock
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Mock
+    private PaymentArchiveService paymentArchiveService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AcquirerGateway acquirerGateway;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<PaymentGroupCommitter> groupCommitter;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -175,6 +203,22 @@ class PaymentServiceTest {
         verify(paymentRepository, times(1)).findByMerchantId("MERCHANT_123");
     }
 
+    @Test
+    void testGetPaymentsByTransactionIds_LooksUpMissingInOneArchivePass() {
+        Payment archived = new Payment();
+        archived.setId(2L);
+        archived.setTransactionId("TXN-ARCHIVED");
+        when(paymentRepository.findByTransactionIdIn(any())).thenReturn(List.of(savedPayment));
+        when(paymentArchiveService.findByTransactionIds(Set.of("TXN-ARCHIVED", "TXN-UNKNOWN")))
+                .thenReturn(List.of(archived));
+
+        List<Payment> result = paymentService.getPaymentsByTransactionIds(
+                List.of("TXN-12345", "TXN-ARCHIVED", "TXN-UNKNOWN"));
+
+        assertEquals(List.of(savedPayment, archived), result);
+        verify(paymentArchiveService, times(1)).findByTransactionIds(any());
+    }
+
     @Test
     void testRefundPayment_Success() {
         // Arrange
@@ -189,6 +233,10 @@ class PaymentServiceTest {
         assertNotNull(result);
         assertEquals(Payment.PaymentStatus.REFUNDED, result.getStatus());
         verify(paymentRepository, times(1)).save(any(Payment.class));
+        ArgumentCaptor<PaymentStatusChangedEvent> event = ArgumentCaptor.forClass(PaymentStatusChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(Payment.PaymentStatus.COMPLETED, event.getValue().getPreviousStatus());
+        assertEquals(Payment.PaymentStatus.REFUNDED, event.getValue().getStatus());
     }
 
     @Test
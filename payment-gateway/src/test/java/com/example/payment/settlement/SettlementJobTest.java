@@ -0,0 +1,176 @@
+package com.example.payment.settlement;
+
+import com.example.payment.config.SettlementProperties;
+import com.example.payment.dto.SettlementSummary;
+import com.example.payment.repository.JobLockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for SettlementJob against an in-memory H2 database.
+ */
+@ExtendWith(MockitoExtension.class)
+class SettlementJobTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 15);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private JobLockRepository jobLockRepository;
+
+    private DataSource dataSource;
+    private SettlementProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:settlement-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE payments (id BIGINT PRIMARY KEY, merchant_id VARCHAR(255), "
+                + "currency VARCHAR(3), amount NUMERIC(10,2), status VARCHAR(20), completed_at TIMESTAMP, "
+                + "refunded_at TIMESTAMP)");
+        long id = 1;
+        for (int i = 0; i < 10; i++) {
+            insert(jdbc, id++, "MERCHANT_A", "USD", "10.00", "COMPLETED", i, null);
+        }
+        insert(jdbc, id++, "MERCHANT_A", "USD", "4.50", "REFUNDED", 11, 13);
+        insert(jdbc, id++, "MERCHANT_A", "USD", "20.00", "REFUNDED", -3, 14);
+        insert(jdbc, id++, "MERCHANT_A", "EUR", "7.25", "COMPLETED", 11, null);
+        insert(jdbc, id++, "MERCHANT_B", "INR", "100.00", "COMPLETED", 12, null);
+        insert(jdbc, id++, "MERCHANT_B", "INR", "30.00", "COMPLETED", 1, null);
+        insert(jdbc, id++, "MERCHANT_B", "INR", "55.00", "PENDING", null, null);
+        insert(jdbc, id++, "MERCHANT_B", "INR", "99.00", "COMPLETED", 30, null);
+        insert(jdbc, id++, "MERCHANT_B", "INR", "12.00", "REFUNDED", 2, 28);
+
+        properties = new SettlementProperties();
+        properties.setDirectory(directory.toString());
+        properties.setChunkSize(3);
+        properties.setCheckpointInterval(1);
+        properties.setParallelism(2);
+    }
+
+    @Test
+    void testSettle_WritesOneFilePerMerchant() throws Exception {
+        holdingTheLease();
+
+        SettlementSummary summary = job(new JdbcTemplate(dataSource)).settle(DAY);
+
+        assertEquals(17, summary.getPaymentsSettled());
+        assertEquals(2, summary.getFiles());
+        assertFalse(summary.isResumedFromCheckpoint());
+        assertFalse(summary.isSkipped());
+        assertMerchantFiles();
+    }
+
+    @Test
+    void testSettle_ResumesFromCheckpoint() throws Exception {
+        holdingTheLease();
+        JdbcTemplate failing = new FailingJdbcTemplate(dataSource, 6);
+        assertThrows(DataAccessException.class, () -> job(failing).settle(DAY));
+        assertTrue(Files.exists(directory.resolve(DAY.toString()).resolve("checkpoint.bin")));
+
+        SettlementSummary summary = job(new JdbcTemplate(dataSource)).settle(DAY);
+
+        assertTrue(summary.isResumedFromCheckpoint());
+        assertEquals(17, summary.getPaymentsSettled());
+        assertMerchantFiles();
+        assertFalse(Files.exists(directory.resolve(DAY.toString()).resolve("checkpoint.bin")));
+    }
+
+    @Test
+    void testSettle_SkipsWhileAnotherInstanceHoldsTheLease() throws Exception {
+        when(jobLockRepository.claim(eq(SettlementJob.LOCK_NAME), anyString(), any(), any())).thenReturn(0);
+        when(jobLockRepository.existsById(SettlementJob.LOCK_NAME)).thenReturn(true);
+
+        SettlementSummary summary = job(new JdbcTemplate(dataSource)).settle(DAY);
+
+        assertTrue(summary.isSkipped());
+        assertEquals(0, summary.getPaymentsSettled());
+        assertFalse(Files.exists(directory.resolve(DAY.toString())));
+    }
+
+    private SettlementJob job(JdbcTemplate jdbcTemplate) {
+        return new SettlementJob(jdbcTemplate, properties, jobLockRepository,
+                new DataSourceTransactionManager(dataSource));
+    }
+
+    private void holdingTheLease() {
+        when(jobLockRepository.claim(eq(SettlementJob.LOCK_NAME), anyString(), any(), any())).thenReturn(1);
+    }
+
+    private void assertMerchantFiles() throws Exception {
+        Path dayDirectory = directory.resolve(DAY.toString());
+        List<String> merchantA = Files.readAllLines(dayDirectory.resolve("settlement-2024-03-15-MERCHANT_A.csv"));
+        assertEquals(List.of(
+                "merchant_id,currency,completed_count,gross_amount,refund_count,refund_amount,net_amount",
+                "MERCHANT_A,EUR,1,7.25,0,0.00,7.25",
+                "MERCHANT_A,USD,11,104.50,2,24.50,80.00"), merchantA);
+        List<String> merchantB = Files.readAllLines(dayDirectory.resolve("settlement-2024-03-15-MERCHANT_B.csv"));
+        assertEquals("MERCHANT_B,INR,3,142.00,0,0.00,142.00", merchantB.get(1));
+    }
+
+    /**
+     * Insert a payment completed and refunded at the given hours of the settlement day, if any.
+     */
+    private static void insert(JdbcTemplate jdbc, long id, String merchant, String currency, String amount,
+                               String status, Integer completedHour, Integer refundedHour) {
+        jdbc.update("INSERT INTO payments VALUES (?, ?, ?, ?, ?, ?, ?)", id, merchant, currency,
+                new BigDecimal(amount), status, at(completedHour), at(refundedHour));
+    }
+
+    private static Timestamp at(Integer hour) {
+        return hour == null ? null : Timestamp.valueOf(DAY.atStartOfDay().plusHours(hour));
+    }
+
+    /**
+     * JdbcTemplate that fails after a number of chunk reads, simulating a crash.
+     */
+    private static final class FailingJdbcTemplate extends JdbcTemplate {
+
+        private int remaining;
+
+        FailingJdbcTemplate(DataSource dataSource, int successfulReads) {
+            super(dataSource);
+            this.remaining = successfulReads;
+        }
+
+        @Override
+        public void query(String sql, PreparedStatementSetter pss, RowCallbackHandler rch) {
+            if (remaining-- <= 0) {
+                throw new DataAccessResourceFailureException("Simulated connection loss");
+            }
+            super.query(sql, pss, rch);
+        }
+    }
+}
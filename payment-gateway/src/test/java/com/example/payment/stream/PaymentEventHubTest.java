@@ -0,0 +1,226 @@
+package com.example.payment.stream;
+
+import com.example.payment.config.StreamProperties;
+import com.example.payment.controller.PaymentStreamController;
+import com.example.payment.exception.ServiceOverloadedException;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Tests for PaymentEventHub through the stream endpoints, fed by a fake change feed.
+ */
+class PaymentEventHubTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)");
+    private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    /**
+     * Latest change of each payment, as the change feed keeps it.
+     */
+    private final Map<Long, Payment> feed = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<PaymentEventHub> hubs = new ArrayList<>();
+    private StreamProperties properties;
+    private PaymentRepository paymentRepository;
+    private PaymentEventHub hub;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StreamProperties();
+        properties.setReplayBufferSize(8);
+        paymentRepository = mock(PaymentRepository.class);
+        when(paymentRepository.findLastChangeSequence()).thenAnswer(invocation -> sequence.get());
+        when(paymentRepository.findAllChanges(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            return feed.values().stream()
+                    .filter(payment -> payment.getChangeSequence() > after)
+                    .sorted(Comparator.comparing(Payment::getChangeSequence))
+                    .limit(page.getPageSize())
+                    .map(payment -> PROJECTIONS.createProjection(PaymentRepository.ChangeView.class, payment))
+                    .collect(Collectors.toList());
+        });
+        hub = newHub();
+        mockMvc = mockMvc(hub);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hubs.forEach(PaymentEventHub::shutdown);
+    }
+
+    @Test
+    void testMerchantStream_ReceivesOnlyItsMerchantsChanges() throws Exception {
+        MockHttpServletResponse response = subscribe("/api/v1/payments/merchant/MERCHANT_A/events", null);
+
+        commit(1L, "MERCHANT_B", Payment.PaymentStatus.COMPLETED);
+        commit(2L, "MERCHANT_A", Payment.PaymentStatus.COMPLETED);
+        hub.pollChanges();
+
+        String content = awaitContent(response, "\"paymentId\":2");
+        assertTrue(content.contains("event:status"));
+        assertFalse(content.contains("\"paymentId\":1"));
+        assertEquals(1, hub.getSubscriberCount());
+    }
+
+    @Test
+    void testResume_ReplaysMissedEventsOrResets() throws Exception {
+        MockHttpServletResponse first = subscribe("/api/v1/payments/merchant/MERCHANT_A/events", null);
+        commit(1L, "MERCHANT_A", Payment.PaymentStatus.PROCESSING);
+        hub.pollChanges();
+        Matcher lastId = EVENT_ID.matcher(awaitContent(first, "\"paymentId\":1"));
+        assertTrue(lastId.find());
+
+        commit(1L, "MERCHANT_A", Payment.PaymentStatus.COMPLETED);
+        commit(3L, "MERCHANT_B", Payment.PaymentStatus.COMPLETED);
+        hub.pollChanges();
+        MockHttpServletResponse resumed = subscribe("/api/v1/payments/merchant/MERCHANT_A/events",
+                lastId.group(1));
+        String replayed = awaitContent(resumed, "\"status\":\"COMPLETED\"");
+        assertFalse(replayed.contains("PROCESSING"));
+        assertFalse(replayed.contains("\"paymentId\":3"));
+
+        for (long id = 10; id < 20; id++) {
+            commit(id, "MERCHANT_B", Payment.PaymentStatus.PENDING);
+        }
+        hub.pollChanges();
+        MockHttpServletResponse stale = subscribe("/api/v1/payments/merchant/MERCHANT_A/events",
+                lastId.group(1));
+        assertTrue(awaitContent(stale, "event:reset").contains("data:reset"));
+    }
+
+    @Test
+    void testPoll_WithoutSubscribers_OnlyNotesFeedPosition() throws Exception {
+        commit(1L, "MERCHANT_A", Payment.PaymentStatus.PROCESSING);
+        hub.pollChanges();
+        verify(paymentRepository, never()).findAllChanges(anyLong(), any(Pageable.class));
+
+        // Resuming from before the noted position cannot be replayed
+        MockHttpServletResponse resumed = subscribe("/api/v1/payments/merchant/MERCHANT_A/events", "0");
+        awaitContent(resumed, "event:reset");
+        commit(1L, "MERCHANT_A", Payment.PaymentStatus.COMPLETED);
+        hub.pollChanges();
+
+        String content = awaitContent(resumed, "\"status\":\"COMPLETED\"");
+        assertFalse(content.contains("PROCESSING"));
+    }
+
+    @Test
+    void testReplicas_SubscriberSeesChangesCommittedAnywhereAndResumesOnAnother() throws Exception {
+        PaymentEventHub other = newHub();
+        MockMvc otherMockMvc = mockMvc(other);
+        MockHttpServletResponse first = subscribe("/api/v1/payments/1/events", null);
+
+        // Committed through another replica; both see it on the shared feed
+        commit(1L, "MERCHANT_A", Payment.PaymentStatus.PROCESSING);
+        hub.pollChanges();
+        Matcher lastId = EVENT_ID.matcher(awaitContent(first, "\"status\":\"PROCESSING\""));
+        assertTrue(lastId.find());
+
+        commit(1L, "MERCHANT_A", Payment.PaymentStatus.COMPLETED);
+        MockHttpServletResponse resumed = otherMockMvc.perform(get("/api/v1/payments/1/events")
+                        .header("Last-Event-ID", lastId.group(1)))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        other.pollChanges();
+
+        String content = awaitContent(resumed, "\"status\":\"COMPLETED\"");
+        assertFalse(content.contains("PROCESSING"));
+        assertFalse(content.contains("event:reset"));
+    }
+
+    @Test
+    void testSubscribe_OverLimit_Rejected() throws Exception {
+        properties.setMaxSubscribers(1);
+        MockHttpServletResponse response = subscribe("/api/v1/payments/merchant/MERCHANT_A/events", null);
+
+        assertThrows(ServiceOverloadedException.class, () -> hub.subscribeMerchant("MERCHANT_B", null));
+        assertEquals(1, hub.getSubscriberCount());
+        hub.sendHeartbeats();
+        awaitContent(response, ":heartbeat");
+    }
+
+    private PaymentEventHub newHub() {
+        PaymentEventHub created = new PaymentEventHub(properties, paymentRepository, new SimpleMeterRegistry());
+        created.pollChanges();
+        hubs.add(created);
+        return created;
+    }
+
+    private static MockMvc mockMvc(PaymentEventHub target) {
+        PaymentService paymentService = mock(PaymentService.class);
+        when(paymentService.getPaymentVersion(anyLong())).thenReturn(Optional.of("version"));
+        return MockMvcBuilders.standaloneSetup(new PaymentStreamController(target, paymentService)).build();
+    }
+
+    /**
+     * Commit a status change and sequence it, replacing the payment's previous change.
+     */
+    private void commit(Long paymentId, String merchantId, Payment.PaymentStatus status) {
+        Payment payment = new Payment();
+        payment.setId(paymentId);
+        payment.setTransactionId("TXN-" + paymentId);
+        payment.setMerchantId(merchantId);
+        payment.setStatus(status);
+        payment.setUpdatedAt(LocalDateTime.now());
+        payment.setChangeSequence(sequence.incrementAndGet());
+        feed.put(paymentId, payment);
+    }
+
+    private MockHttpServletResponse subscribe(String path, String lastEventId) throws Exception {
+        MvcResult result = mockMvc.perform(lastEventId == null ? get(path) : get(path).header("Last-Event-ID",
+                        lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return result.getResponse();
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            content = response.getContentAsString();
+        }
+        assertTrue(content.contains(expected), () -> "Expected " + expected + " in " + response);
+        return content;
+    }
+}
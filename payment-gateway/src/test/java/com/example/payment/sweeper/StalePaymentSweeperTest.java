@@ -0,0 +1,126 @@
+package com.example.payment.sweeper;
+
+import com.example.payment.config.DataSourceRoutingProperties;
+import com.example.payment.config.SweeperProperties;
+import com.example.payment.datasource.ReadYourWritesTracker;
+import com.example.payment.model.Payment;
+import com.example.payment.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for StalePaymentSweeper. Runs without a test transaction so that
+ * row locks are taken and released as they are in production.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StalePaymentSweeperTest {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StalePaymentSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        SweeperProperties properties = new SweeperProperties();
+        properties.setChunkSize(2);
+        properties.setPauseBetweenChunks(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new StalePaymentSweeper(paymentRepository, new JdbcTemplate(dataSource), transactionManager,
+                new ReadYourWritesTracker(new DataSourceRoutingProperties()), properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    void testSweep_MovesOnlyExpiredPayments() {
+        for (int i = 0; i < 5; i++) {
+            create(i, Payment.PaymentStatus.PENDING, Duration.ofHours(1));
+        }
+        Payment fresh = create(5, Payment.PaymentStatus.PENDING, Duration.ofMinutes(1));
+        Payment stuck = create(6, Payment.PaymentStatus.PROCESSING, Duration.ofMinutes(10));
+        Payment completed = create(7, Payment.PaymentStatus.COMPLETED, Duration.ofHours(1));
+
+        assertEquals(6, sweeper.sweep());
+
+        assertEquals(5, paymentRepository.findAll().stream()
+                .filter(payment -> payment.getStatus() == Payment.PaymentStatus.CANCELLED).count());
+        assertEquals(Payment.PaymentStatus.PENDING, statusOf(fresh));
+        assertEquals(Payment.PaymentStatus.FAILED, statusOf(stuck));
+        assertEquals(Payment.PaymentStatus.COMPLETED, statusOf(completed));
+        assertEquals(5.0, meterRegistry.counter("payment.sweeper.swept", "from", "PENDING", "to", "CANCELLED")
+                .count());
+        assertEquals(0, sweeper.sweep());
+    }
+
+    @Test
+    void testSweep_SkipsRowsLockedByAnotherTransaction() throws Exception {
+        Payment locked = create(0, Payment.PaymentStatus.PENDING, Duration.ofHours(1));
+        Payment free = create(1, Payment.PaymentStatus.PENDING, Duration.ofHours(1));
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement lock = connection.prepareStatement(
+                    "SELECT id FROM payments WHERE id = ? FOR UPDATE")) {
+                lock.setLong(1, locked.getId());
+                lock.executeQuery().close();
+            }
+
+            assertEquals(1, sweeper.sweep());
+            connection.rollback();
+        }
+
+        assertEquals(Payment.PaymentStatus.PENDING, statusOf(locked));
+        assertEquals(Payment.PaymentStatus.CANCELLED, statusOf(free));
+        assertEquals(1, sweeper.sweep());
+        assertEquals(Payment.PaymentStatus.CANCELLED, statusOf(locked));
+    }
+
+    private Payment create(int index, Payment.PaymentStatus status, Duration age) {
+        Payment payment = new Payment();
+        payment.setMerchantId("MERCHANT_A");
+        payment.setAmount(new BigDecimal("15.00"));
+        payment.setCurrency("EUR");
+        payment.setPaymentMethod("CARD");
+        payment.setCustomerEmail("customer" + index + "@example.com");
+        payment.setTransactionId("TXN-SWEEP-" + index);
+        payment.setStatus(status);
+        Payment saved = paymentRepository.save(payment);
+        new JdbcTemplate(dataSource).update("UPDATE payments SET updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minus(age)), saved.getId());
+        return saved;
+    }
+
+    private Payment.PaymentStatus statusOf(Payment payment) {
+        return paymentRepository.findById(payment.getId()).orElseThrow().getStatus();
+    }
+}
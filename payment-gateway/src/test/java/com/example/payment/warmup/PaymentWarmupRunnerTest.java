@@ -0,0 +1,58 @@
+package com.example.payment.warmup;
+
+import com.example.payment.health.WarmupHealthIndicator;
+import com.example.payment.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the JIT warm-up against the application context with a short budget.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:warmup",
+        "spring.jpa.show-sql=false",
+        "payment.warmup.enabled=true",
+        "payment.warmup.time-budget=2s",
+        "payment.warmup.check-interval=200ms"
+})
+class PaymentWarmupRunnerTest {
+
+    @Autowired
+    private PaymentWarmupRunner runner;
+
+    @Autowired
+    private WarmupHealthIndicator healthIndicator;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void warmupDrivesPaymentsWithoutCommittingAndThenReportsReady() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (runner.getResult() == null && System.nanoTime() < deadline) {
+            Status status = healthIndicator.health().getStatus();
+            if (runner.getResult() == null) {
+                assertEquals(Status.OUT_OF_SERVICE, status);
+            }
+            Thread.sleep(50);
+        }
+
+        PaymentWarmupRunner.Result result = runner.getResult();
+        assertNotEquals(PaymentWarmupRunner.Outcome.FAILED, result.outcome());
+        assertTrue(result.iterations() > 0);
+        assertEquals(0, paymentRepository.count());
+
+        Health health = healthIndicator.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(result.duration().toMillis(), health.getDetails().get("durationMs"));
+    }
+}
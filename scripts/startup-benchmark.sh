@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# Startup-time harness: measures wall-clock time from JVM launch until
+# /actuator/health/readiness answers UP, for the plain `java -jar` launch and for the
+# fast-start launch used by the Docker image (unpacked classpath, CDS archive,
+# fast-start profile).
+#
+# Requires a JDK (for the jar tool) and curl.
+#
+# Usage: mvn -B package -DskipTests && scripts/startup-benchmark.sh [runs]
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+JAR=$(ls payment-gateway/target/payment-gateway-*.jar | grep -v -- '-plain' | head -n 1)
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+# Same layout as the Docker image: CDS needs jars on a plain classpath
+(cd "$WORK" && jar -xf "$OLDPWD/$JAR" BOOT-INF && jar -cf application.jar -C BOOT-INF/classes .)
+CLASSPATH_FAST="$WORK/application.jar:$WORK/BOOT-INF/lib/*"
+
+echo "Training CDS archive..."
+java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.context.exit=onRefresh \
+    -Dspring.profiles.active=fast-start -Dpayment.acquirer.simulator.enabled=true \
+    -cp "$CLASSPATH_FAST" com.example.payment.PaymentApplication > "$WORK/training.log" 2>&1
+
+# Prints milliseconds until the readiness endpoint reports UP.
+measure() {
+    local start end pid
+    start=$(date +%s%N)
+    # Startup only: the JIT warm-up that would follow has its own budget and reports its duration.
+    # The application does not start without an acquirer, so the simulator stands in.
+    "$@" --server.port="$PORT" --payment.warmup.enabled=false --payment.acquirer.simulator.enabled=true \
+        > "$WORK/run.log" 2>&1 &
+    pid=$!
+    until curl -sf "http://localhost:$PORT/actuator/health/readiness" | grep -q '"status":"UP"'; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            cat "$WORK/run.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    end=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo $(( (end - start) / 1000000 ))
+}
+
+# Prints min / median / max of the run times.
+report() {
+    local label=$1
+    shift
+    local times=()
+    for _ in $(seq "$RUNS"); do
+        times+=("$(measure "$@")")
+    done
+    sorted=($(printf '%s\n' "${times[@]}" | sort -n))
+    printf '%-12s min %6d ms  median %6d ms  max %6d ms\n' "$label" \
+        "${sorted[0]}" "${sorted[$(( ${#sorted[@]} / 2 ))]}" "${sorted[-1]}"
+}
+
+report "plain" java -jar "$JAR"
+report "fast-start" java -XX:SharedArchiveFile="$WORK/app.jsa" -Dspring.profiles.active=fast-start \
+    -cp "$CLASSPATH_FAST" com.example.payment.PaymentApplication
@@ -1,40 +0,0 @@
-package com.example.payment.exception;
-
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-import java.time.LocalDateTime;
-import java.util.List;
-
-/**
- * Standard error response structure for API exceptions.
- */
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class ErrorResponse {
-
-    private LocalDateTime timestamp;
-    private int status;
-    private String error;
-    private String message;
-    private String path;
-    private List<String> details;
-
-    /**
-     * Creates an ErrorResponse with a single message.
-     *
-     * @param status HTTP status code
-     * @param error error type
-     * @param message error message
-     * @param path request path
-     */
-    public ErrorResponse(int status, String error, String message, String path) {
-        this.timestamp = LocalDateTime.now();
-        this.status = status;
-        this.error = error;
-        this.message = message;
-        this.path = path;
-    }
-}
@@ -1,93 +0,0 @@
-package com.example.payment.model;
-
-import jakarta.persistence.*;
-import jakarta.validation.constraints.*;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
-
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
-
-/**
- * Payment entity representing a payment transaction.
- * Stores payment details, status, and audit information.
- */
-@Entity
-@Table(name = "payments")
-@EntityListeners(AuditingEntityListener.class)
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class Payment {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    @NotBlank(message = "Merchant ID is required")
-    @Column(nullable = false)
-    private String merchantId;
-
-    @NotNull(message = "Amount is required")
-    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
-    @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal amount;
-
-    @NotBlank(message = "Currency is required")
-    @Pattern(regexp = "^(USD|EUR|GBP|INR)$", message = "Invalid currency code")
-    @Column(nullable = false, length = 3)
-    private String currency;
-
-    @NotBlank(message = "Payment method is required")
-    @Column(nullable = false)
-    private String paymentMethod;
-
-    @Email(message = "Invalid customer email")
-    @Column(nullable = false)
-    private String customerEmail;
-
-    @Column(nullable = false, length = 20)
-    @Enumerated(EnumType.STRING)
-    private PaymentStatus status = PaymentStatus.PENDING;
-
-    @Column(length = 500)
-    private String description;
-
-    @Column(unique = true, updatable = false)
-    private String transactionId;
-
-    @CreatedDate
-    @Column(nullable = false, updatable = false)
-    private LocalDateTime createdAt;
-
-    @LastModifiedDate
-    @Column(nullable = false)
-    private LocalDateTime updatedAt;
-
-    /**
-     * Payment status enumeration.
-     */
-    public enum PaymentStatus {
-        PENDING,
-        PROCESSING,
-        COMPLETED,
-        FAILED,
-        REFUNDED,
-        CANCELLED
-    }
-
-    /**
-     * Pre-persist callback to generate transaction ID.
-     */
-    @PrePersist
-    protected void onCreate() {
-        if (transactionId == null) {
-            transactionId = "TXN-" + System.currentTimeMillis() + "-" + 
-                           (int) (Math.random() * 10000);
-        }
-    }
-}